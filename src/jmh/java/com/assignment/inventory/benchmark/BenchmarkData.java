@@ -0,0 +1,136 @@
+package com.assignment.inventory.benchmark;
+
+import com.assignment.inventory.InventoryApplication;
+import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.service.InventoryRollupService;
+import com.assignment.inventory.service.InventorySearchService;
+import com.assignment.inventory.service.OutboxPublisher;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the application against an embedded H2 database and fills it with a generated catalog.
+ * Product i has category "category-(i % 50)", brand "brand-(i % 200)", supplier i % 500, unit price (i % 1000) / 10
+ * and i % 3 inventory details cycling through the transaction statuses and the types of TRANSACTION_TYPES.
+ */
+public class BenchmarkData {
+
+    public static final int CATEGORIES = 50;
+    public static final int BRANDS = 200;
+    public static final int SUPPLIERS = 500;
+    public static final String[] TRANSACTION_TYPES = {"SALE", "PURCHASE", "RETURN"};
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Starts the application on a random port with a private in-memory H2 database.
+     *
+     * @param name the name of the in-memory database
+     * @param properties additional application properties as key=value
+     * @return the started application context
+     */
+    public static ConfigurableApplicationContext start(String name, String... properties) {
+        return start(name, List.of("test"), properties);
+    }
+
+    /**
+     * Starts the application on a random port with a private in-memory H2 database and the given profiles.
+     * The properties are passed as command line arguments, so they take precedence over the profiles' configuration.
+     *
+     * @param name the name of the in-memory database
+     * @param profiles the profiles to activate, later ones override earlier ones
+     * @param properties additional application properties as key=value, replacing the defaults of the same key
+     * @return the started application context
+     */
+    public static ConfigurableApplicationContext start(String name, List<String> profiles, String... properties) {
+        Map<String, String> all = new LinkedHashMap<>();
+        for (String property : List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.url=r2dbc:h2:mem:///" + name + ";DB_CLOSE_DELAY=-1",
+                "management.server.port=-1",
+                "logging.level.root=WARN")) {
+            all.put(property.substring(0, property.indexOf('=')), property);
+        }
+        for (String property : properties) {
+            all.put(property.substring(0, property.indexOf('=')), property);
+        }
+        return new SpringApplicationBuilder(InventoryApplication.class)
+                .profiles(profiles.toArray(new String[0]))
+                .run(all.values().stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    /**
+     * Inserts the generated catalog with JDBC batches, moves the ID sequences past the generated IDs and brings the state the
+     * application derives from the tables up to date. The catalog is a baseline rather than a change, so it is not published
+     * through the outbox; whatever the outbox holds when loading finishes is delivered before the benchmark measures.
+     *
+     * @param context the started application
+     * @param rows the number of inventory masters to generate
+     * @return the number of generated inventory details
+     */
+    public static int populate(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> masters = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> details = new ArrayList<>(BATCH_SIZE);
+        long transactionId = 0;
+        TransactionStatus[] statuses = TransactionStatus.values();
+
+        for (long productId = 1; productId <= rows; productId++) {
+            masters.add(new Object[]{productId, "product-" + productId, "category-" + productId % CATEGORIES,
+                    "brand-" + productId % BRANDS, 1000, (productId % 1000) / 10.0, productId % SUPPLIERS, now, now});
+            for (int i = 0; i < productId % 3; i++) {
+                transactionId++;
+                details.add(new Object[]{transactionId, productId, TRANSACTION_TYPES[(int) (transactionId % TRANSACTION_TYPES.length)],
+                        1, now, transactionId * 1.5, statuses[(int) (transactionId % statuses.length)].name()});
+            }
+            if (masters.size() == BATCH_SIZE) {
+                flush(jdbcTemplate, masters, details);
+            }
+        }
+        flush(jdbcTemplate, masters, details);
+
+        jdbcTemplate.execute("ALTER SEQUENCE inventory_master_seq RESTART WITH " + (rows + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE inventory_details_seq RESTART WITH " + (transactionId + 1));
+        synchronize(context);
+        return (int) transactionId;
+    }
+
+    /**
+     * Rebuilds the search index and reconciles the rollups, which the application otherwise only does once when it is ready,
+     * and drains the outbox, so the rows inserted behind the application are visible everywhere and no background publishing
+     * competes with the benchmark.
+     *
+     * @param context the started application
+     */
+    private static void synchronize(ConfigurableApplicationContext context) {
+        context.getBeanProvider(InventorySearchService.class).ifAvailable(InventorySearchService::rebuild);
+        context.getBeanProvider(InventoryRollupService.class).ifAvailable(InventoryRollupService::reconcile);
+        context.getBeanProvider(OutboxPublisher.class).ifAvailable(publisher -> {
+            int published;
+            do {
+                published = publisher.drain();
+            } while (published > 0);
+        });
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> masters, List<Object[]> details) {
+        jdbcTemplate.batchUpdate("INSERT INTO inventory_master (product_id, product_name, category, brand, stock_in_hand, unit_price, supplier_id, date_added, last_updated) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", masters);
+        jdbcTemplate.batchUpdate("INSERT INTO inventory_details (transaction_id, product_id, transaction_type, quantity, transaction_date, transaction_amount, transaction_status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", details);
+        masters.clear();
+        details.clear();
+    }
+}
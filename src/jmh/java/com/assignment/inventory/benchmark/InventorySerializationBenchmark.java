@@ -0,0 +1,123 @@
+package com.assignment.inventory.benchmark;
+
+import com.assignment.inventory.configuration.InventoryProtobufHttpMessageConverter;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmarks the Jackson serialization of a page of inventory masters with their inventory details in each response
+ * encoding, using mappers built like the ones of the MVC message converters. The encoded and gzipped sizes of the page
+ * are reported as the secondary results bytes and gzippedBytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventorySerializationBenchmark {
+
+    @Param({"100"})
+    int masters;
+
+    @Param({"0", "10", "100"})
+    int detailsPerMaster;
+
+    // Length of the transactionNotes of every detail, up to the 2500 characters of the column
+    @Param({"0", "2500"})
+    int notesLength;
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    String format;
+
+    private final InventoryProtobufHttpMessageConverter protobufConverter = new InventoryProtobufHttpMessageConverter();
+    private ObjectMapper objectMapper;
+    private CursorPage<InventoryMaster> page;
+    private long encodedSize;
+    private long gzippedSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        List<InventoryMaster> inventories = new ArrayList<>(masters);
+        String notes = "n".repeat(notesLength);
+        long transactionId = 0;
+        for (long productId = 1; productId <= masters; productId++) {
+            InventoryMaster inventory = new InventoryMaster();
+            inventory.setProductId(productId);
+            inventory.setProductName("product-" + productId);
+            inventory.setCategory("category-" + productId % BenchmarkData.CATEGORIES);
+            inventory.setBrand("brand-" + productId % BenchmarkData.BRANDS);
+            inventory.setStockInHand(1000);
+            inventory.setUnitPrice(productId / 10.0);
+            inventory.setSupplierId(productId % BenchmarkData.SUPPLIERS);
+            inventory.setDateAdded(new Date());
+            inventory.setLastUpdated(new Date());
+            for (int i = 0; i < detailsPerMaster; i++) {
+                InventoryDetails details = new InventoryDetails();
+                details.setTransactionId(++transactionId);
+                details.setInventoryMaster(inventory);
+                details.setTransactionType(BenchmarkData.TRANSACTION_TYPES[i % BenchmarkData.TRANSACTION_TYPES.length]);
+                details.setQuantity(1);
+                details.setTransactionDate(new Date());
+                details.setTransactionAmount(transactionId * 1.5);
+                details.setTransactionStatus(TransactionStatus.completed);
+                details.setTransactionNotes(notes);
+                inventory.getInventoryDetails().add(details);
+            }
+            inventories.add(inventory);
+        }
+        page = new CursorPage<>(inventories, (long) masters, masters);
+
+        byte[] encoded = serialize();
+        encodedSize = encoded.length;
+        gzippedSize = gzip(encoded).length;
+    }
+
+    @Benchmark
+    public byte[] serializePage(Sizes sizes) throws IOException {
+        sizes.bytes = encodedSize;
+        sizes.gzippedBytes = gzippedSize;
+        return serialize();
+    }
+
+    private byte[] serialize() throws IOException {
+        return "protobuf".equals(format) ? protobufConverter.encode(page) : objectMapper.writeValueAsBytes(page);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * The encoded and gzipped size of the page, reported by JMH next to the time of every iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+
+        public long bytes;
+        public long gzippedBytes;
+    }
+}
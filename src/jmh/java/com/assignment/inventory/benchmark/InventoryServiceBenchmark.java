@@ -0,0 +1,139 @@
+package com.assignment.inventory.benchmark;
+
+import com.assignment.inventory.exceptions.ResourceNotFoundException;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterCounts;
+import com.assignment.inventory.model.InventorySearchHit;
+import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.service.InventorySearchService;
+import com.assignment.inventory.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the service read and write paths against an embedded H2 database holding a generated catalog.
+ * Run a single size with -Djmh.params="-p rows=10000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class InventoryServiceBenchmark {
+
+    private static final int HOT_PRODUCTS = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private InventorySearchService inventorySearchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start("service-benchmark");
+        inventoryService = context.getBean(InventoryService.class);
+        inventorySearchService = context.getBean(InventorySearchService.class);
+        BenchmarkData.populate(context, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<InventoryMaster> getAllInventoriesFirstPage() {
+        return inventoryService.getAllInventories(null, null);
+    }
+
+    @Benchmark
+    public CursorPage<InventoryMaster> getAllInventoriesRandomPage() {
+        return inventoryService.getAllInventories(randomProductId(), null);
+    }
+
+    @Benchmark
+    public CursorPage<InventoryMasterCounts> getInventoryCountsRandomPage() {
+        return inventoryService.getInventoryCounts(randomProductId(), null);
+    }
+
+    @Benchmark
+    public void streamAllInventories(Blackhole blackhole) {
+        inventoryService.streamAllInventories(blackhole::consume);
+    }
+
+    // Random products across the whole catalog, mostly cache misses once the catalog exceeds the cache size
+    @Benchmark
+    public InventoryMaster getInventoryById() throws ResourceNotFoundException {
+        return inventoryService.getInventoryById(randomProductId());
+    }
+
+    // A small set of hot products, served by the cache after warmup
+    @Benchmark
+    public InventoryMaster getInventoryByIdHot() throws ResourceNotFoundException {
+        return inventoryService.getInventoryById((long) ThreadLocalRandom.current().nextInt(1, HOT_PRODUCTS + 1));
+    }
+
+    @Benchmark
+    public Page<InventoryMaster> getInventoryByFilters(FilterState state) {
+        var random = ThreadLocalRandom.current();
+        var page = PageRequest.of(0, 100);
+        return switch (state.filter) {
+            case "category" -> inventoryService.getInventoryByFilters(null, "category-" + random.nextInt(BenchmarkData.CATEGORIES),
+                    null, null, null, null, null, null, null, page);
+            case "categoryBrand" -> inventoryService.getInventoryByFilters(null, "category-" + random.nextInt(BenchmarkData.CATEGORIES),
+                    "brand-" + random.nextInt(BenchmarkData.BRANDS), null, null, null, null, null, null, page);
+            case "priceRange" -> inventoryService.getInventoryByFilters(null, null, null, 10.0, 12.0,
+                    null, null, null, null, page);
+            case "transactionStatus" -> inventoryService.getInventoryByFilters(null, null, null, null, null,
+                    null, null, TransactionStatus.completed, null, page);
+            case "supplierTransactionType" -> inventoryService.getInventoryByFilters(null, null, null, null, null,
+                    (long) random.nextInt(BenchmarkData.SUPPLIERS), null, null, "SALE", page);
+            default -> throw new IllegalArgumentException(state.filter);
+        };
+    }
+
+    // Prefix of a product number plus a brand, as typed into a search box
+    @Benchmark
+    public Page<InventorySearchHit> search() {
+        var random = ThreadLocalRandom.current();
+        return inventorySearchService.search("product " + random.nextInt(1, 1000) + " brand-" + random.nextInt(BenchmarkData.BRANDS),
+                PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public InventoryDetails createInventoryDetails() {
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductId(randomProductId());
+        InventoryDetails details = new InventoryDetails();
+        details.setInventoryMaster(inventory);
+        details.setTransactionType("SALE");
+        details.setQuantity(-1);
+        details.setTransactionStatus(TransactionStatus.completed);
+        return inventoryService.createInventoryDetails(details);
+    }
+
+    private long randomProductId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    /**
+     * The filter combination of getInventoryByFilters, kept apart so the other benchmarks do not run once per combination.
+     */
+    @State(Scope.Benchmark)
+    public static class FilterState {
+
+        @Param({"category", "categoryBrand", "priceRange", "transactionStatus", "supplierTransactionType"})
+        String filter;
+    }
+}
@@ -0,0 +1,140 @@
+package com.assignment.inventory.benchmark;
+
+import com.assignment.inventory.model.BulkItemResult;
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares write throughput and startup time of the persistence settings against H2 in MySQL mode:
+ * untuned (no JDBC batching or statement ordering), default (application.yml) and prod (application-prod.yml).
+ * The MySQL driver properties of the prod profile are accepted but ignored by H2, so the statement cache and the
+ * rewriting of batches are not measured here. Throughput is reported per written record.
+ * Run with -Djmh.include=PersistenceTuningBenchmark.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PersistenceTuningBenchmark {
+
+    private static final int RECORDS = 500;
+    private static final String URL = "jdbc:h2:mem:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORE_UNKNOWN_SETTINGS=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Param({"untuned", "default", "prod"})
+    String settings;
+
+    @Param({"10000"})
+    int rows;
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 10, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    @OperationsPerInvocation(RECORDS)
+    public List<BulkItemResult> createInventoryDetailsBulk(Writes writes) {
+        List<InventoryDetails> details = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            InventoryMaster inventory = new InventoryMaster();
+            inventory.setProductId(ThreadLocalRandom.current().nextLong(1, rows + 1));
+            InventoryDetails detail = new InventoryDetails();
+            detail.setInventoryMaster(inventory);
+            detail.setTransactionType("SALE");
+            detail.setQuantity(-1);
+            detail.setTransactionStatus(TransactionStatus.completed);
+            details.add(detail);
+        }
+        return writes.inventoryService.createInventoryDetailsBulk(details.iterator());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 10, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    @OperationsPerInvocation(RECORDS)
+    public List<BulkItemResult> saveInventoriesBulk(Writes writes) {
+        List<InventoryMaster> inventories = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            long number = ThreadLocalRandom.current().nextLong(1_000_000);
+            InventoryMaster inventory = new InventoryMaster();
+            inventory.setProductName("product-" + number);
+            inventory.setCategory("category-" + number % BenchmarkData.CATEGORIES);
+            inventory.setBrand("brand-" + number % BenchmarkData.BRANDS);
+            inventory.setStockInHand(100);
+            inventory.setUnitPrice(9.99);
+            inventory.setSupplierId(number % BenchmarkData.SUPPLIERS);
+            inventories.add(inventory);
+        }
+        return writes.inventoryService.saveInventoriesBulk(inventories.iterator());
+    }
+
+    // Start of the whole application on a database that already holds the schema and the catalog
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public void startup(Startup startup) {
+        start(settings, "startup-benchmark").close();
+    }
+
+    private static ConfigurableApplicationContext start(String settings, String database) {
+        String url = "spring.datasource.url=" + URL.formatted(database);
+        return switch (settings) {
+            case "untuned" -> BenchmarkData.start(database, url,
+                    "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+                    "spring.jpa.properties.hibernate.order_inserts=false",
+                    "spring.jpa.properties.hibernate.order_updates=false");
+            case "default" -> BenchmarkData.start(database, url);
+            case "prod" -> BenchmarkData.start(database, List.of("test", "prod"), url);
+            default -> throw new IllegalArgumentException(settings);
+        };
+    }
+
+    /**
+     * The application of the write benchmarks, started once per trial on a database holding the generated catalog.
+     */
+    @State(Scope.Benchmark)
+    public static class Writes {
+
+        private ConfigurableApplicationContext context;
+        private InventoryService inventoryService;
+
+        @Setup(Level.Trial)
+        public void setUp(PersistenceTuningBenchmark benchmark) {
+            // The prod profile only validates the schema, so it is created by a first start with the default settings
+            try (ConfigurableApplicationContext schema = start("default", "writes-benchmark")) {
+                BenchmarkData.populate(schema, benchmark.rows);
+            }
+            context = start(benchmark.settings, "writes-benchmark");
+            inventoryService = context.getBean(InventoryService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    /**
+     * The database of the startup benchmark, created with the schema and the generated catalog before the trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Startup {
+
+        @Setup(Level.Trial)
+        public void setUp(PersistenceTuningBenchmark benchmark) {
+            try (ConfigurableApplicationContext context = start("default", "startup-benchmark")) {
+                BenchmarkData.populate(context, benchmark.rows);
+            }
+        }
+    }
+}
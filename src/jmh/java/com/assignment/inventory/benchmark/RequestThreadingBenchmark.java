@@ -0,0 +1,90 @@
+package com.assignment.inventory.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request throughput and latency percentiles of platform-thread and virtual-thread request handling over HTTP,
+ * with more concurrent clients than Tomcat has platform threads. The virtual mode needs a Java 21 runtime.
+ * Run with -Djmh.include=RequestThreadingBenchmark -Djmh.params="-p rows=100000"; the sample time results contain p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class RequestThreadingBenchmark {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("user:user".getBytes(StandardCharsets.UTF_8));
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    @Param({"100000"})
+    int rows;
+
+    // Tomcat worker threads of the platform mode, small enough for the clients to exhaust them
+    @Param({"50"})
+    int tomcatThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("virtual threads need Java 21, running " + Runtime.version());
+        }
+        context = BenchmarkData.start("threading-benchmark",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + tomcatThreads,
+                "server.tomcat.accept-count=1000",
+                "server.tomcat.max-connections=10000");
+        BenchmarkData.populate(context, rows);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Master with details of a random product, mostly cache misses for a large catalog
+    @Benchmark
+    public int getInventoryById() throws IOException, InterruptedException {
+        return get("/inventory/" + ThreadLocalRandom.current().nextInt(1, rows + 1));
+    }
+
+    // Filter query across a random category, always reaching the database
+    @Benchmark
+    public int getInventoryByFilters() throws IOException, InterruptedException {
+        return get("/inventory/filter?category=category-" + ThreadLocalRandom.current().nextInt(BenchmarkData.CATEGORIES) + "&size=20");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", AUTHORIZATION)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200 && response.statusCode() != 503) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
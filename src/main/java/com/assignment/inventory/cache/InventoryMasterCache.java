@@ -0,0 +1,166 @@
+package com.assignment.inventory.cache;
+
+import com.assignment.inventory.model.InventoryMaster;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of inventory masters keyed by product ID.
+ * Unknown product IDs are cached as empty entries for a shorter time so repeated lookups of missing products do not reach the database.
+ * Entries are futures so a load never runs inside a lock of the cache, which would pin the carrier thread of a virtual thread
+ * for the duration of the query.
+ */
+@Component
+public class InventoryMasterCache implements MeterBinder {
+
+    private final AsyncCache<Long, Optional<InventoryMaster>> cache;
+
+    // Loads happen outside the cache, so hits and misses are counted here
+    private final StatsCounter statsCounter = new ConcurrentStatsCounter();
+
+    public InventoryMasterCache(@Value("${inventory.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${inventory.cache.ttl:60s}") Duration ttl,
+                                @Value("${inventory.cache.negative-ttl:5s}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceExpiry(ttl, negativeTtl))
+                .recordStats(() -> statsCounter)
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached inventory master, loading it on a miss. Concurrent misses for the same product ID share a single load.
+     *
+     * @param productId the ID of the product
+     * @param loader loads the inventory master from the database
+     * @return the inventory master, or empty if the product does not exist
+     */
+    public Optional<InventoryMaster> get(Long productId, Function<Long, Optional<InventoryMaster>> loader) {
+        CompletableFuture<Optional<InventoryMaster>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<InventoryMaster>> existing = cache.asMap().putIfAbsent(productId, loading);
+        if (existing != null) {
+            // Cached or being loaded by another thread, which parks rather than pins a virtual thread while waiting
+            statsCounter.recordHits(1);
+            return join(existing);
+        }
+
+        // Load on the calling thread so the load takes part in its transaction and persistence context
+        statsCounter.recordMisses(1);
+        long start = System.nanoTime();
+        try {
+            Optional<InventoryMaster> inventory = loader.apply(productId);
+            statsCounter.recordLoadSuccess(System.nanoTime() - start);
+            loading.complete(inventory);
+            return inventory;
+        } catch (RuntimeException | Error e) {
+            statsCounter.recordLoadFailure(System.nanoTime() - start);
+            cache.asMap().remove(productId, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the cached entry of a product. When called inside a transaction the entry is removed again after commit,
+     * so a concurrent read cannot re-cache the state from before the commit.
+     *
+     * @param productId the ID of the product, ignored if null
+     */
+    public void invalidate(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        cache.synchronous().invalidate(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.synchronous().invalidate(productId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the hit, miss, load and eviction counters of the cache.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    /**
+     * Returns the approximate number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Publishes the size, hit, miss and eviction counters of the cache.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "inventoryMaster");
+    }
+
+    /**
+     * Waits for an entry loaded by another thread, rethrowing the failure of its load.
+     *
+     * @param future the entry
+     * @return the loaded value
+     */
+    private static Optional<InventoryMaster> join(CompletableFuture<Optional<InventoryMaster>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Expires found products after the regular TTL and missing products after the negative TTL.
+     */
+    private record PresenceExpiry(Duration ttl, Duration negativeTtl) implements Expiry<Long, Optional<InventoryMaster>> {
+
+        @Override
+        public long expireAfterCreate(Long key, Optional<InventoryMaster> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Optional<InventoryMaster> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Optional<InventoryMaster> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.assignment.inventory.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Short-lived cache of credentials that passed the password check, so repeated requests with the same credentials skip BCrypt.
+ * Entries are keyed by an HMAC of the username and password under a random per-instance key, so plain passwords are never kept,
+ * and hold the encoded password they were verified against, so an entry stops matching once the password of the user changes.
+ */
+@Component
+public class VerifiedCredentialCache implements MeterBinder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, String> cache;
+    private final SecretKeySpec key;
+
+    public VerifiedCredentialCache(@Value("${inventory.security.credential-cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${inventory.security.credential-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    /**
+     * Returns the encoded password the credentials were last verified against.
+     *
+     * @param username the username
+     * @param password the raw password
+     * @return the encoded password, or null if the credentials were not verified recently
+     */
+    public String getVerified(String username, String password) {
+        return cache.getIfPresent(keyOf(username, password));
+    }
+
+    /**
+     * Records credentials that passed the password check.
+     *
+     * @param username the username
+     * @param password the raw password
+     * @param encodedPassword the encoded password of the user the credentials were verified against
+     */
+    public void putVerified(String username, String password, String encodedPassword) {
+        cache.put(keyOf(username, password), encodedPassword);
+    }
+
+    /**
+     * Removes the entry of the credentials.
+     *
+     * @param username the username
+     * @param password the raw password
+     */
+    public void invalidate(String username, String password) {
+        cache.invalidate(keyOf(username, password));
+    }
+
+    /**
+     * Removes every entry, for example after users were changed or removed.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private String keyOf(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            // Separator that cannot occur in a username so "ab"+"c" and "a"+"bc" never share a key
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Publishes the size, hit, miss and eviction counters of the cache.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "verifiedCredentials");
+    }
+}
@@ -0,0 +1,22 @@
+package com.assignment.inventory.common;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Account checks shared by the Basic credentials and the bearer tokens, so both accept exactly the same users.
+ */
+public class AccountStatus {
+
+    private AccountStatus() {
+    }
+
+    /**
+     * Tells whether a user may authenticate.
+     *
+     * @param user the user to check
+     * @return true if the account is enabled and not locked, and neither the account nor its credentials have expired
+     */
+    public static boolean isUsable(UserDetails user) {
+        return user.isEnabled() && user.isAccountNonLocked() && user.isAccountNonExpired() && user.isCredentialsNonExpired();
+    }
+}
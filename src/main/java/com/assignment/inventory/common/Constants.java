@@ -1,6 +1,45 @@
 package com.assignment.inventory.common;
 
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+
 public class Constants {
     public static final String PRODUCT_NOT_FOUND_ERROR_MESSAGE="product not found";
     public static final String DETAIL_NOT_FOUND_ERROR_MESSAGE = "detail not found";
+    public static final String INVALID_SORT_ERROR_MESSAGE = "invalid sort property";
+    public static final String INVALID_DATE_RANGE_ERROR_MESSAGE = "from must not be after to";
+    public static final String MISSING_CREDENTIALS_ERROR_MESSAGE = "missing credentials";
+    public static final String ROLLUPS_DISABLED_ERROR_MESSAGE = "rollups are disabled";
+    public static final String SEARCH_DISABLED_ERROR_MESSAGE = "search is disabled";
+    public static final String INVALID_SEARCH_QUERY_ERROR_MESSAGE = "q must contain a letter or digit";
+    public static final String EVENTS_DISABLED_ERROR_MESSAGE = "the change feed is disabled";
+    public static final String TOO_MANY_SUBSCRIBERS_ERROR_MESSAGE = "the change feed has reached its subscriber limit, retry later";
+    public static final String INVALID_WATERMARK_ERROR_MESSAGE = "since must be a watermark returned by a previous changes request";
+    public static final String WATERMARK_EXPIRED_ERROR_MESSAGE = "since is older than the tombstone retention, resynchronize from the start";
+    public static final String INVALID_IDEMPOTENCY_KEY_ERROR_MESSAGE = "Idempotency-Key must be 1 to 255 characters";
+    public static final String IDEMPOTENCY_KEY_IN_PROGRESS_ERROR_MESSAGE = "a request with this Idempotency-Key is still in progress, retry later";
+    public static final String IDEMPOTENCY_KEY_REUSED_ERROR_MESSAGE = "Idempotency-Key was already used for a different request";
+    public static final String IDEMPOTENCY_KEY_NOT_JSON_ERROR_MESSAGE = "requests with an Idempotency-Key are answered with JSON, which Accept does not allow";
+    public static final String IMPORT_DISABLED_ERROR_MESSAGE = "catalog import is disabled";
+    public static final String IMPORT_IN_PROGRESS_ERROR_MESSAGE = "another catalog import is in progress, retry later";
+    public static final String EXPORT_DISABLED_ERROR_MESSAGE = "export is disabled";
+    public static final String EXPORT_IN_PROGRESS_ERROR_MESSAGE = "another export to files is in progress, retry later";
+    public static final String ARCHIVE_DISABLED_ERROR_MESSAGE = "archiving is disabled";
+    public static final String ARCHIVE_IN_PROGRESS_ERROR_MESSAGE = "archiving is already running, retry later";
+    public static final String INVALID_PRODUCT_RANGE_ERROR_MESSAGE = "fromProductId must not be after toProductId";
+
+    public static final int DEFAULT_PAGE_LIMIT = 100;
+    public static final int MAX_PAGE_LIMIT = 1000;
+    public static final int STREAM_FETCH_SIZE = 500;
+    public static final Set<String> SORTABLE_PROPERTIES = Set.of("productId", "productName", "category", "brand",
+            "stockInHand", "unitPrice", "supplierId", "dateAdded", "lastUpdated");
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Bounds of an open transaction date range, within the range of a MySQL DATETIME
+    public static final Date MIN_TRANSACTION_DATE = Date.from(Instant.EPOCH);
+    public static final Date MAX_TRANSACTION_DATE = Date.from(Instant.parse("9999-12-31T00:00:00Z"));
 }
@@ -1,16 +1,27 @@
 package com.assignment.inventory.configuration;
 
+import com.assignment.inventory.cache.VerifiedCredentialCache;
+import com.assignment.inventory.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -25,6 +36,14 @@ public class BasicAuthSecurity {
             "/swagger-resources"
     };
 
+    // Present when clients may exchange their credentials for a bearer token at /token
+    @Autowired(required = false)
+    TokenService tokenService;
+
+    // Answer repeated Basic credentials without a BCrypt check per request
+    @Value("${inventory.security.credential-cache.enabled:true}")
+    boolean credentialCacheEnabled;
+
     /**
      * Configures the HTTP security for the application.
      *
@@ -42,6 +61,8 @@ public class BasicAuthSecurity {
                     authorize.requestMatchers(swagger_whitelist).permitAll();
                     // Allow unauthenticated access to the /token endpoint
                     authorize.requestMatchers("/token").permitAll();
+                    // Allow the actuator endpoints, only served on the local management port
+                    authorize.requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll();
                     // Allow unauthenticated access to OPTIONS requests (CORS pre-flight requests)
                     authorize.requestMatchers(HttpMethod.OPTIONS, "/**").permitAll();
                     // Require authentication for all other requests
@@ -50,30 +71,55 @@ public class BasicAuthSecurity {
                 // Enable HTTP Basic authentication
                 .httpBasic(Customizer.withDefaults());
 
+        // Accept bearer tokens before falling back to Basic credentials
+        if (tokenService != null) {
+            http.addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class);
+        }
+
         // Build and return the SecurityFilterChain
         return http.build();
     }
 
     /**
-     * Configures in-memory authentication with two users: admin and user.
+     * Provides the in-memory users: admin with role ADMIN and user with role USER.
      *
-     * @param auth the AuthenticationManagerBuilder to configure
      * @param passwordEncoder the PasswordEncoder to use for encoding passwords
-     * @throws Exception if an error occurs during configuration
+     * @return the UserDetailsService holding both users
      */
-    @Autowired
-    public void configureGlobal(AuthenticationManagerBuilder auth, PasswordEncoder passwordEncoder) throws Exception {
-        auth.inMemoryAuthentication()
-                // Set the password encoder
-                .passwordEncoder(passwordEncoder)
+    @Bean
+    public static InMemoryUserDetailsManager userDetailsService(PasswordEncoder passwordEncoder) {
+        return new InMemoryUserDetailsManager(
                 // Configure the admin user with role ADMIN
-                .withUser("admin")
-                .password(passwordEncoder.encode("admin"))
-                .roles("ADMIN")
-                .and()
+                User.withUsername("admin")
+                        .password(passwordEncoder.encode("admin"))
+                        .roles("ADMIN")
+                        .build(),
                 // Configure the user user with role USER
-                .withUser("user")
-                .password(passwordEncoder.encode("user"))
-                .roles("USER");
+                User.withUsername("user")
+                        .password(passwordEncoder.encode("user"))
+                        .roles("USER")
+                        .build());
+    }
+
+    /**
+     * Configures authentication against the in-memory users, answering recently verified credentials from the
+     * VerifiedCredentialCache unless the cache is disabled, and timing every authentication.
+     *
+     * @param auth the AuthenticationManagerBuilder to configure
+     * @param userDetailsService the UserDetailsService holding the users
+     * @param passwordEncoder the PasswordEncoder to use for checking passwords
+     * @param verifiedCredentialCache the cache of recently verified credentials
+     * @param meterRegistry the registry of the authentication timer
+     */
+    @Autowired
+    public void configureGlobal(AuthenticationManagerBuilder auth, UserDetailsService userDetailsService,
+                                PasswordEncoder passwordEncoder, VerifiedCredentialCache verifiedCredentialCache,
+                                MeterRegistry meterRegistry) {
+        DaoAuthenticationProvider passwordCheck = new DaoAuthenticationProvider(passwordEncoder);
+        passwordCheck.setUserDetailsService(userDetailsService);
+        AuthenticationProvider provider = credentialCacheEnabled
+                ? new CachingAuthenticationProvider(passwordCheck, userDetailsService, verifiedCredentialCache)
+                : passwordCheck;
+        auth.authenticationProvider(new TimedAuthenticationProvider(provider, meterRegistry));
     }
 }
@@ -0,0 +1,72 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.cache.VerifiedCredentialCache;
+import com.assignment.inventory.common.AccountStatus;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Authenticates username and password credentials through a delegate provider doing the BCrypt check, and answers repeated
+ * credentials from the VerifiedCredentialCache instead. A cached answer still loads the user, so it only applies while the user
+ * exists, is usable and has the same encoded password as when the credentials were verified.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final UserDetailsService userDetailsService;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate,
+                                         UserDetailsService userDetailsService,
+                                         VerifiedCredentialCache verifiedCredentialCache) {
+        this.delegate = delegate;
+        this.userDetailsService = userDetailsService;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        String password = authentication.getCredentials().toString();
+
+        // Answer recently verified credentials without hashing the password again
+        String verified = verifiedCredentialCache.getVerified(username, password);
+        if (verified != null) {
+            UserDetails user = loadUser(username);
+            if (user != null && verified.equals(user.getPassword()) && AccountStatus.isUsable(user)) {
+                UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+                result.setDetails(authentication.getDetails());
+                return result;
+            }
+            verifiedCredentialCache.invalidate(username, password);
+        }
+
+        // Full check, failures are never cached
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated() && result.getPrincipal() instanceof UserDetails user && user.getPassword() != null) {
+            verifiedCredentialCache.putVerified(username, password, user.getPassword());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private UserDetails loadUser(String username) {
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.assignment.inventory.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of requests processed at the same time when requests run on virtual threads.
+ * Tomcat then no longer bounds concurrency through its thread pool, and an unbounded number of requests would queue on the
+ * connection pool until they time out. The limit is a multiple of the connection pool size; requests waiting longer than
+ * the queue timeout for a slot are rejected with 503 and a Retry-After header.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutNanos;
+
+    public ConcurrencyLimitFilter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+                                  @Value("${inventory.concurrency.requests-per-connection:4}") int requestsPerConnection,
+                                  @Value("${inventory.concurrency.queue-timeout:2s}") Duration queueTimeout) {
+        int limit = maximumPoolSize * requestsPerConnection;
+        this.permits = new Semaphore(limit, true);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        log.info("Limiting concurrent requests to {}", limit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
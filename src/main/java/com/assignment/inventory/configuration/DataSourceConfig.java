@@ -0,0 +1,26 @@
+package com.assignment.inventory.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    /**
+     * Provides the JDBC DataSource used by JPA from the spring.datasource properties.
+     * Declared explicitly because Spring Boot does not create a DataSource once the R2DBC ConnectionFactory of the reactive read API exists.
+     *
+     * @param properties the spring.datasource properties
+     * @return the Hikari connection pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.assignment.inventory.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips the inventory reads that carry a strong entity tag. Tomcat never compresses a response with a strong ETag, because
+ * the compressed bytes are a different representation than the tag describes, so these responses are compressed here
+ * instead and their tag gets a {@code -gzip} suffix, the way Apache httpd tags its compressed representations.
+ * If-None-Match tags with the suffix are matched without it, so revalidating a gzipped response still answers 304.
+ * Responses smaller than {@code server.compression.min-response-size} and content types outside of
+ * {@code server.compression.mime-types} are sent as they are.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class ETagCompressionFilter extends OncePerRequestFilter {
+
+    static final String GZIP_SUFFIX = "-gzip";
+
+    // The endpoints answering with a strong ETag; other responses are left to the compression of Tomcat
+    private static final Pattern TAGGED_PATHS = Pattern.compile("/inventory/(all|\\d+)");
+
+    private final long minResponseSize;
+    private final List<MediaType> mimeTypes;
+
+    public ETagCompressionFilter(@Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize,
+                                 @Value("${server.compression.mime-types:application/json}") String[] mimeTypes) {
+        this.minResponseSize = minResponseSize.toBytes();
+        this.mimeTypes = Arrays.stream(mimeTypes).map(String::trim).map(MediaType::parseMediaType).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !TAGGED_PATHS.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches()
+                || !acceptsGzip(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(new UncompressedTagRequest(request), buffered);
+
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        if (eTag == null || eTag.startsWith("W/")) {
+            buffered.copyBodyToResponse();
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (buffered.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+            // The client holds the representation it revalidated, which is the gzipped one if it sent the gzipped tag
+            String gzipTag = gzipTagOf(eTag);
+            if (Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH)).stream().anyMatch(header -> header.contains(gzipTag))) {
+                response.setHeader(HttpHeaders.ETAG, gzipTag);
+            }
+            buffered.copyBodyToResponse();
+            return;
+        }
+        if (buffered.getStatus() != HttpStatus.OK.value() || buffered.getContentSize() < minResponseSize || !isCompressible(buffered.getContentType())) {
+            buffered.copyBodyToResponse();
+            return;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(buffered.getContentSize() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            buffered.getContentInputStream().transferTo(gzip);
+        }
+        response.setHeader(HttpHeaders.ETAG, gzipTagOf(eTag));
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(compressed.size());
+        compressed.writeTo(response.getOutputStream());
+    }
+
+    /**
+     * Builds the tag of the gzipped representation of a strong entity tag.
+     *
+     * @param eTag the quoted strong entity tag
+     * @return the tag with the gzip suffix inside its quotes
+     */
+    static String gzipTagOf(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return mimeTypes.stream().anyMatch(mimeType -> mimeType.includes(mediaType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Presents the gzipped tags of If-None-Match as the tags of the uncompressed representation, which is what the
+     * controller compares them with.
+     */
+    private static class UncompressedTagRequest extends HttpServletRequestWrapper {
+
+        UncompressedTagRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return value != null && HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) ? withoutGzipSuffix(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            Enumeration<String> values = super.getHeaders(name);
+            if (!HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)) {
+                return values;
+            }
+            return Collections.enumeration(Collections.list(values).stream().map(UncompressedTagRequest::withoutGzipSuffix).toList());
+        }
+
+        private static String withoutGzipSuffix(String value) {
+            return value.replace(GZIP_SUFFIX + "\"", "\"");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes inventory masters, in any view, and pages of them in the Protobuf encoding of {@code proto/inventory.proto}.
+ * Jackson encodes the same properties as in JSON against the schema, so no generated classes are needed and clients can
+ * generate theirs from the same file. Properties the schema does not know are skipped.
+ */
+public class InventoryProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    private static final String SCHEMA = "/proto/inventory.proto";
+
+    private final ObjectWriter masterWriter;
+    private final ObjectWriter pageWriter;
+
+    public InventoryProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+        ProtobufMapper mapper = new ProtobufMapper();
+        mapper.enable(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        try (InputStream schema = getClass().getResourceAsStream(SCHEMA)) {
+            NativeProtobufSchema messages = ProtobufSchemaLoader.std.loadNative(schema, false);
+            this.masterWriter = mapper.writer(messages.forType("InventoryMaster"));
+            this.pageWriter = mapper.writer(messages.forType("InventoryPage"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encodes a value the converter supports, for callers outside of the MVC message conversion.
+     *
+     * @param value an inventory master, a master projection or a page of them
+     * @return the Protobuf encoding
+     * @throws IOException if the value does not match the schema
+     */
+    public byte[] encode(Object value) throws IOException {
+        return writerFor(value).writeValueAsBytes(value);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CursorPage.class.isAssignableFrom(clazz) || InventoryMaster.class.isAssignableFrom(clazz)
+                || InventoryMasterSummary.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        // Requests are only accepted as JSON
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf requests are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        writerFor(value).writeValue(outputMessage.getBody(), value);
+    }
+
+    private ObjectWriter writerFor(Object value) {
+        return value instanceof CursorPage ? pageWriter : masterWriter;
+    }
+}
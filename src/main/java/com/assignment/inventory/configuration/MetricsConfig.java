@@ -0,0 +1,36 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.metrics.QueryStatisticsListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wraps the DataSource in a proxy reporting every executed statement to the QueryStatisticsListener,
+     * so the RequestFilter can count the statements of each request.
+     *
+     * @return the BeanPostProcessor wrapping DataSource beans
+     */
+    @Bean
+    public static BeanPostProcessor queryStatisticsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryStatisticsListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
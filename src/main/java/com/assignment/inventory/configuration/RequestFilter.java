@@ -1,17 +1,87 @@
 package com.assignment.inventory.configuration;
 
+import com.assignment.inventory.metrics.RequestQueryStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
 import org.springframework.web.filter.GenericFilterBean;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Records the number and time of the SQL statements of every request per endpoint, and logs the statements of requests
+ * slower than the slow request threshold when the slow request log is enabled.
+ * Runs before the security filters so authentication queries are included.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
 public class RequestFilter extends GenericFilterBean {
 
+    private final MeterRegistry meterRegistry;
+    private final boolean slowRequestLogEnabled;
+    private final long slowRequestThresholdNanos;
+    private final int slowRequestMaxQueries;
+
+    public RequestFilter(MeterRegistry meterRegistry,
+                         @Value("${inventory.metrics.slow-request.enabled:false}") boolean slowRequestLogEnabled,
+                         @Value("${inventory.metrics.slow-request.threshold:500ms}") Duration slowRequestThreshold,
+                         @Value("${inventory.metrics.slow-request.max-queries:50}") int slowRequestMaxQueries) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestLogEnabled = slowRequestLogEnabled;
+        this.slowRequestThresholdNanos = slowRequestThreshold.toNanos();
+        this.slowRequestMaxQueries = slowRequestMaxQueries;
+    }
+
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
-        filterChain.doFilter(servletRequest,servletResponse);
+        // Only keep the statement texts when they may be logged
+        RequestQueryStats stats = RequestQueryStats.begin(slowRequestLogEnabled ? slowRequestMaxQueries : 0);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(servletRequest, servletResponse);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            RequestQueryStats.end();
+            record((HttpServletRequest) servletRequest, stats, elapsed);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryStats stats, long elapsedNanos) {
+        // Tag by the mapped pattern such as /inventory/{id}, never by the raw path, to keep the number of series bounded
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+
+        DistributionSummary.builder("inventory.request.sql.statements")
+                .description("SQL statements executed per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("inventory.request.sql.time")
+                .description("Time spent executing SQL statements per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (slowRequestLogEnabled && elapsedNanos >= slowRequestThresholdNanos) {
+            log.warn("Slow request {} {} ({}) took {} ms with {} SQL statements in {} ms: {}{}",
+                    method, request.getRequestURI(), uri, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), stats.getStatements(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getNanos()), stats.getQueries(),
+                    stats.getDroppedQueries() > 0 ? " and " + stats.getDroppedQueries() + " more" : "");
+        }
     }
-}
\ No newline at end of file
+}
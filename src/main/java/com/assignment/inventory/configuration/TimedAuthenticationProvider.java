@@ -0,0 +1,42 @@
+package com.assignment.inventory.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Records the time of every authentication of a delegate provider as inventory.authentication, tagged with its outcome.
+ */
+public class TimedAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final MeterRegistry meterRegistry;
+
+    public TimedAuthenticationProvider(AuthenticationProvider delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Authentication result = delegate.authenticate(authentication);
+            outcome = result == null ? "skipped" : "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("inventory.authentication")
+                    .description("Time to verify request credentials")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,61 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying "Authorization: Bearer token" with a token issued by the TokenService.
+ * Requests with an invalid token continue unauthenticated and are rejected by the authorization rules.
+ * The /token endpoint is skipped, so a token can only be obtained with the Basic credentials and never renewed with a token.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = TokenService.TOKEN_TYPE + " ";
+    private static final String TOKEN_PATH = "/token";
+
+    private final TokenService tokenService;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+
+    // Keeps the authentication for error dispatches of the same request, like the Basic authentication filter does
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Matched within the application rather than the servlet, whose path is empty when the dispatcher is mapped to /*
+        return TOKEN_PATH.equals(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            tokenService.verify(header.substring(PREFIX.length()).trim()).ifPresent(user -> {
+                UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+                authentication.setDetails(detailsSource.buildDetails(request));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
+            });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
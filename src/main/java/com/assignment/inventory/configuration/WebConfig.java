@@ -2,11 +2,16 @@ package com.assignment.inventory.configuration;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 @EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
@@ -35,4 +40,27 @@ public class WebConfig implements WebMvcConfigurer {
     // Set the default content type to JSON
     configurer.defaultContentType(MediaType.APPLICATION_JSON);
   }
+
+  /**
+   * Adds the Protobuf encoding of the inventory read API to the default message converters. Smile and CBOR are registered
+   * by default because their Jackson modules are on the classpath; JSON stays the default when Accept does not ask for one
+   * of them.
+   *
+   * @param converters the default message converters
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(new InventoryProtobufHttpMessageConverter());
+  }
+
+  /**
+   * Configures asynchronous request processing used by streamed responses.
+   *
+   * @param configurer the AsyncSupportConfigurer to configure
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    // Allow full catalog streams to outlive the default servlet container timeout
+    configurer.setDefaultTimeout(Duration.ofMinutes(10).toMillis());
+  }
 }
@@ -1,24 +1,92 @@
 package com.assignment.inventory.controller;
 
+import com.assignment.inventory.cache.InventoryMasterCache;
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.BadRequestException;
+import com.assignment.inventory.exceptions.ConflictException;
+import com.assignment.inventory.exceptions.GoneException;
+import com.assignment.inventory.exceptions.NotAcceptableException;
 import com.assignment.inventory.exceptions.ResourceNotFoundException;
+import com.assignment.inventory.exceptions.ServiceUnavailableException;
+import com.assignment.inventory.exceptions.UnprocessableEntityException;
+import com.assignment.inventory.model.AggregateGroup;
+import com.assignment.inventory.model.BulkItemResult;
+import com.assignment.inventory.model.ChangeWatermark;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.EventOverflowPolicy;
+import com.assignment.inventory.model.ExportFormat;
+import com.assignment.inventory.model.ExportSummary;
+import com.assignment.inventory.model.ImportFormat;
+import com.assignment.inventory.model.ImportSummary;
+import com.assignment.inventory.model.InventoryChanges;
 import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsAggregate;
+import com.assignment.inventory.model.InventoryDetailsTotals;
+import com.assignment.inventory.model.InventoryEvent;
 import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterCounts;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventoryMasterVersion;
+import com.assignment.inventory.model.InventoryRollup;
+import com.assignment.inventory.model.InventorySearchHit;
+import com.assignment.inventory.model.InventoryView;
+import com.assignment.inventory.model.RollupDimension;
 import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.search.InventorySearchIndex;
+import com.assignment.inventory.service.CatalogImportService;
+import com.assignment.inventory.service.IdempotencyService;
+import com.assignment.inventory.service.InventoryDetailsArchiver;
+import com.assignment.inventory.service.InventoryEventPublisher;
+import com.assignment.inventory.service.InventoryExportService;
+import com.assignment.inventory.service.InventoryRollupService;
+import com.assignment.inventory.service.InventorySearchService;
 import com.assignment.inventory.service.InventoryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 @RestController
 @RequestMapping("/inventory")
@@ -28,27 +96,202 @@ public class InventoryController {
     @Autowired
     InventoryService inventoryService;
 
+    @Autowired
+    InventoryMasterCache inventoryMasterCache;
+
+    @Autowired(required = false)
+    InventoryRollupService inventoryRollupService;
+
+    @Autowired(required = false)
+    InventorySearchService inventorySearchService;
+
+    @Autowired(required = false)
+    InventoryEventPublisher inventoryEventPublisher;
+
+    @Autowired(required = false)
+    IdempotencyService idempotencyService;
+
+    @Autowired(required = false)
+    CatalogImportService catalogImportService;
+
+    @Autowired(required = false)
+    InventoryExportService inventoryExportService;
+
+    @Autowired(required = false)
+    InventoryDetailsArchiver inventoryDetailsArchiver;
+
+    // Entity tag suffixes of the binary encodings selectable with Accept
+    private static final Map<String, String> BINARY_ENCODINGS = Map.of(
+            "application/x-jackson-smile", "-smile",
+            "application/cbor", "-cbor",
+            "application/x-protobuf", "-protobuf");
+
+    // Clients may store responses but have to revalidate them with the entity tag before every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Built the same way as the mapper of the MVC message converters so both produce identical JSON
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
     /**
-     * Retrieves all inventory master records.
+     * Retrieves a page of inventory master records ordered by product ID.
      *
-     * @return ResponseEntity containing a list of all InventoryMaster records
+     * @param cursor the nextCursor value returned by the previous page
+     * @param limit the maximum number of records to return
+     * @param view the projection to return: master only, master with details or master with detail counts
+     * @param request the request, checked for If-None-Match
+     * @return ResponseEntity containing a page of records in the requested view, or 304 if the page did not change
      */
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    @Operation(summary = "Get all inventories", description = "Retrieve all inventory master records")
+    @Operation(summary = "Get all inventories", description = "Retrieve inventory master records one page at a time using the nextCursor of the previous page")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = CursorPage.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<?> getAllInventories(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "details") InventoryView view,
+            HttpServletRequest request) {
+        String encoding = encodingOf(request);
+
+        // Answer revalidations of an unchanged page from the versions of its records without loading them
+        if (isConditional(request)) {
+            String eTag = pageETagOf(inventoryService.getInventoryVersions(cursor, limit), InventoryMasterVersion::getProductId, InventoryMasterVersion::getVersion, view, encoding);
+            if (notModified(request, eTag, -1)) {
+                return notModifiedResponse(eTag, null);
+            }
+        }
+
+        // Return a response entity with the requested page in the requested view
+        return switch (view) {
+            case master -> {
+                var page = inventoryService.getInventorySummaries(cursor, limit);
+                yield versioned(pageETagOf(page, InventoryMasterSummary::getProductId, InventoryMasterSummary::getVersion, view, encoding), null, page);
+            }
+            case counts -> {
+                var page = inventoryService.getInventoryCounts(cursor, limit);
+                yield versioned(pageETagOf(page, InventoryMasterCounts::getProductId, InventoryMasterCounts::getVersion, view, encoding), null, page);
+            }
+            case details -> {
+                var page = inventoryService.getAllInventories(cursor, limit);
+                yield versioned(pageETagOf(page, InventoryMaster::getProductId, InventoryMaster::getVersion, view, encoding), null, page);
+            }
+        };
+    }
+
+    /**
+     * Streams all inventory master records as newline delimited JSON.
+     *
+     * @return ResponseEntity streaming one InventoryMaster record per line
+     */
+    @GetMapping(value = "/all", produces = Constants.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Stream all inventories", description = "Stream all inventory master records as NDJSON")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = List.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = Constants.APPLICATION_NDJSON_VALUE) }),
             @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
-    public ResponseEntity<List<InventoryMaster>> getAllInventories() {
-        // Return a response entity with the list of all inventory masters
-        return ResponseEntity.ok(inventoryService.getAllInventories());
+    public ResponseEntity<StreamingResponseBody> streamAllInventories() {
+        // Keep the response stream open between records
+        ObjectWriter writer = objectMapper.writerFor(InventoryMaster.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        // Write each record as soon as it is read so the full catalog is never held in memory
+        StreamingResponseBody body = outputStream -> inventoryService.streamAllInventories(inventory -> {
+            try {
+                writer.writeValue(outputStream, inventory);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(Constants.APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    /**
+     * Streams the inventory masters joined with their inventory details as CSV, one row per detail and one for each master
+     * without details.
+     *
+     * @param format csv, csv_gzip for gzip-compressed CSV, or columnar for compressed column blocks
+     * @param from the first transaction date to include, optional; with a date range only masters with details in it are included
+     * @param to the last transaction date to include, optional
+     * @param fromProductId the first product ID to include, optional
+     * @param toProductId the last product ID to include, optional
+     * @return ResponseEntity streaming the rows ordered by product ID
+     * @throws ResourceNotFoundException if export is disabled
+     * @throws BadRequestException if from is after to or fromProductId is after toProductId
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Export masters and details", description = "Stream masters joined with their details as CSV straight from a database cursor; split large exports by product ID range")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(mediaType = Constants.TEXT_CSV_VALUE), @Content(mediaType = "application/gzip"), @Content(mediaType = "application/octet-stream") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<StreamingResponseBody> exportInventories(
+            @RequestParam(defaultValue = "csv") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to,
+            @RequestParam(required = false) Long fromProductId,
+            @RequestParam(required = false) Long toProductId) throws ResourceNotFoundException, BadRequestException {
+        InventoryExportService exportService = exportService();
+        Date until = endOfRange(from, to);
+        if (fromProductId != null && toProductId != null && fromProductId > toProductId) {
+            throw new BadRequestException(Constants.INVALID_PRODUCT_RANGE_ERROR_MESSAGE);
+        }
+
+        // Rows are written as they are fetched, so the export is never held in memory
+        StreamingResponseBody body = outputStream -> exportService.export(outputStream, format, from, until, fromProductId, toProductId);
+        String fileName = "inventory-export." + InventoryExportService.extensionOf(format);
+        MediaType contentType = switch (format) {
+            case csv -> MediaType.parseMediaType(Constants.TEXT_CSV_VALUE);
+            case csv_gzip -> MediaType.parseMediaType("application/gzip");
+            case columnar -> MediaType.APPLICATION_OCTET_STREAM;
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Exports the inventory masters joined with their inventory details to files on the server, one per product ID range,
+     * written in parallel.
+     *
+     * @param format csv, csv_gzip for gzip-compressed CSV, or columnar for compressed column blocks
+     * @param from the first transaction date to include, optional
+     * @param to the last transaction date to include, optional
+     * @param partitions the number of product ID ranges and files
+     * @return ResponseEntity containing the summary of the export with the written files
+     * @throws ResourceNotFoundException if export is disabled
+     * @throws BadRequestException if from is after to
+     * @throws ConflictException if another export to files is in progress
+     * @throws InterruptedException if the export was interrupted
+     */
+    @PostMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export masters and details to files", description = "Write masters joined with their details to one CSV file per product ID range in parallel on the server; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = ExportSummary.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<ExportSummary> exportInventoriesToFiles(
+            @RequestParam(defaultValue = "csv_gzip") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to,
+            @RequestParam(defaultValue = "4") int partitions) throws ResourceNotFoundException, BadRequestException, ConflictException, InterruptedException {
+        return ResponseEntity.ok(exportService().exportToFiles(format, from, endOfRange(from, to), Math.max(1, partitions)));
     }
 
     /**
      * Retrieves an inventory master record by product ID.
      *
      * @param productId the ID of the product to retrieve
-     * @return ResponseEntity containing the InventoryMaster record
+     * @param view the projection to return: master only, master with details or master with detail counts
+     * @param request the request, checked for If-None-Match and If-Modified-Since
+     * @return ResponseEntity containing the record in the requested view, or 304 if it did not change
      * @throws ResourceNotFoundException if the product is not found
      */
     @GetMapping("/{id}")
@@ -56,11 +299,42 @@ public class InventoryController {
     @Operation(summary = "Get inventory by ID", description = "Retrieve an inventory master record by product ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
-    public ResponseEntity<InventoryMaster> getByProductId(@PathVariable("id") Long productId) throws ResourceNotFoundException {
-        // Return a response entity with the inventory master record
-        return ResponseEntity.ok(inventoryService.getInventoryById(productId));
+    public ResponseEntity<?> getByProductId(@PathVariable("id") Long productId,
+                                            @RequestParam(defaultValue = "details") InventoryView view,
+                                            HttpServletRequest request) throws ResourceNotFoundException {
+        // Read the pending stock movements before the record, so the tag never covers more than the returned stock
+        long pending = inventoryService.getPendingStockVersion(productId);
+        String encoding = encodingOf(request);
+
+        // Answer revalidations of an unchanged product from its version without loading it
+        if (isConditional(request)) {
+            var current = inventoryService.getInventoryVersion(productId);
+            if (current.isPresent()) {
+                String eTag = eTagOf(productId, current.get().getVersion(), pending, view, encoding);
+                if (notModified(request, eTag, current.get().getLastUpdated().getTime())) {
+                    return notModifiedResponse(eTag, current.get().getLastUpdated());
+                }
+            }
+        }
+
+        // Return a response entity with the inventory master record in the requested view, tagged with its version
+        return switch (view) {
+            case master -> {
+                var inventory = inventoryService.getInventorySummaryById(productId);
+                yield versioned(eTagOf(productId, inventory.getVersion(), pending, view, encoding), inventory.getLastUpdated(), inventory);
+            }
+            case counts -> {
+                var inventory = inventoryService.getInventoryCountsById(productId);
+                yield versioned(eTagOf(productId, inventory.getVersion(), pending, view, encoding), inventory.getLastUpdated(), inventory);
+            }
+            case details -> {
+                var inventory = inventoryService.getInventoryById(productId);
+                yield versioned(eTagOf(productId, inventory.getVersion(), pending, view, encoding), inventory.getLastUpdated(), inventory);
+            }
+        };
     }
 
     /**
@@ -75,15 +349,21 @@ public class InventoryController {
      * @param dateAdded the date the product was added
      * @param transactionStatus the transaction status of the inventory details
      * @param transactionType the transaction type of the inventory details
-     * @return a list of InventoryMaster objects matching the filter criteria
+     * @param page the zero based page number
+     * @param size the maximum number of records per page
+     * @param sort the inventory master property to sort by
+     * @param direction the sort direction
+     * @return a page of InventoryMaster objects matching the filter criteria
+     * @throws BadRequestException if the sort property is not supported
      */
     @GetMapping("/filter")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    @Operation(summary = "Filter inventories", description = "Retrieve inventory masters based on filter criteria")
+    @Operation(summary = "Filter inventories", description = "Retrieve a page of inventory masters based on filter criteria")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = List.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = Page.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
-    public List<InventoryMaster> filterInventoryMasters(
+    public Page<InventoryMaster> filterInventoryMasters(
             @RequestParam(required = false) String productName,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String brand,
@@ -92,16 +372,248 @@ public class InventoryController {
             @RequestParam(required = false) Long supplierId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateAdded,
             @RequestParam(required = false) TransactionStatus transactionStatus,
-            @RequestParam(required = false) String transactionType) {
-        // Return a list of inventory masters based on the filter criteria
-        return inventoryService.getInventoryByFilters(productName, category, brand, minPrice, maxPrice, supplierId, dateAdded, transactionStatus, transactionType);
+            @RequestParam(required = false) String transactionType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "productId") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) throws BadRequestException {
+        // Only allow sorting on inventory master columns
+        if (!Constants.SORTABLE_PROPERTIES.contains(sort)) {
+            throw new BadRequestException(Constants.INVALID_SORT_ERROR_MESSAGE);
+        }
+        int pageSize = size == null ? Constants.DEFAULT_PAGE_LIMIT : Math.max(1, Math.min(size, Constants.MAX_PAGE_LIMIT));
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize, Sort.by(direction, sort));
+
+        // Return a page of inventory masters based on the filter criteria
+        return inventoryService.getInventoryByFilters(productName, category, brand, minPrice, maxPrice, supplierId, dateAdded, transactionStatus, transactionType, pageable);
+    }
+
+    /**
+     * Searches the product name, brand and category of the inventory masters.
+     *
+     * @param q the query; every word must match a word of the product exactly, as a prefix or with a typo
+     * @param page the page number, starting at 0
+     * @param size the page size
+     * @return a page of matching products, most relevant first
+     * @throws BadRequestException if the query has no letter or digit
+     * @throws ResourceNotFoundException if search is disabled
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Search inventory", description = "Search products by name, brand and category with prefix and typo tolerant matching, ranked by relevance")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = Page.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public Page<InventorySearchHit> searchInventory(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) throws BadRequestException, ResourceNotFoundException {
+        if (InventorySearchIndex.tokenize(q).isEmpty()) {
+            throw new BadRequestException(Constants.INVALID_SEARCH_QUERY_ERROR_MESSAGE);
+        }
+        int pageSize = size == null ? Constants.DEFAULT_PAGE_LIMIT : Math.max(1, Math.min(size, Constants.MAX_PAGE_LIMIT));
+
+        // Return a page of the ranked hits
+        return searchService().search(q, PageRequest.of(Math.max(page, 0), pageSize));
+    }
+
+    /**
+     * Rebuilds the search index from the inventory masters in the database.
+     *
+     * @return ResponseEntity containing the number of indexed products
+     * @throws ResourceNotFoundException if search is disabled
+     */
+    @PostMapping("/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild search index", description = "Rebuild the product search index from the database; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = Map.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<Map<String, Integer>> rebuildSearchIndex() throws ResourceNotFoundException {
+        // Return a response entity with the number of indexed products
+        return ResponseEntity.ok(Map.of("indexed", searchService().rebuild()));
+    }
+
+    /**
+     * Computes the totals of the inventory details with a transaction date between two days.
+     *
+     * @param from the first day of the range, inclusive
+     * @param to the last day of the range, inclusive
+     * @return ResponseEntity containing the number of details and the sums of their quantity and amount
+     * @throws BadRequestException if from is after to
+     */
+    @GetMapping("/details/aggregates")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Inventory detail totals", description = "Count the inventory details in a transaction date range and sum their quantity and amount")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryDetailsTotals.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<InventoryDetailsTotals> getDetailTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to) throws BadRequestException {
+        // Return a response entity with the totals of the range
+        return ResponseEntity.ok(inventoryService.getDetailTotals(from, endOfRange(from, to)));
+    }
+
+    /**
+     * Computes the totals of the inventory details with a transaction date between two days per value of a grouping.
+     *
+     * @param groupBy the dimension to group by: status, type, category, brand, supplier, day or hour
+     * @param from the first day of the range, inclusive
+     * @param to the last day of the range, inclusive
+     * @return ResponseEntity containing one aggregate per value of the grouping
+     * @throws BadRequestException if from is after to
+     */
+    @GetMapping("/details/aggregates/{groupBy}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Grouped inventory detail totals", description = "Count the inventory details in a transaction date range and sum their quantity and amount per status, type, category, brand, supplier, day or hour")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryDetailsAggregate.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<List<InventoryDetailsAggregate>> getDetailAggregates(
+            @PathVariable("groupBy") AggregateGroup groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to) throws BadRequestException {
+        // Return a response entity with one aggregate per value of the grouping
+        return ResponseEntity.ok(inventoryService.getDetailAggregates(groupBy, from, endOfRange(from, to)));
+    }
+
+    /**
+     * Archives the completed and cancelled inventory details of closed months now instead of waiting for the next scheduled run.
+     *
+     * @return ResponseEntity containing the number of archived details
+     * @throws ResourceNotFoundException if archiving is disabled
+     * @throws ConflictException if archiving is already running
+     */
+    @PostMapping("/details/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Archive inventory details", description = "Move the completed and cancelled details of closed months to the archive and keep their totals for the aggregates; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = Map.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<Map<String, Integer>> archiveDetails() throws ResourceNotFoundException, ConflictException {
+        // Return a response entity with the number of archived details
+        return ResponseEntity.ok(Map.of("archived", archiver().archive()));
+    }
+
+    /**
+     * Retrieves the masters and details created, updated or deleted after a watermark, for clients keeping a copy in sync.
+     *
+     * @param since the watermark returned by the previous request, or none to start from the beginning
+     * @param limit the maximum number of changes to return
+     * @return ResponseEntity containing the changes and the watermark for the next request
+     * @throws BadRequestException if since is not a watermark
+     * @throws GoneException if since is older than the tombstone retention
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Inventory changes", description = "Retrieve the masters and details created, updated or deleted after a watermark; pass the returned watermark as since on the next request")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryChanges.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "410", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<InventoryChanges> getChanges(@RequestParam(required = false) String since,
+                                                       @RequestParam(required = false) Integer limit) throws BadRequestException, GoneException {
+        ChangeWatermark watermark;
+        try {
+            watermark = since == null ? null : ChangeWatermark.parse(since);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(Constants.INVALID_WATERMARK_ERROR_MESSAGE);
+        }
+
+        // Return a response entity with the changes after the watermark
+        return ResponseEntity.ok(inventoryService.getChanges(watermark, limit));
+    }
+
+    /**
+     * Subscribes to the inventory changes as they commit, as server-sent events.
+     *
+     * @param productId only changes of this product
+     * @param category only changes of products in this category
+     * @param supplierId only changes of products of this supplier
+     * @param policy what is lost when the subscriber falls behind: drop the oldest events or keep the latest event per product
+     * @return the event stream
+     * @throws ResourceNotFoundException if the change feed is disabled
+     * @throws ServiceUnavailableException if the maximum number of subscriptions is open
+     */
+    @GetMapping("/events")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Inventory change feed", description = "Stream the created, updated and deleted masters and details as server-sent events once they commit, optionally filtered by product, category or supplier; an overflow event reports events lost by a slow subscriber")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryEvent.class), mediaType = "text/event-stream") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "503", content = { @Content(schema = @Schema()) }) })
+    public SseEmitter subscribeToEvents(@RequestParam(required = false) Long productId,
+                                        @RequestParam(required = false) String category,
+                                        @RequestParam(required = false) Long supplierId,
+                                        @RequestParam(defaultValue = "drop") EventOverflowPolicy policy) throws ResourceNotFoundException, ServiceUnavailableException {
+        if (inventoryEventPublisher == null) {
+            throw new ResourceNotFoundException(Constants.EVENTS_DISABLED_ERROR_MESSAGE);
+        }
+
+        // Return an emitter that stays open until the client disconnects or the subscription times out
+        return inventoryEventPublisher.subscribe(productId, category, supplierId, policy);
+    }
+
+    /**
+     * Retrieves the incrementally maintained rollups of a dimension.
+     *
+     * @param dimension the dimension: category, brand or supplier
+     * @return ResponseEntity containing the product count, stock in hand and valuation of each group
+     * @throws ResourceNotFoundException if the rollups are disabled
+     */
+    @GetMapping("/rollups/{dimension}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Inventory rollups", description = "Retrieve the product count, stock in hand and valuation per category, brand or supplier")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryRollup.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<List<InventoryRollup>> getRollups(@PathVariable("dimension") RollupDimension dimension) throws ResourceNotFoundException {
+        // Return a response entity with the rollups of the dimension
+        return ResponseEntity.ok(rollupService().getRollups(dimension));
+    }
+
+    /**
+     * Recomputes the rollups from the inventory masters and corrects the ones that drifted.
+     *
+     * @return ResponseEntity containing the number of corrected rollups
+     * @throws ResourceNotFoundException if the rollups are disabled
+     */
+    @PostMapping("/rollups/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconcile inventory rollups", description = "Recompute the rollups from the inventory masters and correct any drift; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = Map.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<Map<String, Integer>> reconcileRollups() throws ResourceNotFoundException {
+        // Return a response entity with the number of corrected rollups
+        return ResponseEntity.ok(Map.of("corrected", rollupService().reconcile()));
     }
 
     /**
      * Creates a new inventory master record.
      *
      * @param inventoryMaster the inventory master object to create
+     * @param idempotencyKey the key to execute the request once for, optional
+     * @param request the request, whose user, method and path scope the key
      * @return ResponseEntity containing the created InventoryMaster object
+     * @throws BadRequestException if the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
      */
     @PostMapping("")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
@@ -109,10 +621,115 @@ public class InventoryController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
-    public ResponseEntity<InventoryMaster> createMasterInventory(@RequestBody InventoryMaster inventoryMaster) {
+    public ResponseEntity<?> createMasterInventory(@RequestBody InventoryMaster inventoryMaster,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
         // Return a response entity with the created inventory master
-        return ResponseEntity.ok(inventoryService.createInventory(inventoryMaster));
+        return idempotent(idempotencyKey, request, inventoryMaster, () -> ResponseEntity.ok(inventoryService.createInventory(inventoryMaster)));
+    }
+
+    /**
+     * Creates or updates inventory master records in bulk from a JSON array.
+     *
+     * @param inventoryMasters the inventory master objects to save; objects with a product ID update the existing record
+     * @param idempotencyKey the key to execute the request once for, optional
+     * @param request the request, whose user, method and path scope the key
+     * @return ResponseEntity containing the result of each record in input order
+     * @throws BadRequestException if the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Bulk save inventory masters", description = "Create or update inventory master records in a single transaction; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = BulkItemResult.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<?> saveMasterInventoriesBulk(@RequestBody List<InventoryMaster> inventoryMasters,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
+        // Return a response entity with the result of each record
+        return idempotent(idempotencyKey, request, inventoryMasters,
+                () -> ResponseEntity.ok(inventoryService.saveInventoriesBulk(inventoryMasters.iterator())));
+    }
+
+    /**
+     * Creates or updates inventory master records in bulk from newline delimited JSON.
+     *
+     * @param body the request body containing one inventory master object per line
+     * @param idempotencyKey the key to execute the request once for, optional; the body is not compared on retries
+     * @param request the request, whose user, method and path scope the key
+     * @return ResponseEntity containing the result of each record in input order
+     * @throws BadRequestException if the body is not valid NDJSON or the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
+     */
+    @PostMapping(value = "/bulk", consumes = Constants.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Bulk save inventory masters from NDJSON", description = "Create or update inventory master records read line by line in a single transaction; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = BulkItemResult.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<?> saveMasterInventoriesBulkNdjson(InputStream body,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
+        // The body is streamed, so the key alone identifies the request
+        return idempotent(idempotencyKey, request, null, () -> saveInventoriesFromNdjson(body));
+    }
+
+    private ResponseEntity<List<BulkItemResult>> saveInventoriesFromNdjson(InputStream body) throws BadRequestException {
+        // Parse the records while they are written so the whole body is never held in memory
+        try (MappingIterator<InventoryMaster> inventoryMasters = objectMapper.readerFor(InventoryMaster.class).readValues(body)) {
+            return ResponseEntity.ok(inventoryService.saveInventoriesBulk(inventoryMasters));
+        } catch (IOException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (RuntimeException e) {
+            // MappingIterator reports malformed lines as runtime exceptions caused by the parse error
+            if (e.getCause() instanceof JsonProcessingException) {
+                throw new BadRequestException(e.getCause().getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Imports a catalog file of any size, creating or updating inventory masters by supplier ID and product name.
+     *
+     * @param body the catalog file, CSV with a header row or one inventory master object per line
+     * @param resumeFrom the number of leading records committed by an earlier aborted import of the same file, which are skipped
+     * @param request the request, whose content type selects the format
+     * @return ResponseEntity containing the summary of the import
+     * @throws ResourceNotFoundException if catalog import is disabled
+     * @throws ConflictException if another import is in progress
+     * @throws InterruptedException if the import was interrupted
+     */
+    @PostMapping(value = "/import", consumes = { Constants.TEXT_CSV_VALUE, Constants.APPLICATION_NDJSON_VALUE })
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import a catalog file", description = "Stream a CSV or NDJSON catalog into the inventory masters in batches, reporting invalid records instead of failing; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = ImportSummary.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<ImportSummary> importCatalog(InputStream body, @RequestParam(defaultValue = "0") long resumeFrom,
+            HttpServletRequest request) throws ResourceNotFoundException, ConflictException, InterruptedException {
+        if (catalogImportService == null) {
+            throw new ResourceNotFoundException(Constants.IMPORT_DISABLED_ERROR_MESSAGE);
+        }
+        ImportFormat format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(Constants.TEXT_CSV_VALUE))
+                ? ImportFormat.csv : ImportFormat.ndjson;
+        return ResponseEntity.ok(catalogImportService.importCatalog(body, format, Math.max(0, resumeFrom)));
     }
 
     /**
@@ -120,8 +737,14 @@ public class InventoryController {
      *
      * @param productId the ID of the product to update
      * @param inventoryMaster the inventory master object with updated information
+     * @param idempotencyKey the key to execute the request once for, optional
+     * @param request the request, whose user, method and path scope the key
      * @return ResponseEntity containing the updated InventoryMaster object
      * @throws ResourceNotFoundException if the product is not found
+     * @throws BadRequestException if the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -130,10 +753,15 @@ public class InventoryController {
             @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
-    public ResponseEntity<InventoryMaster> updateInventory(@PathVariable("id") Long productId, @RequestBody InventoryMaster inventoryMaster) throws ResourceNotFoundException {
+    public ResponseEntity<?> updateInventory(@PathVariable("id") Long productId, @RequestBody InventoryMaster inventoryMaster,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws ResourceNotFoundException, BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
         // Return a response entity with the updated inventory master
-        return ResponseEntity.ok(inventoryService.updateInventory(productId, inventoryMaster));
+        return idempotent(idempotencyKey, request, inventoryMaster,
+                () -> ResponseEntity.ok(inventoryService.updateInventory(productId, inventoryMaster)));
     }
 
     /**
@@ -159,7 +787,13 @@ public class InventoryController {
      * Creates a new inventory details record.
      *
      * @param inventoryDetails the inventory details object to create
+     * @param idempotencyKey the key to execute the request once for, optional
+     * @param request the request, whose user, method and path scope the key
      * @return ResponseEntity containing the created InventoryDetails object
+     * @throws BadRequestException if the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
      */
     @PostMapping("/details")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
@@ -168,10 +802,87 @@ public class InventoryController {
             @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
-    public ResponseEntity<InventoryDetails> createInventoryDetails(@RequestBody InventoryDetails inventoryDetails) {
+    public ResponseEntity<?> createInventoryDetails(@RequestBody InventoryDetails inventoryDetails,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
         // Return a response entity with the created inventory details
-        return ResponseEntity.ok(inventoryService.createInventoryDetails(inventoryDetails));
+        return idempotent(idempotencyKey, request, inventoryDetails,
+                () -> ResponseEntity.ok(inventoryService.createInventoryDetails(inventoryDetails)));
+    }
+
+    /**
+     * Creates inventory details records in bulk from a JSON array.
+     *
+     * @param inventoryDetails the inventory details objects to create
+     * @param idempotencyKey the key to execute the request once for, optional
+     * @param request the request, whose user, method and path scope the key
+     * @return ResponseEntity containing the result of each record in input order
+     * @throws BadRequestException if the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
+     */
+    @PostMapping(value = "/details/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Bulk create inventory details", description = "Create inventory details records in a single transaction")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = BulkItemResult.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<?> createInventoryDetailsBulk(@RequestBody List<InventoryDetails> inventoryDetails,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
+        // Return a response entity with the result of each record
+        return idempotent(idempotencyKey, request, inventoryDetails,
+                () -> ResponseEntity.ok(inventoryService.createInventoryDetailsBulk(inventoryDetails.iterator())));
+    }
+
+    /**
+     * Creates inventory details records in bulk from newline delimited JSON.
+     *
+     * @param body the request body containing one inventory details object per line
+     * @param idempotencyKey the key to execute the request once for, optional; the body is not compared on retries
+     * @param request the request, whose user, method and path scope the key
+     * @return ResponseEntity containing the result of each record in input order
+     * @throws BadRequestException if the body is not valid NDJSON or the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
+     */
+    @PostMapping(value = "/details/bulk", consumes = Constants.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Bulk create inventory details from NDJSON", description = "Create inventory details records read line by line in a single transaction")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = BulkItemResult.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<?> createInventoryDetailsBulkNdjson(InputStream body,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
+        // The body is streamed, so the key alone identifies the request
+        return idempotent(idempotencyKey, request, null, () -> createInventoryDetailsFromNdjson(body));
+    }
+
+    private ResponseEntity<List<BulkItemResult>> createInventoryDetailsFromNdjson(InputStream body) throws BadRequestException {
+        // Parse the records while they are written so the whole body is never held in memory
+        try (MappingIterator<InventoryDetails> inventoryDetails = objectMapper.readerFor(InventoryDetails.class).readValues(body)) {
+            return ResponseEntity.ok(inventoryService.createInventoryDetailsBulk(inventoryDetails));
+        } catch (IOException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (RuntimeException e) {
+            // MappingIterator reports malformed lines as runtime exceptions caused by the parse error
+            if (e.getCause() instanceof JsonProcessingException) {
+                throw new BadRequestException(e.getCause().getMessage());
+            }
+            throw e;
+        }
     }
 
     /**
@@ -179,8 +890,14 @@ public class InventoryController {
      *
      * @param transactionId the ID of the transaction to update
      * @param inventoryDetails the inventory details object with updated information
+     * @param idempotencyKey the key to execute the request once for, optional
+     * @param request the request, whose user, method and path scope the key
      * @return ResponseEntity containing the updated InventoryDetails object
      * @throws ResourceNotFoundException if the transaction is not found
+     * @throws BadRequestException if the Idempotency-Key is invalid
+     * @throws ConflictException if a request with the same Idempotency-Key is still in progress
+     * @throws UnprocessableEntityException if the Idempotency-Key was used for a different request
+     * @throws NotAcceptableException if the request has an Idempotency-Key and does not accept JSON
      */
     @PutMapping("/details/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -188,10 +905,15 @@ public class InventoryController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "409", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "406", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "422", content = { @Content(schema = @Schema()) }),
             @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
-    public ResponseEntity<InventoryDetails> updateInventoryDetail(@PathVariable("id") Long transactionId, @RequestBody InventoryDetails inventoryDetails) throws ResourceNotFoundException {
+    public ResponseEntity<?> updateInventoryDetail(@PathVariable("id") Long transactionId, @RequestBody InventoryDetails inventoryDetails,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey, HttpServletRequest request) throws ResourceNotFoundException, BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
         // Return a response entity with the updated inventory details
-        return ResponseEntity.ok(inventoryService.updateInventoryDetail(transactionId, inventoryDetails));
+        return idempotent(idempotencyKey, request, inventoryDetails,
+                () -> ResponseEntity.ok(inventoryService.updateInventoryDetail(transactionId, inventoryDetails)));
     }
 
     /**
@@ -212,4 +934,198 @@ public class InventoryController {
         inventoryService.deleteInventoryDetail(transactionId);
         return ResponseEntity.ok("");
     }
+
+    /**
+     * Retrieves the statistics of the inventory master cache.
+     *
+     * @return ResponseEntity containing the size, hit, miss and eviction counters of the cache
+     */
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get inventory cache statistics", description = "Retrieve hit, miss and eviction counters of the inventory master cache; Only Admin allowed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = Map.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        CacheStats stats = inventoryMasterCache.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", inventoryMasterCache.size());
+        body.put("hitCount", stats.hitCount());
+        body.put("missCount", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictionCount", stats.evictionCount());
+        body.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return ResponseEntity.ok(body);
+    }
+
+    private static boolean isConditional(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Evaluates If-None-Match and If-Modified-Since against the current version of a representation without touching the response.
+     *
+     * @param request the request
+     * @param eTag the entity tag of the current representation
+     * @param lastModified the last modification in milliseconds, or -1 if unknown
+     * @return true if the client already has the current representation
+     */
+    private static boolean notModified(HttpServletRequest request, String eTag, long lastModified) {
+        return new ServletWebRequest(request).checkNotModified(eTag, lastModified);
+    }
+
+    /**
+     * Executes a write request once per Idempotency-Key, or every time if it has no key or idempotency is disabled.
+     *
+     * @param idempotencyKey the Idempotency-Key of the request, or null
+     * @param request the request, whose user, method and path scope the key
+     * @param body the request body compared on retries, or null if the key alone identifies the request
+     * @param execution executes the request
+     * @return the response of the request or of the earlier request with the same key
+     */
+    private <E extends Exception> ResponseEntity<?> idempotent(String idempotencyKey, HttpServletRequest request, Object body,
+            IdempotencyService.Execution<E> execution) throws E, BadRequestException, ConflictException, UnprocessableEntityException, NotAcceptableException {
+        if (idempotencyKey == null || idempotencyService == null) {
+            return execution.execute();
+        }
+        // Keyed responses are recorded and replayed as JSON, whatever encoding the request prefers
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        try {
+            if (accept != null && MediaType.parseMediaTypes(accept).stream().noneMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON))) {
+                throw new NotAcceptableException(Constants.IDEMPOTENCY_KEY_NOT_JSON_ERROR_MESSAGE);
+            }
+        } catch (InvalidMediaTypeException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        String user = request.getUserPrincipal() == null ? "" : request.getUserPrincipal().getName();
+        return idempotencyService.execute(idempotencyKey, user + ' ' + request.getMethod() + ' ' + request.getRequestURI(), body, execution);
+    }
+
+    /**
+     * Resolves the suffix that keeps the entity tags of the binary encodings apart from JSON, following the preference
+     * order of Accept like the content negotiation does.
+     *
+     * @param request the request
+     * @return empty for JSON, otherwise a dash and the name of the encoding
+     */
+    static String encodingOf(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return "";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            String encoding = BINARY_ENCODINGS.get(mediaType.getType() + "/" + mediaType.getSubtype());
+            if (encoding != null) {
+                return encoding;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+        }
+        return "";
+    }
+
+    private static ResponseEntity<?> notModifiedResponse(String eTag, Date lastModified) {
+        var response = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT);
+        if (lastModified != null) {
+            response.lastModified(lastModified.getTime());
+        }
+        return response.build();
+    }
+
+    private static ResponseEntity<?> versioned(String eTag, Date lastModified, Object body) {
+        var response = ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT);
+        if (lastModified != null) {
+            response.lastModified(lastModified.getTime());
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Builds the entity tag of a single record from its version, which changes with every change of the product,
+     * its stock or its details. Gzipped responses get their own tag from {@code ETagCompressionFilter}.
+     *
+     * @param productId the ID of the product
+     * @param version the version of the product
+     * @param pending the pending stock movements of the product, 0 if none
+     * @param view the returned projection
+     * @param encoding the suffix of the response encoding
+     * @return the entity tag
+     */
+    private static String eTagOf(Long productId, long version, long pending, InventoryView view, String encoding) {
+        return "\"" + productId + "-" + version + (pending == 0 ? "" : "." + pending) + "-" + view + encoding + "\"";
+    }
+
+    /**
+     * Builds the entity tag of a page from the product IDs and versions of its records, so it changes when a record
+     * of the page changes, is added or is removed.
+     *
+     * @param page the page
+     * @param productIdOf extracts the product ID of a record
+     * @param versionOf extracts the version of a record
+     * @param view the returned projection
+     * @param encoding the suffix of the response encoding
+     * @return the entity tag
+     */
+    private static <T> String pageETagOf(CursorPage<T> page, Function<T, Long> productIdOf, ToLongFunction<T> versionOf, InventoryView view, String encoding) {
+        StringBuilder versions = new StringBuilder();
+        for (T item : page.getItems()) {
+            versions.append(productIdOf.apply(item)).append(':').append(versionOf.applyAsLong(item)).append(',');
+        }
+        versions.append(page.getNextCursor() != null);
+        return "\"page-" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "-" + view + encoding + "\"";
+    }
+
+    private InventorySearchService searchService() throws ResourceNotFoundException {
+        if (inventorySearchService == null) {
+            throw new ResourceNotFoundException(Constants.SEARCH_DISABLED_ERROR_MESSAGE);
+        }
+        return inventorySearchService;
+    }
+
+    private InventoryExportService exportService() throws ResourceNotFoundException {
+        if (inventoryExportService == null) {
+            throw new ResourceNotFoundException(Constants.EXPORT_DISABLED_ERROR_MESSAGE);
+        }
+        return inventoryExportService;
+    }
+
+    private InventoryDetailsArchiver archiver() throws ResourceNotFoundException {
+        if (inventoryDetailsArchiver == null) {
+            throw new ResourceNotFoundException(Constants.ARCHIVE_DISABLED_ERROR_MESSAGE);
+        }
+        return inventoryDetailsArchiver;
+    }
+
+    private InventoryRollupService rollupService() throws ResourceNotFoundException {
+        if (inventoryRollupService == null) {
+            throw new ResourceNotFoundException(Constants.ROLLUPS_DISABLED_ERROR_MESSAGE);
+        }
+        return inventoryRollupService;
+    }
+
+    /**
+     * Converts the inclusive last day of a date range into the exclusive end used by the queries.
+     *
+     * @param from the first day of the range, or null
+     * @param to the last day of the range, or null
+     * @return the start of the day after to, or null if to is null
+     * @throws BadRequestException if from is after to
+     */
+    private static Date endOfRange(Date from, Date to) throws BadRequestException {
+        if (to == null) {
+            return null;
+        }
+        if (from != null && from.after(to)) {
+            throw new BadRequestException(Constants.INVALID_DATE_RANGE_ERROR_MESSAGE);
+        }
+        return Date.from(to.toInstant().plus(1, ChronoUnit.DAYS));
+    }
 }
@@ -0,0 +1,142 @@
+package com.assignment.inventory.controller;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.BadRequestException;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.service.ReactiveInventoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * Read-only inventory API served from R2DBC. Responses are produced without blocking a thread on the database, and the
+ * NDJSON variants write each record as it is read, reading further records only as fast as the client consumes them.
+ */
+@RestController
+@RequestMapping("/reactive/inventory")
+@Tag(name = "Reactive inventory", description = "Non-blocking inventory read APIs")
+public class ReactiveInventoryController {
+
+    @Autowired
+    ReactiveInventoryService reactiveInventoryService;
+
+    /**
+     * Retrieves a page of inventory master records with their details ordered by product ID.
+     *
+     * @param cursor the nextCursor value returned by the previous page
+     * @param limit the maximum number of records to return
+     * @return Mono emitting a page of records
+     */
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Get all inventories", description = "Retrieve inventory master records one page at a time using the nextCursor of the previous page")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = CursorPage.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public Mono<CursorPage<InventoryMaster>> getAllInventories(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit) {
+        // Return the requested page
+        return reactiveInventoryService.getAllInventories(cursor, limit);
+    }
+
+    /**
+     * Streams all inventory master records with their details as newline delimited JSON.
+     *
+     * @return Flux emitting every record
+     */
+    @GetMapping(value = "/all", produces = Constants.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Stream all inventories", description = "Stream all inventory master records as NDJSON")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = Constants.APPLICATION_NDJSON_VALUE) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public Flux<InventoryMaster> streamAllInventories() {
+        // Stream the whole catalog
+        return reactiveInventoryService.streamAllInventories();
+    }
+
+    /**
+     * Retrieves an inventory master record with its details by product ID.
+     *
+     * @param productId the ID of the product to retrieve
+     * @return Mono emitting the record, or failing with ResourceNotFoundException if the product is not found
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Get inventory by ID", description = "Retrieve an inventory master record by product ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "404", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public Mono<InventoryMaster> getByProductId(@PathVariable("id") Long productId) {
+        // Return the inventory master record
+        return reactiveInventoryService.getInventoryById(productId);
+    }
+
+    /**
+     * Retrieves a page of inventory masters matching the filter criteria, as a JSON array or as newline delimited JSON.
+     *
+     * @param productName the name of the product
+     * @param category the category of the product
+     * @param brand the brand of the product
+     * @param minPrice the minimum price of the product
+     * @param maxPrice the maximum price of the product
+     * @param supplierId the ID of the supplier
+     * @param dateAdded the date the product was added
+     * @param transactionStatus the transaction status of the inventory details
+     * @param transactionType the transaction type of the inventory details
+     * @param page the zero based page number
+     * @param size the maximum number of records per page
+     * @param sort the inventory master property to sort by
+     * @param direction the sort direction
+     * @return Flux emitting the matching records of the page
+     * @throws BadRequestException if the sort property is not supported
+     */
+    @GetMapping(value = "/filter", produces = { MediaType.APPLICATION_JSON_VALUE, Constants.APPLICATION_NDJSON_VALUE })
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Filter inventories", description = "Retrieve a page of inventory masters based on filter criteria")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = InventoryMaster.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "400", content = { @Content(schema = @Schema()) }),
+            @ApiResponse(responseCode = "500", content = { @Content(schema = @Schema()) }) })
+    public Flux<InventoryMaster> filterInventoryMasters(
+            @RequestParam(required = false) String productName,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateAdded,
+            @RequestParam(required = false) TransactionStatus transactionStatus,
+            @RequestParam(required = false) String transactionType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "productId") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) throws BadRequestException {
+        // Only allow sorting on inventory master columns, the property becomes part of the SQL
+        if (!Constants.SORTABLE_PROPERTIES.contains(sort)) {
+            throw new BadRequestException(Constants.INVALID_SORT_ERROR_MESSAGE);
+        }
+        int pageSize = size == null ? Constants.DEFAULT_PAGE_LIMIT : Math.max(1, Math.min(size, Constants.MAX_PAGE_LIMIT));
+
+        // Return the matching inventory masters of the page
+        return reactiveInventoryService.getInventoryByFilters(productName, category, brand, minPrice, maxPrice, supplierId, dateAdded,
+                transactionStatus, transactionType, Math.max(page, 0), pageSize, sort, direction);
+    }
+}
@@ -0,0 +1,50 @@
+package com.assignment.inventory.controller;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.UnAuthorizedException;
+import com.assignment.inventory.model.AccessToken;
+import com.assignment.inventory.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnProperty(name = "inventory.security.token.enabled", havingValue = "true")
+@Tag(name = "Token", description = "Bearer token APIs")
+public class TokenController {
+
+    @Autowired
+    TokenService tokenService;
+
+    /**
+     * Issues a bearer token for the user authenticated by HTTP Basic credentials.
+     * Bearer tokens are not accepted on this endpoint, so every token needs the password.
+     *
+     * @param authentication the authentication of the request, null when no credentials were sent
+     * @return ResponseEntity containing the token and its lifetime in seconds
+     * @throws UnAuthorizedException if the request carries no credentials
+     */
+    @PostMapping("/token")
+    @Operation(summary = "Create token", description = "Exchange HTTP Basic credentials for a short-lived bearer token")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = { @Content(schema = @Schema(implementation = AccessToken.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "401", content = { @Content(schema = @Schema()) }) })
+    public ResponseEntity<AccessToken> createToken(Authentication authentication) throws UnAuthorizedException {
+        // The endpoint is open, so reject requests that were not authenticated by the Basic credentials
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UnAuthorizedException(Constants.MISSING_CREDENTIALS_ERROR_MESSAGE, null);
+        }
+
+        // Return a response entity with a token for the authenticated user
+        return ResponseEntity.ok(tokenService.issue(authentication.getName()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.assignment.inventory.events;
+
+import com.assignment.inventory.model.EventOverflowPolicy;
+import com.assignment.inventory.model.InventoryEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded buffer of the events published to one subscriber and not yet sent to it. Publishing never waits for a subscriber:
+ * once the buffer holds its capacity the overflow policy decides what is lost, and the number of lost events is reported
+ * with the next drain so the subscriber knows to resynchronize.
+ */
+public class EventBuffer {
+
+    private final int capacity;
+    private final EventOverflowPolicy policy;
+
+    // Keyed by event ID, or by product ID when coalescing, in the order the entries were last written
+    private final LinkedHashMap<Long, InventoryEvent> events = new LinkedHashMap<>();
+    private long dropped;
+
+    // A lock rather than synchronized so virtual threads never pin
+    private final Lock lock = new ReentrantLock();
+
+    public EventBuffer(int capacity, EventOverflowPolicy policy) {
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+    }
+
+    /**
+     * Adds an event, replacing the buffered event of the same product when coalescing and dropping the oldest entry when full.
+     *
+     * @param event the event to add
+     */
+    public void offer(InventoryEvent event) {
+        lock.lock();
+        try {
+            if (policy == EventOverflowPolicy.coalesce) {
+                // Re-insert so the product moves to the end with its latest event; a replaced event is superseded, not lost
+                events.remove(event.getProductId());
+                events.put(event.getProductId(), event);
+            } else {
+                events.put(event.getId(), event);
+            }
+            if (events.size() > capacity) {
+                Iterator<InventoryEvent> eldest = events.values().iterator();
+                eldest.next();
+                eldest.remove();
+                dropped++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all buffered events.
+     *
+     * @return the buffered events, oldest first
+     */
+    public List<InventoryEvent> drain() {
+        lock.lock();
+        try {
+            List<InventoryEvent> drained = new ArrayList<>(events.values());
+            events.clear();
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Resets the number of events lost since the previous call.
+     *
+     * @return the number of dropped events
+     */
+    public long takeDropped() {
+        lock.lock();
+        try {
+            long taken = dropped;
+            dropped = 0;
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return events.isEmpty() && dropped == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
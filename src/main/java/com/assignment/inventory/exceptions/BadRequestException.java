@@ -10,4 +10,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(value = HttpStatus.BAD_REQUEST)
 public class BadRequestException extends Exception{
     private String errorMessage;
+
+    public BadRequestException(String errorMessage){
+        super(errorMessage);
+        this.errorMessage = errorMessage;
+    }
 }
@@ -0,0 +1,15 @@
+package com.assignment.inventory.exceptions;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@Setter
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class UnprocessableEntityException extends Exception{
+    public UnprocessableEntityException(String errorMessage){
+        super(errorMessage);
+    }
+}
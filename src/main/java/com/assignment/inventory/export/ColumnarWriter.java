@@ -0,0 +1,138 @@
+package com.assignment.inventory.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes rows in a compressed columnar layout. Rows are collected into row groups of a fixed number of rows; each row group
+ * stores the values of every column in a block of its own, compressed separately, so a reader can decompress only the
+ * columns it needs and similar values compress together. Only one row group is held in memory at a time.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * file      = "INVC" version:u8 columnCount:i32 (name:utf type:u8){columnCount} rowGroup* 0:i32
+ * rowGroup  = rowCount:i32 (length:i32 block){columnCount}
+ * block     = zlib deflate of, for each row, present:u8 and when 1 the value:
+ *             LONG i64, DOUBLE f64, TIMESTAMP i64 milliseconds since the epoch, STRING length:i32 UTF-8 bytes
+ * </pre>
+ */
+public class ColumnarWriter {
+
+    public static final byte[] MAGIC = {'I', 'N', 'V', 'C'};
+    public static final int VERSION = 1;
+
+    /**
+     * Encoding of the values of a column, written to the header as its ordinal.
+     */
+    public enum Type {
+        LONG, DOUBLE, TIMESTAMP, STRING
+    }
+
+    private final DataOutputStream out;
+    private final Type[] types;
+    private final int rowGroupSize;
+
+    // Uncompressed values of the current row group, one block per column
+    private final ByteArrayOutputStream[] blocks;
+    private final DataOutputStream[] columns;
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private final Deflater deflater = new Deflater();
+    private int rows;
+
+    /**
+     * Writes the header.
+     *
+     * @param out the stream to write to, not closed
+     * @param names the names of the columns
+     * @param types the types of the columns, in the order of the names
+     * @param rowGroupSize the number of rows per row group
+     * @throws IOException if writing to the stream failed
+     */
+    public ColumnarWriter(OutputStream out, String[] names, Type[] types, int rowGroupSize) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.types = types.clone();
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.blocks = new ByteArrayOutputStream[types.length];
+        this.columns = new DataOutputStream[types.length];
+        for (int i = 0; i < types.length; i++) {
+            blocks[i] = new ByteArrayOutputStream();
+            columns[i] = new DataOutputStream(blocks[i]);
+        }
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            this.out.writeUTF(names[i]);
+            this.out.writeByte(types[i].ordinal());
+        }
+    }
+
+    /**
+     * Adds a row, writing the row group once it is full.
+     *
+     * @param values the values in column order: a Number for LONG and DOUBLE, a Date for TIMESTAMP, a String for STRING, or null
+     * @throws IOException if writing to the stream failed
+     */
+    public void write(Object[] values) throws IOException {
+        for (int i = 0; i < types.length; i++) {
+            DataOutputStream column = columns[i];
+            Object value = values[i];
+            if (value == null) {
+                column.writeByte(0);
+                continue;
+            }
+            column.writeByte(1);
+            switch (types[i]) {
+                case LONG -> column.writeLong(((Number) value).longValue());
+                case DOUBLE -> column.writeDouble(((Number) value).doubleValue());
+                case TIMESTAMP -> column.writeLong(((Date) value).getTime());
+                case STRING -> {
+                    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                    column.writeInt(bytes.length);
+                    column.write(bytes);
+                }
+            }
+        }
+        if (++rows == rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    /**
+     * Writes the last row group and the end marker and flushes the stream without closing it.
+     *
+     * @throws IOException if writing to the stream failed
+     */
+    public void finish() throws IOException {
+        try {
+            if (rows > 0) {
+                writeRowGroup();
+            }
+            out.writeInt(0);
+            out.flush();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        out.writeInt(rows);
+        for (ByteArrayOutputStream block : blocks) {
+            compressed.reset();
+            deflater.reset();
+            DeflaterOutputStream deflating = new DeflaterOutputStream(compressed, deflater);
+            block.writeTo(deflating);
+            deflating.finish();
+            out.writeInt(compressed.size());
+            compressed.writeTo(out);
+            block.reset();
+        }
+        rows = 0;
+    }
+}
@@ -0,0 +1,81 @@
+package com.assignment.inventory.importer;
+
+import com.assignment.inventory.model.ImportFormat;
+import com.assignment.inventory.model.ImportSummary;
+import com.assignment.inventory.service.CatalogImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Imports the catalog file given by {@code inventory.import.file} once the application started, for loads too large to
+ * upload. The run keeps a checkpoint next to the file and resumes from it when started again after an abort, appending to
+ * the error report of the earlier run. The application exits after the import unless {@code inventory.import.exit=false},
+ * with status 1 if the import was aborted.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.import.file")
+@ConditionalOnBean(CatalogImportService.class)
+public class CatalogImportRunner implements ApplicationRunner {
+
+    @Autowired
+    CatalogImportService catalogImportService;
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Value("${inventory.import.file}")
+    Path file;
+
+    @Value("${inventory.import.format:}")
+    String format;
+
+    @Value("${inventory.import.exit:true}")
+    boolean exit;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+        Path errorReportFile = file.resolveSibling(file.getFileName() + ".errors.ndjson");
+        long resumeFrom = ImportCheckpoint.load(checkpointFile);
+        if (resumeFrom > 0) {
+            log.info("Resuming the import of {} after record {}", file, resumeFrom);
+        }
+
+        ImportSummary summary;
+        try (InputStream in = Files.newInputStream(file)) {
+            summary = catalogImportService.importCatalog(in, formatOf(file), resumeFrom, checkpointFile, errorReportFile);
+        }
+        if (summary.getErrorReport() != null) {
+            log.warn("{} records of {} failed, see {}", summary.getFailed(), file, summary.getErrorReport());
+        }
+        if (summary.isAborted()) {
+            log.error("Import of {} aborted after {} committed records: {}; start again to resume", file,
+                    summary.getCommittedRecords(), summary.getAbortReason());
+        }
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> summary.isAborted() ? 1 : 0));
+        }
+    }
+
+    private ImportFormat formatOf(Path file) {
+        if (!format.isEmpty()) {
+            return ImportFormat.valueOf(format.toLowerCase(Locale.ROOT));
+        }
+        // Guess the format from the extension, treating anything but .csv as NDJSON
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? ImportFormat.csv : ImportFormat.ndjson;
+    }
+}
@@ -0,0 +1,136 @@
+package com.assignment.inventory.importer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the batches of an import that are done and the number of leading records that are all committed or reported,
+ * which is where an interrupted import resumes. Batches finish out of order across the writers, so only the contiguous
+ * prefix counts; records after it that were already committed are saved again on resume, which leaves the same products.
+ * With a file, the count is written there at most once per interval and replaced atomically, so a crash leaves either
+ * the previous or the new count.
+ */
+public class ImportCheckpoint {
+
+    private final Path path;
+    private final long intervalMillis;
+    private final Lock lock = new ReentrantLock();
+
+    // Last record of every done batch after the contiguous prefix, by batch sequence
+    private final TreeMap<Long, Long> done = new TreeMap<>();
+    private long nextSequence;
+    private long committedRecords;
+    private long savedAt;
+
+    /**
+     * Creates a checkpoint.
+     *
+     * @param path the file to keep the count in, or null to only track it in memory
+     * @param interval the minimum time between two writes of the file
+     * @param committedRecords the records committed by an earlier run, which the import skips
+     */
+    public ImportCheckpoint(Path path, Duration interval, long committedRecords) {
+        this.path = path;
+        this.intervalMillis = interval.toMillis();
+        this.committedRecords = committedRecords;
+    }
+
+    /**
+     * Reads the count of a checkpoint file.
+     *
+     * @param path the checkpoint file
+     * @return the number of committed records, 0 if the file does not exist
+     */
+    public static long load(Path path) {
+        try {
+            return Files.exists(path) ? Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim()) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records that every record of a batch was committed or reported.
+     *
+     * @param sequence the sequence of the batch, starting at 0 in reading order
+     * @param lastRecord the number of the last record of the batch
+     */
+    public void done(long sequence, long lastRecord) {
+        lock.lock();
+        try {
+            done.put(sequence, lastRecord);
+            while (!done.isEmpty() && done.firstKey() == nextSequence) {
+                committedRecords = done.pollFirstEntry().getValue();
+                nextSequence++;
+            }
+            if (path != null && System.currentTimeMillis() - savedAt >= intervalMillis) {
+                write();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of leading records that are all committed or reported.
+     *
+     * @return the record number to resume after
+     */
+    public long getCommittedRecords() {
+        lock.lock();
+        try {
+            return committedRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the current count to the file, at the end of an aborted import.
+     */
+    public void save() {
+        lock.lock();
+        try {
+            if (path != null) {
+                write();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the file once the import finished, so the next file of the same name starts from its beginning.
+     */
+    public void delete() {
+        lock.lock();
+        try {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() {
+        try {
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(temporary, Long.toString(committedRecords), StandardCharsets.UTF_8);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            savedAt = System.currentTimeMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.assignment.inventory.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the records an import could not save to an NDJSON file, one object per record with its number, the error and the
+ * record as read. The file is only created once the first record fails and is written as records fail, so the report
+ * never grows the memory of the import.
+ */
+public class ImportErrorReport implements Closeable {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Path path;
+    private final boolean append;
+    private boolean kept;
+    private final Lock lock = new ReentrantLock();
+    private BufferedWriter writer;
+
+    /**
+     * Creates a report. When an earlier run is resumed, its errors of the records it committed are kept and the ones of the
+     * records after them are dropped, since those records are imported again.
+     *
+     * @param path the file to write
+     * @param resumeFrom the number of records committed by the earlier run, 0 to replace its report
+     */
+    public ImportErrorReport(Path path, long resumeFrom) {
+        this.path = path;
+        this.append = resumeFrom > 0;
+        if (append && Files.exists(path)) {
+            kept = keepUpTo(resumeFrom);
+        }
+    }
+
+    /**
+     * Adds a failed record.
+     *
+     * @param number the number of the record
+     * @param error the reason it failed
+     * @param source the record as read
+     */
+    public void add(long number, String error, Object source) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("record", number);
+        line.put("error", error);
+        line.put("source", source);
+        lock.lock();
+        try {
+            if (writer == null) {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the report file.
+     *
+     * @return the path of the file, or null if no record failed
+     */
+    public Path getPath() {
+        lock.lock();
+        try {
+            return writer == null && !kept ? null : path;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean keepUpTo(long resumeFrom) {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             BufferedWriter keptWriter = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && objectMapper.readTree(line).path("record").asLong() <= resumeFrom) {
+                    keptWriter.write(line);
+                    keptWriter.newLine();
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.assignment.inventory.importer;
+
+import com.assignment.inventory.model.ImportFormat;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Reads the records of a catalog file one at a time, so files of any size are read in constant memory. CSV files start
+ * with a header row naming the InventoryMaster properties of the columns; NDJSON files hold one JSON object per line.
+ * Records are only split here: converting them is left to the validation stage, so a malformed record fails on its own
+ * and the conversion runs in parallel.
+ */
+public class ImportRecordReader implements Closeable {
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE);
+
+    /**
+     * A record of the file.
+     *
+     * @param number the position of the record in the file, starting at 1
+     * @param source the JSON text of an NDJSON record, or the column values of a CSV record by column name
+     */
+    public record Record(long number, Object source) {
+    }
+
+    private final MappingIterator<Map<String, String>> csvRecords;
+    private final BufferedReader lines;
+    private long number;
+
+    private ImportRecordReader(MappingIterator<Map<String, String>> csvRecords, BufferedReader lines) {
+        this.csvRecords = csvRecords;
+        this.lines = lines;
+    }
+
+    /**
+     * Opens a catalog file.
+     *
+     * @param in the content of the file
+     * @param format the format of the file
+     * @return the reader of its records
+     * @throws IOException if the CSV header cannot be read
+     */
+    public static ImportRecordReader open(InputStream in, ImportFormat format) throws IOException {
+        if (format == ImportFormat.csv) {
+            return new ImportRecordReader(CSV_MAPPER.readerForMapOf(String.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(in), null);
+        }
+        return new ImportRecordReader(null, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record, or null at the end of the file
+     * @throws IOException if the file cannot be read or a CSV record is malformed
+     */
+    public Record next() throws IOException {
+        if (csvRecords != null) {
+            return csvRecords.hasNextValue() ? new Record(++number, csvRecords.nextValue()) : null;
+        }
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!line.isBlank()) {
+                return new Record(++number, line);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of the last record read.
+     *
+     * @return the number of records read so far
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csvRecords != null) {
+            csvRecords.close();
+        } else {
+            lines.close();
+        }
+    }
+}
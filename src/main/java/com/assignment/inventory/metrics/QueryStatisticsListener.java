@@ -0,0 +1,29 @@
+package com.assignment.inventory.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds every statement executed through the proxied DataSource to the RequestQueryStats of the executing thread.
+ * A JDBC batch counts as one statement.
+ */
+public class QueryStatisticsListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String query = queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery()
+                : String.join("; ", queryInfoList.stream().map(QueryInfo::getQuery).toList());
+        if (execInfo.isBatch()) {
+            query = "[batch of " + execInfo.getBatchSize() + "] " + query;
+        }
+        RequestQueryStats.record(query, TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.assignment.inventory.metrics;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL statements executed by the current request thread, collected by the QueryStatisticsListener between begin and end.
+ * Statements run on other threads, such as the writer thread of a streamed response, are not counted.
+ */
+@Getter
+public class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+    // Statement texts in execution order, only kept up to maxQueries and only when requested
+    private final List<String> queries;
+    private final int maxQueries;
+    private int droppedQueries;
+
+    private RequestQueryStats(int maxQueries) {
+        this.maxQueries = maxQueries;
+        this.queries = maxQueries > 0 ? new ArrayList<>() : Collections.emptyList();
+    }
+
+    /**
+     * Starts collecting the statements of the current thread.
+     *
+     * @param maxQueries the number of statement texts to keep, 0 to only count them
+     * @return the statistics of the current thread
+     */
+    public static RequestQueryStats begin(int maxQueries) {
+        RequestQueryStats stats = new RequestQueryStats(maxQueries);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stops collecting the statements of the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds an executed statement to the statistics of the current thread, if collecting.
+     *
+     * @param query the statement text
+     * @param nanos the execution time in nanoseconds
+     */
+    static void record(String query, long nanos) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statements++;
+        stats.nanos += nanos;
+        if (stats.queries.size() < stats.maxQueries) {
+            stats.queries.add(query);
+        } else if (stats.maxQueries > 0) {
+            stats.droppedQueries++;
+        }
+    }
+}
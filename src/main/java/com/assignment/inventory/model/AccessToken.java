@@ -0,0 +1,16 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A signed bearer token issued by the /token endpoint.
+ */
+@Getter
+@AllArgsConstructor
+public class AccessToken {
+    private String accessToken;
+    private String tokenType;
+    // Lifetime of the token in seconds
+    private long expiresIn;
+}
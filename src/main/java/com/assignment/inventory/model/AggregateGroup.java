@@ -0,0 +1,14 @@
+package com.assignment.inventory.model;
+
+/**
+ * The dimension inventory details are grouped by when aggregating.
+ */
+public enum AggregateGroup {
+    status,
+    type,
+    category,
+    brand,
+    supplier,
+    day,
+    hour
+}
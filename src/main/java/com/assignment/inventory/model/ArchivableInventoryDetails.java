@@ -0,0 +1,16 @@
+package com.assignment.inventory.model;
+
+import java.util.Date;
+
+/**
+ * Projection of the inventory detail columns the archiver summarizes before moving the detail to the archive.
+ */
+public interface ArchivableInventoryDetails {
+    Long getTransactionId();
+    Long getProductId();
+    String getTransactionType();
+    int getQuantity();
+    Date getTransactionDate();
+    double getTransactionAmount();
+    TransactionStatus getTransactionStatus();
+}
@@ -0,0 +1,29 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a single item of a bulk request.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkItemResult {
+    // Position of the item in the request, starting at 0
+    private int index;
+    private Long id;
+    private BulkItemStatus status;
+    private String error;
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult(index, id, BulkItemStatus.created, null);
+    }
+
+    public static BulkItemResult updated(int index, Long id) {
+        return new BulkItemResult(index, id, BulkItemStatus.updated, null);
+    }
+
+    public static BulkItemResult failed(int index, Long id, String error) {
+        return new BulkItemResult(index, id, BulkItemStatus.failed, error);
+    }
+}
@@ -0,0 +1,5 @@
+package com.assignment.inventory.model;
+
+public enum BulkItemStatus {
+    created,updated,failed
+}
@@ -0,0 +1,82 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Position in the ordered stream of inventory changes: the change time of the last returned change and, for changes at the
+ * same time, its source and ID. Written as {@code <epoch millis>-<source>-<id>}.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ChangeWatermark implements Comparable<ChangeWatermark> {
+
+    // Sources in the order changes at the same time are returned
+    public static final int MASTER = 0;
+    public static final int DETAIL = 1;
+    public static final int TOMBSTONE = 2;
+
+    // Before every change, IDs start at 1
+    public static final ChangeWatermark START = new ChangeWatermark(0, MASTER, 0);
+
+    private long changedAt;
+    private int source;
+    private long id;
+
+    /**
+     * Parses a watermark returned by a previous changes request.
+     *
+     * @param value the watermark text
+     * @return the watermark
+     * @throws IllegalArgumentException if the text is not a watermark
+     */
+    public static ChangeWatermark parse(String value) {
+        String[] parts = value.split("-");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException(value);
+        }
+        int source = Integer.parseInt(parts[1]);
+        if (source < MASTER || source > TOMBSTONE) {
+            throw new IllegalArgumentException(value);
+        }
+        return new ChangeWatermark(Long.parseLong(parts[0]), source, Long.parseLong(parts[2]));
+    }
+
+    public Date changedAtDate() {
+        return new Date(changedAt);
+    }
+
+    /**
+     * Resolves the smallest ID of a source that is after this watermark at the watermark time, so every source can be read with
+     * the same "after time, or at time and after ID" condition.
+     *
+     * @param otherSource the source to read
+     * @return the exclusive lower ID bound of the source at the watermark time
+     */
+    public long idBoundOf(int otherSource) {
+        if (otherSource < source) {
+            // Everything of an earlier source at this time was already returned
+            return Long.MAX_VALUE;
+        }
+        return otherSource == source ? id : Long.MIN_VALUE;
+    }
+
+    @Override
+    public int compareTo(ChangeWatermark other) {
+        int byTime = Long.compare(changedAt, other.changedAt);
+        if (byTime != 0) {
+            return byTime;
+        }
+        int bySource = Integer.compare(source, other.source);
+        return bySource != 0 ? bySource : Long.compare(id, other.id);
+    }
+
+    @Override
+    public String toString() {
+        return changedAt + "-" + source + "-" + id;
+    }
+}
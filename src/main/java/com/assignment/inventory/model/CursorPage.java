@@ -0,0 +1,20 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A single page of a keyset-paginated result.
+ *
+ * @param <T> the type of the items in the page
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    // Cursor to pass on the next request, null when there are no more items
+    private Long nextCursor;
+    private int limit;
+}
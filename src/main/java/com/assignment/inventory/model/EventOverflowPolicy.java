@@ -0,0 +1,9 @@
+package com.assignment.inventory.model;
+
+/**
+ * What a change feed subscriber that falls behind loses once its buffer is full.
+ * drop: the oldest events are dropped, coalesce: only the latest event per product is kept and the oldest products are dropped.
+ */
+public enum EventOverflowPolicy {
+    drop,coalesce
+}
@@ -0,0 +1,5 @@
+package com.assignment.inventory.model;
+
+public enum ExportFormat {
+    csv,csv_gzip,columnar
+}
@@ -0,0 +1,21 @@
+package com.assignment.inventory.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outcome of an export to files.
+ */
+@Getter
+@Setter
+public class ExportSummary {
+    private ExportFormat format;
+    private long rows;
+    private int partitions;
+    // One file per product ID range, in product ID order
+    private List<String> files;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
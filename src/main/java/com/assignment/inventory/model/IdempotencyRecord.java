@@ -0,0 +1,54 @@
+package com.assignment.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Idempotency-Key shared by every instance. The row is inserted when an instance claims the key, which fails on every other
+ * instance, and completed with the response in the transaction of the request, so a response is recorded if and only if the
+ * changes of the request committed.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_record_expires", columnList = "expiresAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    // SHA-256 of the user, method, path and key of the request
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // Random token of the current claim, so an execution whose claim was taken over cannot complete the record
+    @Column(nullable = false, length = 36)
+    private String claimToken;
+
+    private boolean completed;
+
+    private Integer status;
+
+    // JSON of the response body, null until completed
+    @Lob
+    private String body;
+
+    // JSON of the response headers, null until completed
+    @Column(length = 4000)
+    private String headers;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date createdAt;
+
+    // End of the claim while in progress, end of the retention once completed
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date expiresAt;
+}
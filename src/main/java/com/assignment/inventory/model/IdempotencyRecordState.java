@@ -0,0 +1,16 @@
+package com.assignment.inventory.model;
+
+import java.util.Date;
+
+/**
+ * Projection of an idempotency record, read as columns so polling a key sees its current state rather than an entity
+ * already loaded in the persistence context of the request.
+ */
+public interface IdempotencyRecordState {
+    String getFingerprint();
+    boolean isCompleted();
+    Integer getStatus();
+    String getBody();
+    String getHeaders();
+    Date getExpiresAt();
+}
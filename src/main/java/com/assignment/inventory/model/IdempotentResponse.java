@@ -0,0 +1,19 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response of a request sent with an Idempotency-Key, returned again to retries with the same key.
+ */
+@Getter
+@AllArgsConstructor
+public class IdempotentResponse {
+    // SHA-256 of the request body, to tell a retry from a different request reusing the key
+    private String fingerprint;
+    private int status;
+    // JSON of the response body
+    private String body;
+    // JSON object of the response headers, each name with its values
+    private String headers;
+}
@@ -0,0 +1,28 @@
+package com.assignment.inventory.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Outcome of a catalog import.
+ */
+@Getter
+@Setter
+public class ImportSummary {
+    private ImportFormat format;
+    // Records read from the file, including the skipped ones
+    private long records;
+    // Records skipped because an earlier run already committed them
+    private long skipped;
+    private long created;
+    private long updated;
+    private long failed;
+    // Number of leading records that are all committed or reported; pass it as resumeFrom to continue an aborted import
+    private long committedRecords;
+    private boolean aborted;
+    private String abortReason;
+    private long elapsedMillis;
+    private long recordsPerSecond;
+    // File listing every failed record, null if none failed
+    private String errorReport;
+}
@@ -0,0 +1,21 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of the changes after a watermark: created or updated masters and details and tombstones of deleted ones.
+ */
+@Getter
+@AllArgsConstructor
+public class InventoryChanges {
+    private List<InventoryMasterSummary> masters;
+    private List<InventoryDetailsChange> details;
+    private List<InventoryTombstone> tombstones;
+    // Pass as since on the next request; unchanged when there were no changes
+    private String watermark;
+    // True when more changes are ready, request again right away
+    private boolean hasMore;
+}
@@ -9,13 +9,22 @@ import lombok.Setter;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_inventory_details_product_status_type", columnList = "product_id, transactionStatus, transactionType"),
+        @Index(name = "idx_inventory_details_product_type", columnList = "product_id, transactionType"),
+        // Covers the aggregations over a transaction date range without reading the table rows
+        @Index(name = "idx_inventory_details_date_cover", columnList = "transactionDate, product_id, transactionStatus, transactionType, quantity, transactionAmount"),
+        @Index(name = "idx_inventory_details_last_updated", columnList = "lastUpdated")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class InventoryDetails {
 
+    // Pooled sequence so inserts can be sent to the database in JDBC batches
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_details_seq")
+    @SequenceGenerator(name = "inventory_details_seq", sequenceName = "inventory_details_seq", allocationSize = 50)
     @Column(nullable = false)
     private Long transactionId;
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
@@ -37,9 +46,19 @@ public class InventoryDetails {
     @Column( length = 2500)
     private String transactionNotes;
 
+    // Set on every write, read by the change stream; null for details written before the column existed
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastUpdated;
+
     @PrePersist
     protected void onCreate() {
         transactionDate = new Date();
+        lastUpdated = transactionDate;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        lastUpdated = new Date();
     }
 
 }
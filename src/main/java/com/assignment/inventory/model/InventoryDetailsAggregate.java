@@ -0,0 +1,8 @@
+package com.assignment.inventory.model;
+
+/**
+ * Totals of the inventory details sharing one value of the grouping, such as a transaction status or a day.
+ */
+public interface InventoryDetailsAggregate extends InventoryDetailsTotals {
+    String getGroupKey();
+}
@@ -0,0 +1,51 @@
+package com.assignment.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Inventory detail of a closed period, moved out of inventory_details by the archiver with its transaction ID and columns
+ * unchanged. The product ID is kept without a foreign key so the history survives the deletion of the product.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_inventory_details_archive_product_date", columnList = "product_id, transactionDate"),
+        @Index(name = "idx_inventory_details_archive_date", columnList = "transactionDate")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class InventoryDetailsArchive {
+
+    @Id
+    @Column(nullable = false)
+    private Long transactionId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    private String transactionType;
+    private int quantity;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date transactionDate;
+
+    private String transactionDescription;
+    private double transactionAmount;
+    @Enumerated(value = EnumType.STRING)
+    private TransactionStatus transactionStatus;
+    @Column(length = 2500)
+    private String transactionNotes;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastUpdated;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date archivedAt;
+}
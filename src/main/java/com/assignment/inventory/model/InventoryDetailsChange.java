@@ -0,0 +1,19 @@
+package com.assignment.inventory.model;
+
+import java.util.Date;
+
+/**
+ * Projection of a created or updated inventory detail with the product ID it belongs to.
+ */
+public interface InventoryDetailsChange {
+    Long getTransactionId();
+    Long getProductId();
+    String getTransactionType();
+    int getQuantity();
+    Date getTransactionDate();
+    String getTransactionDescription();
+    double getTransactionAmount();
+    TransactionStatus getTransactionStatus();
+    String getTransactionNotes();
+    Date getLastUpdated();
+}
@@ -0,0 +1,55 @@
+package com.assignment.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Totals of the archived inventory details of one product, transaction status and type within one hour, written by the
+ * archiver so aggregates over archived periods read a few summary rows instead of the archived details. A key can have
+ * several rows, one per archive batch that contained it; aggregates sum them.
+ */
+@Entity
+@Table(indexes = {
+        // Covers the aggregations over a period range like idx_inventory_details_date_cover does for the details
+        @Index(name = "idx_inventory_details_summary_period_cover", columnList = "periodStart, product_id, transactionStatus, transactionType, transactionCount, totalQuantity, totalAmount"),
+        // Finds the summaries of a product when it is deleted
+        @Index(name = "idx_inventory_details_summary_product", columnList = "product_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class InventoryDetailsSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_details_summary_seq")
+    @SequenceGenerator(name = "inventory_details_summary_seq", sequenceName = "inventory_details_summary_seq", allocationSize = 50)
+    @Column(nullable = false)
+    private Long id;
+
+    // Start of the hour of the summarized transaction dates, in the time zone of the application
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date periodStart;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Enumerated(value = EnumType.STRING)
+    private TransactionStatus transactionStatus;
+    private String transactionType;
+
+    private long transactionCount;
+    private long totalQuantity;
+    private double totalAmount;
+
+    public InventoryDetailsSummary(Date periodStart, Long productId, TransactionStatus transactionStatus, String transactionType) {
+        this.periodStart = periodStart;
+        this.productId = productId;
+        this.transactionStatus = transactionStatus;
+        this.transactionType = transactionType;
+    }
+}
@@ -0,0 +1,10 @@
+package com.assignment.inventory.model;
+
+/**
+ * Number of inventory details with the sums of their quantity and transaction amount.
+ */
+public interface InventoryDetailsTotals {
+    long getTransactionCount();
+    long getTotalQuantity();
+    double getTotalAmount();
+}
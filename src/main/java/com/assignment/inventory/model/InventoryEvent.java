@@ -0,0 +1,57 @@
+package com.assignment.inventory.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Committed change of an inventory master or inventory detail, as published to subscribers of the change feed.
+ * Detail events carry the category, supplier and stock in hand of their master as read after the commit.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class InventoryEvent {
+
+    // Increases with every published event
+    private long id;
+
+    private InventoryEventType type;
+
+    private Long productId;
+
+    // Transaction ID of the detail of a detail event, null otherwise
+    private Long transactionId;
+
+    private String category;
+
+    private Long supplierId;
+
+    // Null for deleted products
+    private Integer stockInHand;
+
+    // Stock movement of a detail event, null otherwise
+    private Integer quantity;
+
+    private Date occurredAt;
+
+    public InventoryEvent(InventoryEventType type, Long productId, Long transactionId, String category, Long supplierId,
+                          Integer stockInHand, Integer quantity) {
+        this.type = type;
+        this.productId = productId;
+        this.transactionId = transactionId;
+        this.category = category;
+        this.supplierId = supplierId;
+        this.stockInHand = stockInHand;
+        this.quantity = quantity;
+        this.occurredAt = new Date();
+    }
+
+    @JsonIgnore
+    public boolean isDetailEvent() {
+        return transactionId != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.assignment.inventory.model;
+
+/**
+ * Kinds of inventory events published to subscribers of the change feed.
+ */
+public enum InventoryEventType {
+    created,updated,deleted,detail_created,detail_updated,detail_deleted
+}
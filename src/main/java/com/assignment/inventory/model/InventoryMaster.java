@@ -4,24 +4,40 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
+@Table(indexes = {
+        // Also the natural key of catalog imports, which look products up by name and supplier
+        @Index(name = "idx_inventory_master_product_name_supplier_id", columnList = "productName, supplierId"),
+        @Index(name = "idx_inventory_master_category_brand", columnList = "category, brand"),
+        @Index(name = "idx_inventory_master_brand", columnList = "brand"),
+        @Index(name = "idx_inventory_master_supplier_id", columnList = "supplierId"),
+        @Index(name = "idx_inventory_master_unit_price", columnList = "unitPrice"),
+        @Index(name = "idx_inventory_master_date_added", columnList = "dateAdded"),
+        @Index(name = "idx_inventory_master_last_updated", columnList = "lastUpdated")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class InventoryMaster {
+    // Pooled sequence so inserts can be sent to the database in JDBC batches
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_master_seq")
+    @SequenceGenerator(name = "inventory_master_seq", sequenceName = "inventory_master_seq", allocationSize = 50)
     @Column(nullable = false)
     private Long productId;
 
     private String productName;
     private String category;
     private String brand;
+    // Only set on insert; afterwards changed exclusively by the atomic stock adjustment of completed transactions
+    @Column(updatable = false)
     private int stockInHand;
     private double unitPrice;
     private Long supplierId;
@@ -35,6 +51,13 @@ public class InventoryMaster {
     private Date lastUpdated;
     private String remarks;
 
+    // Incremented by every change of the product, its stock or its details; identifies the representation in ETags
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // Lazily loaded details are fetched for up to 100 masters per query instead of one query per master
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "inventoryMaster", orphanRemoval = true)
     private Set<InventoryDetails> inventoryDetails = new LinkedHashSet<>();
 
@@ -48,5 +71,6 @@ public class InventoryMaster {
     @PreUpdate
     protected void onUpdate() {
         lastUpdated = new Date();
+        version++;
     }
 }
@@ -0,0 +1,10 @@
+package com.assignment.inventory.model;
+
+/**
+ * Projection of the inventory master columns with aggregates over its inventory details.
+ */
+public interface InventoryMasterCounts extends InventoryMasterSummary {
+    long getDetailCount();
+    long getTotalQuantity();
+    double getTotalAmount();
+}
@@ -0,0 +1,20 @@
+package com.assignment.inventory.model;
+
+import java.util.Date;
+
+/**
+ * Projection of the inventory master columns without the inventory details.
+ */
+public interface InventoryMasterSummary {
+    Long getProductId();
+    String getProductName();
+    String getCategory();
+    String getBrand();
+    int getStockInHand();
+    double getUnitPrice();
+    Long getSupplierId();
+    Date getDateAdded();
+    Date getLastUpdated();
+    String getRemarks();
+    long getVersion();
+}
@@ -0,0 +1,12 @@
+package com.assignment.inventory.model;
+
+import java.util.Date;
+
+/**
+ * Projection of the columns identifying the current representation of an inventory master, read to answer conditional requests.
+ */
+public interface InventoryMasterVersion {
+    Long getProductId();
+    long getVersion();
+    Date getLastUpdated();
+}
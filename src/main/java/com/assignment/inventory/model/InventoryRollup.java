@@ -0,0 +1,42 @@
+package com.assignment.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Product count, stock in hand and valuation (stock in hand times unit price) of the inventory masters sharing a category,
+ * brand or supplier. Maintained incrementally by the write paths and corrected by the periodic reconciliation.
+ */
+@Entity
+@IdClass(InventoryRollupId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class InventoryRollup {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private RollupDimension dimension;
+
+    // Category, brand or supplier ID as text; empty for masters without a value
+    @Id
+    private String groupKey;
+
+    private long productCount;
+    private long totalStock;
+    private double totalValuation;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastUpdated;
+
+    public InventoryRollup(RollupDimension dimension, String groupKey) {
+        this.dimension = dimension;
+        this.groupKey = groupKey;
+        this.lastUpdated = new Date();
+    }
+}
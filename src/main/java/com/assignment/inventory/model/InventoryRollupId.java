@@ -0,0 +1,20 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Primary key of an InventoryRollup: the dimension and the value of the group within it.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class InventoryRollupId implements Serializable {
+    private RollupDimension dimension;
+    private String groupKey;
+}
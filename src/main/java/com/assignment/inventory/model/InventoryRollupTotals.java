@@ -0,0 +1,11 @@
+package com.assignment.inventory.model;
+
+/**
+ * Product count, stock in hand and valuation of one group, computed from the inventory masters.
+ */
+public interface InventoryRollupTotals {
+    String getGroupKey();
+    long getProductCount();
+    long getTotalStock();
+    double getTotalValuation();
+}
@@ -0,0 +1,17 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Product matching a search query with the relevance it was ranked by.
+ */
+@Getter
+@AllArgsConstructor
+public class InventorySearchHit {
+    private Long productId;
+    private String productName;
+    private String category;
+    private String brand;
+    private double score;
+}
@@ -0,0 +1,51 @@
+package com.assignment.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Record of a deleted inventory master or inventory detail, kept for the retention period so clients syncing changes
+ * learn about the deletion. Deleting a master also deletes its details; only the master gets a tombstone.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_inventory_tombstone_deleted_at", columnList = "deletedAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class InventoryTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_tombstone_seq")
+    @SequenceGenerator(name = "inventory_tombstone_seq", sequenceName = "inventory_tombstone_seq", allocationSize = 50)
+    @Column(nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TombstoneType type;
+
+    // Product ID of a master, transaction ID of a detail
+    @Column(nullable = false)
+    private Long entityId;
+
+    private Long productId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date deletedAt;
+
+    public InventoryTombstone(TombstoneType type, Long entityId, Long productId) {
+        this.type = type;
+        this.entityId = entityId;
+        this.productId = productId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = new Date();
+    }
+}
@@ -0,0 +1,9 @@
+package com.assignment.inventory.model;
+
+/**
+ * Read projections of an inventory master selectable by clients.
+ * master: master columns only, details: master with its inventory details, counts: master with detail aggregates.
+ */
+public enum InventoryView {
+    master,details,counts
+}
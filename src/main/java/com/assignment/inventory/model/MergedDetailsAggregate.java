@@ -0,0 +1,38 @@
+package com.assignment.inventory.model;
+
+import lombok.Getter;
+
+/**
+ * Aggregate of one value of the grouping over the live inventory details and the summaries of the archived ones.
+ */
+@Getter
+public class MergedDetailsAggregate extends MergedDetailsTotals implements InventoryDetailsAggregate {
+    private final String groupKey;
+
+    public MergedDetailsAggregate(String groupKey, long transactionCount, long totalQuantity, double totalAmount) {
+        super(transactionCount, totalQuantity, totalAmount);
+        this.groupKey = groupKey;
+    }
+
+    /**
+     * Adds an aggregate to this one.
+     *
+     * @param other an aggregate of the same value of the grouping
+     * @return the sums of both
+     */
+    public MergedDetailsAggregate plus(InventoryDetailsAggregate other) {
+        return new MergedDetailsAggregate(groupKey, getTransactionCount() + other.getTransactionCount(),
+                getTotalQuantity() + other.getTotalQuantity(), getTotalAmount() + other.getTotalAmount());
+    }
+
+    /**
+     * Copies an aggregate.
+     *
+     * @param aggregate the aggregate, usually a query projection
+     * @return an aggregate with the same values
+     */
+    public static MergedDetailsAggregate of(InventoryDetailsAggregate aggregate) {
+        return new MergedDetailsAggregate(aggregate.getGroupKey(), aggregate.getTransactionCount(),
+                aggregate.getTotalQuantity(), aggregate.getTotalAmount());
+    }
+}
@@ -0,0 +1,27 @@
+package com.assignment.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Totals of the live inventory details added to the summaries of the archived ones.
+ */
+@Getter
+@AllArgsConstructor
+public class MergedDetailsTotals implements InventoryDetailsTotals {
+    private final long transactionCount;
+    private final long totalQuantity;
+    private final double totalAmount;
+
+    /**
+     * Adds two totals.
+     *
+     * @param live the totals of the live details
+     * @param archived the totals of the archive summaries
+     * @return the sums of both
+     */
+    public static MergedDetailsTotals of(InventoryDetailsTotals live, InventoryDetailsTotals archived) {
+        return new MergedDetailsTotals(live.getTransactionCount() + archived.getTransactionCount(),
+                live.getTotalQuantity() + archived.getTotalQuantity(), live.getTotalAmount() + archived.getTotalAmount());
+    }
+}
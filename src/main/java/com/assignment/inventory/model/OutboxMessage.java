@@ -0,0 +1,68 @@
+package com.assignment.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Inventory change waiting to be published to downstream systems. Written in the transaction of the change and deleted once
+ * the sink accepted it, so a change is published if and only if it committed.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_outbox_message_product", columnList = "productId, id"),
+        @Index(name = "idx_outbox_message_next_attempt", columnList = "nextAttemptAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_message_seq")
+    @SequenceGenerator(name = "outbox_message_seq", sequenceName = "outbox_message_seq", allocationSize = 50)
+    @Column(nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private InventoryEventType type;
+
+    // Messages of the same product are published in ID order
+    @Column(nullable = false)
+    private Long productId;
+
+    // JSON of the changed record
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createdAt;
+
+    // Number of failed publish attempts
+    private int attempts;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public OutboxMessage(InventoryEventType type, Long productId, String payload) {
+        this.type = type;
+        this.productId = productId;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = new Date();
+        nextAttemptAt = createdAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.assignment.inventory.model;
+
+/**
+ * The inventory master attribute stock and valuation rollups are kept per.
+ */
+public enum RollupDimension {
+    category,
+    brand,
+    supplier
+}
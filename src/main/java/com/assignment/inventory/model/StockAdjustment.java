@@ -0,0 +1,45 @@
+package com.assignment.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Durable record of a stock movement that has been committed but not yet applied to the stock in hand of its product.
+ * Written in the transaction of the inventory detail change and deleted when the coalesced movement is applied.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_stock_adjustment_created_at", columnList = "createdAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class StockAdjustment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_adjustment_seq")
+    @SequenceGenerator(name = "stock_adjustment_seq", sequenceName = "stock_adjustment_seq", allocationSize = 50)
+    @Column(nullable = false)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    private int quantity;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createdAt;
+
+    public StockAdjustment(Long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = new Date();
+    }
+}
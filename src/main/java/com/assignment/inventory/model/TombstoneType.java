@@ -0,0 +1,9 @@
+package com.assignment.inventory.model;
+
+/**
+ * Kind of record a tombstone stands for.
+ */
+public enum TombstoneType {
+    master,
+    detail
+}
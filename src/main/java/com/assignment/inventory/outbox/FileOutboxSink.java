@@ -0,0 +1,62 @@
+package com.assignment.inventory.outbox;
+
+import com.assignment.inventory.model.OutboxMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the published messages as NDJSON lines to a local file, one write and one sync per batch.
+ * This is the default sink, so messages are kept somewhere durable unless another sink is chosen.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(@Value("${inventory.outbox.file.path:outbox.ndjson}") Path path, ObjectMapper objectMapper) {
+        this.path = path.toAbsolutePath();
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(this.path.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxMessage message : messages) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("id", message.getId());
+            line.put("type", message.getType().name());
+            line.put("productId", message.getProductId());
+            line.put("createdAt", message.getCreatedAt().getTime());
+            line.set("payload", objectMapper.readTree(message.getPayload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // Only report the batch as delivered once it is on disk
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.assignment.inventory.outbox;
+
+import com.assignment.inventory.model.OutboxMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the latest published messages in memory, for tests and local development. Older messages are lost,
+ * so it is only used when inventory.outbox.sink is set to memory, as in the test profile.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.outbox.sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxMessage> messages = new ArrayDeque<>();
+    private final Lock lock = new ReentrantLock();
+
+    public InMemoryOutboxSink(@Value("${inventory.outbox.memory.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> published) {
+        lock.lock();
+        try {
+            for (OutboxMessage message : published) {
+                messages.addLast(message);
+                if (messages.size() > capacity) {
+                    messages.removeFirst();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the retained messages.
+     *
+     * @return the latest published messages, oldest first
+     */
+    public List<OutboxMessage> getMessages() {
+        lock.lock();
+        try {
+            return new ArrayList<>(messages);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
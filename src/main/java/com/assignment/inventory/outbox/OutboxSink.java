@@ -0,0 +1,21 @@
+package com.assignment.inventory.outbox;
+
+import com.assignment.inventory.model.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Destination of the published outbox messages, such as a message broker. Declare a bean implementing this interface and set
+ * inventory.outbox.sink to any other value than memory or file to publish to it.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch of messages. The messages of a product are in the order they were written.
+     * Delivery is at least once: a batch that failed or whose result was lost is delivered again.
+     *
+     * @param messages the messages to deliver
+     * @throws Exception if the batch was not delivered; it is retried with backoff
+     */
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,92 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.IdempotencyRecord;
+import com.assignment.inventory.model.IdempotencyRecordState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Retrieves the current state of a key.
+     *
+     * @param id the ID of the key
+     * @return the state of the key, or empty if it is not claimed
+     */
+    Optional<IdempotencyRecordState> findStateById(String id);
+
+    /**
+     * Claims a key by inserting its record, which fails with a duplicate key if another execution holds the key.
+     *
+     * @param id the ID of the key
+     * @param fingerprint the fingerprint of the request
+     * @param claimToken the token of the claim
+     * @param now the current time
+     * @param expiresAt the end of the claim
+     * @return the number of inserted records
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_record (id, fingerprint, claim_token, completed, created_at, expires_at) " +
+            "VALUES (:id, :fingerprint, :claimToken, false, :now, :expiresAt)", nativeQuery = true)
+    int insertClaim(@Param("id") String id, @Param("fingerprint") String fingerprint, @Param("claimToken") String claimToken,
+                    @Param("now") Date now, @Param("expiresAt") Date expiresAt);
+
+    /**
+     * Claims a key whose claim or retention ended, for example after the instance holding it stopped.
+     *
+     * @param id the ID of the key
+     * @param fingerprint the fingerprint of the request
+     * @param claimToken the token of the claim
+     * @param now the current time
+     * @param expiresAt the end of the claim
+     * @return the number of updated records, 0 if the record did not expire
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.fingerprint = :fingerprint, r.claimToken = :claimToken, r.completed = false, " +
+            "r.status = null, r.body = null, r.headers = null, r.createdAt = :now, r.expiresAt = :expiresAt WHERE r.id = :id AND r.expiresAt < :now")
+    int takeOver(@Param("id") String id, @Param("fingerprint") String fingerprint, @Param("claimToken") String claimToken,
+                 @Param("now") Date now, @Param("expiresAt") Date expiresAt);
+
+    /**
+     * Records the response of a claimed key.
+     *
+     * @param id the ID of the key
+     * @param claimToken the token of the claim
+     * @param status the status code of the response
+     * @param body the JSON of the response body
+     * @param headers the JSON of the response headers
+     * @param expiresAt the end of the retention
+     * @return the number of updated records, 0 if the claim was taken over
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.completed = true, r.status = :status, r.body = :body, r.headers = :headers, r.expiresAt = :expiresAt " +
+            "WHERE r.id = :id AND r.claimToken = :claimToken")
+    int complete(@Param("id") String id, @Param("claimToken") String claimToken, @Param("status") int status,
+                 @Param("body") String body, @Param("headers") String headers, @Param("expiresAt") Date expiresAt);
+
+    /**
+     * Gives up a claim after the request failed, so a retry executes it again.
+     *
+     * @param id the ID of the key
+     * @param claimToken the token of the claim
+     * @return the number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.claimToken = :claimToken AND r.completed = false")
+    int release(@Param("id") String id, @Param("claimToken") String claimToken);
+
+    /**
+     * Deletes the records whose claim or retention ended.
+     *
+     * @param before the current time
+     * @return the number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :before")
+    int deleteByExpiresAtBefore(@Param("before") Date before);
+}
@@ -0,0 +1,38 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryDetailsArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+
+public interface InventoryDetailsArchiveRepository extends JpaRepository<InventoryDetailsArchive,Long> {
+
+    /**
+     * Copies inventory details into the archive in one statement, without loading them.
+     *
+     * @param transactionIds the IDs of the details to copy
+     * @param archivedAt the time of the archiving
+     * @return the number of copied details
+     */
+    @Modifying
+    @Query("INSERT INTO InventoryDetailsArchive (transactionId, productId, transactionType, quantity, transactionDate, transactionDescription, " +
+            "transactionAmount, transactionStatus, transactionNotes, lastUpdated, archivedAt) " +
+            "SELECT id.transactionId, id.inventoryMaster.productId, id.transactionType, id.quantity, id.transactionDate, id.transactionDescription, " +
+            "id.transactionAmount, id.transactionStatus, id.transactionNotes, id.lastUpdated, :archivedAt " +
+            "FROM InventoryDetails id WHERE id.transactionId IN :transactionIds")
+    int copyFromDetails(@Param("transactionIds") Collection<Long> transactionIds, @Param("archivedAt") Date archivedAt);
+
+    /**
+     * Deletes the archived inventory details of a product.
+     *
+     * @param productId the ID of the product
+     * @return the number of deleted details
+     */
+    @Modifying
+    @Query("DELETE FROM InventoryDetailsArchive a WHERE a.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -1,7 +1,185 @@
 package com.assignment.inventory.repository;
 
+import com.assignment.inventory.model.ArchivableInventoryDetails;
 import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsAggregate;
+import com.assignment.inventory.model.InventoryDetailsChange;
+import com.assignment.inventory.model.InventoryDetailsTotals;
+import com.assignment.inventory.model.TransactionStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 public interface InventoryDetailsRepository extends JpaRepository<InventoryDetails,Long> {
+
+    // Aggregated columns of the totals and aggregate projections
+    String TOTAL_COLUMNS = "COUNT(id) AS transactionCount, COALESCE(SUM(id.quantity), 0) AS totalQuantity, " +
+            "COALESCE(SUM(id.transactionAmount), 0.0) AS totalAmount";
+
+    // Half open transaction date range, matched through the transaction date indexes
+    String DATE_RANGE = "id.transactionDate >= :from AND id.transactionDate < :to";
+
+    /**
+     * Retrieves an inventory detail and locks it until the end of the transaction,
+     * so concurrent changes of the same transaction apply their stock differences one after the other.
+     *
+     * @param transactionId the ID of the transaction
+     * @return the locked InventoryDetails record, if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT id FROM InventoryDetails id WHERE id.transactionId = :transactionId")
+    Optional<InventoryDetails> findForUpdateByTransactionId(@Param("transactionId") Long transactionId);
+
+    /**
+     * Retrieves the inventory details created or updated after a position in the change stream.
+     *
+     * @param after the update time of the position
+     * @param afterId the exclusive lower transaction ID bound at that time
+     * @param until the inclusive upper bound of the update time
+     * @param limit the maximum number of records to return
+     * @return the details with their product ID in update time and transaction ID order
+     */
+    @Query("SELECT id.transactionId AS transactionId, id.inventoryMaster.productId AS productId, id.transactionType AS transactionType, " +
+            "id.quantity AS quantity, id.transactionDate AS transactionDate, id.transactionDescription AS transactionDescription, " +
+            "id.transactionAmount AS transactionAmount, id.transactionStatus AS transactionStatus, id.transactionNotes AS transactionNotes, " +
+            "id.lastUpdated AS lastUpdated FROM InventoryDetails id " +
+            "WHERE (id.lastUpdated > :after OR (id.lastUpdated = :after AND id.transactionId > :afterId)) AND id.lastUpdated <= :until " +
+            "ORDER BY id.lastUpdated, id.transactionId")
+    List<InventoryDetailsChange> findChangedAfter(@Param("after") Date after, @Param("afterId") long afterId,
+                                                  @Param("until") Date until, Limit limit);
+
+    /**
+     * Computes the totals of the inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return the number of details and the sums of their quantity and amount
+     */
+    @Query("SELECT " + TOTAL_COLUMNS + " FROM InventoryDetails id WHERE " + DATE_RANGE)
+    InventoryDetailsTotals findTotals(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per transaction status of the inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per transaction status
+     */
+    @Query("SELECT CAST(id.transactionStatus AS String) AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetails id WHERE " + DATE_RANGE +
+            " GROUP BY id.transactionStatus ORDER BY id.transactionStatus")
+    List<InventoryDetailsAggregate> aggregateByStatus(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per transaction type of the inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per transaction type
+     */
+    @Query("SELECT id.transactionType AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetails id WHERE " + DATE_RANGE +
+            " GROUP BY id.transactionType ORDER BY id.transactionType")
+    List<InventoryDetailsAggregate> aggregateByType(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per product category of the inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per category
+     */
+    @Query("SELECT im.category AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetails id JOIN id.inventoryMaster im WHERE " + DATE_RANGE +
+            " GROUP BY im.category ORDER BY im.category")
+    List<InventoryDetailsAggregate> aggregateByCategory(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per product brand of the inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per brand
+     */
+    @Query("SELECT im.brand AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetails id JOIN id.inventoryMaster im WHERE " + DATE_RANGE +
+            " GROUP BY im.brand ORDER BY im.brand")
+    List<InventoryDetailsAggregate> aggregateByBrand(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per supplier of the inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per supplier ID
+     */
+    @Query("SELECT CAST(im.supplierId AS String) AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetails id JOIN id.inventoryMaster im WHERE " + DATE_RANGE +
+            " GROUP BY im.supplierId ORDER BY im.supplierId")
+    List<InventoryDetailsAggregate> aggregateBySupplier(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per day of the inventory details in a transaction date range, in the time zone of the database.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per day with details, keyed yyyy-MM-dd
+     */
+    @Query("SELECT FORMAT(id.transactionDate AS 'yyyy-MM-dd') AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetails id WHERE " + DATE_RANGE +
+            " GROUP BY FORMAT(id.transactionDate AS 'yyyy-MM-dd') ORDER BY 1")
+    List<InventoryDetailsAggregate> aggregateByDay(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per hour of the inventory details in a transaction date range, in the time zone of the database.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per hour with details, keyed yyyy-MM-dd HH
+     */
+    @Query("SELECT FORMAT(id.transactionDate AS 'yyyy-MM-dd HH') AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetails id WHERE " + DATE_RANGE +
+            " GROUP BY FORMAT(id.transactionDate AS 'yyyy-MM-dd HH') ORDER BY 1")
+    List<InventoryDetailsAggregate> aggregateByHour(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Retrieves the IDs of the oldest inventory details of closed periods, in the order of the transaction date index.
+     *
+     * @param before the exclusive upper bound of the transaction date
+     * @param statuses the statuses of details that are closed
+     * @param limit the maximum number of IDs to return
+     * @return the transaction IDs
+     */
+    @Query("SELECT id.transactionId FROM InventoryDetails id WHERE id.transactionDate < :before AND id.transactionStatus IN :statuses " +
+            "ORDER BY id.transactionDate")
+    List<Long> findArchivableIds(@Param("before") Date before, @Param("statuses") Collection<TransactionStatus> statuses, Limit limit);
+
+    /**
+     * Retrieves inventory details that are still closed and locks them until the end of the transaction,
+     * so a concurrent change of one of them waits until it is archived and then finds it gone.
+     *
+     * @param transactionIds the IDs of the details
+     * @param before the exclusive upper bound of the transaction date
+     * @param statuses the statuses of details that are closed
+     * @return the details among the IDs that still match
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT id.transactionId AS transactionId, id.inventoryMaster.productId AS productId, id.transactionType AS transactionType, " +
+            "id.quantity AS quantity, id.transactionDate AS transactionDate, id.transactionAmount AS transactionAmount, " +
+            "id.transactionStatus AS transactionStatus FROM InventoryDetails id " +
+            "WHERE id.transactionId IN :transactionIds AND id.transactionDate < :before AND id.transactionStatus IN :statuses")
+    List<ArchivableInventoryDetails> findArchivableForUpdate(@Param("transactionIds") Collection<Long> transactionIds, @Param("before") Date before,
+                                                             @Param("statuses") Collection<TransactionStatus> statuses);
+
+    /**
+     * Deletes inventory details in one statement, without tombstones and without moving stock.
+     *
+     * @param transactionIds the IDs of the details to delete
+     * @return the number of deleted details
+     */
+    @Modifying
+    @Query("DELETE FROM InventoryDetails id WHERE id.transactionId IN :transactionIds")
+    int deleteByTransactionIdIn(@Param("transactionIds") Collection<Long> transactionIds);
 }
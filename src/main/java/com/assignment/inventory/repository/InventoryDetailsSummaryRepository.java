@@ -0,0 +1,123 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryDetailsAggregate;
+import com.assignment.inventory.model.InventoryDetailsSummary;
+import com.assignment.inventory.model.InventoryDetailsTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Aggregates over the summaries of archived inventory details, in the same shape as the aggregates of InventoryDetailsRepository
+ * so the service can add both up. Summaries cover whole hours and are matched by the start of their hour.
+ */
+public interface InventoryDetailsSummaryRepository extends JpaRepository<InventoryDetailsSummary,Long> {
+
+    // Summed columns of the totals and aggregate projections
+    String TOTAL_COLUMNS = "COALESCE(SUM(s.transactionCount), 0) AS transactionCount, COALESCE(SUM(s.totalQuantity), 0) AS totalQuantity, " +
+            "COALESCE(SUM(s.totalAmount), 0.0) AS totalAmount";
+
+    // Half open period range, matched through the period cover index
+    String PERIOD_RANGE = "s.periodStart >= :from AND s.periodStart < :to";
+
+    /**
+     * Computes the totals of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return the number of archived details and the sums of their quantity and amount
+     */
+    @Query("SELECT " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s WHERE " + PERIOD_RANGE)
+    InventoryDetailsTotals findTotals(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per transaction status of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per transaction status
+     */
+    @Query("SELECT CAST(s.transactionStatus AS String) AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s WHERE " + PERIOD_RANGE +
+            " GROUP BY s.transactionStatus")
+    List<InventoryDetailsAggregate> aggregateByStatus(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per transaction type of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per transaction type
+     */
+    @Query("SELECT s.transactionType AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s WHERE " + PERIOD_RANGE +
+            " GROUP BY s.transactionType")
+    List<InventoryDetailsAggregate> aggregateByType(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per product category of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per category of the products that still exist
+     */
+    @Query("SELECT im.category AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s JOIN InventoryMaster im ON im.productId = s.productId WHERE " + PERIOD_RANGE +
+            " GROUP BY im.category")
+    List<InventoryDetailsAggregate> aggregateByCategory(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per product brand of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per brand of the products that still exist
+     */
+    @Query("SELECT im.brand AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s JOIN InventoryMaster im ON im.productId = s.productId WHERE " + PERIOD_RANGE +
+            " GROUP BY im.brand")
+    List<InventoryDetailsAggregate> aggregateByBrand(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per supplier of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per supplier ID of the products that still exist
+     */
+    @Query("SELECT CAST(im.supplierId AS String) AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s JOIN InventoryMaster im ON im.productId = s.productId WHERE " + PERIOD_RANGE +
+            " GROUP BY im.supplierId")
+    List<InventoryDetailsAggregate> aggregateBySupplier(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per day of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per day with archived details, keyed yyyy-MM-dd
+     */
+    @Query("SELECT FORMAT(s.periodStart AS 'yyyy-MM-dd') AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s WHERE " + PERIOD_RANGE +
+            " GROUP BY FORMAT(s.periodStart AS 'yyyy-MM-dd')")
+    List<InventoryDetailsAggregate> aggregateByDay(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Computes the totals per hour of the archived inventory details in a transaction date range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @return one aggregate per hour with archived details, keyed yyyy-MM-dd HH
+     */
+    @Query("SELECT FORMAT(s.periodStart AS 'yyyy-MM-dd HH') AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryDetailsSummary s WHERE " + PERIOD_RANGE +
+            " GROUP BY FORMAT(s.periodStart AS 'yyyy-MM-dd HH')")
+    List<InventoryDetailsAggregate> aggregateByHour(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Deletes the summaries of the archived inventory details of a product, so a deleted product no longer counts in the aggregates.
+     *
+     * @param productId the ID of the product
+     * @return the number of deleted summaries
+     */
+    @Modifying
+    @Query("DELETE FROM InventoryDetailsSummary s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
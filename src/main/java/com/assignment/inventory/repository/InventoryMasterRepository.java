@@ -1,47 +1,217 @@
 package com.assignment.inventory.repository;
 
+import com.assignment.inventory.common.Constants;
 import com.assignment.inventory.model.InventoryMaster;
-import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.model.InventoryMasterCounts;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventoryMasterVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface InventoryMasterRepository extends JpaRepository<InventoryMaster,Long> {
-
-    /**
-     *
-     * @param productName
-     * @param category
-     * @param brand
-     * @param minPrice
-     * @param maxPrice
-     * @param supplierId
-     * @param dateAdded
-     * @param transactionStatus
-     * @param transactionType
-     * @return
-     */
-    @Query("SELECT im FROM InventoryMaster im " +
-            "JOIN im.inventoryDetails id " +
-            "WHERE (:productName IS NULL OR im.productName = :productName) AND " +
-            "(:category IS NULL OR im.category = :category) AND " +
-            "(:brand IS NULL OR im.brand = :brand) AND " +
-            "(:minPrice IS NULL OR im.unitPrice >= :minPrice) AND " +
-            "(:maxPrice IS NULL OR im.unitPrice <= :maxPrice) AND " +
-            "(:supplierId IS NULL OR im.supplierId = :supplierId) AND " +
-            "(:dateAdded IS NULL OR im.dateAdded = :dateAdded) AND " +
-            "(:transactionStatus IS NULL OR id.transactionStatus = :transactionStatus) AND "+
-            "(:transactionType IS NULL OR id.transactionType = :transactionType)")
-    List<InventoryMaster> findByFilters(@Param("productName") String productName,
-                                        @Param("category") String category,
-                                        @Param("brand") String brand,
-                                        @Param("minPrice") Double minPrice,
-                                        @Param("maxPrice") Double maxPrice,
-                                        @Param("supplierId") Long supplierId,
-                                        @Param("dateAdded") Date dateAdded,
-                                        @Param("transactionStatus") TransactionStatus transactionStatus,
-                                        @Param("transactionType") String transactionType);
+public interface InventoryMasterRepository extends JpaRepository<InventoryMaster,Long>, JpaSpecificationExecutor<InventoryMaster> {
+
+    // Selects the master columns as aliases matching the InventoryMasterSummary projection
+    String SUMMARY_COLUMNS = "im.productId AS productId, im.productName AS productName, im.category AS category, " +
+            "im.brand AS brand, im.stockInHand AS stockInHand, im.unitPrice AS unitPrice, im.supplierId AS supplierId, " +
+            "im.dateAdded AS dateAdded, im.lastUpdated AS lastUpdated, im.remarks AS remarks, im.version AS version";
+
+    // Aggregates over the inventory details matching the InventoryMasterCounts projection
+    String COUNT_COLUMNS = "COUNT(id) AS detailCount, COALESCE(SUM(id.quantity), 0) AS totalQuantity, " +
+            "COALESCE(SUM(id.transactionAmount), 0.0) AS totalAmount";
+
+    /**
+     * Retrieves the product IDs of the next page after the given cursor.
+     *
+     * @param cursor the last product ID of the previous page
+     * @param limit the maximum number of IDs to return
+     * @return the product IDs greater than the cursor in ascending order
+     */
+    @Query("SELECT im.productId FROM InventoryMaster im WHERE im.productId > :cursor ORDER BY im.productId")
+    List<Long> findProductIdsAfter(@Param("cursor") Long cursor, Limit limit);
+
+    /**
+     * Retrieves the inventory masters with the given product IDs and their inventory details in a single query.
+     *
+     * @param productIds the product IDs to load
+     * @return the InventoryMaster records with initialized inventory details ordered by product ID
+     */
+    @EntityGraph(attributePaths = "inventoryDetails")
+    List<InventoryMaster> findWithDetailsByProductIdInOrderByProductIdAsc(Collection<Long> productIds);
+
+    /**
+     * Retrieves the inventory masters having one of the given product names and one of the given suppliers, through the
+     * product name and supplier index. The result may contain combinations that were not asked for.
+     *
+     * @param productNames the product names
+     * @param supplierIds the supplier IDs
+     * @return the matching InventoryMaster records ordered by product ID
+     */
+    List<InventoryMaster> findByProductNameInAndSupplierIdInOrderByProductIdAsc(Collection<String> productNames, Collection<Long> supplierIds);
+
+    /**
+     * Atomically adds a quantity to the stock in hand of an inventory master.
+     * The addition is done by the database so concurrent adjustments of the same product never overwrite each other.
+     *
+     * @param productId the ID of the product
+     * @param quantity the quantity to add, negative to remove stock
+     * @return the number of updated records
+     */
+    default int adjustStock(Long productId, int quantity) {
+        return adjustStock(productId, quantity, new Date());
+    }
+
+    // Takes the update time from the application clock, like the entity callbacks, so change watermarks compare consistently
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventoryMaster im SET im.stockInHand = im.stockInHand + :quantity, im.lastUpdated = :now, " +
+            "im.version = im.version + 1 WHERE im.productId = :productId")
+    int adjustStock(@Param("productId") Long productId, @Param("quantity") int quantity, @Param("now") Date now);
+
+    /**
+     * Marks an inventory master as changed without changing its columns, for changes of its inventory details that move no stock.
+     *
+     * @param productId the ID of the product
+     * @return the number of updated records
+     */
+    default int touch(Long productId) {
+        return touch(productId, new Date());
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventoryMaster im SET im.lastUpdated = :now, im.version = im.version + 1 WHERE im.productId = :productId")
+    int touch(@Param("productId") Long productId, @Param("now") Date now);
+
+    /**
+     * Marks inventory masters as changed without changing their columns, for changes of the details of many products at once.
+     *
+     * @param productIds the IDs of the products
+     * @return the number of updated records
+     */
+    default int touchAll(Collection<Long> productIds) {
+        return touchAll(productIds, new Date());
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventoryMaster im SET im.lastUpdated = :now, im.version = im.version + 1 WHERE im.productId IN :productIds")
+    int touchAll(@Param("productIds") Collection<Long> productIds, @Param("now") Date now);
+
+    /**
+     * Retrieves the inventory masters created or updated after a position in the change stream.
+     *
+     * @param after the update time of the position
+     * @param afterId the exclusive lower product ID bound at that time
+     * @param until the inclusive upper bound of the update time
+     * @param limit the maximum number of records to return
+     * @return the masters without details in update time and product ID order
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM InventoryMaster im WHERE (im.lastUpdated > :after OR (im.lastUpdated = :after AND im.productId > :afterId)) " +
+            "AND im.lastUpdated <= :until ORDER BY im.lastUpdated, im.productId")
+    List<InventoryMasterSummary> findChangedAfter(@Param("after") Date after, @Param("afterId") long afterId,
+                                                  @Param("until") Date until, Limit limit);
+
+    /**
+     * Retrieves the version of an inventory master without loading it.
+     *
+     * @param productId the ID of the product
+     * @return the version and last update of the product, or empty if not found
+     */
+    Optional<InventoryMasterVersion> findVersionByProductId(Long productId);
+
+    /**
+     * Retrieves the versions of the next page after the given cursor without loading the masters.
+     *
+     * @param cursor the last product ID of the previous page
+     * @param limit the maximum number of versions to return
+     * @return the versions of the products greater than the cursor in ascending product ID order
+     */
+    @Query("SELECT im.productId AS productId, im.version AS version, im.lastUpdated AS lastUpdated FROM InventoryMaster im " +
+            "WHERE im.productId > :cursor ORDER BY im.productId")
+    List<InventoryMasterVersion> findVersionsAfter(@Param("cursor") Long cursor, Limit limit);
+
+    /**
+     * Retrieves which of the given product IDs exist.
+     *
+     * @param productIds the product IDs to check
+     * @return the existing product IDs
+     */
+    @Query("SELECT im.productId FROM InventoryMaster im WHERE im.productId IN :productIds")
+    List<Long> findExistingProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Retrieves an inventory master and its inventory details in a single query.
+     *
+     * @param productId the ID of the product
+     * @return the InventoryMaster record with initialized inventory details, if found
+     */
+    @EntityGraph(attributePaths = "inventoryDetails")
+    Optional<InventoryMaster> findWithDetailsByProductId(Long productId);
+
+    /**
+     * Retrieves the next page of inventory masters after the given cursor without their inventory details.
+     *
+     * @param productId the last product ID of the previous page
+     * @param limit the maximum number of records to return
+     * @return the master columns of the records with a product ID greater than the cursor
+     */
+    List<InventoryMasterSummary> findSummariesByProductIdGreaterThanOrderByProductIdAsc(Long productId, Limit limit);
+
+    /**
+     * Retrieves the master columns of inventory masters without their inventory details.
+     *
+     * @param productIds the IDs of the products
+     * @return the master columns of the records found, in no particular order
+     */
+    List<InventoryMasterSummary> findSummariesByProductIdIn(Collection<Long> productIds);
+
+    /**
+     * Retrieves the master columns of an inventory master without its inventory details.
+     *
+     * @param productId the ID of the product
+     * @return the master columns of the record, if found
+     */
+    Optional<InventoryMasterSummary> findSummaryByProductId(Long productId);
+
+    /**
+     * Retrieves the next page of inventory masters after the given cursor with aggregates over their inventory details.
+     *
+     * @param cursor the last product ID of the previous page
+     * @param limit the maximum number of records to return
+     * @return the master columns and detail aggregates of the records with a product ID greater than the cursor
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + ", " + COUNT_COLUMNS + " FROM InventoryMaster im LEFT JOIN im.inventoryDetails id " +
+            "WHERE im.productId > :cursor GROUP BY im ORDER BY im.productId")
+    List<InventoryMasterCounts> findCountsAfter(@Param("cursor") Long cursor, Limit limit);
+
+    /**
+     * Retrieves an inventory master with aggregates over its inventory details.
+     *
+     * @param productId the ID of the product
+     * @return the master columns and detail aggregates of the record, if found
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + ", " + COUNT_COLUMNS + " FROM InventoryMaster im LEFT JOIN im.inventoryDetails id " +
+            "WHERE im.productId = :productId GROUP BY im")
+    Optional<InventoryMasterCounts> findCountsByProductId(@Param("productId") Long productId);
+
+    /**
+     * Streams all inventory masters ordered by product ID using a forward-only cursor.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @return a stream of all InventoryMaster records
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Constants.STREAM_FETCH_SIZE))
+    @Query("SELECT im FROM InventoryMaster im ORDER BY im.productId")
+    Stream<InventoryMaster> streamAllOrderByProductId();
 }
@@ -0,0 +1,105 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsArchive;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class InventoryMasterSpecifications {
+
+    private InventoryMasterSpecifications() {
+    }
+
+    /**
+     * Builds a specification matching inventory masters against the supplied filter criteria.
+     * Only the criteria that are not null become predicates, so the database sees a query shaped for the indexes it can use.
+     * Detail criteria are matched with an EXISTS subquery which neither drops masters without details nor duplicates masters with several matching details.
+     *
+     * @param productName the name of the product
+     * @param category the category of the product
+     * @param brand the brand of the product
+     * @param minPrice the minimum price of the product
+     * @param maxPrice the maximum price of the product
+     * @param supplierId the ID of the supplier
+     * @param dateAdded the day the product was added
+     * @param transactionStatus the transaction status of any of the inventory details
+     * @param transactionType the transaction type of any of the inventory details
+     * @param includeArchived whether the detail criteria also match archived inventory details; otherwise only inventory_details is read
+     * @return the specification combining the supplied criteria
+     */
+    public static Specification<InventoryMaster> byFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded, TransactionStatus transactionStatus, String transactionType, boolean includeArchived) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // Master columns are compared directly
+            if (productName != null) {
+                predicates.add(cb.equal(root.get("productName"), productName));
+            }
+            if (category != null) {
+                predicates.add(cb.equal(root.get("category"), category));
+            }
+            if (brand != null) {
+                predicates.add(cb.equal(root.get("brand"), brand));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("unitPrice"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("unitPrice"), maxPrice));
+            }
+            if (supplierId != null) {
+                predicates.add(cb.equal(root.get("supplierId"), supplierId));
+            }
+
+            // dateAdded is a timestamp, so the requested day is matched as a half open range
+            if (dateAdded != null) {
+                Date nextDay = Date.from(dateAdded.toInstant().plus(1, ChronoUnit.DAYS));
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateAdded"), dateAdded));
+                predicates.add(cb.lessThan(root.get("dateAdded"), nextDay));
+            }
+
+            // Details are only consulted when a detail criterion is supplied
+            if (transactionStatus != null || transactionType != null) {
+                Subquery<Long> details = query.subquery(Long.class);
+                Root<InventoryDetails> detail = details.from(InventoryDetails.class);
+                List<Predicate> detailPredicates = new ArrayList<>();
+                detailPredicates.add(cb.equal(detail.get("inventoryMaster"), root));
+                if (transactionStatus != null) {
+                    detailPredicates.add(cb.equal(detail.get("transactionStatus"), transactionStatus));
+                }
+                if (transactionType != null) {
+                    detailPredicates.add(cb.equal(detail.get("transactionType"), transactionType));
+                }
+                details.select(detail.get("transactionId")).where(detailPredicates.toArray(new Predicate[0]));
+                if (!includeArchived) {
+                    predicates.add(cb.exists(details));
+                } else {
+                    // Archived details keep the product ID without a relation to the master
+                    Subquery<Long> archivedDetails = query.subquery(Long.class);
+                    Root<InventoryDetailsArchive> archived = archivedDetails.from(InventoryDetailsArchive.class);
+                    List<Predicate> archivedPredicates = new ArrayList<>();
+                    archivedPredicates.add(cb.equal(archived.get("productId"), root.get("productId")));
+                    if (transactionStatus != null) {
+                        archivedPredicates.add(cb.equal(archived.get("transactionStatus"), transactionStatus));
+                    }
+                    if (transactionType != null) {
+                        archivedPredicates.add(cb.equal(archived.get("transactionType"), transactionType));
+                    }
+                    archivedDetails.select(archived.get("transactionId")).where(archivedPredicates.toArray(new Predicate[0]));
+                    predicates.add(cb.or(cb.exists(details), cb.exists(archivedDetails)));
+                }
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
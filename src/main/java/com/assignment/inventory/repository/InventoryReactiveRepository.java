@@ -0,0 +1,227 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking reads of inventory masters and details over R2DBC, mapped into the same model classes as the JPA repositories.
+ * Rows are emitted as the database returns them and only as fast as the subscriber requests them.
+ */
+@Repository
+public class InventoryReactiveRepository {
+
+    private static final String MASTER_COLUMNS = "product_id, product_name, category, brand, stock_in_hand, unit_price, supplier_id, date_added, last_updated, remarks, version";
+    private static final String DETAIL_COLUMNS = "transaction_id, product_id, transaction_type, quantity, transaction_date, transaction_description, transaction_amount, transaction_status, transaction_notes, last_updated";
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    /**
+     * Reads the inventory masters after a product ID in product ID order.
+     *
+     * @param cursor the last product ID already read, or 0 to start at the beginning
+     * @param limit the maximum number of masters
+     * @return the masters without their details
+     */
+    public Flux<InventoryMaster> findMastersAfter(long cursor, int limit) {
+        return databaseClient.sql("SELECT " + MASTER_COLUMNS + " FROM inventory_master WHERE product_id > :cursor ORDER BY product_id LIMIT :limit")
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(InventoryReactiveRepository::toMaster)
+                .all();
+    }
+
+    /**
+     * Reads every inventory master in product ID order.
+     *
+     * @return the masters without their details
+     */
+    public Flux<InventoryMaster> findAllMasters() {
+        return databaseClient.sql("SELECT " + MASTER_COLUMNS + " FROM inventory_master ORDER BY product_id")
+                .map(InventoryReactiveRepository::toMaster)
+                .all();
+    }
+
+    /**
+     * Reads one inventory master.
+     *
+     * @param productId the ID of the product
+     * @return the master without its details, or empty if not found
+     */
+    public Mono<InventoryMaster> findMaster(Long productId) {
+        return databaseClient.sql("SELECT " + MASTER_COLUMNS + " FROM inventory_master WHERE product_id = :productId")
+                .bind("productId", productId)
+                .map(InventoryReactiveRepository::toMaster)
+                .one();
+    }
+
+    /**
+     * Reads the inventory details of several products with a single query.
+     *
+     * @param productIds the IDs of the products, must not be empty
+     * @return the details in product ID and transaction ID order
+     */
+    public Flux<InventoryDetails> findDetailsByProductIds(Collection<Long> productIds) {
+        return databaseClient.sql("SELECT " + DETAIL_COLUMNS + " FROM inventory_details WHERE product_id IN (:productIds) ORDER BY product_id, transaction_id")
+                .bind("productIds", productIds)
+                .map(InventoryReactiveRepository::toDetails)
+                .all();
+    }
+
+    /**
+     * Reads the inventory masters matching the supplied criteria, with the same semantics as InventoryMasterSpecifications.byFilters.
+     *
+     * @param productName the name of the product
+     * @param category the category of the product
+     * @param brand the brand of the product
+     * @param minPrice the minimum price of the product
+     * @param maxPrice the maximum price of the product
+     * @param supplierId the ID of the supplier
+     * @param dateAdded the day the product was added
+     * @param transactionStatus the transaction status of any of the inventory details
+     * @param transactionType the transaction type of any of the inventory details
+     * @param includeArchived whether the detail criteria also match archived inventory details; otherwise only inventory_details is read
+     * @param sort the inventory master property to sort by, one of SORTABLE_PROPERTIES
+     * @param direction the sort direction
+     * @param offset the number of matching masters to skip
+     * @param limit the maximum number of masters
+     * @return the matching masters without their details
+     */
+    public Flux<InventoryMaster> findMastersByFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded,
+                                                      TransactionStatus transactionStatus, String transactionType, boolean includeArchived,
+                                                      String sort, Sort.Direction direction, long offset, int limit) {
+        // The property becomes part of the SQL, it is validated by the caller and checked again here
+        if (!Constants.SORTABLE_PROPERTIES.contains(sort)) {
+            throw new IllegalArgumentException(Constants.INVALID_SORT_ERROR_MESSAGE);
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(MASTER_COLUMNS).append(" FROM inventory_master im WHERE 1 = 1");
+        Map<String, Object> bindings = new LinkedHashMap<>();
+
+        // Only the supplied criteria become conditions
+        condition(sql, bindings, "im.product_name = :productName", "productName", productName);
+        condition(sql, bindings, "im.category = :category", "category", category);
+        condition(sql, bindings, "im.brand = :brand", "brand", brand);
+        condition(sql, bindings, "im.unit_price >= :minPrice", "minPrice", minPrice);
+        condition(sql, bindings, "im.unit_price <= :maxPrice", "maxPrice", maxPrice);
+        condition(sql, bindings, "im.supplier_id = :supplierId", "supplierId", supplierId);
+        if (dateAdded != null) {
+            LocalDateTime day = new Timestamp(dateAdded.getTime()).toLocalDateTime();
+            condition(sql, bindings, "im.date_added >= :dayStart", "dayStart", day);
+            condition(sql, bindings, "im.date_added < :dayEnd", "dayEnd", day.plus(1, ChronoUnit.DAYS));
+        }
+
+        // Details are only consulted when a detail criterion is supplied, archived details like in InventoryMasterSpecifications
+        if (transactionStatus != null || transactionType != null) {
+            String status = transactionStatus == null ? null : transactionStatus.name();
+            sql.append(" AND (EXISTS (SELECT 1 FROM inventory_details id WHERE id.product_id = im.product_id");
+            condition(sql, bindings, "id.transaction_status = :transactionStatus", "transactionStatus", status);
+            condition(sql, bindings, "id.transaction_type = :transactionType", "transactionType", transactionType);
+            sql.append(")");
+            if (includeArchived) {
+                // Bound once, the named parameters are reused by the archive subquery
+                sql.append(" OR EXISTS (SELECT 1 FROM inventory_details_archive ia WHERE ia.product_id = im.product_id");
+                if (status != null) {
+                    sql.append(" AND ia.transaction_status = :transactionStatus");
+                }
+                if (transactionType != null) {
+                    sql.append(" AND ia.transaction_type = :transactionType");
+                }
+                sql.append(")");
+            }
+            sql.append(")");
+        }
+
+        // Product ID breaks ties for a stable order
+        sql.append(" ORDER BY ").append(columnOf(sort)).append(' ').append(direction.name());
+        if (!"productId".equals(sort)) {
+            sql.append(", product_id");
+        }
+        sql.append(" LIMIT :limit OFFSET :offset");
+        bindings.put("limit", limit);
+        bindings.put("offset", offset);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map(InventoryReactiveRepository::toMaster).all();
+    }
+
+    private static void condition(StringBuilder sql, Map<String, Object> bindings, String condition, String name, Object value) {
+        if (value != null) {
+            sql.append(" AND ").append(condition);
+            bindings.put(name, value);
+        }
+    }
+
+    // Master properties are mapped to their snake case column names, e.g. unitPrice to unit_price
+    private static String columnOf(String property) {
+        return property.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    private static InventoryMaster toMaster(Readable row) {
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductId(row.get("product_id", Long.class));
+        inventory.setProductName(row.get("product_name", String.class));
+        inventory.setCategory(row.get("category", String.class));
+        inventory.setBrand(row.get("brand", String.class));
+        inventory.setStockInHand(valueOf(row.get("stock_in_hand", Integer.class)));
+        inventory.setUnitPrice(valueOf(row.get("unit_price", Double.class)));
+        inventory.setSupplierId(row.get("supplier_id", Long.class));
+        inventory.setDateAdded(toDate(row.get("date_added", LocalDateTime.class)));
+        inventory.setLastUpdated(toDate(row.get("last_updated", LocalDateTime.class)));
+        inventory.setRemarks(row.get("remarks", String.class));
+        Long version = row.get("version", Long.class);
+        inventory.setVersion(version == null ? 0 : version);
+        return inventory;
+    }
+
+    private static InventoryDetails toDetails(Readable row) {
+        InventoryDetails details = new InventoryDetails();
+        details.setTransactionId(row.get("transaction_id", Long.class));
+        details.setTransactionType(row.get("transaction_type", String.class));
+        details.setQuantity(valueOf(row.get("quantity", Integer.class)));
+        details.setTransactionDate(toDate(row.get("transaction_date", LocalDateTime.class)));
+        details.setTransactionDescription(row.get("transaction_description", String.class));
+        details.setTransactionAmount(valueOf(row.get("transaction_amount", Double.class)));
+        String status = row.get("transaction_status", String.class);
+        details.setTransactionStatus(status == null ? null : TransactionStatus.valueOf(status));
+        details.setTransactionNotes(row.get("transaction_notes", String.class));
+        details.setLastUpdated(toDate(row.get("last_updated", LocalDateTime.class)));
+
+        // Only the product ID is known, the caller attaches the detail to its master
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductId(row.get("product_id", Long.class));
+        details.setInventoryMaster(inventory);
+        return details;
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static double valueOf(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    private static Date toDate(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
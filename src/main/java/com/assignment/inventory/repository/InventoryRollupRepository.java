@@ -0,0 +1,77 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryRollup;
+import com.assignment.inventory.model.InventoryRollupId;
+import com.assignment.inventory.model.InventoryRollupTotals;
+import com.assignment.inventory.model.RollupDimension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface InventoryRollupRepository extends JpaRepository<InventoryRollup, InventoryRollupId> {
+
+    // Aggregated master columns of the rollup totals projection
+    String TOTAL_COLUMNS = "COUNT(im) AS productCount, COALESCE(SUM(im.stockInHand), 0) AS totalStock, " +
+            "COALESCE(SUM(im.stockInHand * im.unitPrice), 0.0) AS totalValuation";
+
+    /**
+     * Adds deltas to a rollup row with a single atomic update, so concurrent transactions never overwrite each other.
+     *
+     * @param dimension the dimension of the row
+     * @param groupKey the group of the row
+     * @param products the change of the product count
+     * @param stock the change of the stock in hand
+     * @param valuation the change of the valuation
+     * @return the number of updated rows, 0 if the row does not exist
+     */
+    @Modifying
+    @Query("UPDATE InventoryRollup r SET r.productCount = r.productCount + :products, r.totalStock = r.totalStock + :stock, " +
+            "r.totalValuation = r.totalValuation + :valuation, r.lastUpdated = CURRENT_TIMESTAMP " +
+            "WHERE r.dimension = :dimension AND r.groupKey = :groupKey")
+    int increment(@Param("dimension") RollupDimension dimension, @Param("groupKey") String groupKey,
+                  @Param("products") long products, @Param("stock") long stock, @Param("valuation") double valuation);
+
+    /**
+     * Retrieves the rollup rows of a dimension.
+     *
+     * @param dimension the dimension
+     * @return the rows ordered by group
+     */
+    List<InventoryRollup> findByDimensionOrderByGroupKey(RollupDimension dimension);
+
+    /**
+     * Retrieves the rollup rows of a dimension with more products than a minimum.
+     *
+     * @param dimension the dimension
+     * @param productCount the exclusive minimum product count
+     * @return the rows ordered by group
+     */
+    List<InventoryRollup> findByDimensionAndProductCountGreaterThanOrderByGroupKey(RollupDimension dimension, long productCount);
+
+    /**
+     * Computes the rollups per category from the inventory masters.
+     *
+     * @return one totals row per category
+     */
+    @Query("SELECT COALESCE(im.category, '') AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryMaster im GROUP BY im.category")
+    List<InventoryRollupTotals> computeByCategory();
+
+    /**
+     * Computes the rollups per brand from the inventory masters.
+     *
+     * @return one totals row per brand
+     */
+    @Query("SELECT COALESCE(im.brand, '') AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryMaster im GROUP BY im.brand")
+    List<InventoryRollupTotals> computeByBrand();
+
+    /**
+     * Computes the rollups per supplier from the inventory masters.
+     *
+     * @return one totals row per supplier ID
+     */
+    @Query("SELECT COALESCE(CAST(im.supplierId AS String), '') AS groupKey, " + TOTAL_COLUMNS + " FROM InventoryMaster im GROUP BY im.supplierId")
+    List<InventoryRollupTotals> computeBySupplier();
+}
@@ -0,0 +1,38 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface InventoryTombstoneRepository extends JpaRepository<InventoryTombstone, Long> {
+
+    /**
+     * Retrieves the tombstones written after a position in the change stream.
+     *
+     * @param after the deletion time of the position
+     * @param afterId the exclusive lower ID bound at that time
+     * @param until the inclusive upper bound of the deletion time
+     * @param limit the maximum number of records to return
+     * @return the tombstones in deletion time and ID order
+     */
+    @Query("SELECT t FROM InventoryTombstone t WHERE (t.deletedAt > :after OR (t.deletedAt = :after AND t.id > :afterId)) " +
+            "AND t.deletedAt <= :until ORDER BY t.deletedAt, t.id")
+    List<InventoryTombstone> findChangedAfter(@Param("after") Date after, @Param("afterId") long afterId,
+                                              @Param("until") Date until, Limit limit);
+
+    /**
+     * Deletes the tombstones older than the retention period.
+     *
+     * @param before the exclusive upper bound of the deletion time
+     * @return the number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM InventoryTombstone t WHERE t.deletedAt < :before")
+    int deleteByDeletedAtBefore(@Param("before") Date before);
+}
@@ -0,0 +1,49 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.OutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Retrieves the oldest messages that are due. A message is held back while an older message of its product waits for a
+     * retry, so the messages of a product are always published in order.
+     *
+     * @param now the current time
+     * @param limit the maximum number of messages to return
+     * @return the due messages in ID order
+     */
+    @Query("SELECT o FROM OutboxMessage o WHERE o.nextAttemptAt <= :now AND NOT EXISTS (SELECT 1 FROM OutboxMessage p " +
+            "WHERE p.productId = o.productId AND p.id < o.id AND p.nextAttemptAt > :now) ORDER BY o.id")
+    List<OutboxMessage> findDue(@Param("now") Date now, Limit limit);
+
+    /**
+     * Postpones messages after a failed publish attempt.
+     *
+     * @param ids the IDs of the messages
+     * @param nextAttemptAt the time of the next attempt
+     * @param error the reason of the failure
+     * @return the number of updated messages
+     */
+    @Modifying
+    @Query("UPDATE OutboxMessage o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt, o.lastError = :error WHERE o.id IN :ids")
+    int postpone(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") Date nextAttemptAt, @Param("error") String error);
+
+    /**
+     * Deletes published messages.
+     *
+     * @param ids the IDs of the messages
+     * @return the number of deleted messages
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxMessage o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
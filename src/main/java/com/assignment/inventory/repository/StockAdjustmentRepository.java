@@ -0,0 +1,37 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.StockAdjustment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface StockAdjustmentRepository extends JpaRepository<StockAdjustment, Long> {
+
+    /**
+     * Retrieves and locks the stock adjustments with the given IDs that have not been applied yet.
+     *
+     * @param ids the IDs of the stock adjustments
+     * @return the locked StockAdjustment records still present
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sa FROM StockAdjustment sa WHERE sa.id IN :ids")
+    List<StockAdjustment> findForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves and locks the oldest stock adjustments created before the given time.
+     *
+     * @param before the exclusive upper bound of the creation time
+     * @param limit the maximum number of records to return
+     * @return the locked StockAdjustment records ordered by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sa FROM StockAdjustment sa WHERE sa.createdAt < :before ORDER BY sa.id")
+    List<StockAdjustment> findForUpdateByCreatedAtBefore(@Param("before") Date before, Limit limit);
+}
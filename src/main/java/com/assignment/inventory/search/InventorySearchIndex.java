@@ -0,0 +1,435 @@
+package com.assignment.inventory.search;
+
+import com.assignment.inventory.model.InventorySearchHit;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the product name, brand and category of the inventory masters.
+ * Every field maps its terms to the sorted IDs of the products containing them. The sorted term dictionary answers prefix
+ * queries, and a trigram index over the terms finds the candidates of fuzzy queries. A query only reads the postings of the
+ * terms it matches and never scans the catalog. Writes are serialized; reads take no lock and may see a concurrent write
+ * half applied.
+ */
+public class InventorySearchIndex {
+
+    // Most terms a single query token expands to through prefix or fuzzy matching
+    static final int MAX_EXPANSIONS = 64;
+
+    // Shortest query token matched fuzzily; shorter tokens have too many neighbours to be useful
+    static final int FUZZY_MIN_LENGTH = 4;
+
+    // Relevance of each kind of match, multiplied by the weight of the field
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.6;
+    private static final double FUZZY = 0.4;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<SearchField, ConcurrentSkipListMap<String, long[]>> postings = new EnumMap<>(SearchField.class);
+    private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+    private final Lock writeLock = new ReentrantLock();
+
+    public InventorySearchIndex() {
+        for (SearchField field : SearchField.values()) {
+            postings.put(field, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Adds a product to the index or replaces its indexed fields.
+     *
+     * @param productId the ID of the product
+     * @param productName the product name
+     * @param brand the brand
+     * @param category the category
+     */
+    public void put(Long productId, String productName, String brand, String category) {
+        putAll(List.of(new Document(productId, productName, brand, category)));
+    }
+
+    /**
+     * Adds products to the index or replaces their indexed fields. Every posting list touched by the products is rewritten
+     * once, so adding a batch costs about as much as adding one product to each of its terms.
+     *
+     * @param documents the indexed fields of the products; the last one of a product wins
+     */
+    public void putAll(Collection<Document> documents) {
+        Map<Long, Document> latest = new LinkedHashMap<>();
+        documents.forEach(document -> latest.put(document.productId(), document));
+        writeLock.lock();
+        try {
+            // Collect the products each changed term gains and loses
+            Map<SearchField, Map<String, List<Long>>> added = new EnumMap<>(SearchField.class);
+            Map<SearchField, Map<String, List<Long>>> removed = new EnumMap<>(SearchField.class);
+            for (Document document : latest.values()) {
+                Document previous = this.documents.put(document.productId(), document);
+
+                // Only the terms that changed touch the postings
+                for (SearchField field : SearchField.values()) {
+                    Set<String> before = previous == null ? Set.of() : new LinkedHashSet<>(tokenize(previous.text(field)));
+                    Set<String> after = new LinkedHashSet<>(tokenize(document.text(field)));
+                    before.stream().filter(term -> !after.contains(term)).forEach(term -> removed
+                            .computeIfAbsent(field, key -> new HashMap<>()).computeIfAbsent(term, key -> new ArrayList<>()).add(document.productId()));
+                    after.stream().filter(term -> !before.contains(term)).forEach(term -> added
+                            .computeIfAbsent(field, key -> new HashMap<>()).computeIfAbsent(term, key -> new ArrayList<>()).add(document.productId()));
+                }
+            }
+            removed.forEach((field, terms) -> terms.forEach((term, productIds) -> removePostings(field, term, sorted(productIds))));
+            added.forEach((field, terms) -> terms.forEach((term, productIds) -> addPostings(field, term, sorted(productIds))));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param productId the ID of the product
+     */
+    public void remove(Long productId) {
+        writeLock.lock();
+        try {
+            Document previous = documents.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            for (SearchField field : SearchField.values()) {
+                new LinkedHashSet<>(tokenize(previous.text(field))).forEach(term -> removePostings(field, term, new long[]{productId}));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed products
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Finds the products matching every token of a query, each token exactly, as a prefix of a term or within a small edit
+     * distance of a term, and ranks them by relevance.
+     *
+     * @param query the query text
+     * @param offset the number of ranked hits to skip
+     * @param limit the maximum number of hits to return
+     * @return the requested hits and the total number of matching products
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<List<Match>> tokens = new ArrayList<>();
+        for (String token : new LinkedHashSet<>(tokenize(query))) {
+            List<Match> matches = expand(token);
+            if (matches.isEmpty()) {
+                return SearchResult.EMPTY;
+            }
+            tokens.add(matches);
+        }
+        if (tokens.isEmpty()) {
+            return SearchResult.EMPTY;
+        }
+
+        // Start from the most selective token, the others only check the products matched so far
+        tokens.sort(Comparator.comparingLong(InventorySearchIndex::postingCount));
+        Map<Long, Double> scores = new HashMap<>();
+        for (Match match : tokens.get(0)) {
+            for (long productId : match.productIds()) {
+                scores.merge(productId, match.weight(), Math::max);
+            }
+        }
+        for (List<Match> matches : tokens.subList(1, tokens.size())) {
+            Map<Long, Double> next = new HashMap<>();
+            scores.forEach((productId, score) -> {
+                double best = 0;
+                for (Match match : matches) {
+                    if (match.weight() > best && Arrays.binarySearch(match.productIds(), productId) >= 0) {
+                        best = match.weight();
+                    }
+                }
+                if (best > 0) {
+                    next.put(productId, score + best);
+                }
+            });
+            scores = next;
+        }
+        return new SearchResult(rank(scores, offset, limit), scores.size());
+    }
+
+    /**
+     * Splits text into lowercase terms of letters and digits without diacritics.
+     *
+     * @param text the text, may be null
+     * @return the terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(normalized)).filter(term -> !term.isEmpty()).toList();
+    }
+
+    /**
+     * Resolves the terms a query token matches in every field with the relevance of each match.
+     *
+     * @param token the query token
+     * @return the matches, empty if the token matches nothing
+     */
+    private List<Match> expand(String token) {
+        List<Match> matches = new ArrayList<>();
+        for (SearchField field : SearchField.values()) {
+            ConcurrentSkipListMap<String, long[]> terms = postings.get(field);
+            long[] exact = terms.get(token);
+            if (exact != null) {
+                matches.add(new Match(exact, field.weight() * EXACT));
+            }
+
+            // Longer completions of the token are less likely to be what was meant
+            terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet().stream()
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(entry -> matches.add(new Match(entry.getValue(),
+                            field.weight() * PREFIX * token.length() / entry.getKey().length())));
+        }
+        if (token.length() >= FUZZY_MIN_LENGTH && token.chars().anyMatch(Character::isLetter)) {
+            fuzzyCandidates(token).forEach((term, distance) -> {
+                for (SearchField field : SearchField.values()) {
+                    long[] productIds = postings.get(field).get(term);
+                    if (productIds != null) {
+                        matches.add(new Match(productIds, field.weight() * FUZZY / distance));
+                    }
+                }
+            });
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the indexed terms within the allowed edit distance of a token that are neither the token nor one of its completions.
+     * Candidates must share enough trigrams with the token, since every edit changes at most three trigrams.
+     *
+     * @param token the query token
+     * @return the closest candidate terms with their edit distance
+     */
+    private Map<String, Integer> fuzzyCandidates(String token) {
+        int maxEdits = token.length() >= 8 ? 2 : 1;
+        List<String> tokenTrigrams = trigramsOf(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : tokenTrigrams) {
+            for (String term : trigrams.getOrDefault(trigram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+        int minShared = Math.max(1, tokenTrigrams.size() - 3 * maxEdits);
+        Map<String, Integer> candidates = new HashMap<>();
+        shared.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minShared && !entry.getKey().startsWith(token)
+                        && Math.abs(entry.getKey().length() - token.length()) <= maxEdits)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> {
+                    int distance = editDistance(token, entry.getKey(), maxEdits);
+                    if (distance <= maxEdits && candidates.size() < MAX_EXPANSIONS) {
+                        candidates.put(entry.getKey(), distance);
+                    }
+                });
+        return candidates;
+    }
+
+    /**
+     * Orders the matching products by descending score, then shorter product name and product ID, and returns one page of them.
+     *
+     * @param scores the score of every matching product
+     * @param offset the number of ranked hits to skip
+     * @param limit the maximum number of hits to return
+     * @return the hits of the page
+     */
+    private List<InventorySearchHit> rank(Map<Long, Double> scores, int offset, int limit) {
+        if (limit <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        int keep = (int) Math.min((long) offset + limit, scores.size());
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparingInt(entry -> nameLength(entry.getKey()))
+                .thenComparing(Map.Entry::getKey);
+
+        // Keep only the best offset + limit products instead of sorting every match
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(keep + 1, ranking.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > keep) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        List<InventorySearchHit> hits = new ArrayList<>();
+        for (Map.Entry<Long, Double> entry : ranked.subList(Math.min(offset, ranked.size()), ranked.size())) {
+            Document document = documents.get(entry.getKey());
+
+            // Removed by a concurrent write
+            if (document != null) {
+                hits.add(new InventorySearchHit(document.productId(), document.productName(), document.category(),
+                        document.brand(), entry.getValue()));
+            }
+        }
+        return hits;
+    }
+
+    private int nameLength(Long productId) {
+        Document document = documents.get(productId);
+        return document == null || document.productName() == null ? Integer.MAX_VALUE : document.productName().length();
+    }
+
+    private void addPostings(SearchField field, String term, long[] added) {
+        ConcurrentSkipListMap<String, long[]> terms = postings.get(field);
+        long[] productIds = terms.get(term);
+        if (productIds == null) {
+            terms.put(term, added);
+            trigramsOf(term).forEach(trigram -> trigrams.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(term));
+            return;
+        }
+
+        // Postings are replaced rather than modified so readers never see a partially merged array
+        long[] merged = new long[productIds.length + added.length];
+        int i = 0;
+        int j = 0;
+        int length = 0;
+        while (i < productIds.length || j < added.length) {
+            long next = j == added.length || (i < productIds.length && productIds[i] <= added[j]) ? productIds[i++] : added[j++];
+            if (length == 0 || merged[length - 1] != next) {
+                merged[length++] = next;
+            }
+        }
+        if (length != productIds.length) {
+            terms.put(term, length == merged.length ? merged : Arrays.copyOf(merged, length));
+        }
+    }
+
+    private void removePostings(SearchField field, String term, long[] removed) {
+        ConcurrentSkipListMap<String, long[]> terms = postings.get(field);
+        long[] productIds = terms.get(term);
+        if (productIds == null) {
+            return;
+        }
+        long[] remaining = Arrays.stream(productIds).filter(productId -> Arrays.binarySearch(removed, productId) < 0).toArray();
+        if (remaining.length == productIds.length) {
+            return;
+        }
+        if (remaining.length > 0) {
+            terms.put(term, remaining);
+            return;
+        }
+        terms.remove(term);
+
+        // Drop the term from the trigram index once no field contains it anymore
+        if (postings.values().stream().noneMatch(other -> other.containsKey(term))) {
+            for (String trigram : trigramsOf(term)) {
+                Set<String> termsOfTrigram = trigrams.get(trigram);
+                if (termsOfTrigram != null && termsOfTrigram.remove(term) && termsOfTrigram.isEmpty()) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a term padded with start and end markers into overlapping sequences of three characters.
+     *
+     * @param term the term
+     * @return the trigrams of the term
+     */
+    private static List<String> trigramsOf(String term) {
+        String padded = "^" + term + "$";
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the optimal string alignment distance of two terms, counting a swap of adjacent characters as one edit.
+     *
+     * @param a the first term
+     * @param b the second term
+     * @param max the largest distance of interest
+     * @return the distance, capped at max + 1
+     */
+    static int editDistance(String a, String b, int max) {
+        int[][] distance = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            distance[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            distance[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(distance[i - 1][j] + 1, distance[i][j - 1] + 1), distance[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, distance[i - 2][j - 2] + 1);
+                }
+                distance[i][j] = value;
+            }
+        }
+        return Math.min(distance[a.length()][b.length()], max + 1);
+    }
+
+    private static long[] sorted(List<Long> productIds) {
+        return productIds.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static long postingCount(List<Match> matches) {
+        return matches.stream().mapToLong(match -> match.productIds().length).sum();
+    }
+
+    /**
+     * Indexed fields of a product.
+     */
+    public record Document(Long productId, String productName, String brand, String category) {
+
+        String text(SearchField field) {
+            return switch (field) {
+                case productName -> productName;
+                case brand -> brand;
+                case category -> category;
+            };
+        }
+    }
+
+    /**
+     * Products containing a term matched by a query token and the relevance of that match.
+     */
+    private record Match(long[] productIds, double weight) {
+    }
+
+    /**
+     * One page of ranked hits and the total number of matching products.
+     */
+    public record SearchResult(List<InventorySearchHit> hits, long total) {
+
+        static final SearchResult EMPTY = new SearchResult(List.of(), 0);
+    }
+}
@@ -0,0 +1,20 @@
+package com.assignment.inventory.search;
+
+/**
+ * Inventory master fields covered by the search index with the weight of a match in each.
+ */
+public enum SearchField {
+    productName(3.0),
+    brand(2.0),
+    category(1.0);
+
+    private final double weight;
+
+    SearchField(double weight) {
+        this.weight = weight;
+    }
+
+    public double weight() {
+        return weight;
+    }
+}
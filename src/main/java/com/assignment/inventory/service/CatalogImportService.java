@@ -0,0 +1,613 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.ConflictException;
+import com.assignment.inventory.importer.ImportCheckpoint;
+import com.assignment.inventory.importer.ImportErrorReport;
+import com.assignment.inventory.importer.ImportRecordReader;
+import com.assignment.inventory.model.BulkItemResult;
+import com.assignment.inventory.model.BulkItemStatus;
+import com.assignment.inventory.model.ImportFormat;
+import com.assignment.inventory.model.ImportSummary;
+import com.assignment.inventory.model.InventoryMaster;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Loads catalog files of any size into the inventory masters through three stages connected by bounded queues:
+ * the calling thread parses records into batches, validator threads convert and validate them, and writer threads upsert
+ * them by supplier ID and product name in batched transactions. Records are routed to writers by their supplier and
+ * product name, and validated batches are handed to the writers in file order, so the records of one product are written
+ * by one writer in file order and writers never race to create the same product. Full queues block the stage before them, so memory stays constant whatever the file size.
+ * <p>
+ * Records that fail validation or cannot be saved are written to an error report and the import goes on, until more than
+ * {@code inventory.import.max-errors} records failed. A checkpoint tracks the leading records that are done, so an
+ * aborted import resumes after them. One import runs at a time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.import.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogImportService {
+
+    private static final int MAX_FIELD_LENGTH = 255;
+    private static final long POLL_MILLIS = 100;
+
+    private final InventoryService inventoryService;
+    private final int batchSize;
+    private final int validatorThreads;
+    private final int writerThreads;
+    private final int queueCapacity;
+    private final long maxErrors;
+    private final Duration checkpointInterval;
+    private final Path reportDirectory;
+    private final Counter createdCounter;
+    private final Counter updatedCounter;
+    private final Counter failedCounter;
+    private final Lock importLock = new ReentrantLock();
+
+    // Built the same way as the mapper of the MVC message converters so records convert like request bodies
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    public CatalogImportService(InventoryService inventoryService,
+                                MeterRegistry meterRegistry,
+                                @Value("${inventory.import.batch-size:${inventory.bulk.batch-size:500}}") int batchSize,
+                                @Value("${inventory.import.validator-threads:2}") int validatorThreads,
+                                @Value("${inventory.import.writer-threads:4}") int writerThreads,
+                                @Value("${inventory.import.queue-capacity:8}") int queueCapacity,
+                                @Value("${inventory.import.max-errors:10000}") long maxErrors,
+                                @Value("${inventory.import.checkpoint-interval:1s}") Duration checkpointInterval,
+                                @Value("${inventory.import.report-dir:import-reports}") Path reportDirectory) {
+        this.inventoryService = inventoryService;
+        this.batchSize = batchSize;
+        this.validatorThreads = validatorThreads;
+        this.writerThreads = writerThreads;
+        this.queueCapacity = queueCapacity;
+        this.maxErrors = maxErrors;
+        this.checkpointInterval = checkpointInterval;
+        this.reportDirectory = reportDirectory;
+        this.createdCounter = recordCounter(meterRegistry, BulkItemStatus.created);
+        this.updatedCounter = recordCounter(meterRegistry, BulkItemStatus.updated);
+        this.failedCounter = recordCounter(meterRegistry, BulkItemStatus.failed);
+    }
+
+    /**
+     * Imports a catalog file uploaded through the API, writing its failed records to a new report in the report directory.
+     *
+     * @param in the content of the file, read until its end
+     * @param format the format of the file
+     * @param resumeFrom the number of leading records an earlier run already committed, which are skipped
+     * @return the summary of the import
+     * @throws ConflictException if another import is running
+     * @throws InterruptedException if the calling thread was interrupted while importing
+     */
+    public ImportSummary importCatalog(InputStream in, ImportFormat format, long resumeFrom) throws ConflictException, InterruptedException {
+        String timestamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").format(LocalDateTime.now());
+        return importCatalog(in, format, resumeFrom, null, reportDirectory.resolve("import-" + timestamp + ".errors.ndjson"));
+    }
+
+    /**
+     * Imports a catalog file.
+     *
+     * @param in the content of the file, read until its end
+     * @param format the format of the file
+     * @param resumeFrom the number of leading records an earlier run already committed, which are skipped
+     * @param checkpointFile the file to keep the number of committed records in while importing, or null
+     * @param errorReportFile the file to write the failed records to
+     * @return the summary of the import
+     * @throws ConflictException if another import is running
+     * @throws InterruptedException if the calling thread was interrupted while importing
+     */
+    public ImportSummary importCatalog(InputStream in, ImportFormat format, long resumeFrom, Path checkpointFile, Path errorReportFile)
+            throws ConflictException, InterruptedException {
+        if (!importLock.tryLock()) {
+            throw new ConflictException(Constants.IMPORT_IN_PROGRESS_ERROR_MESSAGE);
+        }
+        try (ImportErrorReport errorReport = new ImportErrorReport(errorReportFile, resumeFrom)) {
+            ImportSummary summary = new ImportRun(format, resumeFrom, checkpointFile, errorReport).run(in);
+            log.info("Import read {} records in {} ms: {} created, {} updated, {} failed, {} skipped{}", summary.getRecords(),
+                    summary.getElapsedMillis(), summary.getCreated(), summary.getUpdated(), summary.getFailed(), summary.getSkipped(),
+                    summary.isAborted() ? ", aborted: " + summary.getAbortReason() : "");
+            return summary;
+        } catch (IOException e) {
+            // Closing the error report failed, the records were written already
+            throw new IllegalStateException(e);
+        } finally {
+            importLock.unlock();
+        }
+    }
+
+    // Records of the file in reading order; END marks the end of the stage before
+    private record Batch(long sequence, List<ImportRecordReader.Record> records) {
+    }
+
+    // Valid records of a batch for one writer
+    private record Part(PendingBatch batch, List<Row> rows) {
+    }
+
+    private record Row(long number, InventoryMaster inventory, Object source) {
+    }
+
+    // A batch whose parts are not all written yet
+    private record PendingBatch(long sequence, long lastRecord, AtomicInteger remainingParts) {
+    }
+
+    private static final Batch END_OF_BATCHES = new Batch(-1, List.of());
+    private static final Part END_OF_PARTS = new Part(null, List.of());
+
+    /**
+     * State of one import.
+     */
+    private class ImportRun {
+
+        private final ImportFormat format;
+        private final long resumeFrom;
+        private final ImportCheckpoint checkpoint;
+        private final ImportErrorReport errorReport;
+        private final BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(queueCapacity);
+        private final List<BlockingQueue<Part>> writerQueues = new ArrayList<>();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicBoolean aborted = new AtomicBoolean();
+        private final AtomicReference<String> abortReason = new AtomicReference<>();
+
+        // Sequence of the next batch to hand to the writers; validators finish out of order and wait for their turn
+        private final Lock handOverLock = new ReentrantLock();
+        private final Condition handedOver = handOverLock.newCondition();
+        private long nextHandOver;
+
+        ImportRun(ImportFormat format, long resumeFrom, Path checkpointFile, ImportErrorReport errorReport) {
+            this.format = format;
+            this.resumeFrom = resumeFrom;
+            this.checkpoint = new ImportCheckpoint(checkpointFile, checkpointInterval, resumeFrom);
+            this.errorReport = errorReport;
+            for (int i = 0; i < writerThreads; i++) {
+                writerQueues.add(new ArrayBlockingQueue<>(queueCapacity));
+            }
+        }
+
+        ImportSummary run(InputStream in) throws InterruptedException {
+            long start = System.nanoTime();
+            ExecutorService validators = Executors.newFixedThreadPool(validatorThreads, daemonThreads("import-validator-"));
+            ExecutorService writers = Executors.newFixedThreadPool(writerThreads, daemonThreads("import-writer-"));
+            long records = 0;
+            try {
+                List<Future<?>> validating = new ArrayList<>();
+                for (int i = 0; i < validatorThreads; i++) {
+                    validating.add(validators.submit(this::validate));
+                }
+                List<Future<?>> writing = new ArrayList<>();
+                for (BlockingQueue<Part> queue : writerQueues) {
+                    writing.add(writers.submit(() -> write(queue)));
+                }
+
+                // Parse on the calling thread, which is the only reader of the stream
+                try {
+                    records = parse(in);
+                } finally {
+                    for (int i = 0; i < validatorThreads; i++) {
+                        put(batches, END_OF_BATCHES);
+                    }
+                    awaitAll(validating);
+                    for (BlockingQueue<Part> queue : writerQueues) {
+                        put(queue, END_OF_PARTS);
+                    }
+                    awaitAll(writing);
+                }
+            } catch (InterruptedException e) {
+                abort("interrupted");
+                throw e;
+            } finally {
+                validators.shutdownNow();
+                writers.shutdownNow();
+                if (aborted.get()) {
+                    checkpoint.save();
+                } else {
+                    checkpoint.delete();
+                }
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ImportSummary summary = new ImportSummary();
+            summary.setFormat(format);
+            summary.setRecords(records);
+            summary.setSkipped(Math.min(records, resumeFrom));
+            summary.setCreated(created.get());
+            summary.setUpdated(updated.get());
+            summary.setFailed(failed.get());
+            summary.setCommittedRecords(aborted.get() ? checkpoint.getCommittedRecords() : records);
+            summary.setAborted(aborted.get());
+            summary.setAbortReason(abortReason.get());
+            summary.setElapsedMillis(elapsedMillis);
+            summary.setRecordsPerSecond((records - summary.getSkipped()) * 1000 / Math.max(1, elapsedMillis));
+            summary.setErrorReport(errorReport.getPath() == null ? null : errorReport.getPath().toString());
+            return summary;
+        }
+
+        /**
+         * Reads the records into batches for the validators.
+         *
+         * @return the number of records read
+         */
+        private long parse(InputStream in) throws InterruptedException {
+            ImportRecordReader reader = null;
+            try {
+                reader = ImportRecordReader.open(in, format);
+                long sequence = 0;
+                List<ImportRecordReader.Record> records = new ArrayList<>(batchSize);
+                ImportRecordReader.Record record;
+                while (!aborted.get() && (record = reader.next()) != null) {
+                    if (record.number() <= resumeFrom) {
+                        continue;
+                    }
+                    records.add(record);
+                    if (records.size() >= batchSize) {
+                        put(batches, new Batch(sequence++, records));
+                        records = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!records.isEmpty()) {
+                    put(batches, new Batch(sequence, records));
+                }
+                return reader.getNumber();
+            } catch (IOException | RuntimeException e) {
+                // The file is malformed or the stream broke, the records after it cannot be read
+                long number = reader == null ? 0 : reader.getNumber();
+                abort("record " + (number + 1) + " is unreadable: " + firstLineOf(e.getMessage()));
+                return number;
+            } finally {
+                closeQuietly(reader);
+            }
+        }
+
+        /**
+         * Converts and validates the records of batches and hands the valid ones to the writer of their product.
+         * Batches are handed over in sequence, so every writer queue receives its records in file order.
+         */
+        private void validate() {
+            try {
+                Batch batch;
+                while ((batch = take(batches, END_OF_BATCHES)) != END_OF_BATCHES) {
+                    List<List<Row>> parts = new ArrayList<>(writerThreads);
+                    for (int i = 0; i < writerThreads; i++) {
+                        parts.add(new ArrayList<>());
+                    }
+                    for (ImportRecordReader.Record record : batch.records()) {
+                        Row row = toRow(record);
+                        if (row != null) {
+                            InventoryMaster inventory = row.inventory();
+                            parts.get(Math.floorMod(Objects.hash(inventory.getSupplierId(), inventory.getProductName()), writerThreads)).add(row);
+                        }
+                    }
+
+                    int nonEmpty = (int) parts.stream().filter(part -> !part.isEmpty()).count();
+                    long lastRecord = batch.records().get(batch.records().size() - 1).number();
+                    PendingBatch pending = new PendingBatch(batch.sequence(), lastRecord, new AtomicInteger(nonEmpty));
+                    if (!awaitHandOver(batch.sequence())) {
+                        break;
+                    }
+                    try {
+                        if (nonEmpty == 0) {
+                            checkpoint.done(batch.sequence(), lastRecord);
+                        }
+                        for (int i = 0; i < writerThreads; i++) {
+                            if (!parts.get(i).isEmpty()) {
+                                put(writerQueues.get(i), new Part(pending, parts.get(i)));
+                            }
+                        }
+                    } finally {
+                        handOverDone();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                abort("validation failed: " + firstLineOf(e.getMessage()));
+                throw e;
+            }
+        }
+
+        /**
+         * Upserts the parts of one writer, combining queued parts into transactions of up to the batch size.
+         */
+        private void write(BlockingQueue<Part> queue) {
+            try {
+                boolean end = false;
+                while (!end && !aborted.get()) {
+                    Part part = take(queue, END_OF_PARTS);
+                    if (part == END_OF_PARTS) {
+                        break;
+                    }
+                    List<Part> parts = new ArrayList<>();
+                    parts.add(part);
+                    int rows = part.rows().size();
+                    while (rows < batchSize && (part = queue.poll()) != null) {
+                        if (part == END_OF_PARTS) {
+                            end = true;
+                            break;
+                        }
+                        parts.add(part);
+                        rows += part.rows().size();
+                    }
+
+                    upsert(parts.stream().flatMap(p -> p.rows().stream()).toList());
+                    for (Part written : parts) {
+                        if (written.batch().remainingParts().decrementAndGet() == 0) {
+                            checkpoint.done(written.batch().sequence(), written.batch().lastRecord());
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                abort("writing failed: " + firstLineOf(e.getMessage()));
+                throw e;
+            }
+        }
+
+        private void upsert(List<Row> rows) {
+            try {
+                count(inventoryService.upsertInventoriesBySupplierAndName(rows.stream().map(Row::inventory).toList()));
+                return;
+            } catch (RuntimeException e) {
+                log.debug("Import batch failed, retrying its records one by one", e);
+            }
+
+            // Save the records of the failed batch on their own to find the ones that fail
+            for (Row row : rows) {
+                try {
+                    // Convert the record again, the failed transaction left its entity with an ID and managed collections
+                    count(inventoryService.upsertInventoriesBySupplierAndName(List.of(toInventory(row.source()))));
+                } catch (IOException | RuntimeException e) {
+                    fail(row.number(), firstLineOf(e.getMessage()), row.source());
+                }
+            }
+        }
+
+        private void count(List<BulkItemResult> results) {
+            for (BulkItemResult result : results) {
+                if (result.getStatus() == BulkItemStatus.created) {
+                    created.incrementAndGet();
+                    createdCounter.increment();
+                } else {
+                    updated.incrementAndGet();
+                    updatedCounter.increment();
+                }
+            }
+        }
+
+        /**
+         * Converts a record to an inventory master and validates it.
+         *
+         * @return the row to write, or null if the record is invalid and was reported
+         */
+        private Row toRow(ImportRecordReader.Record record) {
+            InventoryMaster inventory;
+            try {
+                inventory = toInventory(record.source());
+            } catch (JsonProcessingException e) {
+                fail(record.number(), e.getOriginalMessage(), record.source());
+                return null;
+            } catch (IOException | IllegalArgumentException e) {
+                fail(record.number(), firstLineOf(e.getMessage()), record.source());
+                return null;
+            }
+
+            String error = validationErrorOf(inventory);
+            if (error != null) {
+                fail(record.number(), error, record.source());
+                return null;
+            }
+            return new Row(record.number(), inventory, record.source());
+        }
+
+        /**
+         * Waits until the batches before a batch were handed to the writers.
+         *
+         * @param sequence the sequence of the batch
+         * @return true when it is the turn of the batch, false when the import was aborted
+         */
+        private boolean awaitHandOver(long sequence) throws InterruptedException {
+            handOverLock.lock();
+            try {
+                while (nextHandOver != sequence) {
+                    // A validator that failed never hands over its batch
+                    if (aborted.get()) {
+                        return false;
+                    }
+                    handedOver.await(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                return true;
+            } finally {
+                handOverLock.unlock();
+            }
+        }
+
+        private void handOverDone() {
+            handOverLock.lock();
+            try {
+                nextHandOver++;
+                handedOver.signalAll();
+            } finally {
+                handOverLock.unlock();
+            }
+        }
+
+        private void fail(long number, String error, Object source) {
+            errorReport.add(number, error, source);
+            failedCounter.increment();
+            if (failed.incrementAndGet() > maxErrors) {
+                abort("more than " + maxErrors + " records failed");
+            }
+        }
+
+        private void abort(String reason) {
+            if (aborted.compareAndSet(false, true)) {
+                abortReason.set(reason);
+            }
+        }
+
+        private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+            // Give up when the import is aborted, the stage after this one may no longer be taking
+            while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (aborted.get()) {
+                    return;
+                }
+            }
+        }
+
+        private <T> T take(BlockingQueue<T> queue, T end) throws InterruptedException {
+            // End the stage when the import is aborted, the stage before this one may no longer be putting
+            while (true) {
+                T item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item != null) {
+                    return item;
+                }
+                if (aborted.get()) {
+                    return end;
+                }
+            }
+        }
+
+        private void awaitAll(List<Future<?>> futures) throws InterruptedException {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Already recorded as the reason of the abort
+                    log.warn("Import worker failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a record to a new inventory master.
+     *
+     * @param source the record as read, a JSON line or the columns of a CSV row
+     * @return the inventory master, without ID, version and details
+     * @throws IOException if the JSON line is malformed
+     * @throws IllegalArgumentException if a CSV column cannot be converted
+     */
+    private InventoryMaster toInventory(Object source) throws IOException {
+        InventoryMaster inventory = source instanceof String json ? objectMapper.readValue(json, InventoryMaster.class)
+                : objectMapper.convertValue(withoutEmptyColumns(source), InventoryMaster.class);
+        // Products are identified by supplier and name; IDs, versions and details of the file are ignored
+        inventory.setProductId(null);
+        inventory.setVersion(0);
+        inventory.setInventoryDetails(new LinkedHashSet<>());
+        return inventory;
+    }
+
+    /**
+     * Validates an inventory master read from a catalog file.
+     *
+     * @param inventory the inventory master
+     * @return the reason it is invalid, or null if it is valid
+     */
+    static String validationErrorOf(InventoryMaster inventory) {
+        if (inventory.getProductName() == null || inventory.getProductName().isBlank()) {
+            return "productName is required";
+        }
+        if (inventory.getSupplierId() == null) {
+            return "supplierId is required";
+        }
+        if (inventory.getStockInHand() < 0) {
+            return "stockInHand must not be negative";
+        }
+        if (!(inventory.getUnitPrice() >= 0) || Double.isInfinite(inventory.getUnitPrice())) {
+            return "unitPrice must be a non-negative number";
+        }
+        Map<String, String> texts = new LinkedHashMap<>();
+        texts.put("productName", inventory.getProductName());
+        texts.put("category", inventory.getCategory());
+        texts.put("brand", inventory.getBrand());
+        texts.put("remarks", inventory.getRemarks());
+        for (Map.Entry<String, String> text : texts.entrySet()) {
+            if (text.getValue() != null && text.getValue().length() > MAX_FIELD_LENGTH) {
+                return text.getKey() + " must not be longer than " + MAX_FIELD_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> withoutEmptyColumns(Object source) {
+        // Empty CSV cells are missing values rather than empty strings or zeros
+        Map<String, String> columns = new LinkedHashMap<>();
+        ((Map<?, ?>) source).forEach((column, value) -> {
+            if (value != null && !value.toString().isEmpty()) {
+                columns.put(column.toString(), value.toString());
+            }
+        });
+        return columns;
+    }
+
+    private static void closeQuietly(ImportRecordReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.debug("Closing the catalog file failed", e);
+            }
+        }
+    }
+
+    private static String firstLineOf(String message) {
+        if (message == null) {
+            return "unknown error";
+        }
+        int end = message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Counter recordCounter(MeterRegistry meterRegistry, BulkItemStatus status) {
+        return Counter.builder("inventory.import.records")
+                .description("Catalog import records by outcome")
+                .tag("outcome", status.name())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,143 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.IdempotencyRecordState;
+import com.assignment.inventory.model.IdempotentResponse;
+import com.assignment.inventory.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares Idempotency-Keys between instances through the idempotency_record table. A key is claimed by inserting its record,
+ * so only one instance executes a request, and the claim ends after the claim timeout so a key held by a stopped instance
+ * is not blocked for good. Records are purged in the background once their retention ended.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.idempotency.store", havingValue = "database")
+public class IdempotencyRecordStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration claimTimeout;
+    private final Duration ttl;
+
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdempotencyRecordStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${inventory.idempotency.claim-timeout:1m}") Duration claimTimeout,
+                                  @Value("${inventory.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${inventory.idempotency.purge-interval:10m}") Duration purgeInterval) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        // Claims have to be visible to the other instances before the request executes
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.claimTimeout = claimTimeout;
+        this.ttl = ttl;
+        purger.scheduleWithFixedDelay(this::purgeQuietly, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduled purges when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * Claims a key for one execution of its request.
+     *
+     * @param id the ID of the key
+     * @param fingerprint the fingerprint of the request
+     * @param claimToken the token identifying the execution
+     * @return empty if the key was claimed, otherwise the record of the execution holding the key or its response
+     */
+    public Optional<IdempotencyRecordState> claim(String id, String fingerprint, String claimToken) {
+        while (true) {
+            Date now = new Date();
+            Date expiresAt = new Date(now.getTime() + claimTimeout.toMillis());
+            // Look the key up first, since a retry finds it claimed and a failed insert would be logged as an error
+            Optional<IdempotencyRecordState> holder = idempotencyRecordRepository.findStateById(id);
+            if (holder.isPresent() && holder.get().getExpiresAt().after(now)) {
+                return holder;
+            }
+            try {
+                // Claim an unknown key, or take over a key whose claim or retention ended
+                Boolean claimed = transactionTemplate.execute(status -> holder.isPresent()
+                        ? idempotencyRecordRepository.takeOver(id, fingerprint, claimToken, now, expiresAt) == 1
+                        : idempotencyRecordRepository.insertClaim(id, fingerprint, claimToken, now, expiresAt) == 1);
+                if (Boolean.TRUE.equals(claimed)) {
+                    return Optional.empty();
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Claimed by another execution since the lookup, read its state again
+            }
+        }
+    }
+
+    /**
+     * Records the response of a claimed key in the transaction of its request.
+     *
+     * @param id the ID of the key
+     * @param claimToken the token of the claim
+     * @param response the response of the request
+     * @return false if the claim ended and was taken over by another execution
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean complete(String id, String claimToken, IdempotentResponse response) {
+        Date expiresAt = new Date(System.currentTimeMillis() + ttl.toMillis());
+        return idempotencyRecordRepository.complete(id, claimToken, response.getStatus(), response.getBody(), response.getHeaders(), expiresAt) == 1;
+    }
+
+    /**
+     * Gives up a claim after its request failed, so a retry executes the request again.
+     *
+     * @param id the ID of the key
+     * @param claimToken the token of the claim
+     */
+    public void release(String id, String claimToken) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.release(id, claimToken));
+    }
+
+    /**
+     * Deletes the records whose claim or retention ended.
+     *
+     * @return the number of deleted records
+     */
+    public int purge() {
+        Integer purged = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteByExpiresAtBefore(new Date()));
+        return purged == null ? 0 : purged;
+    }
+
+    private void purgeQuietly() {
+        try {
+            int purged = purge();
+            if (purged > 0) {
+                log.info("Purged {} idempotency records", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Idempotency record purge failed", e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.BadRequestException;
+import com.assignment.inventory.exceptions.ConflictException;
+import com.assignment.inventory.exceptions.UnprocessableEntityException;
+import com.assignment.inventory.model.IdempotencyRecordState;
+import com.assignment.inventory.model.IdempotentResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executes a write request sent with an Idempotency-Key at most once and answers retries with the same key from the recorded
+ * response, without executing the request again. Keys are scoped to the user, method and path of the request. A retry that
+ * arrives while the first execution is still running waits for its response instead of racing it; a request that fails is
+ * not recorded, so its retry executes again. Responses of keyed requests are JSON, so the recorded response can be replayed
+ * with the same body and headers whatever the retry accepts.
+ * <p>
+ * Responses are kept in a bounded in-memory store for the retention. Looking up and claiming a key happens under one of a
+ * fixed set of locks picked by the key, so unrelated keys rarely contend and the lock is never held while a request executes.
+ * With {@code inventory.idempotency.store=database} keys are also claimed in the idempotency_record table so retries sent to
+ * another instance are deduplicated too, and the response is recorded in the transaction of the request.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * A write request to execute once per key.
+     *
+     * @param <E> the checked exception of the request
+     */
+    @FunctionalInterface
+    public interface Execution<E extends Exception> {
+        ResponseEntity<?> execute() throws E;
+    }
+
+    // A key claimed by an execution on this instance; the result is null if the execution failed
+    private record Entry(String fingerprint, CompletableFuture<IdempotentResponse> result) {
+    }
+
+    private final Cache<String, Entry> entries;
+    private final Lock[] stripes;
+    private final IdempotencyRecordStore idempotencyRecordStore;
+    private final PlatformTransactionManager transactionManager;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+    private final Counter replayedCounter;
+
+    // Built the same way as the mapper of the MVC message converters so replays return identical JSON
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    public IdempotencyService(ObjectProvider<IdempotencyRecordStore> idempotencyRecordStore,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${inventory.idempotency.maximum-size:10000}") long maximumSize,
+                              @Value("${inventory.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${inventory.idempotency.lock-stripes:64}") int lockStripes,
+                              @Value("${inventory.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                              @Value("${inventory.idempotency.poll-interval:100ms}") Duration pollInterval) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        // A power of two, so the stripe is picked by masking the hash
+        this.stripes = new Lock[Integer.highestOneBit(Math.max(1, lockStripes - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.idempotencyRecordStore = idempotencyRecordStore.getIfAvailable();
+        this.transactionManager = transactionManager;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.replayedCounter = Counter.builder("inventory.idempotency.replayed")
+                .description("Requests answered with the recorded response of an earlier request with the same Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executes the request unless a request with the same key was already executed, in which case its response is returned.
+     *
+     * @param key the Idempotency-Key of the request
+     * @param scope the user, method and path of the request
+     * @param body the request body, compared with the body of the recorded request; null if the key alone identifies it
+     * @param execution executes the request
+     * @return the response of the request, or the recorded response marked with the Idempotent-Replayed header
+     * @param <E> the checked exception of the request
+     * @throws E if the request failed
+     * @throws BadRequestException if the key is empty or too long
+     * @throws ConflictException if the request with the same key did not finish within the wait timeout
+     * @throws UnprocessableEntityException if the key was used for a request with a different body
+     */
+    public <E extends Exception> ResponseEntity<?> execute(String key, String scope, Object body, Execution<E> execution)
+            throws E, BadRequestException, ConflictException, UnprocessableEntityException {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(Constants.INVALID_IDEMPOTENCY_KEY_ERROR_MESSAGE);
+        }
+        String id = sha256(scope + '\n' + key);
+        String fingerprint = body == null ? "" : sha256(toJson(body));
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            // Look up the key and claim it if it is unknown, atomically for this instance
+            Entry entry;
+            boolean claimed = false;
+            boolean heldElsewhere = false;
+            String claimToken = UUID.randomUUID().toString();
+            Lock lock = stripeOf(id);
+            lock.lock();
+            try {
+                entry = entries.getIfPresent(id);
+                if (entry == null) {
+                    Optional<IdempotencyRecordState> holder = idempotencyRecordStore == null ? Optional.empty()
+                            : idempotencyRecordStore.claim(id, fingerprint, claimToken);
+                    if (holder.isEmpty()) {
+                        entry = new Entry(fingerprint, new CompletableFuture<>());
+                        claimed = true;
+                    } else if (holder.get().isCompleted()) {
+                        IdempotencyRecordState record = holder.get();
+                        entry = new Entry(record.getFingerprint(), CompletableFuture.completedFuture(
+                                new IdempotentResponse(record.getFingerprint(), record.getStatus(), record.getBody(), record.getHeaders())));
+                    } else {
+                        // Executing on another instance, which is not awaited through this instance's entries
+                        entry = new Entry(holder.get().getFingerprint(), null);
+                        heldElsewhere = true;
+                    }
+                    if (!heldElsewhere) {
+                        entries.put(id, entry);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (!entry.fingerprint().equals(fingerprint)) {
+                throw new UnprocessableEntityException(Constants.IDEMPOTENCY_KEY_REUSED_ERROR_MESSAGE);
+            }
+            if (heldElsewhere) {
+                // Check the record of the other instance again shortly
+                awaitPoll(deadline);
+                continue;
+            }
+            if (claimed) {
+                return executeClaimed(id, claimToken, entry, execution);
+            }
+            IdempotentResponse response = await(entry, deadline);
+            if (response != null) {
+                replayedCounter.increment();
+                HttpHeaders headers = new HttpHeaders();
+                if (response.getHeaders() != null) {
+                    headers.putAll(fromJson(response.getHeaders()));
+                }
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.set(Constants.IDEMPOTENT_REPLAYED_HEADER, "true");
+                return ResponseEntity.status(response.getStatus()).headers(headers).body(response.getBody());
+            }
+            // The execution failed and released the key, so claim it again
+        }
+    }
+
+    private <E extends Exception> ResponseEntity<?> executeClaimed(String id, String claimToken, Entry entry, Execution<E> execution)
+            throws E, ConflictException {
+        IdempotentResponse recorded = null;
+        try {
+            if (idempotencyRecordStore == null) {
+                ResponseEntity<?> response = asJson(execution.execute());
+                recorded = record(entry.fingerprint(), response);
+                return response;
+            }
+
+            // Record the response in the transaction of the request so it exists if and only if the changes committed
+            TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+            ResponseEntity<?> response;
+            IdempotentResponse committed;
+            try {
+                response = asJson(execution.execute());
+                committed = record(entry.fingerprint(), response);
+                if (committed != null && !idempotencyRecordStore.complete(id, claimToken, committed)) {
+                    // The claim timed out and another execution took the key over
+                    throw new ConflictException(Constants.IDEMPOTENCY_KEY_IN_PROGRESS_ERROR_MESSAGE);
+                }
+            } catch (Throwable e) {
+                transactionManager.rollback(transaction);
+                throw e;
+            }
+            transactionManager.commit(transaction);
+            recorded = committed;
+            return response;
+        } finally {
+            if (recorded == null) {
+                entries.asMap().remove(id, entry);
+                if (idempotencyRecordStore != null) {
+                    idempotencyRecordStore.release(id, claimToken);
+                }
+            }
+            // Wake up the retries waiting for this execution
+            entry.result().complete(recorded);
+        }
+    }
+
+    private IdempotentResponse record(String fingerprint, ResponseEntity<?> response) {
+        // Only successful responses are recorded, a failed request is executed again by its retry
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return null;
+        }
+        return new IdempotentResponse(fingerprint, response.getStatusCode().value(), toJson(response.getBody()), toJson(response.getHeaders()));
+    }
+
+    /**
+     * Pins the content type of a response to JSON, the representation that is recorded, so its replays are identical.
+     */
+    private static ResponseEntity<?> asJson(ResponseEntity<?> response) {
+        if (response.getHeaders().getContentType() != null) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private IdempotentResponse await(Entry entry, long deadline) throws ConflictException {
+        try {
+            return entry.result().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException(Constants.IDEMPOTENCY_KEY_IN_PROGRESS_ERROR_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException(Constants.IDEMPOTENCY_KEY_IN_PROGRESS_ERROR_MESSAGE);
+        } catch (ExecutionException e) {
+            // Executions complete with null instead of failing
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitPoll(long deadline) throws ConflictException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new ConflictException(Constants.IDEMPOTENCY_KEY_IN_PROGRESS_ERROR_MESSAGE);
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, pollInterval.toNanos()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException(Constants.IDEMPOTENCY_KEY_IN_PROGRESS_ERROR_MESSAGE);
+        }
+    }
+
+    private Lock stripeOf(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, List<String>> fromJson(String headers) {
+        try {
+            return objectMapper.readValue(headers, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
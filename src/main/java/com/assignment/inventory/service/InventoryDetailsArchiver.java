@@ -0,0 +1,204 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.cache.InventoryMasterCache;
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.ConflictException;
+import com.assignment.inventory.model.ArchivableInventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsSummary;
+import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.repository.InventoryDetailsArchiveRepository;
+import com.assignment.inventory.repository.InventoryDetailsRepository;
+import com.assignment.inventory.repository.InventoryDetailsSummaryRepository;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves the inventory details of closed periods out of inventory_details, so the detail queries only read recent and still
+ * open details. Enabled with {@code inventory.archive.enabled}; exports and filters read the archive too, the details of a
+ * product and the change stream do not. A month is closed once it is older than the current month and the {@code hot-months} before it;
+ * its completed and cancelled details are copied to inventory_details_archive, summed per hour, product, status and type
+ * into inventory_details_summary for the aggregates, and deleted, one batch per transaction. Pending details stay until
+ * they are closed. Archiving moves no stock and writes no tombstones; the products of a batch are marked as changed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.archive.enabled", havingValue = "true")
+public class InventoryDetailsArchiver {
+
+    private static final List<TransactionStatus> CLOSED_STATUSES = List.of(TransactionStatus.completed, TransactionStatus.cancelled);
+
+    // Details summed into one summary row
+    private record SummaryKey(Date periodStart, Long productId, TransactionStatus transactionStatus, String transactionType) {
+    }
+
+    private final InventoryDetailsRepository inventoryDetailsRepository;
+    private final InventoryDetailsArchiveRepository inventoryDetailsArchiveRepository;
+    private final InventoryDetailsSummaryRepository inventoryDetailsSummaryRepository;
+    private final InventoryMasterRepository inventoryMasterRepository;
+    private final InventoryMasterCache inventoryMasterCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int hotMonths;
+    private final int batchSize;
+    private final Counter archivedCounter;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Lock archiveLock = new ReentrantLock();
+
+    private final ScheduledExecutorService archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "details-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryDetailsArchiver(InventoryDetailsRepository inventoryDetailsRepository,
+                                    InventoryDetailsArchiveRepository inventoryDetailsArchiveRepository,
+                                    InventoryDetailsSummaryRepository inventoryDetailsSummaryRepository,
+                                    InventoryMasterRepository inventoryMasterRepository,
+                                    InventoryMasterCache inventoryMasterCache,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${inventory.archive.hot-months:3}") int hotMonths,
+                                    @Value("${inventory.archive.batch-size:1000}") int batchSize,
+                                    @Value("${inventory.archive.interval:1h}") Duration interval) {
+        this.inventoryDetailsRepository = inventoryDetailsRepository;
+        this.inventoryDetailsArchiveRepository = inventoryDetailsArchiveRepository;
+        this.inventoryDetailsSummaryRepository = inventoryDetailsSummaryRepository;
+        this.inventoryMasterRepository = inventoryMasterRepository;
+        this.inventoryMasterCache = inventoryMasterCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotMonths = Math.max(0, hotMonths);
+        this.batchSize = Math.max(1, batchSize);
+        this.archivedCounter = Counter.builder("inventory.archive.details")
+                .description("Inventory details moved to the archive")
+                .register(meterRegistry);
+        archiver.scheduleWithFixedDelay(this::archiveQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduled runs when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        archiver.shutdownNow();
+    }
+
+    /**
+     * Archives the closed details of the closed periods, batch by batch until none are left.
+     *
+     * @return the number of archived details
+     * @throws ConflictException if an archiving run is already in progress
+     */
+    public int archive() throws ConflictException {
+        if (!archiveLock.tryLock()) {
+            throw new ConflictException(Constants.ARCHIVE_IN_PROGRESS_ERROR_MESSAGE);
+        }
+        try {
+            Date before = archiveBoundary();
+            int archived = 0;
+            List<Long> candidates;
+            do {
+                // Pick the batch without locking, locking with a limit would lock every matching detail on some databases
+                candidates = inventoryDetailsRepository.findArchivableIds(before, CLOSED_STATUSES, Limit.of(batchSize));
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                List<Long> batch = candidates;
+                Integer count = transactionTemplate.execute(status -> archiveBatch(batch, before));
+                archived += count == null ? 0 : count;
+                archivedCounter.increment(count == null ? 0 : count);
+            } while (candidates.size() == batchSize && !Thread.currentThread().isInterrupted());
+            return archived;
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the start of the oldest month that is not archived yet.
+     *
+     * @return the exclusive upper bound of the transaction dates of archived details
+     */
+    public Date archiveBoundary() {
+        return Date.from(LocalDate.now(zone).withDayOfMonth(1).minusMonths(hotMonths).atStartOfDay(zone).toInstant());
+    }
+
+    private int archiveBatch(List<Long> candidates, Date before) {
+        // Lock the batch and check it again, so a concurrent update cannot reopen a detail between summing and deleting it
+        List<ArchivableInventoryDetails> details = inventoryDetailsRepository.findArchivableForUpdate(candidates, before, CLOSED_STATUSES);
+        if (details.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> transactionIds = new ArrayList<>(details.size());
+        Set<Long> productIds = new LinkedHashSet<>();
+        Map<SummaryKey, InventoryDetailsSummary> summaries = new LinkedHashMap<>();
+        for (ArchivableInventoryDetails detail : details) {
+            transactionIds.add(detail.getTransactionId());
+            if (detail.getProductId() != null) {
+                productIds.add(detail.getProductId());
+            }
+            SummaryKey key = new SummaryKey(hourOf(detail.getTransactionDate()), detail.getProductId(),
+                    detail.getTransactionStatus(), detail.getTransactionType());
+            InventoryDetailsSummary summary = summaries.computeIfAbsent(key, k -> new InventoryDetailsSummary(
+                    k.periodStart(), k.productId(), k.transactionStatus(), k.transactionType()));
+            summary.setTransactionCount(summary.getTransactionCount() + 1);
+            summary.setTotalQuantity(summary.getTotalQuantity() + detail.getQuantity());
+            summary.setTotalAmount(summary.getTotalAmount() + detail.getTransactionAmount());
+        }
+
+        // Copy, summarize and delete in the same transaction so every detail is counted exactly once
+        inventoryDetailsArchiveRepository.copyFromDetails(transactionIds, new Date());
+        inventoryDetailsSummaryRepository.saveAll(summaries.values());
+        inventoryDetailsRepository.deleteByTransactionIdIn(transactionIds);
+
+        // The products lost details, so their versions change and their cached copies go
+        if (!productIds.isEmpty()) {
+            inventoryMasterRepository.touchAll(productIds);
+            productIds.forEach(inventoryMasterCache::invalidate);
+        }
+        return details.size();
+    }
+
+    private Date hourOf(Date date) {
+        return Date.from(LocalDateTime.ofInstant(date.toInstant(), zone).truncatedTo(ChronoUnit.HOURS).atZone(zone).toInstant());
+    }
+
+    private void archiveQuietly() {
+        try {
+            int archived = archive();
+            if (archived > 0) {
+                log.info("Archived {} inventory details before {}", archived, archiveBoundary());
+            }
+        } catch (ConflictException e) {
+            // Archiving was started on request meanwhile
+        } catch (RuntimeException e) {
+            log.warn("Inventory details archiving failed", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.assignment.inventory.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the monthly partitions of inventory_details in place on MySQL once the table is partitioned by transaction date month
+ * (see inventorydb_inventory_details_partitioning.sql). At startup and every {@code interval} it splits the partitions of the
+ * coming {@code months-ahead} months off the p_future partition, so new details keep landing in partitions that queries with
+ * a date range can prune. Runs whether or not details are archived; does nothing on other databases or if the table is not
+ * partitioned.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryDetailsPartitioner {
+
+    private static final String PARTITIONED_TABLE = "inventory_details";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Whether the database is MySQL, looked up by the first run
+    private Boolean mysql;
+
+    private final ScheduledExecutorService partitioner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "details-partitioner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryDetailsPartitioner(DataSource dataSource,
+                                       @Value("${inventory.partitioning.months-ahead:3}") int monthsAhead,
+                                       @Value("${inventory.partitioning.interval:1h}") Duration interval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.monthsAhead = Math.max(0, monthsAhead);
+        partitioner.scheduleWithFixedDelay(this::maintainQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduled runs when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        partitioner.shutdownNow();
+    }
+
+    /**
+     * Splits the partitions up to the coming months off the p_future partition of a partitioned inventory_details table on MySQL.
+     *
+     * @return the number of added partitions
+     */
+    public synchronized int maintainPartitions() {
+        if (mysql == null) {
+            mysql = "MySQL".equalsIgnoreCase(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName()));
+        }
+        if (!mysql) {
+            return 0;
+        }
+
+        // Bounds of RANGE COLUMNS partitions are quoted datetimes, such as '2026-11-01 00:00:00'
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList("SELECT PARTITION_NAME, PARTITION_DESCRIPTION " +
+                "FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                PARTITIONED_TABLE);
+        if (partitions.stream().noneMatch(partition -> FUTURE_PARTITION.equals(partition.get("PARTITION_NAME")))) {
+            return 0;
+        }
+        YearMonth next = partitions.stream()
+                .map(partition -> Objects.toString(partition.get("PARTITION_DESCRIPTION"), ""))
+                .filter(bound -> !bound.equals("MAXVALUE"))
+                .map(bound -> YearMonth.parse(bound.replace("'", "").substring(0, 7)))
+                .max(YearMonth::compareTo)
+                .orElse(YearMonth.now(zone));
+
+        // Each month gets the partition of the details before the first day of the following month
+        YearMonth last = YearMonth.now(zone).plusMonths(monthsAhead);
+        int added = 0;
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("ALTER TABLE " + PARTITIONED_TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                    "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                    "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            log.info("Added partition {} to {}", month.format(PARTITION_NAME), PARTITIONED_TABLE);
+            added++;
+        }
+        return added;
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintainPartitions();
+        } catch (DataAccessException e) {
+            // The details keep landing in p_future until the next run succeeds
+            log.warn("Partition maintenance of {} failed", PARTITIONED_TABLE, e);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.events.EventBuffer;
+import com.assignment.inventory.exceptions.ServiceUnavailableException;
+import com.assignment.inventory.model.EventOverflowPolicy;
+import com.assignment.inventory.model.InventoryEvent;
+import com.assignment.inventory.model.InventoryEventType;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes committed inventory changes to server-sent event subscribers. Write paths record their changes in the transaction;
+ * after commit the changes of the transaction are handed to a dispatching thread, which completes detail events with the
+ * state of their master, matches them against the filters of every subscriber and adds them to the bounded buffer of each
+ * matching subscriber. Every subscriber drains its buffer to its connection on a sender thread of its own, started while
+ * it has events to send, so a slow or stalled subscriber only ever holds its own thread and buffer, never a writer or the
+ * other subscribers. At most {@code max-subscribers} subscriptions are open at a time, which bounds those threads and buffers.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.events.enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryEventPublisher {
+
+    private final InventoryMasterRepository inventoryMasterRepository;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // A permit per open subscription, released when it is removed
+    private final Semaphore subscriptionSlots;
+    private long nextId;
+
+    // Single dispatching thread, so events get their IDs and reach every buffer in commit order
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // One thread per sending subscriber, virtual when virtual threads are enabled
+    private final SimpleAsyncTaskExecutor senders = new SimpleAsyncTaskExecutor("event-sender-");
+
+    public InventoryEventPublisher(InventoryMasterRepository inventoryMasterRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${inventory.events.buffer-size:256}") int bufferSize,
+                                   @Value("${inventory.events.max-subscribers:200}") int maxSubscribers,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                   @Value("${inventory.events.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                   @Value("${inventory.events.timeout:30m}") Duration timeout) {
+        this.inventoryMasterRepository = inventoryMasterRepository;
+        this.bufferSize = bufferSize;
+        this.subscriptionSlots = new Semaphore(Math.max(0, maxSubscribers));
+        this.timeoutMillis = timeout.toMillis();
+        senders.setDaemon(true);
+        senders.setVirtualThreads(virtualThreads);
+        Gauge.builder("inventory.events.subscribers", subscribers, Set::size)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+
+        // Heartbeats keep idle connections open through proxies and detect the ones closed by the client
+        dispatcher.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops dispatching and closes the open subscriptions when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.close();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Opens a subscription. Every filter that is given has to match an event for it to be sent.
+     *
+     * @param productId only events of this product, or null for all
+     * @param category only events of products in this category, or null for all
+     * @param supplierId only events of products of this supplier, or null for all
+     * @param policy what the subscriber loses when it falls behind by more than the buffer size
+     * @return the emitter to return from the request
+     * @throws ServiceUnavailableException if the maximum number of subscriptions is open
+     */
+    public SseEmitter subscribe(Long productId, String category, Long supplierId, EventOverflowPolicy policy) throws ServiceUnavailableException {
+        if (!subscriptionSlots.tryAcquire()) {
+            throw new ServiceUnavailableException(Constants.TOO_MANY_SUBSCRIBERS_ERROR_MESSAGE);
+        }
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, productId, category, supplierId, new EventBuffer(bufferSize, policy));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        // Completion, timeout and error callbacks can all fire for one subscription, its slot is released once
+        if (subscribers.remove(subscriber)) {
+            subscriptionSlots.release();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Records that an inventory master was created or updated. The published fields are captured right away.
+     *
+     * @param type created or updated
+     * @param inventoryMaster the inventory master as written
+     */
+    public void masterChanged(InventoryEventType type, InventoryMaster inventoryMaster) {
+        record(() -> new InventoryEvent(type, inventoryMaster.getProductId(), null, inventoryMaster.getCategory(),
+                inventoryMaster.getSupplierId(), inventoryMaster.getStockInHand(), null));
+    }
+
+    /**
+     * Records that an inventory master was deleted.
+     *
+     * @param deleted the master columns read before the deletion
+     */
+    public void masterDeleted(InventoryMasterSummary deleted) {
+        record(() -> new InventoryEvent(InventoryEventType.deleted, deleted.getProductId(), null, deleted.getCategory(),
+                deleted.getSupplierId(), null, null));
+    }
+
+    /**
+     * Records that an inventory detail was created, updated or deleted.
+     *
+     * @param type detail_created, detail_updated or detail_deleted
+     * @param transactionId the ID of the detail
+     * @param productId the ID of the master of the detail
+     * @param quantity the stock movement of the change
+     */
+    public void detailChanged(InventoryEventType type, Long transactionId, Long productId, int quantity) {
+        if (productId == null) {
+            return;
+        }
+        record(() -> new InventoryEvent(type, productId, transactionId, null, null, null, quantity));
+    }
+
+    /**
+     * Adds an event to the events of the current transaction, published after commit, or publishes it right away outside of a transaction.
+     *
+     * @param event creates the event
+     */
+    private void record(Supplier<InventoryEvent> event) {
+        // Nothing to capture while nobody listens
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(List.of(event.get()));
+            return;
+        }
+
+        // The first event of a transaction binds its pending events and hands them over after commit
+        @SuppressWarnings("unchecked")
+        List<InventoryEvent> pending = (List<InventoryEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<InventoryEvent> bound = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryEventPublisher.this);
+                }
+            });
+            pending = bound;
+        }
+        pending.add(event.get());
+    }
+
+    private void dispatch(List<InventoryEvent> events) {
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    publish(events);
+                } catch (RuntimeException e) {
+                    log.warn("Publishing {} inventory events failed", events.size(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Inventory events discarded during shutdown");
+        }
+    }
+
+    /**
+     * Completes detail events with the state of their master, numbers the events and adds them to the matching subscribers.
+     * Runs on the dispatching thread.
+     *
+     * @param events the committed events of one transaction
+     */
+    private void publish(List<InventoryEvent> events) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        // Read the masters of the detail events with one query
+        Set<Long> detailProductIds = events.stream().filter(InventoryEvent::isDetailEvent).map(InventoryEvent::getProductId).collect(Collectors.toSet());
+        Map<Long, InventoryMasterSummary> masters = detailProductIds.isEmpty() ? Map.of() :
+                inventoryMasterRepository.findSummariesByProductIdIn(detailProductIds).stream()
+                        .collect(Collectors.toMap(InventoryMasterSummary::getProductId, Function.identity()));
+
+        for (InventoryEvent event : events) {
+            var master = masters.get(event.getProductId());
+            if (event.isDetailEvent() && master != null) {
+                event.setCategory(master.getCategory());
+                event.setSupplierId(master.getSupplierId());
+                event.setStockInHand(master.getStockInHand());
+            }
+            event.setId(++nextId);
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.matches(event)) {
+                    subscriber.buffer.offer(event);
+                    subscriber.scheduleSend();
+                }
+            }
+        }
+    }
+
+    /**
+     * One open subscription: its filters, its buffer and the connection it is sent to.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long productId;
+        private final String category;
+        private final Long supplierId;
+        private final EventBuffer buffer;
+
+        // True while a sender drains the buffer, so a subscriber is written by at most one thread at a time
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, Long productId, String category, Long supplierId, EventBuffer buffer) {
+            this.emitter = emitter;
+            this.productId = productId;
+            this.category = category;
+            this.supplierId = supplierId;
+            this.buffer = buffer;
+        }
+
+        private boolean matches(InventoryEvent event) {
+            return (productId == null || productId.equals(event.getProductId()))
+                    && (category == null || category.equals(event.getCategory()))
+                    && (supplierId == null || Objects.equals(supplierId, event.getSupplierId()));
+        }
+
+        private void heartbeat() {
+            heartbeatDue = true;
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::send);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        /**
+         * Writes the buffered events to the connection until the buffer is empty. Runs on the sender thread of this subscriber.
+         */
+        private void send() {
+            try {
+                do {
+                    long dropped = buffer.takeDropped();
+                    if (dropped > 0) {
+                        // Tell the subscriber it missed events, it resynchronizes through the changes endpoint
+                        emitter.send(SseEmitter.event().name("overflow").data(Map.of("dropped", dropped)));
+                    }
+                    for (InventoryEvent event : buffer.drain()) {
+                        emitter.send(SseEmitter.event().id(Long.toString(event.getId())).name(event.getType().name()).data(event));
+                    }
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    sending.set(false);
+                    // Events added after the last drain but before sending was reset would otherwise wait for the next event
+                } while (!buffer.isEmpty() && sending.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // The connection is closed or timed out
+                unsubscribe(this);
+                sending.set(false);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
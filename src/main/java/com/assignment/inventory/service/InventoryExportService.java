@@ -0,0 +1,415 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.ConflictException;
+import com.assignment.inventory.export.ColumnarWriter;
+import com.assignment.inventory.model.ExportFormat;
+import com.assignment.inventory.model.ExportSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the inventory masters joined with their inventory details as rows, one per detail and one for each master
+ * without details, straight from a forward-only JDBC cursor, as CSV or in the compressed columnar layout of {@link ColumnarWriter}. Rows are written as they are fetched without creating entities,
+ * so the memory of an export does not depend on its size. Archived details in the date range are read from a second cursor
+ * over the archive and merged on the product ID, so the rows of a product stay together in product ID order. An export to files splits the product IDs into contiguous ranges and writes
+ * one file per range in parallel, each from its own cursor.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.export.enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] COLUMNS = {"productId", "productName", "category", "brand", "stockInHand", "unitPrice",
+            "supplierId", "dateAdded", "lastUpdated", "remarks", "transactionId", "transactionType", "quantity", "transactionDate",
+            "transactionDescription", "transactionAmount", "transactionStatus", "transactionNotes"};
+    private static final ColumnarWriter.Type[] COLUMN_TYPES = {ColumnarWriter.Type.LONG, ColumnarWriter.Type.STRING,
+            ColumnarWriter.Type.STRING, ColumnarWriter.Type.STRING, ColumnarWriter.Type.LONG, ColumnarWriter.Type.DOUBLE,
+            ColumnarWriter.Type.LONG, ColumnarWriter.Type.TIMESTAMP, ColumnarWriter.Type.TIMESTAMP, ColumnarWriter.Type.STRING,
+            ColumnarWriter.Type.LONG, ColumnarWriter.Type.STRING, ColumnarWriter.Type.LONG, ColumnarWriter.Type.TIMESTAMP,
+            ColumnarWriter.Type.STRING, ColumnarWriter.Type.DOUBLE, ColumnarWriter.Type.STRING, ColumnarWriter.Type.STRING};
+
+    // Selects the columns in the order of COLUMNS
+    private static final String SELECT = "SELECT m.product_id, m.product_name, m.category, m.brand, m.stock_in_hand, m.unit_price, "
+            + "m.supplier_id, m.date_added, m.last_updated, m.remarks, d.transaction_id, d.transaction_type, d.quantity, "
+            + "d.transaction_date, d.transaction_description, d.transaction_amount, d.transaction_status, d.transaction_notes "
+            + "FROM inventory_master m ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final ObjectWriter csvWriter;
+    private final int threads;
+    private final int maxPartitions;
+    private final int rowGroupSize;
+    private final Path directory;
+    private final Counter rowsCounter;
+    private final Lock exportLock = new ReentrantLock();
+
+    public InventoryExportService(DataSource dataSource,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${inventory.export.fetch-size:" + Constants.STREAM_FETCH_SIZE + "}") int fetchSize,
+                                  @Value("${inventory.export.threads:4}") int threads,
+                                  @Value("${inventory.export.max-partitions:64}") int maxPartitions,
+                                  @Value("${inventory.export.row-group-size:10000}") int rowGroupSize,
+                                  @Value("${inventory.export.dir:exports}") Path directory) {
+        // Fetched in chunks through a cursor on MySQL (useCursorFetch) instead of reading the whole result
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.fetchSize = fetchSize;
+        CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+        for (String column : COLUMNS) {
+            schema.addColumn(column);
+        }
+        this.csvWriter = new CsvMapper().writer(schema.build()).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.threads = threads;
+        this.maxPartitions = maxPartitions;
+        this.rowGroupSize = rowGroupSize;
+        this.directory = directory;
+        this.rowsCounter = Counter.builder("inventory.export.rows")
+                .description("Rows written by exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the rows of the masters in a product ID range and their details in a transaction date range.
+     *
+     * @param out the stream to write to, not closed
+     * @param format the format of the rows
+     * @param from the first transaction date to include, or null; with a date range only masters with details in it are written
+     * @param until the first transaction date after the range, or null
+     * @param fromProductId the first product ID to include, or null
+     * @param toProductId the last product ID to include, or null
+     * @return the number of rows written
+     * @throws IOException if writing to the stream failed
+     */
+    public long export(OutputStream out, ExportFormat format, Date from, Date until, Long fromProductId, Long toProductId)
+            throws IOException {
+        if (format == ExportFormat.csv_gzip) {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            long rows = writeRows(gzip, false, from, until, fromProductId, toProductId);
+            // Completes the gzip stream without closing the stream underneath
+            gzip.finish();
+            return rows;
+        }
+        return writeRows(out, format == ExportFormat.columnar, from, until, fromProductId, toProductId);
+    }
+
+    /**
+     * Exports the masters and details to files in a new directory under the export directory, one file per product ID range,
+     * writing up to {@code inventory.export.threads} files at a time.
+     *
+     * @param format the format of the files
+     * @param from the first transaction date to include, or null
+     * @param until the first transaction date after the range, or null
+     * @param partitions the number of product ID ranges
+     * @return the summary of the export with the written files
+     * @throws ConflictException if another export to files is running
+     * @throws InterruptedException if the calling thread was interrupted while exporting
+     */
+    public ExportSummary exportToFiles(ExportFormat format, Date from, Date until, int partitions)
+            throws ConflictException, InterruptedException {
+        if (!exportLock.tryLock()) {
+            throw new ConflictException(Constants.EXPORT_IN_PROGRESS_ERROR_MESSAGE);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService writers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "export-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long start = System.nanoTime();
+            Path target = directory.resolve("export-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").format(LocalDateTime.now()));
+            Files.createDirectories(target);
+
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(product_id) AS low, MAX(product_id) AS high FROM inventory_master");
+            List<long[]> ranges = bounds.get("low") == null ? List.of()
+                    : ranges(((Number) bounds.get("low")).longValue(), ((Number) bounds.get("high")).longValue(), Math.min(partitions, maxPartitions));
+
+            AtomicLong rows = new AtomicLong();
+            List<Future<Path>> parts = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                Path file = target.resolve(String.format("part-%04d.%s", i + 1, extensionOf(format)));
+                parts.add(writers.submit(() -> {
+                    rows.addAndGet(exportToFile(file, format, from, until, range[0], range[1]));
+                    return file;
+                }));
+            }
+            List<String> files = new ArrayList<>();
+            for (Future<Path> part : parts) {
+                files.add(part.get().toString());
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ExportSummary summary = new ExportSummary();
+            summary.setFormat(format);
+            summary.setRows(rows.get());
+            summary.setPartitions(ranges.size());
+            summary.setFiles(files);
+            summary.setElapsedMillis(elapsedMillis);
+            summary.setRowsPerSecond(rows.get() * 1000 / Math.max(1, elapsedMillis));
+            log.info("Exported {} rows to {} files in {} in {} ms", summary.getRows(), files.size(), target, elapsedMillis);
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } finally {
+            writers.shutdownNow();
+            exportLock.unlock();
+        }
+    }
+
+    /**
+     * Splits a product ID range into contiguous ranges of equal width, at most one per product ID.
+     *
+     * @param low the first product ID
+     * @param high the last product ID
+     * @param partitions the number of ranges wanted
+     * @return the first and last product ID of every range, in order
+     */
+    static List<long[]> ranges(long low, long high, int partitions) {
+        List<long[]> ranges = new ArrayList<>();
+        int count = (int) Math.max(1, Math.min(partitions, high - low + 1));
+        long width = (high - low) / count + 1;
+        for (long first = low; first <= high; first += width) {
+            ranges.add(new long[]{first, Math.min(high, first + width - 1)});
+        }
+        return ranges;
+    }
+
+    /**
+     * Tells the file name extension of a format.
+     *
+     * @param format the format
+     * @return the extension without the leading dot
+     */
+    public static String extensionOf(ExportFormat format) {
+        return switch (format) {
+            case csv -> "csv";
+            case csv_gzip -> "csv.gz";
+            case columnar -> "invc";
+        };
+    }
+
+    /**
+     * Writes one product ID range to a file through a buffered file channel. The file only appears under its name once it is
+     * complete.
+     */
+    long exportToFile(Path file, ExportFormat format, Date from, Date until, long fromProductId, long toProductId)
+            throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+            long rows = export(out, format, from, until, fromProductId, toProductId);
+            out.flush();
+            channel.force(false);
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private long writeRows(OutputStream out, boolean columnar, Date from, Date until, Long fromProductId, Long toProductId) throws IOException {
+        // Archived details are read from a second cursor over the archive, only when it holds details in the date range
+        boolean archived = archiveOverlaps(from, until);
+        // Only masters with details in the date range are exported when it is given, otherwise every master
+        boolean everyMaster = from == null && until == null;
+        List<Object> liveArgs = new ArrayList<>();
+        String live = detailsQuery("inventory_details", everyMaster, everyMaster && archived, from, until, fromProductId, toProductId, liveArgs);
+        List<Object> archiveArgs = new ArrayList<>();
+        String archive = archived
+                ? detailsQuery("inventory_details_archive", false, false, from, until, fromProductId, toProductId, archiveArgs)
+                : null;
+
+        long[] rows = {0};
+        // Null resources are skipped when closing, only the writer of the format is created
+        try (SequenceWriter csv = columnar ? null : csvWriter.writeValues(out)) {
+            ColumnarWriter columns = columnar ? new ColumnarWriter(out, COLUMNS, COLUMN_TYPES, rowGroupSize) : null;
+            Object[] values = new Object[COLUMNS.length];
+            RowCallbackHandler rowWriter = resultSet -> {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = columnar ? typedValueOf(resultSet, i + 1, COLUMN_TYPES[i]) : textOf(resultSet, i + 1, COLUMN_TYPES[i]);
+                }
+                try {
+                    if (columnar) {
+                        columns.write(values);
+                    } else {
+                        csv.write(values);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++rows[0] % Constants.STREAM_FETCH_SIZE == 0) {
+                    rowsCounter.increment(Constants.STREAM_FETCH_SIZE);
+                }
+            };
+            try {
+                // Both cursors are ordered by product ID and merged on it, so the rows of a product stay together
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    try (PreparedStatement liveStatement = prepare(connection, live, liveArgs);
+                         ResultSet liveRows = liveStatement.executeQuery();
+                         PreparedStatement archiveStatement = archive == null ? null : prepare(connection, archive, archiveArgs);
+                         ResultSet archivedRows = archiveStatement == null ? null : archiveStatement.executeQuery()) {
+                        boolean moreLive = liveRows.next();
+                        boolean moreArchived = archivedRows != null && archivedRows.next();
+                        while (moreLive || moreArchived) {
+                            // The archived details of a product are older, so they go before its live details
+                            if (moreArchived && (!moreLive || archivedRows.getLong(1) <= liveRows.getLong(1))) {
+                                rowWriter.processRow(archivedRows);
+                                moreArchived = archivedRows.next();
+                            } else {
+                                rowWriter.processRow(liveRows);
+                                moreLive = liveRows.next();
+                            }
+                        }
+                    }
+                    return null;
+                });
+            } catch (UncheckedIOException e) {
+                // The client went away or the disk is full
+                throw e.getCause();
+            }
+            if (columnar) {
+                columns.finish();
+            } else {
+                csv.flush();
+            }
+        }
+        rowsCounter.increment(rows[0] % Constants.STREAM_FETCH_SIZE);
+        return rows[0];
+    }
+
+    /**
+     * Prepares a forward-only query fetched in chunks of the fetch size. On MySQL (useCursorFetch) every statement gets its
+     * own server-side cursor, so both queries of an export can be read at the same time on one connection.
+     */
+    private PreparedStatement prepare(Connection connection, String sql, List<Object> args) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        for (int i = 0; i < args.size(); i++) {
+            statement.setObject(i + 1, args.get(i));
+        }
+        return statement;
+    }
+
+    /**
+     * Tells whether the archive holds details in a transaction date range, from the bounds of its transaction date index.
+     */
+    private boolean archiveOverlaps(Date from, Date until) {
+        Timestamp[] bounds = jdbcTemplate.queryForObject("SELECT MIN(transaction_date), MAX(transaction_date) FROM inventory_details_archive",
+                (resultSet, rowNum) -> new Timestamp[]{resultSet.getTimestamp(1), resultSet.getTimestamp(2)});
+        if (bounds == null || bounds[0] == null) {
+            return false;
+        }
+        return (from == null || !from.after(bounds[1])) && (until == null || until.after(bounds[0]));
+    }
+
+    /**
+     * Builds the query over the masters joined with the details of one table, binding its arguments to args.
+     * With everyMaster a master without details in the table gets a row without details, unless excludeArchived is set and
+     * it has archived details, which are written by the query over the archive.
+     */
+    private static String detailsQuery(String table, boolean everyMaster, boolean excludeArchived, Date from, Date until,
+                                       Long fromProductId, Long toProductId, List<Object> args) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        sql.append(everyMaster ? "LEFT JOIN " : "JOIN ").append(table).append(" d ON d.product_id = m.product_id");
+        if (from != null) {
+            sql.append(" AND d.transaction_date >= ?");
+            args.add(new Timestamp(from.getTime()));
+        }
+        if (until != null) {
+            sql.append(" AND d.transaction_date < ?");
+            args.add(new Timestamp(until.getTime()));
+        }
+        sql.append(" WHERE 1 = 1");
+        if (excludeArchived) {
+            sql.append(" AND (d.transaction_id IS NOT NULL OR NOT EXISTS (SELECT 1 FROM inventory_details_archive a WHERE a.product_id = m.product_id))");
+        }
+        if (fromProductId != null) {
+            sql.append(" AND m.product_id >= ?");
+            args.add(fromProductId);
+        }
+        if (toProductId != null) {
+            sql.append(" AND m.product_id <= ?");
+            args.add(toProductId);
+        }
+        // Ordering by the first table only lets the join run along the primary key without sorting the whole result first;
+        // the details of a product follow the product_id index, in transaction ID order
+        sql.append(" ORDER BY m.product_id");
+        return sql.toString();
+    }
+
+    private static String textOf(ResultSet resultSet, int column, ColumnarWriter.Type type) throws SQLException {
+        String value;
+        if (type == ColumnarWriter.Type.TIMESTAMP) {
+            // ISO-8601 in UTC, independent of the time zone of the server
+            Timestamp timestamp = resultSet.getTimestamp(column);
+            value = timestamp == null ? null : timestamp.toInstant().toString();
+        } else {
+            value = resultSet.getString(column);
+        }
+        // A null element would be left out of the row and shift the following columns, so it is written empty
+        return value == null ? "" : value;
+    }
+
+    private static Object typedValueOf(ResultSet resultSet, int column, ColumnarWriter.Type type) throws SQLException {
+        Object value = switch (type) {
+            case LONG -> resultSet.getLong(column);
+            case DOUBLE -> resultSet.getDouble(column);
+            case TIMESTAMP -> resultSet.getTimestamp(column);
+            case STRING -> resultSet.getString(column);
+        };
+        return resultSet.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,146 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryEventType;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.OutboxMessage;
+import com.assignment.inventory.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the outbox messages of inventory changes in the transaction of the changes. The messages of a transaction are
+ * collected and inserted together just before it commits, after its changes were sent, so the product rows are locked before
+ * the messages get their IDs and concurrent changes of a product get their message IDs in commit order, which is the order
+ * they are published in. Publishing is left to the OutboxPublisher, so a write only costs these inserts in its own commit
+ * however slow the downstream systems are.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryOutbox {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
+
+    // Sends the changes of the transaction before its messages get their IDs
+    @PersistenceContext
+    EntityManager entityManager;
+
+    public InventoryOutbox(OutboxMessageRepository outboxMessageRepository, ObjectMapper objectMapper) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the message of a created or updated inventory master.
+     *
+     * @param type created or updated
+     * @param inventoryMaster the inventory master as written
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void masterChanged(InventoryEventType type, InventoryMaster inventoryMaster) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", inventoryMaster.getProductId());
+        payload.put("productName", inventoryMaster.getProductName());
+        payload.put("category", inventoryMaster.getCategory());
+        payload.put("brand", inventoryMaster.getBrand());
+        payload.put("stockInHand", inventoryMaster.getStockInHand());
+        payload.put("unitPrice", inventoryMaster.getUnitPrice());
+        payload.put("supplierId", inventoryMaster.getSupplierId());
+        payload.put("remarks", inventoryMaster.getRemarks());
+        write(type, inventoryMaster.getProductId(), payload);
+    }
+
+    /**
+     * Writes the message of a deleted inventory master. Its details are deleted with it without messages of their own.
+     *
+     * @param productId the ID of the deleted product
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void masterDeleted(Long productId) {
+        write(InventoryEventType.deleted, productId, Map.of("productId", productId));
+    }
+
+    /**
+     * Writes the message of a created, updated or deleted inventory detail.
+     *
+     * @param type detail_created, detail_updated or detail_deleted
+     * @param inventoryDetails the inventory detail as written, or as it was before it was deleted
+     * @param productId the ID of the master of the detail
+     * @param quantity the stock movement of the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void detailChanged(InventoryEventType type, InventoryDetails inventoryDetails, Long productId, int quantity) {
+        if (productId == null) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("transactionId", inventoryDetails.getTransactionId());
+        payload.put("productId", productId);
+        payload.put("transactionType", inventoryDetails.getTransactionType());
+        payload.put("transactionStatus", inventoryDetails.getTransactionStatus());
+        payload.put("quantity", inventoryDetails.getQuantity());
+        payload.put("transactionAmount", inventoryDetails.getTransactionAmount());
+        payload.put("transactionDate", inventoryDetails.getTransactionDate());
+        payload.put("stockMovement", quantity);
+        write(type, productId, payload);
+    }
+
+    /**
+     * Inserts the messages collected so far in the current transaction. Runs before commit; bulk writes call it after every
+     * batch so the messages of arbitrarily large inputs are not all held in memory.
+     */
+    public void writePending() {
+        @SuppressWarnings("unchecked")
+        List<OutboxMessage> pending = (List<OutboxMessage>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        outboxMessageRepository.saveAll(pending);
+        entityManager.flush();
+        pending.clear();
+    }
+
+    private void write(InventoryEventType type, Long productId, Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // The first message of a transaction binds its pending messages and inserts them before commit
+        @SuppressWarnings("unchecked")
+        List<OutboxMessage> pending = (List<OutboxMessage>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    writePending();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryOutbox.this);
+                }
+            });
+        }
+        pending.add(new OutboxMessage(type, productId, json));
+    }
+}
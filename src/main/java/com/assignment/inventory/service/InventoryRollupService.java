@@ -0,0 +1,336 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventoryRollup;
+import com.assignment.inventory.model.InventoryRollupId;
+import com.assignment.inventory.model.InventoryRollupTotals;
+import com.assignment.inventory.model.RollupDimension;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import com.assignment.inventory.repository.InventoryRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the product count, stock in hand and valuation per category, brand and supplier so they can be read without
+ * scanning the inventory masters. Every write path records the change of its transaction; the changes are summed per rollup
+ * row and applied with one atomic update per row just before the transaction commits, so the rollups commit or roll back
+ * together with the masters. A periodic reconciliation recomputes the rollups from the masters and corrects any drift.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.rollup.enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryRollupService {
+
+    private static final double VALUATION_TOLERANCE = 0.01;
+
+    // Rows are updated in dimension and group order so concurrent transactions lock them in the same order
+    private static final Comparator<InventoryRollupId> ROW_ORDER = Comparator
+            .comparing(InventoryRollupId::getDimension)
+            .thenComparing(InventoryRollupId::getGroupKey);
+
+    private final InventoryRollupRepository inventoryRollupRepository;
+    private final InventoryMasterRepository inventoryMasterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final TransactionTemplate snapshotTransactionTemplate;
+
+    // Single reconciling thread, so two reconciliations never correct the same drift twice
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rollup-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryRollupService(InventoryRollupRepository inventoryRollupRepository,
+                                  InventoryMasterRepository inventoryMasterRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${inventory.rollup.reconcile-interval:15m}") Duration reconcileInterval) {
+        this.inventoryRollupRepository = inventoryRollupRepository;
+        this.inventoryMasterRepository = inventoryMasterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileInterval.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the creation, update or deletion of an inventory master.
+     *
+     * @param before the contribution of the master before the change, or null if it was created
+     * @param after the contribution of the master after the change, or null if it was deleted
+     */
+    public void productChanged(Contribution before, Contribution after) {
+        Map<InventoryRollupId, Delta> deltas = new HashMap<>();
+        if (before != null) {
+            before.addTo(deltas, -1);
+        }
+        if (after != null) {
+            after.addTo(deltas, 1);
+        }
+        record(deltas);
+    }
+
+    /**
+     * Records a stock movement applied to the stock in hand of a product.
+     * Must be called in the transaction applying the movement, so the unit price and groups read are the current ones.
+     *
+     * @param productId the ID of the product
+     * @param quantity the quantity added to the stock in hand
+     */
+    public void stockAdjusted(Long productId, int quantity) {
+        if (productId == null || quantity == 0) {
+            return;
+        }
+        inventoryMasterRepository.findSummaryByProductId(productId).ifPresent(summary -> {
+            Map<InventoryRollupId, Delta> deltas = new HashMap<>();
+            Contribution.of(summary).withStock(quantity).addTo(deltas, 0);
+            record(deltas);
+        });
+    }
+
+    /**
+     * Retrieves the rollups of a dimension, leaving out groups without products.
+     *
+     * @param dimension the dimension
+     * @return the rollups ordered by group
+     */
+    public List<InventoryRollup> getRollups(RollupDimension dimension) {
+        return inventoryRollupRepository.findByDimensionAndProductCountGreaterThanOrderByGroupKey(dimension, 0);
+    }
+
+    /**
+     * Recomputes every rollup from the inventory masters and corrects the stored rows that drifted.
+     * The masters and the rollups are read from the same snapshot; the corrections are applied as deltas, so changes committed
+     * by other transactions while reconciling are kept.
+     *
+     * @return the number of corrected rows
+     */
+    public int reconcile() {
+        Integer corrected = snapshotTransactionTemplate.execute(status -> {
+            Map<InventoryRollupId, Delta> corrections = new TreeMap<>(ROW_ORDER);
+            for (RollupDimension dimension : RollupDimension.values()) {
+                Map<String, InventoryRollupTotals> actual = computeActual(dimension).stream()
+                        .collect(Collectors.toMap(InventoryRollupTotals::getGroupKey, Function.identity()));
+                Map<String, InventoryRollup> stored = inventoryRollupRepository.findByDimensionOrderByGroupKey(dimension).stream()
+                        .collect(Collectors.toMap(InventoryRollup::getGroupKey, Function.identity()));
+
+                // Groups that are stored but have no products anymore are corrected to zero
+                actual.forEach((groupKey, totals) -> addCorrection(corrections, dimension, groupKey, totals, stored.get(groupKey)));
+                stored.forEach((groupKey, rollup) -> {
+                    if (!actual.containsKey(groupKey)) {
+                        addCorrection(corrections, dimension, groupKey, null, rollup);
+                    }
+                });
+            }
+            apply(corrections);
+            return corrections.size();
+        });
+        return corrected == null ? 0 : corrected;
+    }
+
+    /**
+     * Stops the scheduled reconciliations when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * Reconciles once the application is ready and on the reconcile interval, logging drift instead of failing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileQuietly() {
+        try {
+            int corrected = reconcile();
+            if (corrected > 0) {
+                log.warn("Reconciliation corrected {} inventory rollups", corrected);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Inventory rollup reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Adds deltas to the changes of the current transaction, or applies them right away outside of a transaction.
+     *
+     * @param deltas the deltas per rollup row
+     */
+    private void record(Map<InventoryRollupId, Delta> deltas) {
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> apply(deltas));
+            return;
+        }
+
+        // The first change of a transaction binds its pending deltas and applies them before commit
+        @SuppressWarnings("unchecked")
+        Map<InventoryRollupId, Delta> pending = (Map<InventoryRollupId, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<InventoryRollupId, Delta> bound = new TreeMap<>(ROW_ORDER);
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryRollupService.this);
+                }
+            });
+            pending = bound;
+        }
+        Map<InventoryRollupId, Delta> target = pending;
+        deltas.forEach((id, delta) -> target.merge(id, delta, Delta::plus));
+    }
+
+    /**
+     * Applies deltas to their rollup rows in row order, creating the missing rows.
+     *
+     * @param deltas the deltas per rollup row
+     */
+    private void apply(Map<InventoryRollupId, Delta> deltas) {
+        Map<InventoryRollupId, Delta> ordered = new TreeMap<>(ROW_ORDER);
+        ordered.putAll(deltas);
+        ordered.forEach((id, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            if (increment(id, delta) == 0) {
+                createRow(id);
+                increment(id, delta);
+            }
+        });
+    }
+
+    private int increment(InventoryRollupId id, Delta delta) {
+        return inventoryRollupRepository.increment(id.getDimension(), id.getGroupKey(), delta.products(), delta.stock(), delta.valuation());
+    }
+
+    /**
+     * Creates an empty rollup row in its own transaction, so it is visible to concurrent transactions and a concurrent
+     * creation of the same row does not roll back the transaction of the change.
+     *
+     * @param id the ID of the row
+     */
+    private void createRow(InventoryRollupId id) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> {
+                if (!inventoryRollupRepository.existsById(id)) {
+                    inventoryRollupRepository.saveAndFlush(new InventoryRollup(id.getDimension(), id.getGroupKey()));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent transaction in the meantime
+            log.debug("Inventory rollup {} {} created concurrently", id.getDimension(), id.getGroupKey());
+        }
+    }
+
+    private List<InventoryRollupTotals> computeActual(RollupDimension dimension) {
+        return switch (dimension) {
+            case category -> inventoryRollupRepository.computeByCategory();
+            case brand -> inventoryRollupRepository.computeByBrand();
+            case supplier -> inventoryRollupRepository.computeBySupplier();
+        };
+    }
+
+    /**
+     * Adds the correction turning a stored rollup row into the computed totals, if they differ.
+     *
+     * @param corrections the corrections to add to
+     * @param dimension the dimension of the row
+     * @param groupKey the group of the row
+     * @param actual the computed totals, or null if the group has no products
+     * @param stored the stored row, or null if it does not exist
+     */
+    private static void addCorrection(Map<InventoryRollupId, Delta> corrections, RollupDimension dimension, String groupKey,
+                                      InventoryRollupTotals actual, InventoryRollup stored) {
+        Delta correction = new Delta(
+                (actual == null ? 0 : actual.getProductCount()) - (stored == null ? 0 : stored.getProductCount()),
+                (actual == null ? 0 : actual.getTotalStock()) - (stored == null ? 0 : stored.getTotalStock()),
+                (actual == null ? 0 : actual.getTotalValuation()) - (stored == null ? 0 : stored.getTotalValuation()));
+        if (!correction.isZero()) {
+            corrections.put(new InventoryRollupId(dimension, groupKey), correction);
+        }
+    }
+
+    /**
+     * Groups, stock in hand and unit price of an inventory master, which together determine what it adds to the rollups.
+     */
+    public record Contribution(String category, String brand, Long supplierId, long stock, double unitPrice) {
+
+        public static Contribution of(InventoryMaster inventoryMaster) {
+            return new Contribution(inventoryMaster.getCategory(), inventoryMaster.getBrand(), inventoryMaster.getSupplierId(),
+                    inventoryMaster.getStockInHand(), inventoryMaster.getUnitPrice());
+        }
+
+        public static Contribution of(InventoryMasterSummary summary) {
+            return new Contribution(summary.getCategory(), summary.getBrand(), summary.getSupplierId(),
+                    summary.getStockInHand(), summary.getUnitPrice());
+        }
+
+        Contribution withStock(long stock) {
+            return new Contribution(category, brand, supplierId, stock, unitPrice);
+        }
+
+        /**
+         * Adds the contribution to the row of each dimension.
+         *
+         * @param deltas the deltas per rollup row
+         * @param products the product count change, 1 for an added product, -1 for a removed one and 0 for a stock movement
+         */
+        void addTo(Map<InventoryRollupId, Delta> deltas, int products) {
+            long sign = products < 0 ? -1 : 1;
+            Delta delta = new Delta(products, sign * stock, sign * stock * unitPrice);
+            deltas.merge(new InventoryRollupId(RollupDimension.category, Objects.toString(category, "")), delta, Delta::plus);
+            deltas.merge(new InventoryRollupId(RollupDimension.brand, Objects.toString(brand, "")), delta, Delta::plus);
+            deltas.merge(new InventoryRollupId(RollupDimension.supplier, Objects.toString(supplierId, "")), delta, Delta::plus);
+        }
+    }
+
+    /**
+     * Change of the product count, stock in hand and valuation of a rollup row.
+     */
+    private record Delta(long products, long stock, double valuation) {
+
+        Delta plus(Delta other) {
+            return new Delta(products + other.products, stock + other.stock, valuation + other.valuation);
+        }
+
+        boolean isZero() {
+            return products == 0 && stock == 0 && Math.abs(valuation) < VALUATION_TOLERANCE;
+        }
+    }
+}
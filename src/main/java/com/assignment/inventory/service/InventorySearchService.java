@@ -0,0 +1,226 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventorySearchHit;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import com.assignment.inventory.search.InventorySearchIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the in-memory product search index in sync with the inventory masters and answers search queries from it.
+ * Changes are applied to the index together once their transaction commits. The index is built from the database when the application
+ * is ready and can be rebuilt on demand; changes committed while a rebuild reads the catalog are replayed onto the new index
+ * before it replaces the current one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.search.enabled", havingValue = "true", matchIfMissing = true)
+public class InventorySearchService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final InventoryMasterRepository inventoryMasterRepository;
+
+    private volatile InventorySearchIndex index = new InventorySearchIndex();
+
+    // Serializes index changes with the swap of a rebuilt index; a lock rather than synchronized so virtual threads never pin
+    private final Lock changeLock = new ReentrantLock();
+    private final Lock rebuildLock = new ReentrantLock();
+
+    // Changes applied while a rebuild is running, null otherwise
+    private List<Consumer<InventorySearchIndex>> replay;
+
+    // Builds the initial index without delaying startup
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventorySearchService(InventoryMasterRepository inventoryMasterRepository) {
+        this.inventoryMasterRepository = inventoryMasterRepository;
+    }
+
+    /**
+     * Records that an inventory master was created or updated. The indexed fields are captured right away and applied after commit.
+     *
+     * @param inventoryMaster the inventory master as written
+     */
+    public void indexed(InventoryMaster inventoryMaster) {
+        record(inventoryMaster.getProductId(), new InventorySearchIndex.Document(inventoryMaster.getProductId(),
+                inventoryMaster.getProductName(), inventoryMaster.getBrand(), inventoryMaster.getCategory()));
+    }
+
+    /**
+     * Records that an inventory master was deleted; it leaves the index after commit.
+     *
+     * @param productId the ID of the deleted product
+     */
+    public void removed(Long productId) {
+        record(productId, null);
+    }
+
+    /**
+     * Searches the product name, brand and category of every product.
+     *
+     * @param query the query text; every token must match a term exactly, as a prefix or within a small edit distance
+     * @param pageable the page of ranked hits to return
+     * @return the page of hits, best first
+     */
+    public Page<InventorySearchHit> search(String query, Pageable pageable) {
+        // Offsets past the largest int are past every hit as well
+        var result = index.search(query, (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE), pageable.getPageSize());
+        return new PageImpl<>(result.hits(), pageable, result.total());
+    }
+
+    /**
+     * Rebuilds the index from the inventory masters in the database and replaces the current index with it.
+     *
+     * @return the number of indexed products
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            changeLock.lock();
+            try {
+                replay = new ArrayList<>();
+            } finally {
+                changeLock.unlock();
+            }
+
+            InventorySearchIndex rebuilt = new InventorySearchIndex();
+            boolean complete = false;
+            try {
+                // Read the catalog in keyset batches, each in its own short read
+                long cursor = 0;
+                List<InventoryMasterSummary> batch;
+                do {
+                    batch = inventoryMasterRepository.findSummariesByProductIdGreaterThanOrderByProductIdAsc(cursor, Limit.of(REBUILD_BATCH_SIZE));
+                    rebuilt.putAll(batch.stream().map(summary -> new InventorySearchIndex.Document(summary.getProductId(),
+                            summary.getProductName(), summary.getBrand(), summary.getCategory())).toList());
+                    if (!batch.isEmpty()) {
+                        cursor = batch.get(batch.size() - 1).getProductId();
+                    }
+                } while (batch.size() == REBUILD_BATCH_SIZE);
+                complete = true;
+            } finally {
+                changeLock.lock();
+                try {
+                    // Changes seen by the current index during the rebuild may be missing from what was read
+                    if (complete) {
+                        replay.forEach(change -> change.accept(rebuilt));
+                        index = rebuilt;
+                    }
+                    replay = null;
+                } finally {
+                    changeLock.unlock();
+                }
+            }
+            return rebuilt.size();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Builds the index in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInitialIndex() {
+        indexer.execute(() -> {
+            try {
+                log.info("Search index built with {} products", rebuild());
+            } catch (RuntimeException e) {
+                log.warn("Search index build failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    /**
+     * Adds a change to the changes of the current transaction, or applies it right away outside of a transaction.
+     *
+     * @param productId the ID of the changed product
+     * @param document the indexed fields of the product, null if it was deleted
+     */
+    private void record(Long productId, InventorySearchIndex.Document document) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Long, InventorySearchIndex.Document> change = new HashMap<>();
+            change.put(productId, document);
+            apply(target -> applyChanges(target, change));
+            return;
+        }
+
+        // The first change of a transaction binds its pending changes and applies them together after commit
+        @SuppressWarnings("unchecked")
+        Map<Long, InventorySearchIndex.Document> pending = (Map<Long, InventorySearchIndex.Document>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, InventorySearchIndex.Document> bound = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(target -> applyChanges(target, bound));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventorySearchService.this);
+                }
+            });
+            pending = bound;
+        }
+        pending.put(productId, document);
+    }
+
+    private static void applyChanges(InventorySearchIndex target, Map<Long, InventorySearchIndex.Document> changes) {
+        List<InventorySearchIndex.Document> documents = new ArrayList<>(changes.size());
+        changes.forEach((productId, document) -> {
+            if (document == null) {
+                target.remove(productId);
+            } else {
+                documents.add(document);
+            }
+        });
+        target.putAll(documents);
+    }
+
+    private void apply(Consumer<InventorySearchIndex> change) {
+        changeLock.lock();
+        try {
+            change.accept(index);
+            if (replay != null) {
+                replay.add(change);
+            }
+        } finally {
+            changeLock.unlock();
+        }
+    }
+}
@@ -1,27 +1,61 @@
 package com.assignment.inventory.service;
 
+import com.assignment.inventory.exceptions.GoneException;
 import com.assignment.inventory.exceptions.ResourceNotFoundException;
+import com.assignment.inventory.model.AggregateGroup;
+import com.assignment.inventory.model.BulkItemResult;
+import com.assignment.inventory.model.ChangeWatermark;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryChanges;
 import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsAggregate;
+import com.assignment.inventory.model.InventoryDetailsTotals;
 import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterCounts;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventoryMasterVersion;
 import com.assignment.inventory.model.TransactionStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface InventoryService {
 
-    List<InventoryMaster> getAllInventories();
+    CursorPage<InventoryMaster> getAllInventories(Long cursor, Integer limit);
+    CursorPage<InventoryMasterSummary> getInventorySummaries(Long cursor, Integer limit);
+    CursorPage<InventoryMasterCounts> getInventoryCounts(Long cursor, Integer limit);
+    void streamAllInventories(Consumer<InventoryMaster> consumer);
     InventoryMaster createInventory(InventoryMaster inventoryMaster);
+    List<BulkItemResult> saveInventoriesBulk(Iterator<InventoryMaster> inventoryMasters);
+    List<BulkItemResult> upsertInventoriesBySupplierAndName(List<InventoryMaster> inventoryMasters);
     InventoryMaster updateInventory(Long productId,InventoryMaster inventoryMaster) throws ResourceNotFoundException;
     void deleteInventory(Long productId);
 
     InventoryMaster getInventoryById(Long productId) throws ResourceNotFoundException;
+    InventoryMasterSummary getInventorySummaryById(Long productId) throws ResourceNotFoundException;
+    InventoryMasterCounts getInventoryCountsById(Long productId) throws ResourceNotFoundException;
+
+    Optional<InventoryMasterVersion> getInventoryVersion(Long productId);
+    CursorPage<InventoryMasterVersion> getInventoryVersions(Long cursor, Integer limit);
+    long getPendingStockVersion(Long productId);
+
+    InventoryChanges getChanges(ChangeWatermark since, Integer limit) throws GoneException;
 
     InventoryDetails createInventoryDetails(InventoryDetails inventoryDetails);
 
+    List<BulkItemResult> createInventoryDetailsBulk(Iterator<InventoryDetails> inventoryDetails);
+
     InventoryDetails updateInventoryDetail(Long transactionId, InventoryDetails inventoryDetails) throws ResourceNotFoundException;
 
     void deleteInventoryDetail(Long transactionId);
 
-    List<InventoryMaster> getInventoryByFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded, TransactionStatus transactionStatus, String transactionType);
+    InventoryDetailsTotals getDetailTotals(Date from, Date to);
+    List<InventoryDetailsAggregate> getDetailAggregates(AggregateGroup groupBy, Date from, Date to);
+
+    Page<InventoryMaster> getInventoryByFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded, TransactionStatus transactionStatus, String transactionType, Pageable pageable);
 }
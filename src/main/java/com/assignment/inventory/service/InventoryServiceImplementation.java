@@ -1,17 +1,62 @@
 package com.assignment.inventory.service;
 
+import com.assignment.inventory.cache.InventoryMasterCache;
 import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.GoneException;
 import com.assignment.inventory.exceptions.ResourceNotFoundException;
+import com.assignment.inventory.model.AggregateGroup;
+import com.assignment.inventory.model.BulkItemResult;
+import com.assignment.inventory.model.ChangeWatermark;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryChanges;
 import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsAggregate;
+import com.assignment.inventory.model.InventoryDetailsChange;
+import com.assignment.inventory.model.InventoryEventType;
+import com.assignment.inventory.model.InventoryDetailsTotals;
 import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterCounts;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventoryMasterVersion;
+import com.assignment.inventory.model.InventoryTombstone;
+import com.assignment.inventory.model.MergedDetailsAggregate;
+import com.assignment.inventory.model.MergedDetailsTotals;
+import com.assignment.inventory.model.TombstoneType;
 import com.assignment.inventory.model.TransactionStatus;
 import com.assignment.inventory.repository.InventoryDetailsRepository;
+import com.assignment.inventory.repository.InventoryDetailsArchiveRepository;
+import com.assignment.inventory.repository.InventoryDetailsSummaryRepository;
 import com.assignment.inventory.repository.InventoryMasterRepository;
+import com.assignment.inventory.repository.InventoryMasterSpecifications;
+import com.assignment.inventory.repository.InventoryTombstoneRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class InventoryServiceImplementation implements InventoryService {
@@ -24,27 +69,276 @@ public class InventoryServiceImplementation implements InventoryService {
     @Autowired
     InventoryDetailsRepository inventoryDetailsRepository;
 
+    // Injecting the InventoryDetailsSummaryRepository holding the totals of archived inventory details
+    @Autowired
+    InventoryDetailsSummaryRepository inventoryDetailsSummaryRepository;
+
+    // Injecting the InventoryDetailsArchiveRepository holding the archived inventory details
+    @Autowired
+    InventoryDetailsArchiveRepository inventoryDetailsArchiveRepository;
+
+    // Injecting the InventoryTombstoneRepository that records deletions for the change stream
+    @Autowired
+    InventoryTombstoneRepository inventoryTombstoneRepository;
+
+    // Injecting the read-through cache used by getInventoryById
+    @Autowired
+    InventoryMasterCache inventoryMasterCache;
+
+    // Present when stock movements are coalesced instead of applied by every transaction
+    @Autowired(required = false)
+    StockAdjustmentCoalescer stockAdjustmentCoalescer;
+
+    // Present when the category, brand and supplier rollups are maintained
+    @Autowired(required = false)
+    InventoryRollupService inventoryRollupService;
+
+    // Present when the product search index is maintained
+    @Autowired(required = false)
+    InventorySearchService inventorySearchService;
+
+    // Present when committed changes are pushed to change feed subscribers
+    @Autowired(required = false)
+    InventoryEventPublisher inventoryEventPublisher;
+
+    // Present when changes are written to the outbox for downstream systems
+    @Autowired(required = false)
+    InventoryOutbox inventoryOutbox;
+
+    // Used to release streamed entities from the persistence context and to write bulk batches
+    @PersistenceContext
+    EntityManager entityManager;
+
+    // Number of bulk items written and flushed together before the persistence context is cleared
+    @Value("${inventory.bulk.batch-size:500}")
+    int bulkBatchSize;
+
+    // Changes younger than this are held back, so a transaction that commits after a later one is not skipped by the change stream
+    @Value("${inventory.changes.settle-time:5s}")
+    Duration changesSettleTime;
+
+    // Tombstones are kept this long, older watermarks can no longer be served
+    @Value("${inventory.changes.tombstone-retention:30d}")
+    Duration tombstoneRetention;
+
+    // Detail criteria of the filter also match archived details, which only exist while archiving is enabled
+    @Value("${inventory.archive.enabled:false}")
+    boolean archiveEnabled;
+
     /**
-     * Retrieves all inventory master records.
+     * Retrieves a page of inventory master records with their inventory details using keyset pagination on product ID.
+     * The page is read with two queries regardless of its size: one for the product IDs and one for the masters with details.
      *
-     * @return a list of all InventoryMaster records
+     * @param cursor the last product ID of the previous page, or null for the first page
+     * @param limit the maximum number of records to return, or null for the default
+     * @return a page of InventoryMaster records with the cursor for the next page
      */
     @Override
-    public List<InventoryMaster> getAllInventories() {
-        // Retrieve all InventoryMaster records from the repository
-        return inventoryMasterRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<InventoryMaster> getAllInventories(Long cursor, Integer limit) {
+        int pageLimit = pageLimit(limit);
+
+        // Fetch one extra ID to know whether another page exists
+        List<Long> productIds = inventoryMasterRepository.findProductIdsAfter(startOf(cursor), Limit.of(pageLimit + 1));
+        Long nextCursor = nextCursor(productIds, pageLimit, Function.identity());
+        if (nextCursor != null) {
+            productIds = productIds.subList(0, pageLimit);
+        }
+
+        // Load the masters of the page together with their details
+        List<InventoryMaster> items = productIds.isEmpty() ? List.of()
+                : inventoryMasterRepository.findWithDetailsByProductIdInOrderByProductIdAsc(productIds);
+        return new CursorPage<>(items, nextCursor, pageLimit);
     }
 
     /**
-     * Creates a new inventory master record.
+     * Retrieves a page of inventory master columns without their inventory details.
+     *
+     * @param cursor the last product ID of the previous page, or null for the first page
+     * @param limit the maximum number of records to return, or null for the default
+     * @return a page of InventoryMasterSummary records with the cursor for the next page
+     */
+    @Override
+    public CursorPage<InventoryMasterSummary> getInventorySummaries(Long cursor, Integer limit) {
+        int pageLimit = pageLimit(limit);
+        List<InventoryMasterSummary> items = inventoryMasterRepository.findSummariesByProductIdGreaterThanOrderByProductIdAsc(
+                startOf(cursor), Limit.of(pageLimit + 1));
+        return toPage(items, pageLimit, InventoryMasterSummary::getProductId);
+    }
+
+    /**
+     * Retrieves a page of inventory master columns with aggregates over their inventory details.
+     *
+     * @param cursor the last product ID of the previous page, or null for the first page
+     * @param limit the maximum number of records to return, or null for the default
+     * @return a page of InventoryMasterCounts records with the cursor for the next page
+     */
+    @Override
+    public CursorPage<InventoryMasterCounts> getInventoryCounts(Long cursor, Integer limit) {
+        int pageLimit = pageLimit(limit);
+        List<InventoryMasterCounts> items = inventoryMasterRepository.findCountsAfter(startOf(cursor), Limit.of(pageLimit + 1));
+        return toPage(items, pageLimit, InventoryMasterCounts::getProductId);
+    }
+
+    /**
+     * Streams all inventory master records in product ID order to the given consumer.
+     * The persistence context is cleared periodically so memory stays flat regardless of table size.
+     *
+     * @param consumer the consumer receiving each InventoryMaster record
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllInventories(Consumer<InventoryMaster> consumer) {
+        try (Stream<InventoryMaster> inventories = inventoryMasterRepository.streamAllOrderByProductId()) {
+            int count = 0;
+            for (var iterator = inventories.iterator(); iterator.hasNext(); ) {
+                consumer.accept(iterator.next());
+
+                // Detach the already written records once a fetch batch has been consumed
+                if (++count % Constants.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new inventory master record. A product ID in the request is ignored, so it never overwrites an existing product.
      *
      * @param inventoryMaster the inventory master object to create
      * @return the created InventoryMaster object
      */
     @Override
+    @Transactional
     public InventoryMaster createInventory(InventoryMaster inventoryMaster) {
-        // Save the inventoryMaster object to the repository
-        return inventoryMasterRepository.save(inventoryMaster);
+        // Save the inventoryMaster object to the repository as a new product and add it to the rollups
+        inventoryMaster.setProductId(null);
+        var saved = inventoryMasterRepository.save(inventoryMaster);
+        recordRollups(null, saved);
+        indexForSearch(saved);
+        publishMasterEvent(InventoryEventType.created, saved);
+
+        // Drop a cached "not found" entry for the new product ID
+        inventoryMasterCache.invalidate(saved.getProductId());
+        return saved;
+    }
+
+    /**
+     * Creates or updates inventory master records in a single transaction.
+     * Records without a product ID are created, records with an existing product ID are updated and the others are reported as failed.
+     * Records are written in batches so the persistence context stays bounded for arbitrarily large inputs.
+     *
+     * @param inventoryMasters the inventory master objects to save
+     * @return the result of each record in input order
+     */
+    @Override
+    @Transactional
+    public List<BulkItemResult> saveInventoriesBulk(Iterator<InventoryMaster> inventoryMasters) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<InventoryMaster> batch = new ArrayList<>();
+        while (inventoryMasters.hasNext()) {
+            batch.add(inventoryMasters.next());
+            if (batch.size() >= bulkBatchSize) {
+                saveInventoryBatch(batch, results);
+            }
+        }
+        saveInventoryBatch(batch, results);
+        return results;
+    }
+
+    /**
+     * Creates or updates inventory master records identified by supplier ID and product name in a single transaction,
+     * for catalog imports that do not know the product IDs. A record updates the product with the same supplier and name,
+     * the oldest one if there are several, and is created otherwise; later records of the batch with the same supplier
+     * and name update the earlier one. The stock in hand of existing products is kept.
+     *
+     * @param inventoryMasters the inventory master objects to save, each with a supplier ID and product name
+     * @return the result of each record in input order
+     */
+    @Override
+    @Transactional
+    public List<BulkItemResult> upsertInventoriesBySupplierAndName(List<InventoryMaster> inventoryMasters) {
+        // Load the existing records of the batch with a single query on the product name and supplier index
+        Set<Long> supplierIds = inventoryMasters.stream().map(InventoryMaster::getSupplierId).collect(Collectors.toSet());
+        Set<String> productNames = inventoryMasters.stream().map(InventoryMaster::getProductName).collect(Collectors.toSet());
+        Map<String, InventoryMaster> existing = new HashMap<>();
+        for (InventoryMaster inventory : inventoryMasterRepository.findByProductNameInAndSupplierIdInOrderByProductIdAsc(productNames, supplierIds)) {
+            existing.putIfAbsent(naturalKeyOf(inventory), inventory);
+        }
+
+        List<BulkItemResult> results = new ArrayList<>(inventoryMasters.size());
+        for (InventoryMaster inventoryMaster : inventoryMasters) {
+            int index = results.size();
+            InventoryMaster current = existing.get(naturalKeyOf(inventoryMaster));
+            if (current == null) {
+                entityManager.persist(inventoryMaster);
+                recordRollups(null, inventoryMaster);
+                indexForSearch(inventoryMaster);
+                publishMasterEvent(InventoryEventType.created, inventoryMaster);
+                existing.put(naturalKeyOf(inventoryMaster), inventoryMaster);
+                results.add(BulkItemResult.created(index, inventoryMaster.getProductId()));
+            } else {
+                var before = rollupContribution(current);
+                copyMasterFields(inventoryMaster, current);
+                recordRollups(before, current);
+                indexForSearch(current);
+                publishMasterEvent(InventoryEventType.updated, current);
+                results.add(BulkItemResult.updated(index, current.getProductId()));
+            }
+        }
+
+        // Send the batch and its outbox messages to the database and release them from the persistence context
+        entityManager.flush();
+        writeOutboxBatch();
+        entityManager.clear();
+        results.forEach(result -> inventoryMasterCache.invalidate(result.getId()));
+        return results;
+    }
+
+    /**
+     * Writes one batch of bulk inventory master records and clears the batch.
+     *
+     * @param batch the records of the batch
+     * @param results the results to append the outcome of each record to
+     */
+    private void saveInventoryBatch(List<InventoryMaster> batch, List<BulkItemResult> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Load the records to update with a single query
+        List<Long> productIds = batch.stream().map(InventoryMaster::getProductId).filter(Objects::nonNull).toList();
+        Map<Long, InventoryMaster> existing = inventoryMasterRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(InventoryMaster::getProductId, Function.identity()));
+
+        int start = results.size();
+        for (InventoryMaster inventoryMaster : batch) {
+            int index = results.size();
+            Long productId = inventoryMaster.getProductId();
+            if (productId == null) {
+                entityManager.persist(inventoryMaster);
+                recordRollups(null, inventoryMaster);
+                indexForSearch(inventoryMaster);
+                publishMasterEvent(InventoryEventType.created, inventoryMaster);
+                results.add(BulkItemResult.created(index, inventoryMaster.getProductId()));
+            } else if (existing.containsKey(productId)) {
+                var before = rollupContribution(existing.get(productId));
+                copyMasterFields(inventoryMaster, existing.get(productId));
+                recordRollups(before, existing.get(productId));
+                indexForSearch(existing.get(productId));
+                publishMasterEvent(InventoryEventType.updated, existing.get(productId));
+                results.add(BulkItemResult.updated(index, productId));
+            } else {
+                results.add(BulkItemResult.failed(index, productId, Constants.PRODUCT_NOT_FOUND_ERROR_MESSAGE));
+            }
+        }
+
+        // Send the batch and its outbox messages to the database and release them from the persistence context
+        entityManager.flush();
+        writeOutboxBatch();
+        entityManager.clear();
+        results.subList(start, results.size()).forEach(result -> inventoryMasterCache.invalidate(result.getId()));
+        batch.clear();
     }
 
     /**
@@ -56,6 +350,7 @@ public class InventoryServiceImplementation implements InventoryService {
      * @throws ResourceNotFoundException if the product is not found
      */
     @Override
+    @Transactional
     public InventoryMaster updateInventory(Long productId, InventoryMaster inventoryMaster) throws ResourceNotFoundException {
         // Retrieve the existing InventoryMaster by productId or throw an exception if not found
         var inventory = inventoryMasterRepository.findById(productId)
@@ -64,8 +359,20 @@ public class InventoryServiceImplementation implements InventoryService {
         // Set the productId to the incoming inventoryMaster object
         inventoryMaster.setProductId(productId);
 
-        // Save the updated inventoryMaster object to the repository
-        return inventoryMasterRepository.save(inventoryMaster);
+        // Stock in hand is maintained by the inventory details and the version by every change, keep the stored values
+        inventoryMaster.setStockInHand(inventory.getStockInHand());
+        inventoryMaster.setVersion(inventory.getVersion());
+
+        // Capture the previous rollup contribution, saving merges the changes into the loaded instance
+        var before = rollupContribution(inventory);
+
+        // Save the updated inventoryMaster object to the repository, move it between rollups and evict the cached copy
+        var saved = inventoryMasterRepository.save(inventoryMaster);
+        recordRollups(before, saved);
+        indexForSearch(saved);
+        publishMasterEvent(InventoryEventType.updated, saved);
+        inventoryMasterCache.invalidate(productId);
+        return saved;
     }
 
     /**
@@ -74,13 +381,39 @@ public class InventoryServiceImplementation implements InventoryService {
      * @param productId the ID of the product to delete
      */
     @Override
+    @Transactional
     public void deleteInventory(Long productId) {
-        // Delete the InventoryMaster record by productId from the repository
+        // Read what the product adds to the rollups before it is gone, which also tells whether there is anything to delete
+        var summary = inventoryMasterRepository.findSummaryByProductId(productId);
+
+        // Delete the InventoryMaster record by productId from the repository, record the deletion for the change stream,
+        // remove it from the rollups and the search index and evict the cached copy. Its details go with it without tombstones of their own,
+        // and so do its archived details and their summaries, which would otherwise still count in the aggregates
         inventoryMasterRepository.deleteById(productId);
+        summary.ifPresent(deleted -> {
+            inventoryDetailsArchiveRepository.deleteByProductId(productId);
+            inventoryDetailsSummaryRepository.deleteByProductId(productId);
+            inventoryTombstoneRepository.save(new InventoryTombstone(TombstoneType.master, productId, productId));
+            if (inventoryRollupService != null) {
+                inventoryRollupService.productChanged(InventoryRollupService.Contribution.of(deleted), null);
+            }
+            if (inventoryEventPublisher != null) {
+                inventoryEventPublisher.masterDeleted(deleted);
+            }
+            if (inventoryOutbox != null) {
+                inventoryOutbox.masterDeleted(productId);
+            }
+        });
+        if (inventorySearchService != null) {
+            inventorySearchService.removed(productId);
+        }
+        inventoryMasterCache.invalidate(productId);
     }
 
     /**
-     * Retrieves an inventory master record by product ID.
+     * Retrieves an inventory master record by product ID through the read-through cache.
+     * The record is loaded with its inventory details so the cached copy can be serialized outside of a session.
+     * When stock movements are coalesced, the movements not yet applied are included in the stock in hand.
      *
      * @param productId the ID of the product to retrieve
      * @return the InventoryMaster record
@@ -88,8 +421,10 @@ public class InventoryServiceImplementation implements InventoryService {
      */
     @Override
     public InventoryMaster getInventoryById(Long productId) throws ResourceNotFoundException {
-        // Retrieve the InventoryMaster by productId or throw an exception if not found
-        var inventory = inventoryMasterRepository.findById(productId)
+        Supplier<Optional<InventoryMaster>> loader = () -> inventoryMasterCache.get(productId, inventoryMasterRepository::findWithDetailsByProductId);
+
+        // Retrieve the InventoryMaster by productId from the cache or the repository or throw an exception if not found
+        var inventory = (stockAdjustmentCoalescer == null ? loader.get() : stockAdjustmentCoalescer.withPendingStock(productId, loader))
                 .orElseThrow(() -> new ResourceNotFoundException(Constants.PRODUCT_NOT_FOUND_ERROR_MESSAGE));
 
         // Return the retrieved InventoryMaster object
@@ -97,19 +432,228 @@ public class InventoryServiceImplementation implements InventoryService {
     }
 
     /**
-     * Creates a new inventory details record.
+     * Retrieves the master columns of an inventory master record without its inventory details.
+     *
+     * @param productId the ID of the product to retrieve
+     * @return the InventoryMasterSummary record
+     * @throws ResourceNotFoundException if the product is not found
+     */
+    @Override
+    public InventoryMasterSummary getInventorySummaryById(Long productId) throws ResourceNotFoundException {
+        return inventoryMasterRepository.findSummaryByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException(Constants.PRODUCT_NOT_FOUND_ERROR_MESSAGE));
+    }
+
+    /**
+     * Retrieves an inventory master record with aggregates over its inventory details.
+     *
+     * @param productId the ID of the product to retrieve
+     * @return the InventoryMasterCounts record
+     * @throws ResourceNotFoundException if the product is not found
+     */
+    @Override
+    public InventoryMasterCounts getInventoryCountsById(Long productId) throws ResourceNotFoundException {
+        return inventoryMasterRepository.findCountsByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException(Constants.PRODUCT_NOT_FOUND_ERROR_MESSAGE));
+    }
+
+    /**
+     * Retrieves the version of an inventory master record without loading the record.
+     *
+     * @param productId the ID of the product
+     * @return the version and last update of the product, or empty if not found
+     */
+    @Override
+    public Optional<InventoryMasterVersion> getInventoryVersion(Long productId) {
+        return inventoryMasterRepository.findVersionByProductId(productId);
+    }
+
+    /**
+     * Retrieves the versions of the records of a page without loading the records.
+     * The page covers the same records as getAllInventories, getInventorySummaries and getInventoryCounts with the same arguments.
+     *
+     * @param cursor the last product ID of the previous page, or null for the first page
+     * @param limit the maximum number of records to return, or null for the default
+     * @return a page of versions with the cursor for the next page
+     */
+    @Override
+    public CursorPage<InventoryMasterVersion> getInventoryVersions(Long cursor, Integer limit) {
+        int pageLimit = pageLimit(limit);
+        List<InventoryMasterVersion> items = inventoryMasterRepository.findVersionsAfter(startOf(cursor), Limit.of(pageLimit + 1));
+        return toPage(items, pageLimit, InventoryMasterVersion::getProductId);
+    }
+
+    /**
+     * Identifies the stock movements of a product that are committed but not yet applied when movements are coalesced.
+     *
+     * @param productId the ID of the product
+     * @return a value that changes with every pending movement, 0 if none is pending or movements are not coalesced
+     */
+    @Override
+    public long getPendingStockVersion(Long productId) {
+        return stockAdjustmentCoalescer == null ? 0 : stockAdjustmentCoalescer.pendingVersion(productId);
+    }
+
+    /**
+     * Retrieves the masters and details created or updated and the masters and details deleted after a watermark, in the order
+     * they changed. Each source is read with one indexed range query of at most limit + 1 rows and the results are merged, so
+     * a page costs three short queries however far behind the client is.
+     *
+     * @param since the watermark of the previous page, or null to start from the beginning
+     * @param limit the maximum number of changes to return, or null for the default
+     * @return the changes with the watermark to request the next page with
+     * @throws GoneException if the watermark is older than the tombstone retention
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public InventoryChanges getChanges(ChangeWatermark since, Integer limit) throws GoneException {
+        int pageLimit = pageLimit(limit);
+        long now = System.currentTimeMillis();
+
+        // Deletions older than the retention are purged, so a client that far behind has to resynchronize from the start
+        if (since != null && since.getChangedAt() < now - tombstoneRetention.toMillis()) {
+            throw new GoneException(Constants.WATERMARK_EXPIRED_ERROR_MESSAGE);
+        }
+        ChangeWatermark from = since == null ? ChangeWatermark.START : since;
+        Date after = from.changedAtDate();
+        Date until = new Date(now - changesSettleTime.toMillis());
+
+        // Read each source from the watermark on, one more than the page so it is known whether more changes are ready
+        Limit sourceLimit = Limit.of(pageLimit + 1);
+        List<InventoryMasterSummary> masters = inventoryMasterRepository.findChangedAfter(after, from.idBoundOf(ChangeWatermark.MASTER), until, sourceLimit);
+        List<InventoryDetailsChange> details = inventoryDetailsRepository.findChangedAfter(after, from.idBoundOf(ChangeWatermark.DETAIL), until, sourceLimit);
+        List<InventoryTombstone> tombstones = inventoryTombstoneRepository.findChangedAfter(after, from.idBoundOf(ChangeWatermark.TOMBSTONE), until, sourceLimit);
+
+        // Merge the three ordered lists by change time, source and ID until the page is full
+        ChangeWatermark last = from;
+        int masterCount = 0;
+        int detailCount = 0;
+        int tombstoneCount = 0;
+        while (masterCount + detailCount + tombstoneCount < pageLimit) {
+            ChangeWatermark next = null;
+            if (masterCount < masters.size()) {
+                var master = masters.get(masterCount);
+                next = new ChangeWatermark(master.getLastUpdated().getTime(), ChangeWatermark.MASTER, master.getProductId());
+            }
+            if (detailCount < details.size()) {
+                var detail = details.get(detailCount);
+                next = earliest(next, new ChangeWatermark(detail.getLastUpdated().getTime(), ChangeWatermark.DETAIL, detail.getTransactionId()));
+            }
+            if (tombstoneCount < tombstones.size()) {
+                var tombstone = tombstones.get(tombstoneCount);
+                next = earliest(next, new ChangeWatermark(tombstone.getDeletedAt().getTime(), ChangeWatermark.TOMBSTONE, tombstone.getId()));
+            }
+            if (next == null) {
+                break;
+            }
+            switch (next.getSource()) {
+                case ChangeWatermark.MASTER -> masterCount++;
+                case ChangeWatermark.DETAIL -> detailCount++;
+                default -> tombstoneCount++;
+            }
+            last = next;
+        }
+        boolean hasMore = masterCount < masters.size() || detailCount < details.size() || tombstoneCount < tombstones.size();
+
+        // Once everything up to the settle bound is returned, move the watermark to the bound so quiet clients do not fall behind the retention
+        if (!hasMore && last.getChangedAt() < until.getTime()) {
+            last = new ChangeWatermark(until.getTime(), ChangeWatermark.TOMBSTONE, Long.MAX_VALUE);
+        }
+        return new InventoryChanges(masters.subList(0, masterCount), details.subList(0, detailCount),
+                tombstones.subList(0, tombstoneCount), last.toString(), hasMore);
+    }
+
+    /**
+     * Creates a new inventory details record and, if it is completed, adds its quantity to the stock in hand of its master
+     * in the same transaction. A transaction ID in the request is ignored, so it never overwrites an existing record.
      *
      * @param inventoryDetails the inventory details object to create
      * @return the created InventoryDetails object
      */
     @Override
+    @Transactional
     public InventoryDetails createInventoryDetails(InventoryDetails inventoryDetails) {
-        // Save the inventoryDetails object to the repository
-        return inventoryDetailsRepository.save(inventoryDetails);
+        // Save the inventoryDetails object to the repository as a new record
+        inventoryDetails.setTransactionId(null);
+        var saved = inventoryDetailsRepository.save(inventoryDetails);
+
+        // Apply the stock movement and evict the cached copy of its master
+        adjustStock(productIdOf(inventoryDetails), stockDelta(inventoryDetails));
+        inventoryMasterCache.invalidate(productIdOf(inventoryDetails));
+        publishDetailEvent(InventoryEventType.detail_created, saved, productIdOf(inventoryDetails), stockDelta(inventoryDetails));
+        return saved;
+    }
+
+    /**
+     * Creates inventory details records in a single transaction.
+     * Records referring to a missing inventory master are reported as failed and skipped.
+     * Records are written in batches so the persistence context stays bounded for arbitrarily large inputs.
+     *
+     * @param inventoryDetails the inventory details objects to create
+     * @return the result of each record in input order
+     */
+    @Override
+    @Transactional
+    public List<BulkItemResult> createInventoryDetailsBulk(Iterator<InventoryDetails> inventoryDetails) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<InventoryDetails> batch = new ArrayList<>();
+        while (inventoryDetails.hasNext()) {
+            batch.add(inventoryDetails.next());
+            if (batch.size() >= bulkBatchSize) {
+                createInventoryDetailsBatch(batch, results);
+            }
+        }
+        createInventoryDetailsBatch(batch, results);
+        return results;
+    }
+
+    /**
+     * Writes one batch of bulk inventory details records and clears the batch.
+     *
+     * @param batch the records of the batch
+     * @param results the results to append the outcome of each record to
+     */
+    private void createInventoryDetailsBatch(List<InventoryDetails> batch, List<BulkItemResult> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Check all referenced masters with a single query
+        Set<Long> productIds = batch.stream().map(InventoryServiceImplementation::productIdOf).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existing = productIds.isEmpty() ? Set.of() : new HashSet<>(inventoryMasterRepository.findExistingProductIds(productIds));
+
+        // Stock movements of the batch summed per product, sorted so row locks are always taken in the same order
+        Map<Long, Integer> stockDeltas = new TreeMap<>();
+        for (InventoryDetails inventoryDetail : batch) {
+            int index = results.size();
+            Long productId = productIdOf(inventoryDetail);
+            if (productId == null || !existing.contains(productId)) {
+                results.add(BulkItemResult.failed(index, null, Constants.PRODUCT_NOT_FOUND_ERROR_MESSAGE));
+                continue;
+            }
+
+            // Refer to the master without loading it
+            inventoryDetail.setTransactionId(null);
+            inventoryDetail.setInventoryMaster(entityManager.getReference(InventoryMaster.class, productId));
+            entityManager.persist(inventoryDetail);
+            stockDeltas.merge(productId, stockDelta(inventoryDetail), Integer::sum);
+            publishDetailEvent(InventoryEventType.detail_created, inventoryDetail, productId, stockDelta(inventoryDetail));
+            results.add(BulkItemResult.created(index, inventoryDetail.getTransactionId()));
+        }
+
+        // Send the batch to the database, apply one stock update per product, write the outbox messages and release the batch from the persistence context
+        entityManager.flush();
+        stockDeltas.forEach(this::adjustStock);
+        writeOutboxBatch();
+        entityManager.clear();
+        existing.forEach(inventoryMasterCache::invalidate);
+        batch.clear();
     }
 
     /**
      * Updates an existing inventory details record by transaction ID.
+     * The stock in hand is corrected in the same transaction by the difference between the previous and the new state,
+     * so moving a transaction to completed adds its quantity and moving it away from completed takes it back.
      *
      * @param transactionId the ID of the transaction to update
      * @param inventoryDetails the inventory details object with updated information
@@ -117,27 +661,61 @@ public class InventoryServiceImplementation implements InventoryService {
      * @throws ResourceNotFoundException if the transaction is not found
      */
     @Override
+    @Transactional
     public InventoryDetails updateInventoryDetail(Long transactionId, InventoryDetails inventoryDetails) throws ResourceNotFoundException {
-        // Retrieve the existing InventoryDetails by transactionId or throw an exception if not found
-        var inventoryDetail = inventoryDetailsRepository.findById(transactionId)
+        // Retrieve and lock the existing InventoryDetails by transactionId or throw an exception if not found
+        var inventoryDetail = inventoryDetailsRepository.findForUpdateByTransactionId(transactionId)
                 .orElseThrow(() -> new ResourceNotFoundException(Constants.DETAIL_NOT_FOUND_ERROR_MESSAGE));
 
+        // Capture the previous state before the managed record is overwritten
+        Long previousProductId = productIdOf(inventoryDetail);
+        int previousDelta = stockDelta(inventoryDetail);
+
         // Set the transactionId to the incoming inventoryDetails object
         inventoryDetails.setTransactionId(transactionId);
 
         // Save the updated inventoryDetails object to the repository
-        return inventoryDetailsRepository.save(inventoryDetails);
+        var saved = inventoryDetailsRepository.save(inventoryDetails);
+
+        // Take the previous movement back and apply the new one
+        Long productId = productIdOf(inventoryDetails);
+        if (Objects.equals(previousProductId, productId)) {
+            adjustStock(productId, stockDelta(inventoryDetails) - previousDelta);
+            publishDetailEvent(InventoryEventType.detail_updated, saved, productId, stockDelta(inventoryDetails) - previousDelta);
+        } else {
+            adjustStock(previousProductId, -previousDelta);
+            adjustStock(productId, stockDelta(inventoryDetails));
+            publishDetailEvent(InventoryEventType.detail_updated, saved, previousProductId, -previousDelta);
+            publishDetailEvent(InventoryEventType.detail_updated, saved, productId, stockDelta(inventoryDetails));
+        }
+
+        // Evict the cached copies of the previous and the new master of the detail
+        inventoryMasterCache.invalidate(previousProductId);
+        inventoryMasterCache.invalidate(productId);
+        return saved;
     }
 
     /**
-     * Deletes an inventory details record by transaction ID.
+     * Deletes an inventory details record by transaction ID and, if it was completed, takes its quantity back from the stock in hand.
      *
      * @param transactionId the ID of the transaction to delete
      */
     @Override
+    @Transactional
     public void deleteInventoryDetail(Long transactionId) {
+        // Lock the detail so its stock movement is reverted exactly once
+        var inventoryDetail = inventoryDetailsRepository.findForUpdateByTransactionId(transactionId);
+
         // Delete the InventoryDetails record by transactionId from the repository
         inventoryDetailsRepository.deleteById(transactionId);
+
+        // Record the deletion for the change stream, revert the stock movement and evict the cached copy of its master
+        inventoryDetail.ifPresent(detail -> {
+            inventoryTombstoneRepository.save(new InventoryTombstone(TombstoneType.detail, transactionId, productIdOf(detail)));
+            adjustStock(productIdOf(detail), -stockDelta(detail));
+            inventoryMasterCache.invalidate(productIdOf(detail));
+            publishDetailEvent(InventoryEventType.detail_deleted, detail, productIdOf(detail), -stockDelta(detail));
+        });
     }
 
     /**
@@ -150,13 +728,295 @@ public class InventoryServiceImplementation implements InventoryService {
      * @param maxPrice the maximum price of the product
      * @param supplierId the ID of the supplier
      * @param dateAdded the date the product was added
-     * @param transactionStatus the transaction status of the inventory details
-     * @param transactionType the transaction type of the inventory details
-     * @return a list of InventoryMaster objects matching the filter criteria
+     * @param transactionStatus the transaction status of the inventory details, archived ones included while archiving is enabled
+     * @param transactionType the transaction type of the inventory details, archived ones included while archiving is enabled
+     * @param pageable the page and sort order to return
+     * @return a page of InventoryMaster objects matching the filter criteria
+     */
+    @Override
+    public Page<InventoryMaster> getInventoryByFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded, TransactionStatus transactionStatus, String transactionType, Pageable pageable) {
+        // Build a query containing only the supplied criteria
+        var specification = InventoryMasterSpecifications.byFilters(productName, category, brand, minPrice, maxPrice, supplierId, dateAdded, transactionStatus, transactionType, archiveEnabled);
+
+        // Retrieve the requested page of InventoryMaster records matching the criteria
+        return inventoryMasterRepository.findAll(specification, pageable);
+    }
+
+    /**
+     * Computes the totals of the inventory details in a transaction date range with a single aggregate query,
+     * adding the summaries of the archived details in the range.
+     *
+     * @param from the start of the range, inclusive, or null for no lower bound
+     * @param to the end of the range, exclusive, or null for no upper bound
+     * @return the number of details and the sums of their quantity and amount
+     */
+    @Override
+    public InventoryDetailsTotals getDetailTotals(Date from, Date to) {
+        Date start = rangeStart(from);
+        Date end = rangeEnd(to);
+        var live = inventoryDetailsRepository.findTotals(start, end);
+
+        // Archived periods are read from their summaries, which are empty for ranges within the recent months
+        var archived = inventoryDetailsSummaryRepository.findTotals(start, end);
+        return archived == null || archived.getTransactionCount() == 0 ? live : MergedDetailsTotals.of(live, archived);
+    }
+
+    /**
+     * Computes the totals of the inventory details in a transaction date range per value of a grouping, in SQL.
+     *
+     * @param groupBy the dimension to group the details by
+     * @param from the start of the range, inclusive, or null for no lower bound
+     * @param to the end of the range, exclusive, or null for no upper bound
+     * @return one aggregate per value of the grouping that has details in the range
      */
     @Override
-    public List<InventoryMaster> getInventoryByFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded, TransactionStatus transactionStatus, String transactionType) {
-        // Retrieve InventoryMaster records based on the provided filter criteria
-        return inventoryMasterRepository.findByFilters(productName, category, brand, minPrice, maxPrice, supplierId, dateAdded, transactionStatus, transactionType);
+    public List<InventoryDetailsAggregate> getDetailAggregates(AggregateGroup groupBy, Date from, Date to) {
+        Date start = rangeStart(from);
+        Date end = rangeEnd(to);
+
+        // Each grouping is a separate query so every one of them keeps a static, index friendly shape
+        List<InventoryDetailsAggregate> live = switch (groupBy) {
+            case status -> inventoryDetailsRepository.aggregateByStatus(start, end);
+            case type -> inventoryDetailsRepository.aggregateByType(start, end);
+            case category -> inventoryDetailsRepository.aggregateByCategory(start, end);
+            case brand -> inventoryDetailsRepository.aggregateByBrand(start, end);
+            case supplier -> inventoryDetailsRepository.aggregateBySupplier(start, end);
+            case day -> inventoryDetailsRepository.aggregateByDay(start, end);
+            case hour -> inventoryDetailsRepository.aggregateByHour(start, end);
+        };
+
+        // Archived periods are read from their summaries, grouped the same way
+        List<InventoryDetailsAggregate> archived = switch (groupBy) {
+            case status -> inventoryDetailsSummaryRepository.aggregateByStatus(start, end);
+            case type -> inventoryDetailsSummaryRepository.aggregateByType(start, end);
+            case category -> inventoryDetailsSummaryRepository.aggregateByCategory(start, end);
+            case brand -> inventoryDetailsSummaryRepository.aggregateByBrand(start, end);
+            case supplier -> inventoryDetailsSummaryRepository.aggregateBySupplier(start, end);
+            case day -> inventoryDetailsSummaryRepository.aggregateByDay(start, end);
+            case hour -> inventoryDetailsSummaryRepository.aggregateByHour(start, end);
+        };
+        if (archived.isEmpty()) {
+            return live;
+        }
+        // Supplier IDs are ordered as numbers like in the query, all other groups as text
+        Comparator<String> order = groupBy == AggregateGroup.supplier ? Comparator.comparing(Long::valueOf) : Comparator.naturalOrder();
+        return mergeAggregates(live, archived, order);
+    }
+
+    /**
+     * Adds up the aggregates of the live details and of the archive summaries that share a value of the grouping.
+     *
+     * @param live the aggregates of the live details
+     * @param archived the aggregates of the archive summaries
+     * @param order the order of the values of the grouping
+     * @return one aggregate per value in order, with null first as in the queries
+     */
+    private static List<InventoryDetailsAggregate> mergeAggregates(List<InventoryDetailsAggregate> live, List<InventoryDetailsAggregate> archived,
+                                                                   Comparator<String> order) {
+        Map<String, MergedDetailsAggregate> merged = new TreeMap<>(Comparator.nullsFirst(order));
+        for (List<InventoryDetailsAggregate> aggregates : List.of(live, archived)) {
+            for (InventoryDetailsAggregate aggregate : aggregates) {
+                merged.merge(aggregate.getGroupKey(), MergedDetailsAggregate.of(aggregate), MergedDetailsAggregate::plus);
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Builds the key identifying a product in catalog imports from its supplier ID and product name.
+     *
+     * @param inventoryMaster the inventory master
+     * @return the natural key of the product
+     */
+    private static String naturalKeyOf(InventoryMaster inventoryMaster) {
+        return inventoryMaster.getSupplierId() + "\n" + inventoryMaster.getProductName();
+    }
+
+    /**
+     * Copies the updatable inventory master fields from a request onto a managed record.
+     *
+     * @param source the inventory master received in the request
+     * @param target the managed inventory master to update
+     */
+    private static void copyMasterFields(InventoryMaster source, InventoryMaster target) {
+        target.setProductName(source.getProductName());
+        target.setCategory(source.getCategory());
+        target.setBrand(source.getBrand());
+        target.setUnitPrice(source.getUnitPrice());
+        target.setSupplierId(source.getSupplierId());
+        target.setRemarks(source.getRemarks());
+    }
+
+    /**
+     * Atomically adds a quantity to the stock in hand of a product, or records it for the coalescer when enabled.
+     * A change of the details that moves no stock only increments the version of the product.
+     *
+     * @param productId the ID of the product, ignored if null
+     * @param quantity the quantity to add
+     */
+    private void adjustStock(Long productId, int quantity) {
+        if (productId == null) {
+            return;
+        }
+        if (quantity == 0) {
+            inventoryMasterRepository.touch(productId);
+        } else if (stockAdjustmentCoalescer != null) {
+            stockAdjustmentCoalescer.record(productId, quantity);
+        } else {
+            inventoryMasterRepository.adjustStock(productId, quantity);
+            if (inventoryRollupService != null) {
+                inventoryRollupService.stockAdjusted(productId, quantity);
+            }
+        }
+    }
+
+    /**
+     * Records the change of an inventory master in the rollups when they are maintained.
+     *
+     * @param before the contribution of the master before the change, or null if it is created
+     * @param after the master after the change
+     */
+    private void recordRollups(InventoryRollupService.Contribution before, InventoryMaster after) {
+        if (inventoryRollupService != null) {
+            inventoryRollupService.productChanged(before, InventoryRollupService.Contribution.of(after));
+        }
+    }
+
+    private void indexForSearch(InventoryMaster inventoryMaster) {
+        if (inventorySearchService != null) {
+            inventorySearchService.indexed(inventoryMaster);
+        }
+    }
+
+    /**
+     * Hands the change of an inventory master to the change feed and the outbox when they are enabled.
+     *
+     * @param type created or updated
+     * @param inventoryMaster the master as written
+     */
+    private void publishMasterEvent(InventoryEventType type, InventoryMaster inventoryMaster) {
+        if (inventoryEventPublisher != null) {
+            inventoryEventPublisher.masterChanged(type, inventoryMaster);
+        }
+        if (inventoryOutbox != null) {
+            inventoryOutbox.masterChanged(type, inventoryMaster);
+        }
+    }
+
+    /**
+     * Hands the change of an inventory detail to the change feed and the outbox when they are enabled.
+     *
+     * @param type detail_created, detail_updated or detail_deleted
+     * @param inventoryDetails the detail as written, or as it was before it was deleted
+     * @param productId the ID of the master the change applies to
+     * @param quantity the stock movement of the change for that master
+     */
+    private void publishDetailEvent(InventoryEventType type, InventoryDetails inventoryDetails, Long productId, int quantity) {
+        if (inventoryEventPublisher != null) {
+            inventoryEventPublisher.detailChanged(type, inventoryDetails.getTransactionId(), productId, quantity);
+        }
+        if (inventoryOutbox != null) {
+            inventoryOutbox.detailChanged(type, inventoryDetails, productId, quantity);
+        }
+    }
+
+    private void writeOutboxBatch() {
+        if (inventoryOutbox != null) {
+            inventoryOutbox.writePending();
+        }
+    }
+
+    private InventoryRollupService.Contribution rollupContribution(InventoryMaster inventoryMaster) {
+        return inventoryRollupService == null ? null : InventoryRollupService.Contribution.of(inventoryMaster);
+    }
+
+    /**
+     * Resolves the stock movement of an inventory detail. Only completed transactions move stock;
+     * the quantity is signed, negative quantities take stock out.
+     *
+     * @param inventoryDetails the inventory details
+     * @return the quantity to add to the stock in hand
+     */
+    private static int stockDelta(InventoryDetails inventoryDetails) {
+        return inventoryDetails.getTransactionStatus() == TransactionStatus.completed ? inventoryDetails.getQuantity() : 0;
+    }
+
+    /**
+     * Resolves the product ID of the inventory master an inventory detail refers to.
+     *
+     * @param inventoryDetails the inventory details
+     * @return the product ID, or null if the detail has no master
+     */
+    private static Long productIdOf(InventoryDetails inventoryDetails) {
+        return inventoryDetails.getInventoryMaster() == null ? null : inventoryDetails.getInventoryMaster().getProductId();
+    }
+
+    /**
+     * Clamps the requested page size to the allowed range.
+     *
+     * @param limit the requested page size, or null for the default
+     * @return the page size to use
+     */
+    private static int pageLimit(Integer limit) {
+        return limit == null ? Constants.DEFAULT_PAGE_LIMIT : Math.max(1, Math.min(limit, Constants.MAX_PAGE_LIMIT));
+    }
+
+    private static ChangeWatermark earliest(ChangeWatermark current, ChangeWatermark candidate) {
+        return current == null || candidate.compareTo(current) < 0 ? candidate : current;
+    }
+
+    /**
+     * Resolves the exclusive lower bound of a keyset page.
+     *
+     * @param cursor the last product ID of the previous page, or null for the first page
+     * @return the product ID after which the page starts
+     */
+    private static long startOf(Long cursor) {
+        return cursor == null ? 0L : cursor;
+    }
+
+    /**
+     * Resolves the inclusive lower bound of a transaction date range.
+     *
+     * @param from the requested start, or null for no lower bound
+     * @return the start of the range
+     */
+    private static Date rangeStart(Date from) {
+        return from == null ? Constants.MIN_TRANSACTION_DATE : from;
+    }
+
+    /**
+     * Resolves the exclusive upper bound of a transaction date range.
+     *
+     * @param to the requested end, or null for no upper bound
+     * @return the end of the range
+     */
+    private static Date rangeEnd(Date to) {
+        return to == null ? Constants.MAX_TRANSACTION_DATE : to;
+    }
+
+    /**
+     * Resolves the next cursor of a page that was read with one extra record.
+     *
+     * @param items the records read, at most pageLimit + 1
+     * @param pageLimit the page size
+     * @param productIdOf extracts the product ID of a record
+     * @return the product ID of the last record of the page, or null when there is no further page
+     */
+    private static <T> Long nextCursor(List<T> items, int pageLimit, Function<T, Long> productIdOf) {
+        return items.size() > pageLimit ? productIdOf.apply(items.get(pageLimit - 1)) : null;
+    }
+
+    /**
+     * Builds a page from records that were read with one extra record.
+     *
+     * @param items the records read, at most pageLimit + 1
+     * @param pageLimit the page size
+     * @param productIdOf extracts the product ID of a record
+     * @return the page without the extra record
+     */
+    private static <T> CursorPage<T> toPage(List<T> items, int pageLimit, Function<T, Long> productIdOf) {
+        Long nextCursor = nextCursor(items, pageLimit, productIdOf);
+        return new CursorPage<>(nextCursor == null ? items : items.subList(0, pageLimit), nextCursor, pageLimit);
     }
 }
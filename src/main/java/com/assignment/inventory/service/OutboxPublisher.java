@@ -0,0 +1,185 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.OutboxMessage;
+import com.assignment.inventory.outbox.OutboxSink;
+import com.assignment.inventory.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox to the configured sink in the background. Due messages are read in ID order in batches and delivered
+ * with one sink call per batch, then deleted. When a batch fails, each of its products is retried on its own so one failing
+ * product does not hold back the others; the messages of a product that still fails are postponed with exponential backoff,
+ * and its later messages wait for them, so the messages of a product are always delivered in order.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.outbox.publisher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxPublisher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer sinkTimer;
+
+    // Single publishing thread, so a message is never delivered by two drains at once
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxPublisher(OutboxMessageRepository outboxMessageRepository,
+                           OutboxSink outboxSink,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${inventory.outbox.publisher.poll-interval:200ms}") Duration pollInterval,
+                           @Value("${inventory.outbox.publisher.batch-size:100}") int batchSize,
+                           @Value("${inventory.outbox.publisher.initial-backoff:1s}") Duration initialBackoff,
+                           @Value("${inventory.outbox.publisher.max-backoff:5m}") Duration maxBackoff) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.outboxSink = outboxSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.publishedCounter = Counter.builder("inventory.outbox.published")
+                .description("Outbox messages delivered to the sink")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("inventory.outbox.failed")
+                .description("Outbox messages postponed after a failed delivery")
+                .register(meterRegistry);
+        this.sinkTimer = Timer.builder("inventory.outbox.sink")
+                .description("Time to deliver a batch of outbox messages to the sink")
+                .register(meterRegistry);
+        publisher.scheduleWithFixedDelay(this::drainQuietly, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops publishing when the application stops; undelivered messages stay in the outbox.
+     */
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    /**
+     * Delivers the due messages until the outbox has no more due messages or the sink fails for a whole batch.
+     *
+     * @return the number of delivered messages
+     */
+    public int drain() {
+        int published = 0;
+        while (true) {
+            List<OutboxMessage> batch = transactionTemplate.execute(status ->
+                    outboxMessageRepository.findDue(new Date(), Limit.of(batchSize)));
+            if (batch == null || batch.isEmpty()) {
+                return published;
+            }
+            int delivered = publishBatch(batch);
+            published += delivered;
+
+            // Stop on a short batch, and back off with the rest when nothing could be delivered
+            if (batch.size() < batchSize || delivered == 0) {
+                return published;
+            }
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Outbox publishing failed", e);
+        }
+    }
+
+    /**
+     * Delivers a batch, falling back to one delivery per product when the batch fails.
+     *
+     * @param batch the due messages in ID order
+     * @return the number of delivered messages
+     */
+    private int publishBatch(List<OutboxMessage> batch) {
+        Exception batchFailure = deliver(batch);
+        if (batchFailure == null) {
+            return batch.size();
+        }
+
+        // Retry every product alone, in the order of its first message
+        Map<Long, List<OutboxMessage>> byProduct = new LinkedHashMap<>();
+        batch.forEach(message -> byProduct.computeIfAbsent(message.getProductId(), productId -> new ArrayList<>()).add(message));
+        int delivered = 0;
+        for (List<OutboxMessage> messages : byProduct.values()) {
+            Exception failure = byProduct.size() == 1 ? batchFailure : deliver(messages);
+            if (failure == null) {
+                delivered += messages.size();
+            } else {
+                postpone(messages, failure);
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Delivers messages to the sink and deletes them once delivered.
+     *
+     * @param messages the messages to deliver
+     * @return null when delivered, otherwise the failure
+     */
+    private Exception deliver(List<OutboxMessage> messages) {
+        try {
+            sinkTimer.recordCallable(() -> {
+                outboxSink.publish(messages);
+                return null;
+            });
+        } catch (Exception e) {
+            return e;
+        }
+        List<Long> ids = messages.stream().map(OutboxMessage::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> outboxMessageRepository.deleteByIdIn(ids));
+        publishedCounter.increment(messages.size());
+        return null;
+    }
+
+    private void postpone(List<OutboxMessage> messages, Exception failure) {
+        // The first message of a product has the most failed attempts
+        int attempts = messages.get(0).getAttempts();
+        long backoff = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempts, 20));
+        Date nextAttemptAt = new Date(System.currentTimeMillis() + backoff);
+        String error = String.valueOf(failure.getMessage());
+        List<Long> ids = messages.stream().map(OutboxMessage::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> outboxMessageRepository.postpone(ids, nextAttemptAt,
+                error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error));
+        failedCounter.increment(messages.size());
+        log.warn("Delivering {} outbox messages of product {} failed, attempt {}, retrying in {} ms", messages.size(),
+                messages.get(0).getProductId(), attempts + 1, backoff, failure);
+    }
+}
@@ -0,0 +1,18 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+public interface ReactiveInventoryService {
+
+    Mono<CursorPage<InventoryMaster>> getAllInventories(Long cursor, Integer limit);
+    Flux<InventoryMaster> streamAllInventories();
+    Mono<InventoryMaster> getInventoryById(Long productId);
+    Flux<InventoryMaster> getInventoryByFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded, TransactionStatus transactionStatus, String transactionType, int page, int size, String sort, Sort.Direction direction);
+}
@@ -0,0 +1,131 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.ResourceNotFoundException;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import com.assignment.inventory.repository.InventoryReactiveRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ReactiveInventoryServiceImplementation implements ReactiveInventoryService {
+
+    @Autowired
+    InventoryReactiveRepository inventoryReactiveRepository;
+
+    // Detail criteria of the filter also match archived details, which only exist while archiving is enabled
+    @Value("${inventory.archive.enabled:false}")
+    boolean archiveEnabled;
+
+    /**
+     * Retrieves a page of inventory master records with their inventory details using keyset pagination on product ID.
+     * The page is read with two queries regardless of its size: one for the masters and one for their details.
+     *
+     * @param cursor the last product ID of the previous page, or null for the first page
+     * @param limit the maximum number of records to return, defaults to DEFAULT_PAGE_LIMIT and is capped at MAX_PAGE_LIMIT
+     * @return a Mono emitting the page and the cursor of the next page
+     */
+    @Override
+    public Mono<CursorPage<InventoryMaster>> getAllInventories(Long cursor, Integer limit) {
+        int pageLimit = limit == null ? Constants.DEFAULT_PAGE_LIMIT : Math.max(1, Math.min(limit, Constants.MAX_PAGE_LIMIT));
+
+        // Read one master more than the page holds to know whether a next page exists, then attach the details of the page
+        return inventoryReactiveRepository.findMastersAfter(cursor == null ? 0 : cursor, pageLimit + 1)
+                .collectList()
+                .flatMap(masters -> {
+                    Long nextCursor = masters.size() > pageLimit ? masters.get(pageLimit - 1).getProductId() : null;
+                    List<InventoryMaster> page = nextCursor == null ? masters : masters.subList(0, pageLimit);
+                    return withDetails(Flux.fromIterable(page))
+                            .collectList()
+                            .map(items -> new CursorPage<>(items, nextCursor, pageLimit));
+                });
+    }
+
+    /**
+     * Streams every inventory master record with its inventory details. Masters are read as the subscriber requests them
+     * and their details are read per batch of STREAM_FETCH_SIZE masters, so memory use does not grow with the catalog.
+     *
+     * @return a Flux emitting every master in product ID order
+     */
+    @Override
+    public Flux<InventoryMaster> streamAllInventories() {
+        return withDetails(inventoryReactiveRepository.findAllMasters());
+    }
+
+    /**
+     * Retrieves an inventory master record with its inventory details.
+     *
+     * @param productId the ID of the product to retrieve
+     * @return a Mono emitting the master, or failing with ResourceNotFoundException if the product is not found
+     */
+    @Override
+    public Mono<InventoryMaster> getInventoryById(Long productId) {
+        return withDetails(inventoryReactiveRepository.findMaster(productId).flux())
+                .next()
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(Constants.PRODUCT_NOT_FOUND_ERROR_MESSAGE)));
+    }
+
+    /**
+     * Retrieves one page of the inventory master records matching the filter criteria, with their inventory details.
+     * Unlike the blocking API no total count is computed, the records are emitted as they are read.
+     *
+     * @param productName the name of the product
+     * @param category the category of the product
+     * @param brand the brand of the product
+     * @param minPrice the minimum price of the product
+     * @param maxPrice the maximum price of the product
+     * @param supplierId the ID of the supplier
+     * @param dateAdded the day the product was added
+     * @param transactionStatus the transaction status of any of the inventory details
+     * @param transactionType the transaction type of any of the inventory details
+     * @param page the zero based page number
+     * @param size the maximum number of records per page
+     * @param sort the validated inventory master property to sort by
+     * @param direction the sort direction
+     * @return a Flux emitting the matching masters of the page
+     */
+    @Override
+    public Flux<InventoryMaster> getInventoryByFilters(String productName, String category, String brand, Double minPrice, Double maxPrice, Long supplierId, Date dateAdded,
+                                                       TransactionStatus transactionStatus, String transactionType, int page, int size, String sort, Sort.Direction direction) {
+        return withDetails(inventoryReactiveRepository.findMastersByFilters(productName, category, brand, minPrice, maxPrice, supplierId, dateAdded,
+                transactionStatus, transactionType, archiveEnabled, sort, direction, (long) page * size, size));
+    }
+
+    /**
+     * Attaches the inventory details to a stream of masters, reading the details of up to STREAM_FETCH_SIZE masters with one query.
+     * Batches are processed one after another, so the order of the masters is kept and demand propagates to the master query.
+     *
+     * @param masters the masters without details
+     * @return the masters with their details
+     */
+    private Flux<InventoryMaster> withDetails(Flux<InventoryMaster> masters) {
+        return masters
+                .buffer(Constants.STREAM_FETCH_SIZE)
+                .concatMap(batch -> {
+                    Map<Long, InventoryMaster> byId = batch.stream()
+                            .collect(Collectors.toMap(InventoryMaster::getProductId, Function.identity()));
+                    return inventoryReactiveRepository.findDetailsByProductIds(byId.keySet())
+                            .doOnNext(details -> attach(byId, details))
+                            .thenMany(Flux.fromIterable(batch));
+                }, 1);
+    }
+
+    private static void attach(Map<Long, InventoryMaster> masters, InventoryDetails details) {
+        InventoryMaster inventory = masters.get(details.getInventoryMaster().getProductId());
+        details.setInventoryMaster(inventory);
+        inventory.getInventoryDetails().add(details);
+    }
+}
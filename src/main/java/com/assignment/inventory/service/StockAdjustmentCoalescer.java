@@ -0,0 +1,327 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.cache.InventoryMasterCache;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.StockAdjustment;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import com.assignment.inventory.repository.StockAdjustmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces stock movements of the same product into a single row update.
+ * Each movement is first written as a StockAdjustment row in the transaction of the inventory detail change, which only inserts
+ * and never locks the inventory master row. After commit the movement is added to an in-memory pending sum per product which is
+ * applied with one atomic update on a short interval, or as soon as enough movements are pending. Adjustments left behind by a
+ * crash are applied by the recovery sweep once they are older than the recovery age. While {@code max-pending} movements are
+ * pending, for instance because flushes keep failing, further movements are applied directly in the transaction of their change.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.stock.coalescing.enabled", havingValue = "true")
+public class StockAdjustmentCoalescer {
+
+    private static final int STRIPES = 64;
+    private static final int RECOVERY_BATCH_SIZE = 1000;
+
+    private final StockAdjustmentRepository stockAdjustmentRepository;
+    private final InventoryMasterRepository inventoryMasterRepository;
+    private final InventoryMasterCache inventoryMasterCache;
+    private final InventoryRollupService inventoryRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushThreshold;
+    private final int maxPending;
+    private final Duration recoveryAge;
+
+    // Committed but not yet applied movements per product
+    private final Map<Long, PendingStock> pending = new ConcurrentHashMap<>();
+    // Number of adjustment IDs held in the pending map
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    // Flushing a product holds the write lock of its stripe so readers never see a movement both applied and pending
+    private final ReadWriteLock[] locks = new ReadWriteLock[STRIPES];
+
+    // Single flushing thread, so the same product is never flushed concurrently
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockAdjustmentCoalescer(StockAdjustmentRepository stockAdjustmentRepository,
+                                    InventoryMasterRepository inventoryMasterRepository,
+                                    InventoryMasterCache inventoryMasterCache,
+                                    ObjectProvider<InventoryRollupService> inventoryRollupService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${inventory.stock.coalescing.flush-interval:200ms}") Duration flushInterval,
+                                    @Value("${inventory.stock.coalescing.flush-threshold:100}") int flushThreshold,
+                                    @Value("${inventory.stock.coalescing.max-pending:100000}") int maxPending,
+                                    @Value("${inventory.stock.coalescing.recovery-age:60s}") Duration recoveryAge) {
+        this.stockAdjustmentRepository = stockAdjustmentRepository;
+        this.inventoryMasterRepository = inventoryMasterRepository;
+        this.inventoryMasterCache = inventoryMasterCache;
+        this.inventoryRollupService = inventoryRollupService.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushThreshold = flushThreshold;
+        this.maxPending = maxPending;
+        this.recoveryAge = recoveryAge;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        flusher.scheduleWithFixedDelay(this::flushAll, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::recover, recoveryAge.toMillis(), recoveryAge.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a stock movement. Must be called inside the transaction changing the inventory detail;
+     * the movement becomes pending once that transaction commits. Applies it right away when too many movements are pending.
+     *
+     * @param productId the ID of the product
+     * @param quantity the quantity to add to the stock in hand
+     */
+    public void record(Long productId, int quantity) {
+        if (pendingCount.get() >= maxPending) {
+            // Flushes are not keeping up, stop growing the pending map and take the row lock like an uncoalesced movement
+            inventoryMasterRepository.adjustStock(productId, quantity);
+            if (inventoryRollupService != null) {
+                inventoryRollupService.stockAdjusted(productId, quantity);
+            }
+            inventoryMasterCache.invalidate(productId);
+            return;
+        }
+        Long adjustmentId = stockAdjustmentRepository.save(new StockAdjustment(productId, quantity)).getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addPending(productId, quantity, adjustmentId);
+                }
+            });
+        } else {
+            addPending(productId, quantity, adjustmentId);
+        }
+    }
+
+    /**
+     * Reads an inventory master and adds the stock movements of the product that are still pending.
+     *
+     * @param productId the ID of the product
+     * @param loader reads the inventory master as stored in the database or the cache
+     * @return the inventory master with the pending movements included in its stock in hand, or empty if not found
+     */
+    public Optional<InventoryMaster> withPendingStock(Long productId, Supplier<Optional<InventoryMaster>> loader) {
+        var lock = lockOf(productId).readLock();
+        lock.lock();
+        try {
+            Optional<InventoryMaster> inventory = loader.get();
+            PendingStock pendingStock = pending.get(productId);
+            if (inventory.isEmpty() || pendingStock == null || pendingStock.quantity() == 0) {
+                return inventory;
+            }
+
+            // Never modify the loaded instance, it may be shared through the cache
+            return Optional.of(copyWithStock(inventory.get(), inventory.get().getStockInHand() + pendingStock.quantity()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Identifies the movements of a product that are committed but not yet applied, so representations including them can be told apart.
+     *
+     * @param productId the ID of the product
+     * @return the highest stock adjustment ID pending for the product, or 0 if none is pending
+     */
+    public long pendingVersion(Long productId) {
+        PendingStock pendingStock = pending.get(productId);
+        return pendingStock == null ? 0 : pendingStock.adjustmentIds().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    /**
+     * Applies every pending movement. Runs on the flush interval.
+     */
+    public void flushAll() {
+        for (Long productId : new ArrayList<>(pending.keySet())) {
+            flush(productId);
+        }
+    }
+
+    /**
+     * Stops the scheduled flushes and applies the movements still pending when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushAll();
+    }
+
+    /**
+     * Applies the stock adjustments older than the recovery age that are not pending on any running instance anymore,
+     * such as the adjustments of an instance that stopped before flushing them. The adjustments still pending on this
+     * instance are left to its flushes, which keep retrying them, so they are never counted both as stored and pending.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        try {
+            Date before = new Date(System.currentTimeMillis() - recoveryAge.toMillis());
+            Map<Long, Integer> recovered = transactionTemplate.execute(status -> {
+                List<StockAdjustment> adjustments = stockAdjustmentRepository.findForUpdateByCreatedAtBefore(before, Limit.of(RECOVERY_BATCH_SIZE));
+                Set<Long> held = pending.values().stream().flatMap(pendingStock -> pendingStock.adjustmentIds().stream()).collect(Collectors.toSet());
+                return apply(adjustments.stream().filter(adjustment -> !held.contains(adjustment.getId())).toList());
+            });
+            if (recovered != null && !recovered.isEmpty()) {
+                recovered.keySet().forEach(inventoryMasterCache::invalidate);
+                log.info("Recovered stock adjustments of {} products", recovered.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Stock adjustment recovery failed", e);
+        }
+    }
+
+    /**
+     * Adds a committed movement to the pending sum of its product and triggers a flush once the threshold is reached.
+     *
+     * @param productId the ID of the product
+     * @param quantity the quantity of the movement
+     * @param adjustmentId the ID of the stock adjustment row of the movement
+     */
+    private void addPending(Long productId, int quantity, Long adjustmentId) {
+        PendingStock pendingStock = pending.merge(productId, new PendingStock(quantity, List.of(adjustmentId)), PendingStock::plus);
+        pendingCount.incrementAndGet();
+        if (pendingStock.adjustmentIds().size() >= flushThreshold) {
+            flusher.execute(() -> flush(productId));
+        }
+    }
+
+    /**
+     * Applies the pending movements of a product with a single row update.
+     *
+     * @param productId the ID of the product
+     */
+    private void flush(Long productId) {
+        PendingStock snapshot = pending.get(productId);
+        if (snapshot == null) {
+            return;
+        }
+        var lock = lockOf(productId).writeLock();
+        lock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    apply(stockAdjustmentRepository.findForUpdateByIdIn(snapshot.adjustmentIds())));
+
+            // The movements are part of the stored stock now
+            pending.computeIfPresent(productId, (id, current) -> current.minus(snapshot));
+            pendingCount.addAndGet(-snapshot.adjustmentIds().size());
+            inventoryMasterCache.invalidate(productId);
+        } catch (RuntimeException e) {
+            // Keep the movements pending, the next flush retries them
+            log.warn("Stock adjustment flush of product {} failed", productId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies locked stock adjustments to their products and deletes them. Only adjustments that were still present when
+     * they were locked are applied, so every adjustment is applied exactly once even if a flush and the recovery overlap.
+     *
+     * @param adjustments the locked adjustments
+     * @return the applied quantity per product
+     */
+    private Map<Long, Integer> apply(List<StockAdjustment> adjustments) {
+        if (adjustments.isEmpty()) {
+            return Map.of();
+        }
+
+        // Update the products in ID order so concurrent flushes lock rows in the same order
+        Map<Long, Integer> quantities = adjustments.stream()
+                .collect(Collectors.groupingBy(StockAdjustment::getProductId, TreeMap::new, Collectors.summingInt(StockAdjustment::getQuantity)));
+        quantities.forEach((productId, quantity) -> {
+            if (quantity != 0) {
+                inventoryMasterRepository.adjustStock(productId, quantity);
+                if (inventoryRollupService != null) {
+                    inventoryRollupService.stockAdjusted(productId, quantity);
+                }
+            }
+        });
+        stockAdjustmentRepository.deleteAllInBatch(adjustments);
+        return quantities;
+    }
+
+    private ReadWriteLock lockOf(Long productId) {
+        return locks[Math.floorMod(productId.hashCode(), STRIPES)];
+    }
+
+    /**
+     * Creates a detached copy of an inventory master with a different stock in hand.
+     *
+     * @param source the inventory master to copy
+     * @param stockInHand the stock in hand of the copy
+     * @return the copy
+     */
+    private static InventoryMaster copyWithStock(InventoryMaster source, int stockInHand) {
+        InventoryMaster copy = new InventoryMaster();
+        copy.setProductId(source.getProductId());
+        copy.setProductName(source.getProductName());
+        copy.setCategory(source.getCategory());
+        copy.setBrand(source.getBrand());
+        copy.setStockInHand(stockInHand);
+        copy.setUnitPrice(source.getUnitPrice());
+        copy.setSupplierId(source.getSupplierId());
+        copy.setDateAdded(source.getDateAdded());
+        copy.setLastUpdated(source.getLastUpdated());
+        copy.setRemarks(source.getRemarks());
+        copy.setVersion(source.getVersion());
+        copy.setInventoryDetails(source.getInventoryDetails());
+        return copy;
+    }
+
+    /**
+     * Pending movements of a product: their summed quantity and the stock adjustment rows recording them.
+     */
+    private record PendingStock(int quantity, List<Long> adjustmentIds) {
+
+        PendingStock plus(PendingStock other) {
+            List<Long> ids = new ArrayList<>(adjustmentIds);
+            ids.addAll(other.adjustmentIds);
+            return new PendingStock(quantity + other.quantity, ids);
+        }
+
+        // Returns null when nothing remains, which removes the product from the pending map
+        PendingStock minus(PendingStock flushed) {
+            List<Long> ids = new ArrayList<>(adjustmentIds);
+            ids.removeAll(flushed.adjustmentIds);
+            return ids.isEmpty() ? null : new PendingStock(quantity - flushed.quantity, ids);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.AccountStatus;
+import com.assignment.inventory.model.AccessToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies short-lived bearer tokens, so clients pay the BCrypt password check once per token instead of once per request.
+ * A token is "username.expiry.signature" where the signature is an HMAC over the username, the expiry and the encoded password of
+ * the user; changing the password therefore revokes every token issued before, and a token is rejected as soon as its user could
+ * no longer authenticate with Basic credentials. Without a configured secret a random one is used,
+ * and tokens are only valid on the instance that issued them until it restarts.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.security.token.enabled", havingValue = "true")
+public class TokenService {
+
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final UserDetailsService userDetailsService;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(UserDetailsService userDetailsService,
+                        @Value("${inventory.security.token.secret:}") String secret,
+                        @Value("${inventory.security.token.ttl:15m}") Duration ttl) {
+        this(userDetailsService, secret, ttl, Clock.systemUTC());
+    }
+
+    TokenService(UserDetailsService userDetailsService, String secret, Duration ttl, Clock clock) {
+        this.userDetailsService = userDetailsService;
+        this.key = new SecretKeySpec(secret == null || secret.isBlank() ? randomSecret() : secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Issues a token for an authenticated user.
+     *
+     * @param username the name of the authenticated user
+     * @return the signed token and its lifetime
+     * @throws UsernameNotFoundException if the user does not exist anymore
+     */
+    public AccessToken issue(String username) {
+        // Load the user again, the authenticated principal no longer carries the encoded password
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        long expiry = clock.instant().plus(ttl).getEpochSecond();
+        String payload = ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8)) + "." + expiry;
+        String token = payload + "." + ENCODER.encodeToString(sign(payload, user.getPassword()));
+        return new AccessToken(token, TOKEN_TYPE, ttl.toSeconds());
+    }
+
+    /**
+     * Verifies a token and returns its user.
+     *
+     * @param token the token as sent in the Authorization header, without the scheme
+     * @return the user of the token, or empty if the token is malformed, expired, forged or revoked
+     */
+    public Optional<UserDetails> verify(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            String username = new String(DECODER.decode(parts[0]), StandardCharsets.UTF_8);
+            if (Long.parseLong(parts[1]) <= clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            UserDetails user = userDetailsService.loadUserByUsername(username);
+            byte[] expected = sign(parts[0] + "." + parts[1], user.getPassword());
+
+            // Constant time comparison so the signature cannot be guessed byte by byte
+            if (!MessageDigest.isEqual(expected, DECODER.decode(parts[2])) || !AccountStatus.isUsable(user)) {
+                return Optional.empty();
+            }
+            return Optional.of(user);
+        } catch (IllegalArgumentException | UsernameNotFoundException e) {
+            // Invalid Base64, a non-numeric expiry or an unknown user
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(payload.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(encodedPassword == null ? new byte[0] : encodedPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
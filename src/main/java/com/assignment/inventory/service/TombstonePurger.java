@@ -0,0 +1,74 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.repository.InventoryTombstoneRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the tombstones of deleted masters and details once they are older than the tombstone retention. Clients whose
+ * watermark is older than the retention are told to resynchronize instead of missing the purged deletions.
+ */
+@Slf4j
+@Component
+public class TombstonePurger {
+
+    private final InventoryTombstoneRepository inventoryTombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tombstone-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TombstonePurger(InventoryTombstoneRepository inventoryTombstoneRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${inventory.changes.tombstone-retention:30d}") Duration retention,
+                           @Value("${inventory.changes.purge-interval:1h}") Duration purgeInterval) {
+        this.inventoryTombstoneRepository = inventoryTombstoneRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        purger.scheduleWithFixedDelay(this::purgeQuietly, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduled purges when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * Deletes the tombstones older than the retention.
+     *
+     * @return the number of deleted tombstones
+     */
+    public int purge() {
+        Date before = new Date(System.currentTimeMillis() - retention.toMillis());
+        Integer purged = transactionTemplate.execute(status -> inventoryTombstoneRepository.deleteByDeletedAtBefore(before));
+        return purged == null ? 0 : purged;
+    }
+
+    private void purgeQuietly() {
+        try {
+            int purged = purge();
+            if (purged > 0) {
+                log.info("Purged {} inventory tombstones", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Inventory tombstone purge failed", e);
+        }
+    }
+}
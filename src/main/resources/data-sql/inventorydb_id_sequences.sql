@@ -0,0 +1,18 @@
+USE `inventorydb`;
+--
+-- Sequence tables backing the pooled ID generators of inventory_master and inventory_details.
+-- MySQL has no native sequences, so Hibernate keeps the next value of each sequence in a single row table
+-- and reserves 50 IDs per round-trip. Run after the table dumps; the values are seeded past the existing IDs.
+--
+
+DROP TABLE IF EXISTS `inventory_master_seq`;
+CREATE TABLE `inventory_master_seq` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+INSERT INTO `inventory_master_seq` SELECT COALESCE(MAX(`product_id`), 0) + 1 FROM `inventory_master`;
+
+DROP TABLE IF EXISTS `inventory_details_seq`;
+CREATE TABLE `inventory_details_seq` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+INSERT INTO `inventory_details_seq` SELECT COALESCE(MAX(`transaction_id`), 0) + 1 FROM `inventory_details`;
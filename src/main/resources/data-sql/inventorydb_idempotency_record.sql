@@ -0,0 +1,20 @@
+USE `inventorydb`;
+--
+-- Idempotency-Keys shared by every instance (inventory.idempotency.store=database): claimed before a write request
+-- executes, completed with its response in the same transaction and purged after inventory.idempotency.ttl.
+--
+
+DROP TABLE IF EXISTS `idempotency_record`;
+CREATE TABLE `idempotency_record` (
+  `id` varchar(64) NOT NULL,
+  `body` longtext DEFAULT NULL,
+  `claim_token` varchar(36) NOT NULL,
+  `completed` bit(1) NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `expires_at` datetime(6) NOT NULL,
+  `fingerprint` varchar(64) NOT NULL,
+  `headers` varchar(4000) DEFAULT NULL,
+  `status` int DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_idempotency_record_expires` (`expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -34,8 +34,13 @@ CREATE TABLE `inventory_details` (
   `transaction_status` varchar(255) DEFAULT NULL,
   `transaction_type` varchar(255) DEFAULT NULL,
   `product_id` bigint DEFAULT NULL,
+  `last_updated` datetime(6) DEFAULT NULL,
   PRIMARY KEY (`transaction_id`),
   KEY `FKk1t1de85jvelx69n6yqvpxfuq` (`product_id`),
+  KEY `idx_inventory_details_product_status_type` (`product_id`,`transaction_status`,`transaction_type`),
+  KEY `idx_inventory_details_product_type` (`product_id`,`transaction_type`),
+  KEY `idx_inventory_details_date_cover` (`transaction_date`,`product_id`,`transaction_status`,`transaction_type`,`quantity`,`transaction_amount`),
+  KEY `idx_inventory_details_last_updated` (`last_updated`),
   CONSTRAINT `FKk1t1de85jvelx69n6yqvpxfuq` FOREIGN KEY (`product_id`) REFERENCES `inventory_master` (`product_id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=3 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
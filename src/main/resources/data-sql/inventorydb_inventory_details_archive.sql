@@ -0,0 +1,44 @@
+USE `inventorydb`;
+--
+-- Completed and cancelled inventory details of closed months, moved out of inventory_details by the archiver
+-- (inventory.archive.enabled), and their totals per hour, product, status and type read by the detail aggregates.
+--
+
+DROP TABLE IF EXISTS `inventory_details_archive`;
+CREATE TABLE `inventory_details_archive` (
+  `transaction_id` bigint NOT NULL,
+  `archived_at` datetime(6) NOT NULL,
+  `last_updated` datetime(6) DEFAULT NULL,
+  `product_id` bigint DEFAULT NULL,
+  `quantity` int NOT NULL,
+  `transaction_amount` double NOT NULL,
+  `transaction_date` datetime(6) NOT NULL,
+  `transaction_description` varchar(255) DEFAULT NULL,
+  `transaction_notes` varchar(2500) DEFAULT NULL,
+  `transaction_status` varchar(255) DEFAULT NULL,
+  `transaction_type` varchar(255) DEFAULT NULL,
+  PRIMARY KEY (`transaction_id`),
+  KEY `idx_inventory_details_archive_product_date` (`product_id`,`transaction_date`),
+  KEY `idx_inventory_details_archive_date` (`transaction_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+DROP TABLE IF EXISTS `inventory_details_summary`;
+CREATE TABLE `inventory_details_summary` (
+  `id` bigint NOT NULL,
+  `period_start` datetime(6) NOT NULL,
+  `product_id` bigint DEFAULT NULL,
+  `total_amount` double NOT NULL,
+  `total_quantity` bigint NOT NULL,
+  `transaction_count` bigint NOT NULL,
+  `transaction_status` varchar(255) DEFAULT NULL,
+  `transaction_type` varchar(255) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_inventory_details_summary_period_cover` (`period_start`,`product_id`,`transaction_status`,`transaction_type`,`transaction_count`,`total_quantity`,`total_amount`),
+  KEY `idx_inventory_details_summary_product` (`product_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+DROP TABLE IF EXISTS `inventory_details_summary_seq`;
+CREATE TABLE `inventory_details_summary_seq` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+INSERT INTO `inventory_details_summary_seq` VALUES (1);
@@ -0,0 +1,20 @@
+USE `inventorydb`;
+--
+-- Partitions inventory_details by transaction date month, so queries with a transaction date range only read the
+-- partitions of the range. MySQL partitioned tables cannot have foreign keys and every unique key has to contain the
+-- partitioning column, so the foreign key to inventory_master is dropped and transaction_date joins the primary key.
+-- The database then no longer rejects details of unknown products, and ddl-auto update logs a warning on every start
+-- because it cannot add the foreign key back.
+-- p_history takes all details before its bound; set the bound to the start of the current month.
+-- The application adds the partitions of the following months from p_future at startup and every
+-- inventory.partitioning.interval (inventory.partitioning.months-ahead), whether or not archiving is enabled.
+-- Run with the application stopped, the table is rebuilt.
+--
+
+ALTER TABLE `inventory_details` DROP FOREIGN KEY `FKk1t1de85jvelx69n6yqvpxfuq`;
+ALTER TABLE `inventory_details` DROP PRIMARY KEY, ADD PRIMARY KEY (`transaction_id`,`transaction_date`);
+ALTER TABLE `inventory_details`
+  PARTITION BY RANGE COLUMNS (`transaction_date`) (
+    PARTITION p_history VALUES LESS THAN ('2026-10-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+  );
@@ -35,7 +35,15 @@ CREATE TABLE `inventory_master` (
   `stock_in_hand` int NOT NULL,
   `supplier_id` bigint DEFAULT NULL,
   `unit_price` double NOT NULL,
-  PRIMARY KEY (`product_id`)
+  `version` bigint NOT NULL DEFAULT '0',
+  PRIMARY KEY (`product_id`),
+  KEY `idx_inventory_master_product_name_supplier_id` (`product_name`,`supplier_id`),
+  KEY `idx_inventory_master_category_brand` (`category`,`brand`),
+  KEY `idx_inventory_master_brand` (`brand`),
+  KEY `idx_inventory_master_supplier_id` (`supplier_id`),
+  KEY `idx_inventory_master_unit_price` (`unit_price`),
+  KEY `idx_inventory_master_date_added` (`date_added`),
+  KEY `idx_inventory_master_last_updated` (`last_updated`)
 ) ENGINE=InnoDB AUTO_INCREMENT=4 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 /*!40103 SET TIME_ZONE=@OLD_TIME_ZONE */;
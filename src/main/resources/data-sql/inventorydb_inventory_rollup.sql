@@ -0,0 +1,16 @@
+USE `inventorydb`;
+--
+-- Product count, stock in hand and valuation per category, brand and supplier (inventory.rollup.enabled).
+-- Maintained by the write transactions; run POST /inventory/rollups/reconcile once after creating it on an existing catalog.
+--
+
+DROP TABLE IF EXISTS `inventory_rollup`;
+CREATE TABLE `inventory_rollup` (
+  `dimension` varchar(16) NOT NULL,
+  `group_key` varchar(255) NOT NULL,
+  `product_count` bigint NOT NULL,
+  `total_stock` bigint NOT NULL,
+  `total_valuation` double NOT NULL,
+  `last_updated` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`dimension`,`group_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,23 @@
+USE `inventorydb`;
+--
+-- Deleted inventory masters and details, read by GET /inventory/changes and purged after inventory.changes.tombstone-retention.
+-- Details written before inventory_details.last_updated existed are only returned by the change stream after a backfill:
+--   UPDATE inventory_details SET last_updated = transaction_date WHERE last_updated IS NULL;
+--
+
+DROP TABLE IF EXISTS `inventory_tombstone`;
+CREATE TABLE `inventory_tombstone` (
+  `id` bigint NOT NULL,
+  `deleted_at` datetime(6) NOT NULL,
+  `entity_id` bigint NOT NULL,
+  `product_id` bigint DEFAULT NULL,
+  `type` varchar(16) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_inventory_tombstone_deleted_at` (`deleted_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+DROP TABLE IF EXISTS `inventory_tombstone_seq`;
+CREATE TABLE `inventory_tombstone_seq` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+INSERT INTO `inventory_tombstone_seq` VALUES (1);
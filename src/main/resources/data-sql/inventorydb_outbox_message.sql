@@ -0,0 +1,26 @@
+USE `inventorydb`;
+--
+-- Transactional outbox (inventory.outbox.enabled): inventory changes written in the transaction of the change and deleted
+-- once the outbox publisher delivered them to the sink.
+--
+
+DROP TABLE IF EXISTS `outbox_message`;
+CREATE TABLE `outbox_message` (
+  `id` bigint NOT NULL,
+  `attempts` int NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `last_error` varchar(500) DEFAULT NULL,
+  `next_attempt_at` datetime(6) NOT NULL,
+  `payload` longtext NOT NULL,
+  `product_id` bigint NOT NULL,
+  `type` varchar(32) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_outbox_message_product` (`product_id`,`id`),
+  KEY `idx_outbox_message_next_attempt` (`next_attempt_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+DROP TABLE IF EXISTS `outbox_message_seq`;
+CREATE TABLE `outbox_message_seq` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+INSERT INTO `outbox_message_seq` VALUES (1);
@@ -0,0 +1,21 @@
+USE `inventorydb`;
+--
+-- Write-ahead table of the stock movement coalescer (inventory.stock.coalescing.enabled).
+-- Each row is a committed stock movement not yet applied to inventory_master.stock_in_hand.
+--
+
+DROP TABLE IF EXISTS `stock_adjustment`;
+CREATE TABLE `stock_adjustment` (
+  `id` bigint NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `product_id` bigint NOT NULL,
+  `quantity` int NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_stock_adjustment_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+DROP TABLE IF EXISTS `stock_adjustment_seq`;
+CREATE TABLE `stock_adjustment_seq` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+INSERT INTO `stock_adjustment_seq` VALUES (1);
@@ -1,22 +1,54 @@
 package com.assignment.inventory;
 
+import com.assignment.inventory.cache.InventoryMasterCache;
+import com.assignment.inventory.common.Constants;
 import com.assignment.inventory.exceptions.ResourceNotFoundException;
+import com.assignment.inventory.model.AggregateGroup;
+import com.assignment.inventory.model.BulkItemResult;
+import com.assignment.inventory.model.BulkItemStatus;
+import com.assignment.inventory.model.ChangeWatermark;
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryChanges;
 import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsAggregate;
+import com.assignment.inventory.model.InventoryDetailsChange;
+import com.assignment.inventory.model.InventoryEventType;
 import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventoryTombstone;
+import com.assignment.inventory.model.TombstoneType;
 import com.assignment.inventory.model.TransactionStatus;
 import com.assignment.inventory.repository.InventoryDetailsRepository;
+import com.assignment.inventory.repository.InventoryDetailsArchiveRepository;
+import com.assignment.inventory.repository.InventoryDetailsSummaryRepository;
 import com.assignment.inventory.repository.InventoryMasterRepository;
+import com.assignment.inventory.repository.InventoryTombstoneRepository;
+import com.assignment.inventory.service.InventoryEventPublisher;
+import com.assignment.inventory.service.InventoryOutbox;
+import com.assignment.inventory.service.InventoryRollupService;
+import com.assignment.inventory.service.InventorySearchService;
 import com.assignment.inventory.service.InventoryServiceImplementation;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -36,6 +68,33 @@ public class InventoryServiceImplementationTest {
     @Mock
     private InventoryDetailsRepository inventoryDetailsRepository;
 
+    @Mock
+    private InventoryDetailsSummaryRepository inventoryDetailsSummaryRepository;
+
+    @Mock
+    private InventoryDetailsArchiveRepository inventoryDetailsArchiveRepository;
+
+    @Mock
+    private InventoryTombstoneRepository inventoryTombstoneRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private InventoryRollupService inventoryRollupService;
+
+    @Mock
+    private InventorySearchService inventorySearchService;
+
+    @Mock
+    private InventoryEventPublisher inventoryEventPublisher;
+
+    @Mock
+    private InventoryOutbox inventoryOutbox;
+
+    @Spy
+    private InventoryMasterCache inventoryMasterCache = new InventoryMasterCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
     @InjectMocks
     private InventoryServiceImplementation inventoryService;
 
@@ -49,20 +108,53 @@ public class InventoryServiceImplementationTest {
         // Arrange
         InventoryMaster inventory1 = new InventoryMaster();
         InventoryMaster inventory2 = new InventoryMaster();
-        when(inventoryMasterRepository.findAll()).thenReturn(Arrays.asList(inventory1, inventory2));
+        when(inventoryMasterRepository.findProductIdsAfter(0L, Limit.of(Constants.DEFAULT_PAGE_LIMIT + 1)))
+                .thenReturn(Arrays.asList(1L, 2L));
+        when(inventoryMasterRepository.findWithDetailsByProductIdInOrderByProductIdAsc(Arrays.asList(1L, 2L)))
+                .thenReturn(Arrays.asList(inventory1, inventory2));
 
         // Act
-        List<InventoryMaster> result = inventoryService.getAllInventories();
+        CursorPage<InventoryMaster> result = inventoryService.getAllInventories(null, null);
 
         // Assert
-        assertEquals(2, result.size());
-        verify(inventoryMasterRepository, times(1)).findAll();
+        assertEquals(2, result.getItems().size());
+        assertNull(result.getNextCursor());
+        verify(inventoryMasterRepository, times(0)).findAll();
+    }
+
+    @Test
+    public void testGetAllInventories_NextCursor() {
+        // Arrange
+        InventoryMaster inventory1 = new InventoryMaster();
+        InventoryMaster inventory2 = new InventoryMaster();
+        when(inventoryMasterRepository.findProductIdsAfter(10L, Limit.of(3)))
+                .thenReturn(Arrays.asList(11L, 12L, 13L));
+        when(inventoryMasterRepository.findWithDetailsByProductIdInOrderByProductIdAsc(Arrays.asList(11L, 12L)))
+                .thenReturn(Arrays.asList(inventory1, inventory2));
+
+        // Act
+        CursorPage<InventoryMaster> result = inventoryService.getAllInventories(10L, 2);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals(12L, result.getNextCursor());
+    }
+
+    @Test
+    public void testGetInventorySummaryById_NotFound() {
+        // Arrange
+        when(inventoryMasterRepository.findSummaryByProductId(anyLong())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.getInventorySummaryById(1L));
+        verify(inventoryMasterRepository, times(0)).findById(anyLong());
     }
 
     @Test
     public void testCreateInventory() {
         // Arrange
         InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductId(5L);
         when(inventoryMasterRepository.save(any(InventoryMaster.class))).thenReturn(inventory);
 
         // Act
@@ -70,7 +162,10 @@ public class InventoryServiceImplementationTest {
 
         // Assert
         assertNotNull(result);
+        assertNull(inventory.getProductId());
         verify(inventoryMasterRepository, times(1)).save(inventory);
+        verify(inventorySearchService, times(1)).indexed(inventory);
+        verify(inventoryOutbox, times(1)).masterChanged(InventoryEventType.created, inventory);
     }
 
     @Test
@@ -91,6 +186,27 @@ public class InventoryServiceImplementationTest {
         verify(inventoryMasterRepository, times(1)).save(inventory);
     }
 
+    @Test
+    public void testUpdateInventory_MovesRollups() throws ResourceNotFoundException {
+        // Arrange
+        InventoryMaster stored = new InventoryMaster();
+        stored.setProductId(1L);
+        stored.setCategory("Tools");
+        stored.setStockInHand(10);
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setCategory("Garden");
+        when(inventoryMasterRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(inventoryMasterRepository.save(any(InventoryMaster.class))).thenReturn(inventory);
+
+        // Act
+        inventoryService.updateInventory(1L, inventory);
+
+        // Assert
+        verify(inventoryRollupService, times(1)).productChanged(
+                argThat(before -> "Tools".equals(before.category()) && before.stock() == 10),
+                argThat(after -> "Garden".equals(after.category()) && after.stock() == 10));
+    }
+
     @Test
     public void testUpdateInventory_NotFound() {
         // Arrange
@@ -112,34 +228,102 @@ public class InventoryServiceImplementationTest {
         verify(inventoryMasterRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    public void testDeleteInventory_DeletesArchivedDetailsAndSummaries() {
+        // Arrange
+        when(inventoryMasterRepository.findSummaryByProductId(1L)).thenReturn(Optional.of(mock(InventoryMasterSummary.class)));
+
+        // Act
+        inventoryService.deleteInventory(1L);
+
+        // Assert
+        verify(inventoryDetailsArchiveRepository, times(1)).deleteByProductId(1L);
+        verify(inventoryDetailsSummaryRepository, times(1)).deleteByProductId(1L);
+    }
+
+    @Test
+    public void testDeleteInventory_RemovesFromSearch() {
+        // Act
+        inventoryService.deleteInventory(1L);
+
+        // Assert
+        verify(inventorySearchService, times(1)).removed(1L);
+    }
+
     @Test
     public void testGetInventoryById() throws ResourceNotFoundException {
         // Arrange
         InventoryMaster inventory = new InventoryMaster();
-        when(inventoryMasterRepository.findById(1L)).thenReturn(Optional.of(inventory));
+        when(inventoryMasterRepository.findWithDetailsByProductId(1L)).thenReturn(Optional.of(inventory));
 
         // Act
         InventoryMaster result = inventoryService.getInventoryById(1L);
 
         // Assert
         assertNotNull(result);
-        verify(inventoryMasterRepository, times(1)).findById(1L);
+        verify(inventoryMasterRepository, times(1)).findWithDetailsByProductId(1L);
     }
 
     @Test
     public void testGetInventoryById_NotFound() {
         // Arrange
-        when(inventoryMasterRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(inventoryMasterRepository.findWithDetailsByProductId(anyLong())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> inventoryService.getInventoryById(1L));
-        verify(inventoryMasterRepository, times(1)).findById(1L);
+        verify(inventoryMasterRepository, times(1)).findWithDetailsByProductId(1L);
+    }
+
+    @Test
+    public void testGetInventoryById_Cached() throws ResourceNotFoundException {
+        // Arrange
+        InventoryMaster inventory = new InventoryMaster();
+        when(inventoryMasterRepository.findWithDetailsByProductId(1L)).thenReturn(Optional.of(inventory));
+
+        // Act
+        inventoryService.getInventoryById(1L);
+        InventoryMaster result = inventoryService.getInventoryById(1L);
+
+        // Assert
+        assertSame(inventory, result);
+        verify(inventoryMasterRepository, times(1)).findWithDetailsByProductId(1L);
+        assertEquals(1, inventoryMasterCache.stats().hitCount());
+    }
+
+    @Test
+    public void testGetInventoryById_NotFoundCached() {
+        // Arrange
+        when(inventoryMasterRepository.findWithDetailsByProductId(anyLong())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.getInventoryById(1L));
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.getInventoryById(1L));
+        verify(inventoryMasterRepository, times(1)).findWithDetailsByProductId(1L);
+    }
+
+    @Test
+    public void testUpdateInventory_InvalidatesCache() throws ResourceNotFoundException {
+        // Arrange
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductId(1L);
+        when(inventoryMasterRepository.findWithDetailsByProductId(1L)).thenReturn(Optional.of(inventory));
+        when(inventoryMasterRepository.findById(1L)).thenReturn(Optional.of(inventory));
+        when(inventoryMasterRepository.save(any(InventoryMaster.class))).thenReturn(inventory);
+
+        // Act
+        inventoryService.getInventoryById(1L);
+        inventoryService.updateInventory(1L, inventory);
+        inventoryService.getInventoryById(1L);
+
+        // Assert
+        verify(inventoryMasterRepository, times(2)).findWithDetailsByProductId(1L);
     }
 
     @Test
     public void testCreateInventoryDetails() {
         // Arrange
         InventoryDetails details = new InventoryDetails();
+        details.setTransactionId(5L);
         when(inventoryDetailsRepository.save(any(InventoryDetails.class))).thenReturn(details);
 
         // Act
@@ -147,15 +331,71 @@ public class InventoryServiceImplementationTest {
 
         // Assert
         assertNotNull(result);
+        assertNull(details.getTransactionId());
         verify(inventoryDetailsRepository, times(1)).save(details);
     }
 
+    @Test
+    public void testCreateInventoryDetailsBulk() {
+        // Arrange
+        InventoryMaster existing = new InventoryMaster();
+        existing.setProductId(1L);
+        InventoryMaster missing = new InventoryMaster();
+        missing.setProductId(2L);
+        InventoryDetails details1 = new InventoryDetails();
+        details1.setInventoryMaster(existing);
+        InventoryDetails details2 = new InventoryDetails();
+        details2.setInventoryMaster(missing);
+        when(inventoryMasterRepository.findExistingProductIds(anyCollection())).thenReturn(List.of(1L));
+
+        // Act
+        List<BulkItemResult> results = inventoryService.createInventoryDetailsBulk(List.of(details1, details2).iterator());
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(BulkItemStatus.created, results.get(0).getStatus());
+        assertEquals(BulkItemStatus.failed, results.get(1).getStatus());
+        verify(entityManager, times(1)).persist(details1);
+        verify(entityManager, times(0)).persist(details2);
+        verify(inventoryDetailsRepository, times(0)).save(any(InventoryDetails.class));
+    }
+
+    @Test
+    public void testUpsertInventoriesBySupplierAndName() {
+        // Arrange
+        InventoryMaster existing = new InventoryMaster();
+        existing.setProductId(1L);
+        existing.setSupplierId(3L);
+        existing.setProductName("Hammer");
+        existing.setUnitPrice(9.5);
+        InventoryMaster update = new InventoryMaster();
+        update.setSupplierId(3L);
+        update.setProductName("Hammer");
+        update.setUnitPrice(11.0);
+        InventoryMaster create = new InventoryMaster();
+        create.setSupplierId(4L);
+        create.setProductName("Hammer");
+        when(inventoryMasterRepository.findByProductNameInAndSupplierIdInOrderByProductIdAsc(anyCollection(), anyCollection()))
+                .thenReturn(List.of(existing));
+
+        // Act
+        List<BulkItemResult> results = inventoryService.upsertInventoriesBySupplierAndName(List.of(update, create));
+
+        // Assert
+        assertEquals(BulkItemStatus.updated, results.get(0).getStatus());
+        assertEquals(1L, results.get(0).getId());
+        assertEquals(BulkItemStatus.created, results.get(1).getStatus());
+        assertEquals(11.0, existing.getUnitPrice());
+        verify(entityManager, times(1)).persist(create);
+        verify(entityManager, never()).persist(update);
+    }
+
     @Test
     public void testUpdateInventoryDetail() throws ResourceNotFoundException {
         // Arrange
         InventoryDetails details = new InventoryDetails();
         details.setTransactionId(1L);
-        when(inventoryDetailsRepository.findById(1L)).thenReturn(Optional.of(details));
+        when(inventoryDetailsRepository.findForUpdateByTransactionId(1L)).thenReturn(Optional.of(details));
         when(inventoryDetailsRepository.save(any(InventoryDetails.class))).thenReturn(details);
 
         // Act
@@ -164,7 +404,7 @@ public class InventoryServiceImplementationTest {
         // Assert
         assertNotNull(result);
         assertEquals(1L, result.getTransactionId());
-        verify(inventoryDetailsRepository, times(1)).findById(1L);
+        verify(inventoryDetailsRepository, times(1)).findForUpdateByTransactionId(1L);
         verify(inventoryDetailsRepository, times(1)).save(details);
     }
 
@@ -172,14 +412,112 @@ public class InventoryServiceImplementationTest {
     public void testUpdateInventoryDetail_NotFound() {
         // Arrange
         InventoryDetails details = new InventoryDetails();
-        when(inventoryDetailsRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(inventoryDetailsRepository.findForUpdateByTransactionId(anyLong())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> inventoryService.updateInventoryDetail(1L, details));
-        verify(inventoryDetailsRepository, times(1)).findById(1L);
+        verify(inventoryDetailsRepository, times(1)).findForUpdateByTransactionId(1L);
         verify(inventoryDetailsRepository, times(0)).save(any(InventoryDetails.class));
     }
 
+    @Test
+    public void testCreateInventoryDetails_CompletedAdjustsStock() {
+        // Arrange
+        InventoryDetails details = detailOf(1L, 5, TransactionStatus.completed);
+        when(inventoryDetailsRepository.save(any(InventoryDetails.class))).thenReturn(details);
+
+        // Act
+        inventoryService.createInventoryDetails(details);
+
+        // Assert
+        verify(inventoryMasterRepository, times(1)).adjustStock(1L, 5);
+        verify(inventoryRollupService, times(1)).stockAdjusted(1L, 5);
+    }
+
+    @Test
+    public void testCreateInventoryDetails_PendingKeepsStock() {
+        // Arrange
+        InventoryDetails details = detailOf(1L, 5, TransactionStatus.pending);
+        when(inventoryDetailsRepository.save(any(InventoryDetails.class))).thenReturn(details);
+
+        // Act
+        inventoryService.createInventoryDetails(details);
+
+        // Assert
+        verify(inventoryMasterRepository, times(0)).adjustStock(anyLong(), anyInt());
+        verify(inventoryMasterRepository, times(1)).touch(1L);
+    }
+
+    @Test
+    public void testUpdateInventoryDetail_StatusTransitions() throws ResourceNotFoundException {
+        // Arrange
+        InventoryDetails pending = detailOf(1L, 5, TransactionStatus.pending);
+        InventoryDetails completed = detailOf(1L, 5, TransactionStatus.completed);
+        InventoryDetails cancelled = detailOf(1L, 5, TransactionStatus.cancelled);
+        when(inventoryDetailsRepository.findForUpdateByTransactionId(1L))
+                .thenReturn(Optional.of(pending))
+                .thenReturn(Optional.of(completed));
+        when(inventoryDetailsRepository.save(any(InventoryDetails.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        inventoryService.updateInventoryDetail(1L, completed);
+        inventoryService.updateInventoryDetail(1L, cancelled);
+
+        // Assert
+        verify(inventoryMasterRepository, times(1)).adjustStock(1L, 5);
+        verify(inventoryMasterRepository, times(1)).adjustStock(1L, -5);
+    }
+
+    @Test
+    public void testDeleteInventoryDetail_CompletedRevertsStock() {
+        // Arrange
+        InventoryDetails detail = detailOf(1L, 5, TransactionStatus.completed);
+        detail.setTransactionId(1L);
+        when(inventoryDetailsRepository.findForUpdateByTransactionId(1L)).thenReturn(Optional.of(detail));
+
+        // Act
+        inventoryService.deleteInventoryDetail(1L);
+
+        // Assert
+        verify(inventoryDetailsRepository, times(1)).deleteById(1L);
+        verify(inventoryMasterRepository, times(1)).adjustStock(1L, -5);
+        verify(inventoryEventPublisher, times(1)).detailChanged(InventoryEventType.detail_deleted, 1L, 1L, -5);
+    }
+
+    @Test
+    public void testGetChanges_MergesInChangeOrder() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(inventoryService, "changesSettleTime", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(inventoryService, "tombstoneRetention", Duration.ofDays(30));
+        long start = System.currentTimeMillis() - 60_000;
+        InventoryMasterSummary master = mock(InventoryMasterSummary.class);
+        when(master.getProductId()).thenReturn(7L);
+        when(master.getLastUpdated()).thenReturn(new Date(start + 2000));
+        InventoryDetailsChange detail = mock(InventoryDetailsChange.class);
+        when(detail.getTransactionId()).thenReturn(3L);
+        when(detail.getLastUpdated()).thenReturn(new Date(start + 1000));
+        InventoryTombstone tombstone = new InventoryTombstone(TombstoneType.master, 8L, 8L);
+        tombstone.setId(1L);
+        tombstone.setDeletedAt(new Date(start + 3000));
+        ChangeWatermark since = new ChangeWatermark(start, ChangeWatermark.DETAIL, 2L);
+        when(inventoryMasterRepository.findChangedAfter(eq(new Date(start)), eq(Long.MAX_VALUE), any(Date.class), eq(Limit.of(3))))
+                .thenReturn(List.of(master));
+        when(inventoryDetailsRepository.findChangedAfter(eq(new Date(start)), eq(2L), any(Date.class), eq(Limit.of(3))))
+                .thenReturn(List.of(detail));
+        when(inventoryTombstoneRepository.findChangedAfter(eq(new Date(start)), eq(Long.MIN_VALUE), any(Date.class), eq(Limit.of(3))))
+                .thenReturn(List.of(tombstone));
+
+        // Act
+        InventoryChanges result = inventoryService.getChanges(since, 2);
+
+        // Assert
+        assertEquals(List.of(master), result.getMasters());
+        assertEquals(List.of(detail), result.getDetails());
+        assertTrue(result.getTombstones().isEmpty());
+        assertTrue(result.isHasMore());
+        assertEquals((start + 2000) + "-0-7", result.getWatermark());
+    }
+
     @Test
     public void testDeleteInventoryDetail() {
         // Act
@@ -194,14 +532,70 @@ public class InventoryServiceImplementationTest {
         // Arrange
         InventoryMaster inventory1 = new InventoryMaster();
         InventoryMaster inventory2 = new InventoryMaster();
-        when(inventoryMasterRepository.findByFilters(anyString(), anyString(), anyString(), anyDouble(), anyDouble(), anyLong(), any(Date.class), any(TransactionStatus.class), anyString()))
-                .thenReturn(Arrays.asList(inventory1, inventory2));
+        Pageable pageable = PageRequest.of(0, 10);
+        when(inventoryMasterRepository.findAll(ArgumentMatchers.<Specification<InventoryMaster>>any(), eq(pageable)))
+                .thenReturn(new PageImpl<>(Arrays.asList(inventory1, inventory2), pageable, 2));
 
         // Act
-        List<InventoryMaster> result = inventoryService.getInventoryByFilters("Product1", "Category1", "Brand1", 10.0, 20.0, 1L, new Date(), TransactionStatus.completed, "SALE");
+        Page<InventoryMaster> result = inventoryService.getInventoryByFilters("Product1", "Category1", "Brand1", 10.0, 20.0, 1L, new Date(), TransactionStatus.completed, "SALE", pageable);
+
+        // Assert
+        assertEquals(2, result.getContent().size());
+        verify(inventoryMasterRepository, times(1)).findAll(ArgumentMatchers.<Specification<InventoryMaster>>any(), eq(pageable));
+    }
+
+    @Test
+    public void testGetDetailAggregates_OpenRange() {
+        // Arrange
+        Date to = new Date();
+        when(inventoryDetailsRepository.aggregateByCategory(Constants.MIN_TRANSACTION_DATE, to))
+                .thenReturn(Arrays.asList(mock(InventoryDetailsAggregate.class), mock(InventoryDetailsAggregate.class)));
+
+        // Act
+        List<InventoryDetailsAggregate> result = inventoryService.getDetailAggregates(AggregateGroup.category, null, to);
 
         // Assert
         assertEquals(2, result.size());
-        verify(inventoryMasterRepository, times(1)).findByFilters(anyString(), anyString(), anyString(), anyDouble(), anyDouble(), anyLong(), any(Date.class), any(TransactionStatus.class), anyString());
+        verify(inventoryDetailsRepository, times(1)).aggregateByCategory(Constants.MIN_TRANSACTION_DATE, to);
+        verify(inventoryDetailsRepository, never()).aggregateByBrand(any(), any());
+    }
+
+    @Test
+    public void testGetDetailAggregates_AddsArchivedSummaries() {
+        // Arrange
+        Date from = new Date(0);
+        Date to = new Date();
+        List<InventoryDetailsAggregate> live = Arrays.asList(aggregate("completed", 2, 5, 10.0), aggregate("pending", 1, 1, 1.0));
+        List<InventoryDetailsAggregate> archived = Arrays.asList(aggregate("completed", 3, 6, 20.0), aggregate("cancelled", 1, 2, 3.0));
+        when(inventoryDetailsRepository.aggregateByStatus(from, to)).thenReturn(live);
+        when(inventoryDetailsSummaryRepository.aggregateByStatus(from, to)).thenReturn(archived);
+
+        // Act
+        List<InventoryDetailsAggregate> result = inventoryService.getDetailAggregates(AggregateGroup.status, from, to);
+
+        // Assert
+        assertEquals(Arrays.asList("cancelled", "completed", "pending"), result.stream().map(InventoryDetailsAggregate::getGroupKey).toList());
+        assertEquals(5, result.get(1).getTransactionCount());
+        assertEquals(11, result.get(1).getTotalQuantity());
+        assertEquals(30.0, result.get(1).getTotalAmount());
+    }
+
+    private static InventoryDetailsAggregate aggregate(String groupKey, long transactionCount, long totalQuantity, double totalAmount) {
+        InventoryDetailsAggregate aggregate = mock(InventoryDetailsAggregate.class);
+        when(aggregate.getGroupKey()).thenReturn(groupKey);
+        when(aggregate.getTransactionCount()).thenReturn(transactionCount);
+        when(aggregate.getTotalQuantity()).thenReturn(totalQuantity);
+        when(aggregate.getTotalAmount()).thenReturn(totalAmount);
+        return aggregate;
+    }
+
+    private static InventoryDetails detailOf(Long productId, int quantity, TransactionStatus transactionStatus) {
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductId(productId);
+        InventoryDetails details = new InventoryDetails();
+        details.setInventoryMaster(inventory);
+        details.setQuantity(quantity);
+        details.setTransactionStatus(transactionStatus);
+        return details;
     }
 }
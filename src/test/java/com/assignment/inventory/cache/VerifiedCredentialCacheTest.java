@@ -0,0 +1,39 @@
+package com.assignment.inventory.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedCredentialCacheTest {
+
+    private final VerifiedCredentialCache cache = new VerifiedCredentialCache(100, Duration.ofMinutes(5));
+
+    @Test
+    public void testGetVerified_MatchesOnlyTheSameCredentials() {
+        // Act
+        cache.putVerified("user", "secret", "{noop}secret");
+
+        // Assert
+        assertEquals("{noop}secret", cache.getVerified("user", "secret"));
+        assertNull(cache.getVerified("user", "other"));
+        assertNull(cache.getVerified("other", "secret"));
+        // The separator keeps the username and the password apart
+        assertNull(cache.getVerified("users", "ecret"));
+    }
+
+    @Test
+    public void testInvalidate_RemovesEntries() {
+        // Arrange
+        cache.putVerified("user", "secret", "{noop}secret");
+        cache.putVerified("admin", "secret", "{noop}secret");
+
+        // Act & Assert
+        cache.invalidate("user", "secret");
+        assertNull(cache.getVerified("user", "secret"));
+        assertNotNull(cache.getVerified("admin", "secret"));
+        cache.invalidateAll();
+        assertNull(cache.getVerified("admin", "secret"));
+    }
+}
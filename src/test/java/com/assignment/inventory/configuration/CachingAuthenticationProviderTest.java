@@ -0,0 +1,133 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.cache.VerifiedCredentialCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CachingAuthenticationProviderTest {
+
+    private InMemoryUserDetailsManager users;
+    private DaoAuthenticationProvider passwordCheck;
+    private VerifiedCredentialCache verifiedCredentialCache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    public void setUp() {
+        users = new InMemoryUserDetailsManager(user().build());
+        passwordCheck = spy(new DaoAuthenticationProvider(PasswordEncoderFactories.createDelegatingPasswordEncoder()));
+        passwordCheck.setUserDetailsService(users);
+        verifiedCredentialCache = new VerifiedCredentialCache(100, Duration.ofMinutes(5));
+        provider = new CachingAuthenticationProvider(passwordCheck, users, verifiedCredentialCache);
+    }
+
+    @Test
+    public void testAuthenticate_AnswersRepeatedCredentialsFromCache() {
+        // Act
+        Authentication first = provider.authenticate(credentials("user", "user"));
+        Authentication second = provider.authenticate(credentials("user", "user"));
+
+        // Assert
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertEquals("user", second.getName());
+        assertNull(second.getCredentials());
+        verify(passwordCheck, times(1)).authenticate(any());
+    }
+
+    @Test
+    public void testAuthenticate_NeverCachesFailures() {
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+        verify(passwordCheck, times(2)).authenticate(any());
+        assertNull(verifiedCredentialCache.getVerified("user", "wrong"));
+    }
+
+    @Test
+    public void testAuthenticate_RejectsCachedCredentialsAfterPasswordChange() {
+        // Arrange
+        provider.authenticate(credentials("user", "user"));
+
+        // Act
+        users.updateUser(user().password("{noop}changed").build());
+
+        // Assert, the cache still holds the old credentials but they no longer match the encoded password of the user
+        assertNotNull(verifiedCredentialCache.getVerified("user", "user"));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "user")));
+        assertNull(verifiedCredentialCache.getVerified("user", "user"));
+        assertTrue(provider.authenticate(credentials("user", "changed")).isAuthenticated());
+        verify(passwordCheck, times(3)).authenticate(any());
+    }
+
+    @Test
+    public void testAuthenticate_RejectsCachedCredentialsOfDisabledUser() {
+        // Arrange
+        provider.authenticate(credentials("user", "user"));
+
+        // Act
+        users.updateUser(user().disabled(true).build());
+
+        // Assert
+        assertThrows(DisabledException.class, () -> provider.authenticate(credentials("user", "user")));
+    }
+
+    @Test
+    public void testAuthenticate_RejectsCachedCredentialsOfExpiredAccount() {
+        // Arrange
+        provider.authenticate(credentials("user", "user"));
+
+        // Act
+        users.updateUser(user().accountExpired(true).build());
+
+        // Assert
+        assertThrows(AccountExpiredException.class, () -> provider.authenticate(credentials("user", "user")));
+    }
+
+    @Test
+    public void testAuthenticate_RejectsCachedCredentialsOfExpiredPassword() {
+        // Arrange
+        provider.authenticate(credentials("user", "user"));
+
+        // Act
+        users.updateUser(user().credentialsExpired(true).build());
+
+        // Assert
+        assertThrows(CredentialsExpiredException.class, () -> provider.authenticate(credentials("user", "user")));
+    }
+
+    @Test
+    public void testAuthenticate_RejectsCachedCredentialsOfDeletedUser() {
+        // Arrange
+        provider.authenticate(credentials("user", "user"));
+
+        // Act
+        users.deleteUser("user");
+
+        // Assert
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "user")));
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    private static User.UserBuilder user() {
+        return User.withUsername("user").password("{noop}user").roles("USER");
+    }
+}
@@ -0,0 +1,134 @@
+package com.assignment.inventory.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+
+    // Two connections with one request each
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(2, 1, Duration.ofMillis(50));
+    private final ExecutorService requests = Executors.newCachedThreadPool();
+    private final AtomicInteger handled = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        requests.shutdownNow();
+    }
+
+    @Test
+    public void testDoFilter_RejectsRequestsOverTheLimitWithRetryAfter() throws Exception {
+        // Arrange: two requests hold both permits
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> holding = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            holding.add(requests.submit(() -> filter(blocking(started, release))));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        MockHttpServletResponse rejected = filter(counting());
+        release.countDown();
+        for (Future<MockHttpServletResponse> response : holding) {
+            assertEquals(200, response.get(5, TimeUnit.SECONDS).getStatus());
+        }
+        MockHttpServletResponse accepted = filter(counting());
+
+        // Assert
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, accepted.getStatus());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    public void testDoFilter_ReleasesThePermitWhenTheRequestFails() throws Exception {
+        // Act: more failing requests than permits, each failing differently
+        List<FilterChain> failures = List.of(
+                (request, response) -> { throw new IllegalStateException("handler failed"); },
+                (request, response) -> { throw new ServletException("dispatch failed"); },
+                (request, response) -> { throw new IOException("client went away"); });
+        for (FilterChain failure : failures) {
+            assertThrows(Exception.class, () -> filter(failure));
+        }
+
+        // Assert, the limit still admits as many concurrent requests as before
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> holding = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            holding.add(requests.submit(() -> filter(blocking(started, release))));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS), "a failed request kept its permit");
+        assertEquals(503, filter(counting()).getStatus());
+        release.countDown();
+        for (Future<MockHttpServletResponse> response : holding) {
+            assertEquals(200, response.get(5, TimeUnit.SECONDS).getStatus());
+        }
+    }
+
+    @Test
+    public void testDoFilter_RejectsWhenInterruptedWhileWaiting() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) {
+            requests.submit(() -> filter(blocking(started, release)));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Thread.currentThread().interrupt();
+        MockHttpServletResponse rejected;
+        try {
+            rejected = filter(counting());
+        } finally {
+            // Assert, the interrupt stays visible to the caller
+            assertTrue(Thread.interrupted());
+            release.countDown();
+        }
+
+        // Assert
+        assertEquals(503, rejected.getStatus());
+        assertEquals(0, handled.get());
+    }
+
+    private MockHttpServletResponse filter(FilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/inventory/all"), response, chain);
+        return response;
+    }
+
+    private FilterChain counting() {
+        return (request, response) -> handled.incrementAndGet();
+    }
+
+    private static FilterChain blocking(CountDownLatch started, CountDownLatch release) {
+        return (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+}
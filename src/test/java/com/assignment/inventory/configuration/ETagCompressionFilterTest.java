@@ -0,0 +1,132 @@
+package com.assignment.inventory.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETagCompressionFilterTest {
+
+    private static final String TAG = "\"7-3-details\"";
+
+    private final ETagCompressionFilter filter = new ETagCompressionFilter(DataSize.ofBytes(100),
+            new String[] { "application/json", "application/x-protobuf" });
+
+    @Test
+    public void testGzipsLargeResponseWithAStrongTag() throws Exception {
+        // Arrange
+        String body = "{\"remarks\":\"" + "a".repeat(500) + "\"}";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request("gzip, deflate"), response, respond(TAG, "application/json", body));
+
+        // Assert
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"7-3-details-gzip\"", response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        byte[] compressed = response.getContentAsByteArray();
+        assertEquals(compressed.length, response.getContentLength());
+        assertTrue(compressed.length < body.length());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testLeavesSmallWeakAndUnlistedResponsesAlone() throws Exception {
+        // Arrange
+        String large = "x".repeat(500);
+
+        // Act
+        MockHttpServletResponse small = new MockHttpServletResponse();
+        filter.doFilter(request("gzip"), small, respond(TAG, "application/json", "{}"));
+        MockHttpServletResponse weak = new MockHttpServletResponse();
+        filter.doFilter(request("gzip"), weak, respond("W/" + TAG, "application/json", large));
+        MockHttpServletResponse unlisted = new MockHttpServletResponse();
+        filter.doFilter(request("gzip"), unlisted, respond(TAG, "text/plain", large));
+
+        // Assert, Tomcat still compresses the weak one
+        assertNull(small.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(TAG, small.getHeader(HttpHeaders.ETAG));
+        assertEquals("{}", small.getContentAsString());
+        assertNull(weak.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(large, weak.getContentAsString());
+        assertNull(unlisted.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(TAG, unlisted.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testSkipsClientsAndPathsWithoutGzip() throws Exception {
+        // Arrange
+        MockHttpServletRequest other = request("gzip");
+        other.setRequestURI("/inventory/export");
+        MockHttpServletRequest post = request("gzip");
+        post.setMethod("POST");
+
+        // Act & Assert
+        assertFalse(filter.shouldNotFilter(request("gzip;q=0.5, br")));
+        assertTrue(filter.shouldNotFilter(request("gzip;q=0")));
+        assertTrue(filter.shouldNotFilter(request("br")));
+        assertTrue(filter.shouldNotFilter(request(null)));
+        assertTrue(filter.shouldNotFilter(other));
+        assertTrue(filter.shouldNotFilter(post));
+    }
+
+    @Test
+    public void testRevalidatesGzippedTag() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("gzip");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"7-3-details-gzip\"");
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act, the controller compares the tag of the uncompressed representation
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            seen.set(((HttpServletRequest) servletRequest).getHeader(HttpHeaders.IF_NONE_MATCH));
+            HttpServletResponse httpResponse = (HttpServletResponse) servletResponse;
+            httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            httpResponse.setHeader(HttpHeaders.ETAG, TAG);
+        });
+
+        // Assert
+        assertEquals(TAG, seen.get());
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals("\"7-3-details-gzip\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, response.getContentLength());
+    }
+
+    @Test
+    public void testGzipTagOf_KeepsTheTagStrong() {
+        // Act & Assert
+        assertEquals("\"page-abc-details-protobuf-gzip\"", ETagCompressionFilter.gzipTagOf("\"page-abc-details-protobuf\""));
+    }
+
+    private static MockHttpServletRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventory/7");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private static FilterChain respond(String eTag, String contentType, String body) {
+        return (servletRequest, servletResponse) -> {
+            HttpServletResponse response = (HttpServletResponse) servletResponse;
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            response.setContentType(contentType);
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.model.CursorPage;
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.TransactionStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryProtobufHttpMessageConverterTest {
+
+    private final InventoryProtobufHttpMessageConverter converter = new InventoryProtobufHttpMessageConverter();
+    private final ProtobufMapper mapper = new ProtobufMapper();
+    private NativeProtobufSchema schema;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // Decode with the schema clients generate their classes from
+        try (InputStream in = getClass().getResourceAsStream("/proto/inventory.proto")) {
+            schema = ProtobufSchemaLoader.std.loadNative(in, false);
+        }
+    }
+
+    @Test
+    public void testEncode_MasterWithDetailsMatchesTheSchema() throws Exception {
+        // Arrange
+        InventoryMaster master = master(7L, "Hammer");
+        InventoryDetails detail = new InventoryDetails();
+        detail.setTransactionId(70L);
+        detail.setInventoryMaster(master);
+        detail.setTransactionType("SALE");
+        detail.setQuantity(-2);
+        detail.setTransactionDate(new Date(1_700_000_000_000L));
+        detail.setTransactionAmount(19.98);
+        detail.setTransactionStatus(TransactionStatus.completed);
+        master.getInventoryDetails().add(detail);
+
+        // Act
+        JsonNode decoded = decode(converter.encode(master), "InventoryMaster");
+
+        // Assert
+        assertEquals(7L, decoded.get("productId").asLong());
+        assertEquals("Hammer", decoded.get("productName").asText());
+        assertEquals(5, decoded.get("stockInHand").asInt());
+        assertEquals(9.99, decoded.get("unitPrice").asDouble());
+        assertEquals(1_600_000_000_000L, decoded.get("dateAdded").asLong());
+        assertEquals(3L, decoded.get("version").asLong());
+        JsonNode decodedDetail = decoded.get("inventoryDetails").get(0);
+        assertEquals(70L, decodedDetail.get("transactionId").asLong());
+        assertEquals(-2, decodedDetail.get("quantity").asInt());
+        assertEquals("completed", decodedDetail.get("transactionStatus").asText());
+        assertEquals(1_700_000_000_000L, decodedDetail.get("transactionDate").asLong());
+    }
+
+    @Test
+    public void testWrite_PageOfMasters() throws Exception {
+        // Arrange
+        CursorPage<InventoryMaster> page = new CursorPage<>(List.of(master(1L, "Hammer"), master(2L, "Saw")), 2L, 2);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(page, InventoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF, output);
+
+        // Assert
+        assertEquals(InventoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF, output.getHeaders().getContentType());
+        JsonNode decoded = decode(output.getBodyAsBytes(), "InventoryPage");
+        assertEquals(2, decoded.get("items").size());
+        assertEquals("Saw", decoded.get("items").get(1).get("productName").asText());
+        assertEquals(2L, decoded.get("nextCursor").asLong());
+        assertEquals(2, decoded.get("limit").asInt());
+    }
+
+    @Test
+    public void testSupports_OnlyWritesInventoryReads() {
+        // Act & Assert
+        assertTrue(converter.canWrite(InventoryMaster.class, InventoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertTrue(converter.canWrite(CursorPage.class, InventoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertTrue(converter.canWrite(InventoryMasterSummary.class, InventoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertFalse(converter.canWrite(InventoryDetails.class, InventoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertFalse(converter.canWrite(InventoryMaster.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(InventoryMaster.class, InventoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+    }
+
+    private JsonNode decode(byte[] bytes, String type) throws Exception {
+        return mapper.readerFor(JsonNode.class).with(schema.forType(type)).readValue(bytes);
+    }
+
+    private static InventoryMaster master(Long productId, String productName) {
+        InventoryMaster master = new InventoryMaster();
+        master.setProductId(productId);
+        master.setProductName(productName);
+        master.setStockInHand(5);
+        master.setUnitPrice(9.99);
+        master.setSupplierId(1L);
+        master.setDateAdded(new Date(1_600_000_000_000L));
+        master.setVersion(3);
+        return master;
+    }
+}
@@ -0,0 +1,55 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.metrics.RequestQueryStats;
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class MetricsConfigTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void testDataSourceIsProxiedExactlyOnce() {
+        // Act
+        ProxyDataSource proxy = assertInstanceOf(ProxyDataSource.class, dataSource);
+
+        // Assert, the proxy wraps the connection pool itself and post-processing it again keeps it as it is
+        assertEquals(1, applicationContext.getBeansOfType(DataSource.class).size());
+        assertInstanceOf(HikariDataSource.class, proxy.getDataSource());
+        assertSame(proxy, MetricsConfig.queryStatisticsDataSourcePostProcessor().postProcessAfterInitialization(proxy, "dataSource"));
+    }
+
+    @Test
+    public void testStatementIsCountedOnce() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        RequestQueryStats stats = RequestQueryStats.begin(10);
+
+        // Act
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_master", Long.class);
+        } finally {
+            RequestQueryStats.end();
+        }
+
+        // Assert, a second proxy around the pool would report the statement twice
+        assertEquals(1, stats.getStatements());
+        assertEquals(1, stats.getQueries().size());
+    }
+}
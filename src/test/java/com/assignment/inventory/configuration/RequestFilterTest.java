@@ -0,0 +1,86 @@
+package com.assignment.inventory.configuration;
+
+import com.assignment.inventory.metrics.QueryStatisticsListener;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestFilterTest {
+
+    private final QueryStatisticsListener listener = new QueryStatisticsListener();
+    private SimpleMeterRegistry meterRegistry;
+    private RequestFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestFilter(meterRegistry, false, Duration.ofMillis(500), 50);
+    }
+
+    @Test
+    public void testDoFilter_CountsTheStatementsOfEveryRequestOnItsOwn() throws Exception {
+        // Act: two requests on the same thread, with statements between them that belong to no request
+        filter.doFilter(request(), new MockHttpServletResponse(), executing(3));
+        execute("SELECT 1 FROM outside_of_a_request");
+        filter.doFilter(request(), new MockHttpServletResponse(), executing(1));
+
+        // Assert, the second request starts from zero
+        DistributionSummary statements = meterRegistry.get("inventory.request.sql.statements").tag("uri", "/inventory/{id}").summary();
+        assertEquals(2, statements.count());
+        assertEquals(4, statements.totalAmount());
+        assertEquals(3, statements.max());
+    }
+
+    @Test
+    public void testDoFilter_EndsCountingWhenTheRequestFails() throws Exception {
+        // Arrange
+        FilterChain failing = (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/inventory/{id}");
+            execute("SELECT 1");
+            execute("SELECT 2");
+            throw new IllegalStateException("handler failed");
+        };
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request(), new MockHttpServletResponse(), failing));
+        execute("SELECT 1 FROM after_the_failed_request");
+        filter.doFilter(request(), new MockHttpServletResponse(), executing(0));
+
+        // Assert, the failed request is recorded and leaves nothing behind for the next one
+        DistributionSummary statements = meterRegistry.get("inventory.request.sql.statements").tag("uri", "/inventory/{id}").summary();
+        assertEquals(2, statements.count());
+        assertEquals(2, statements.totalAmount());
+    }
+
+    private FilterChain executing(int statements) {
+        return (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/inventory/{id}");
+            for (int i = 0; i < statements; i++) {
+                execute("SELECT " + i);
+            }
+        };
+    }
+
+    private void execute(String query) {
+        // What the DataSource proxy reports after every statement
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(1);
+        listener.afterQuery(execution, List.of(new QueryInfo(query)));
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/inventory/1");
+    }
+}
@@ -0,0 +1,38 @@
+package com.assignment.inventory.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TimedAuthenticationProviderTest {
+
+    @Test
+    public void testAuthenticate_TimesEveryOutcome() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthenticationProvider delegate = mock(AuthenticationProvider.class);
+        Authentication request = UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin");
+        Authentication authenticated = UsernamePasswordAuthenticationToken.authenticated("admin", null, List.of());
+        when(delegate.authenticate(any())).thenReturn(authenticated).thenReturn(null).thenThrow(new BadCredentialsException("wrong"));
+        TimedAuthenticationProvider provider = new TimedAuthenticationProvider(delegate, meterRegistry);
+
+        // Act
+        assertSame(authenticated, provider.authenticate(request));
+        assertNull(provider.authenticate(request));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(request));
+
+        // Assert
+        for (String outcome : List.of("success", "skipped", "failure")) {
+            assertEquals(1, meterRegistry.get("inventory.authentication").tag("outcome", outcome).timer().count(), outcome);
+        }
+    }
+}
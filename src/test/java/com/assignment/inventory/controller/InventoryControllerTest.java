@@ -0,0 +1,271 @@
+package com.assignment.inventory.controller;
+
+import com.assignment.inventory.cache.InventoryMasterCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class InventoryControllerTest {
+
+    // Product IDs of the test data, out of the way of the sequences
+    private static final long FIRST = 920_001L;
+    private static final long LAST = 920_099L;
+
+    private static final Instant JANUARY = Instant.parse("2025-01-15T10:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryMasterCache inventoryMasterCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM inventory_details WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+        jdbcTemplate.update("DELETE FROM inventory_master WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+        for (long productId = FIRST; productId <= LAST; productId++) {
+            inventoryMasterCache.invalidate(productId);
+        }
+    }
+
+    @Test
+    public void testGetInventory_NegotiatesTheEncoding() throws Exception {
+        // Arrange
+        master(FIRST);
+
+        // Act
+        MockHttpServletResponse json = read(get("/inventory/" + FIRST));
+        MockHttpServletResponse smile = read(get("/inventory/" + FIRST).header(HttpHeaders.ACCEPT, "application/x-jackson-smile"));
+        MockHttpServletResponse cbor = read(get("/inventory/" + FIRST).header(HttpHeaders.ACCEPT, "application/cbor"));
+        MockHttpServletResponse protobuf = read(get("/inventory/" + FIRST).header(HttpHeaders.ACCEPT, "application/x-protobuf"));
+
+        // Assert, every encoding has its own strong tag
+        assertEquals("application/json", json.getContentType());
+        assertEquals("\"" + FIRST + "-0-details\"", json.getHeader(HttpHeaders.ETAG));
+        assertEquals("application/x-jackson-smile", smile.getContentType());
+        assertEquals("\"" + FIRST + "-0-details-smile\"", smile.getHeader(HttpHeaders.ETAG));
+        assertEquals("product-" + FIRST, new SmileMapper().readTree(smile.getContentAsByteArray()).get("productName").asText());
+        assertEquals("application/cbor", cbor.getContentType());
+        assertEquals("\"" + FIRST + "-0-details-cbor\"", cbor.getHeader(HttpHeaders.ETAG));
+        assertEquals("product-" + FIRST, new CBORMapper().readTree(cbor.getContentAsByteArray()).get("productName").asText());
+        assertEquals("application/x-protobuf", protobuf.getContentType());
+        assertEquals("\"" + FIRST + "-0-details-protobuf\"", protobuf.getHeader(HttpHeaders.ETAG));
+        assertTrue(json.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    public void testGetInventory_RefusesUnsupportedEncoding() throws Exception {
+        // Arrange
+        master(FIRST);
+
+        // Act & Assert
+        mockMvc.perform(get("/inventory/" + FIRST).header(HttpHeaders.ACCEPT, "application/xml").header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    public void testGetAllInventories_GzipsPagesUnderAStrongTag() throws Exception {
+        // Arrange, a page larger than the minimum response size
+        for (long productId = FIRST; productId < FIRST + 30; productId++) {
+            master(productId);
+        }
+
+        // Act
+        MockHttpServletResponse plain = read(get("/inventory/all").param("cursor", Long.toString(FIRST - 1)).param("limit", "30"));
+        MockHttpServletResponse gzipped = read(get("/inventory/all").param("cursor", Long.toString(FIRST - 1)).param("limit", "30")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        String gzipTag = gzipped.getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertFalse(gzipTag.startsWith("W/"));
+        assertEquals(plain.getHeader(HttpHeaders.ETAG).replace("-details\"", "-details-gzip\""), gzipTag);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertEquals(plain.getContentAsString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        mockMvc.perform(get("/inventory/all").param("cursor", Long.toString(FIRST - 1)).param("limit", "30")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, gzipTag)
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzipTag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void testGetInventory_NotModifiedForCurrentETag() throws Exception {
+        // Arrange
+        master(FIRST);
+        String eTag = read(get("/inventory/" + FIRST)).getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/inventory/" + FIRST).header(HttpHeaders.IF_NONE_MATCH, eTag).header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/inventory/" + FIRST).header(HttpHeaders.IF_NONE_MATCH, "\"" + FIRST + "-7-details\"").header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    public void testGetInventory_NotModifiedSinceLastUpdate() throws Exception {
+        // Arrange
+        master(FIRST);
+        String lastModified = read(get("/inventory/" + FIRST)).getHeader(HttpHeaders.LAST_MODIFIED);
+
+        // Act & Assert
+        assertEquals(DateTimeFormatter.RFC_1123_DATE_TIME.format(JANUARY.atZone(ZoneOffset.UTC)), lastModified);
+        mockMvc.perform(get("/inventory/" + FIRST).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified).header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isNotModified());
+        String dayBefore = DateTimeFormatter.RFC_1123_DATE_TIME.format(JANUARY.minus(1, ChronoUnit.DAYS).atZone(ZoneOffset.UTC));
+        mockMvc.perform(get("/inventory/" + FIRST).header(HttpHeaders.IF_MODIFIED_SINCE, dayBefore).header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetInventory_ETagChangesWithDetailTouchAndStockAdjustment() throws Exception {
+        // Arrange
+        master(FIRST);
+        String initial = read(get("/inventory/" + FIRST)).getHeader(HttpHeaders.ETAG);
+
+        // Act, a pending detail moves no stock and only touches the master, a completed one adjusts its stock
+        createDetail(FIRST, "pending", 4);
+        MockHttpServletResponse touched = read(get("/inventory/" + FIRST).header(HttpHeaders.IF_NONE_MATCH, initial));
+        createDetail(FIRST, "completed", 2);
+        MockHttpServletResponse adjusted = read(get("/inventory/" + FIRST).header(HttpHeaders.IF_NONE_MATCH, touched.getHeader(HttpHeaders.ETAG)));
+
+        // Assert, both revalidations return the changed record
+        assertEquals("\"" + FIRST + "-0-details\"", initial);
+        assertEquals("\"" + FIRST + "-1-details\"", touched.getHeader(HttpHeaders.ETAG));
+        assertEquals("\"" + FIRST + "-2-details\"", adjusted.getHeader(HttpHeaders.ETAG));
+        assertEquals(3, objectMapper.readTree(adjusted.getContentAsString()).get("stockInHand").asInt());
+    }
+
+    @Test
+    public void testGetAllInventories_PageETagHashesTheVersionsOfThePage() throws Exception {
+        // Arrange
+        for (long productId = FIRST; productId < FIRST + 3; productId++) {
+            master(productId);
+        }
+
+        // Act
+        String details = pageETag("details");
+        String master = pageETag("master");
+        jdbcTemplate.update("UPDATE inventory_master SET version = version + 1 WHERE product_id = ?", FIRST + 1);
+        String changed = pageETag("details");
+        jdbcTemplate.update("UPDATE inventory_master SET version = version + 1 WHERE product_id = ?", FIRST + 2);
+        String changedAfterThePage = pageETag("details");
+
+        // Assert, the hash covers the product IDs and versions of the page and whether more pages follow
+        assertEquals("\"page-" + md5(FIRST + ":0," + (FIRST + 1) + ":0,true") + "-details\"", details);
+        assertEquals("\"page-" + md5(FIRST + ":0," + (FIRST + 1) + ":0,true") + "-master\"", master);
+        assertEquals("\"page-" + md5(FIRST + ":0," + (FIRST + 1) + ":1,true") + "-details\"", changed);
+        assertEquals(changed, changedAfterThePage);
+        mockMvc.perform(get("/inventory/all").param("cursor", Long.toString(FIRST - 1)).param("limit", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, changed).header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/inventory/all").param("cursor", Long.toString(FIRST - 1)).param("limit", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, details).header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testEncodingOf_FollowsTheAcceptPreference() {
+        // Act & Assert
+        assertEquals("", InventoryController.encodingOf(accept(null)));
+        assertEquals("", InventoryController.encodingOf(accept("*/*")));
+        assertEquals("", InventoryController.encodingOf(accept("application/json")));
+        assertEquals("-smile", InventoryController.encodingOf(accept("application/x-jackson-smile")));
+        assertEquals("-protobuf", InventoryController.encodingOf(accept("application/json;q=0.5, application/x-protobuf")));
+        assertEquals("", InventoryController.encodingOf(accept("application/cbor;q=0.5, application/json")));
+        assertEquals("-cbor", InventoryController.encodingOf(accept("text/html, application/cbor;q=0.9, */*;q=0.1")));
+        assertEquals("", InventoryController.encodingOf(accept("not a media type")));
+    }
+
+    private MockHttpServletResponse read(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private String pageETag(String view) throws Exception {
+        return read(get("/inventory/all").param("cursor", Long.toString(FIRST - 1)).param("limit", "2").param("view", view))
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private void createDetail(long productId, String status, int quantity) throws Exception {
+        String body = "{\"inventoryMaster\":{\"productId\":" + productId + "},\"transactionType\":\"PURCHASE\",\"quantity\":" + quantity
+                + ",\"transactionDate\":" + JANUARY.toEpochMilli() + ",\"transactionStatus\":\"" + status + "\"}";
+        mockMvc.perform(post("/inventory/details").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isOk());
+    }
+
+    private void master(long productId) {
+        jdbcTemplate.update("INSERT INTO inventory_master (product_id, product_name, category, brand, stock_in_hand, unit_price, " +
+                        "supplier_id, date_added, last_updated, remarks, version) VALUES (?, ?, 'controller-test', 'acme', 1, 9.99, 1, ?, ?, ?, 0)",
+                productId, "product-" + productId, Timestamp.from(JANUARY), Timestamp.from(JANUARY), "remarks of product " + productId);
+    }
+
+    private static MockHttpServletRequest accept(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventory/1");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        return request;
+    }
+
+    private static String md5(String versions) {
+        return DigestUtils.md5DigestAsHex(versions.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,39 @@
+package com.assignment.inventory.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReactiveInventoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testFilterInventoryMasters_RejectsUnknownSortProperty() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/reactive/inventory/filter").param("sort", "remarks")
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/reactive/inventory/filter").param("sort", "product_id desc, (SELECT 1)")
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.assignment.inventory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "inventory.security.token.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TokenControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testCreateToken_ForBasicCredentials() throws Exception {
+        // Act
+        String token = issueToken();
+
+        // Assert, the token authenticates API requests
+        mockMvc.perform(get("/inventory/all").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testCreateToken_RefusesBearerToken() throws Exception {
+        // Arrange
+        String token = issueToken();
+
+        // Act & Assert, a token cannot be renewed with a token
+        mockMvc.perform(post("/token").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testCreateToken_RefusesWrongPassword() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/token").header(HttpHeaders.AUTHORIZATION, basic("admin", "wrong")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testBearerToken_InvalidTokenIsUnauthorized() throws Exception {
+        // Arrange
+        String token = issueToken();
+
+        // Act & Assert
+        mockMvc.perform(get("/inventory/all").header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String issueToken() throws Exception {
+        String body = mockMvc.perform(post("/token").header(HttpHeaders.AUTHORIZATION, basic("admin", "admin")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(body).get("accessToken").asText();
+        assertFalse(token.isBlank());
+        return token;
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.assignment.inventory.events;
+
+import com.assignment.inventory.model.EventOverflowPolicy;
+import com.assignment.inventory.model.InventoryEvent;
+import com.assignment.inventory.model.InventoryEventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventBufferTest {
+
+    @Test
+    public void testDrop_KeepsNewestEventsAndCountsDroppedOnes() {
+        // Arrange
+        EventBuffer buffer = new EventBuffer(3, EventOverflowPolicy.drop);
+
+        // Act
+        for (long id = 1; id <= 5; id++) {
+            buffer.offer(event(id, 1L, (int) id));
+        }
+
+        // Assert
+        assertEquals(2, buffer.takeDropped());
+        assertEquals(List.of(3L, 4L, 5L), ids(buffer.drain()));
+    }
+
+    @Test
+    public void testDrop_KeepsEveryEventOfTheSameProduct() {
+        // Arrange
+        EventBuffer buffer = new EventBuffer(3, EventOverflowPolicy.drop);
+
+        // Act
+        buffer.offer(event(1, 1L, 10));
+        buffer.offer(event(2, 1L, 20));
+
+        // Assert
+        assertEquals(List.of(1L, 2L), ids(buffer.drain()));
+        assertEquals(0, buffer.takeDropped());
+    }
+
+    @Test
+    public void testCoalesce_KeepsLatestEventPerProductWithoutCountingSupersededOnes() {
+        // Arrange
+        EventBuffer buffer = new EventBuffer(3, EventOverflowPolicy.coalesce);
+
+        // Act
+        buffer.offer(event(1, 1L, 10));
+        buffer.offer(event(2, 2L, 20));
+        buffer.offer(event(3, 1L, 11));
+        buffer.offer(event(4, 1L, 12));
+
+        // Assert
+        List<InventoryEvent> drained = buffer.drain();
+        assertEquals(List.of(2L, 4L), ids(drained));
+        assertEquals(12, drained.get(1).getStockInHand());
+        assertEquals(0, buffer.takeDropped());
+    }
+
+    @Test
+    public void testCoalesce_DropsLeastRecentlyChangedProductWhenFull() {
+        // Arrange
+        EventBuffer buffer = new EventBuffer(2, EventOverflowPolicy.coalesce);
+
+        // Act
+        buffer.offer(event(1, 1L, 10));
+        buffer.offer(event(2, 2L, 20));
+        buffer.offer(event(3, 1L, 11));
+        buffer.offer(event(4, 3L, 30));
+
+        // Assert
+        assertEquals(1, buffer.takeDropped());
+        assertEquals(List.of(3L, 4L), ids(buffer.drain()));
+    }
+
+    @Test
+    public void testTakeDropped_ResetsCount() {
+        // Arrange
+        EventBuffer buffer = new EventBuffer(1, EventOverflowPolicy.drop);
+        buffer.offer(event(1, 1L, 10));
+        buffer.offer(event(2, 1L, 11));
+        buffer.drain();
+
+        // Act & Assert
+        assertFalse(buffer.isEmpty());
+        assertEquals(1, buffer.takeDropped());
+        assertEquals(0, buffer.takeDropped());
+        assertTrue(buffer.isEmpty());
+    }
+
+    private static InventoryEvent event(long id, Long productId, int stockInHand) {
+        InventoryEvent event = new InventoryEvent(InventoryEventType.updated, productId, null, "category", 1L, stockInHand, null);
+        event.setId(id);
+        return event;
+    }
+
+    private static List<Long> ids(List<InventoryEvent> events) {
+        return events.stream().map(InventoryEvent::getId).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryDetailsArchive;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class InventoryMasterSpecificationsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InventoryMasterRepository inventoryMasterRepository;
+
+    private InventoryMaster live;
+    private InventoryMaster archived;
+
+    @BeforeEach
+    public void setUp() {
+        live = master("Hammer");
+        InventoryDetails detail = new InventoryDetails();
+        detail.setInventoryMaster(live);
+        detail.setTransactionType("SALE");
+        detail.setTransactionStatus(TransactionStatus.completed);
+        detail.setTransactionDate(new Date());
+        entityManager.persist(detail);
+
+        archived = master("Saw");
+        InventoryDetailsArchive archivedDetail = new InventoryDetailsArchive();
+        archivedDetail.setTransactionId(1_000_000L);
+        archivedDetail.setProductId(archived.getProductId());
+        archivedDetail.setTransactionType("RETURN");
+        archivedDetail.setTransactionStatus(TransactionStatus.completed);
+        archivedDetail.setTransactionDate(new Date(0));
+        archivedDetail.setArchivedAt(new Date());
+        entityManager.persist(archivedDetail);
+
+        master("Drill");
+        entityManager.flush();
+    }
+
+    @Test
+    public void testByFilters_WithoutCriteriaMatchesEveryMaster() {
+        assertEquals(List.of("Drill", "Hammer", "Saw"), names(filter(null, null, true)));
+    }
+
+    @Test
+    public void testByFilters_MatchesLiveDetailsOnly() {
+        // Act & Assert
+        assertEquals(List.of("Hammer"), names(filter(TransactionStatus.completed, null, false)));
+        assertEquals(List.of("Hammer"), names(filter(null, "SALE", false)));
+        assertEquals(List.of(), names(filter(null, "RETURN", false)));
+    }
+
+    @Test
+    public void testByFilters_IncludesArchivedDetails() {
+        // Act & Assert
+        assertEquals(List.of("Hammer", "Saw"), names(filter(TransactionStatus.completed, null, true)));
+        assertEquals(List.of("Saw"), names(filter(TransactionStatus.completed, "RETURN", true)));
+        assertEquals(List.of(), names(filter(TransactionStatus.pending, "RETURN", true)));
+    }
+
+    private List<InventoryMaster> filter(TransactionStatus transactionStatus, String transactionType, boolean includeArchived) {
+        Specification<InventoryMaster> specification = InventoryMasterSpecifications.byFilters(null, null, null, null, null, null, null,
+                transactionStatus, transactionType, includeArchived);
+        return inventoryMasterRepository.findAll(specification);
+    }
+
+    private InventoryMaster master(String productName) {
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductName(productName);
+        return entityManager.persist(inventory);
+    }
+
+    private static List<String> names(List<InventoryMaster> inventories) {
+        return inventories.stream().map(InventoryMaster::getProductName).sorted().toList();
+    }
+}
@@ -0,0 +1,164 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryDetails;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class InventoryReactiveRepositoryTest {
+
+    // Product and transaction IDs of the test data, out of the way of the sequences
+    private static final long FIRST = 910_001L;
+    private static final long LAST = 910_099L;
+    private static final String CATEGORY = "reactive-test";
+
+    private static final Instant JANUARY = Instant.parse("2025-01-15T10:00:00Z");
+    private static final Instant JUNE = Instant.parse("2025-06-15T10:00:00Z");
+
+    @Autowired
+    private InventoryReactiveRepository inventoryReactiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM inventory_details WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+        jdbcTemplate.update("DELETE FROM inventory_details_archive WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+        jdbcTemplate.update("DELETE FROM inventory_master WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+    }
+
+    @Test
+    public void testFindMastersAfter_PagesInProductIdOrder() {
+        // Arrange
+        for (long productId = FIRST; productId < FIRST + 5; productId++) {
+            master(productId, 10.0);
+        }
+
+        // Act
+        List<Long> firstPage = productIds(inventoryReactiveRepository.findMastersAfter(FIRST - 1, 2).collectList().block());
+        List<Long> secondPage = productIds(inventoryReactiveRepository.findMastersAfter(firstPage.get(1), 2).collectList().block());
+
+        // Assert, the cursor is exclusive
+        assertEquals(List.of(FIRST, FIRST + 1), firstPage);
+        assertEquals(List.of(FIRST + 2, FIRST + 3), secondPage);
+    }
+
+    @Test
+    public void testFindDetailsByProductIds_ReadsEveryColumn() {
+        // Arrange
+        master(FIRST, 10.0);
+        detail(1, FIRST, "completed", "SALE");
+        detail(2, FIRST, "pending", "PURCHASE");
+
+        // Act
+        List<InventoryDetails> details = inventoryReactiveRepository.findDetailsByProductIds(List.of(FIRST)).collectList().block();
+
+        // Assert
+        assertEquals(2, details.size());
+        InventoryDetails first = details.get(0);
+        assertEquals(FIRST + 1, first.getTransactionId());
+        assertEquals(FIRST, first.getInventoryMaster().getProductId());
+        assertEquals("SALE", first.getTransactionType());
+        assertEquals(-1, first.getQuantity());
+        assertEquals(9.99, first.getTransactionAmount());
+        assertEquals(TransactionStatus.completed, first.getTransactionStatus());
+        assertEquals(JANUARY, first.getTransactionDate().toInstant());
+        assertEquals(JUNE, first.getLastUpdated().toInstant());
+        assertEquals(TransactionStatus.pending, details.get(1).getTransactionStatus());
+    }
+
+    @Test
+    public void testFindMastersByFilters_BindsCriteriaSortsAndPages() {
+        // Arrange
+        master(FIRST, 5.0);
+        master(FIRST + 1, 20.0);
+        master(FIRST + 2, 15.0);
+        master(FIRST + 3, 15.0);
+        master(FIRST + 4, 50.0);
+
+        // Act
+        List<Long> firstPage = productIds(filter(null, 10.0, 30.0, false, "unitPrice", Sort.Direction.DESC, 0, 2));
+        List<Long> secondPage = productIds(filter(null, 10.0, 30.0, false, "unitPrice", Sort.Direction.DESC, 2, 2));
+
+        // Assert, ties are ordered by product ID
+        assertEquals(List.of(FIRST + 1, FIRST + 2), firstPage);
+        assertEquals(List.of(FIRST + 3), secondPage);
+    }
+
+    @Test
+    public void testFindMastersByFilters_MatchesArchivedDetailsOnlyWhenIncluded() {
+        // Arrange
+        master(FIRST, 10.0);
+        detail(1, FIRST, "pending", "SALE");
+        master(FIRST + 1, 10.0);
+        archived(2, FIRST + 1, "completed", "SALE");
+        master(FIRST + 2, 10.0);
+        archived(3, FIRST + 2, "completed", "PURCHASE");
+
+        // Act & Assert
+        assertEquals(List.of(), productIds(filter(TransactionStatus.completed, null, null, false, "productId", Sort.Direction.ASC, 0, 10)));
+        assertEquals(List.of(FIRST + 1, FIRST + 2),
+                productIds(filter(TransactionStatus.completed, null, null, true, "productId", Sort.Direction.ASC, 0, 10)));
+        assertEquals(List.of(FIRST, FIRST + 1), productIds(inventoryReactiveRepository.findMastersByFilters(null, CATEGORY, null, null, null,
+                null, null, null, "SALE", true, "productId", Sort.Direction.ASC, 0, 10).collectList().block()));
+        assertEquals(List.of(FIRST + 1), productIds(inventoryReactiveRepository.findMastersByFilters(null, CATEGORY, null, null, null,
+                null, null, TransactionStatus.completed, "SALE", true, "productId", Sort.Direction.ASC, 0, 10).collectList().block()));
+    }
+
+    @Test
+    public void testFindMastersByFilters_RejectsUnknownSortProperty() {
+        // Act & Assert, the property would otherwise become part of the SQL; translated like every repository exception
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> filter(null, null, null, false, "unit_price; DROP TABLE inventory_master", Sort.Direction.ASC, 0, 10));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> filter(null, null, null, false, "remarks", Sort.Direction.ASC, 0, 10));
+    }
+
+    private List<InventoryMaster> filter(TransactionStatus transactionStatus, Double minPrice, Double maxPrice, boolean includeArchived,
+                                         String sort, Sort.Direction direction, long offset, int limit) {
+        return inventoryReactiveRepository.findMastersByFilters(null, CATEGORY, null, minPrice, maxPrice, null, null, transactionStatus,
+                null, includeArchived, sort, direction, offset, limit).collectList().block();
+    }
+
+    private static List<Long> productIds(List<InventoryMaster> masters) {
+        return masters.stream().map(InventoryMaster::getProductId).toList();
+    }
+
+    private void master(long productId, double unitPrice) {
+        jdbcTemplate.update("INSERT INTO inventory_master (product_id, product_name, category, brand, stock_in_hand, unit_price, " +
+                        "supplier_id, date_added, last_updated, version) VALUES (?, ?, ?, 'acme', 1, ?, 1, ?, ?, 0)",
+                productId, "product-" + productId, CATEGORY, unitPrice, Timestamp.from(JANUARY), Timestamp.from(JANUARY));
+    }
+
+    private void detail(long transactionId, long productId, String status, String type) {
+        jdbcTemplate.update("INSERT INTO inventory_details (transaction_id, product_id, transaction_type, quantity, transaction_amount, " +
+                        "transaction_status, transaction_date, last_updated) VALUES (?, ?, ?, -1, 9.99, ?, ?, ?)",
+                FIRST + transactionId, productId, type, status, Timestamp.from(JANUARY), Timestamp.from(JUNE));
+    }
+
+    private void archived(long transactionId, long productId, String status, String type) {
+        jdbcTemplate.update("INSERT INTO inventory_details_archive (transaction_id, product_id, transaction_type, quantity, transaction_amount, " +
+                        "transaction_status, transaction_date, archived_at) VALUES (?, ?, ?, -1, 9.99, ?, ?, ?)",
+                FIRST + transactionId, productId, type, status, Timestamp.from(JANUARY), Timestamp.from(JUNE));
+    }
+}
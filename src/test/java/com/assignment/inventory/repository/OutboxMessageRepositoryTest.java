@@ -0,0 +1,95 @@
+package com.assignment.inventory.repository;
+
+import com.assignment.inventory.model.InventoryEventType;
+import com.assignment.inventory.model.OutboxMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class OutboxMessageRepositoryTest {
+
+    // Products of the test messages, out of the way of the sequences
+    private static final Long HAMMER = 930_001L;
+    private static final Long SAW = 930_002L;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @AfterEach
+    public void cleanUp() {
+        outboxMessageRepository.deleteAllById(ids);
+    }
+
+    @Test
+    public void testFindDue_HoldsMessagesBehindAPostponedMessageOfTheirProduct() {
+        // Arrange: all messages are due only in the future, so the running publisher leaves them alone
+        long now = System.currentTimeMillis();
+        OutboxMessage postponed = write(HAMMER, now + Duration.ofHours(2).toMillis());
+        OutboxMessage held = write(HAMMER, now + Duration.ofHours(1).toMillis());
+        OutboxMessage other = write(SAW, now + Duration.ofHours(1).toMillis());
+
+        // Act
+        List<Long> dueInOneHour = dueIds(new Date(now + Duration.ofMinutes(90).toMillis()));
+        List<Long> dueInTwoHours = dueIds(new Date(now + Duration.ofMinutes(150).toMillis()));
+
+        // Assert
+        assertEquals(List.of(other.getId()), dueInOneHour);
+        assertEquals(List.of(postponed.getId(), held.getId(), other.getId()), dueInTwoHours);
+    }
+
+    @Test
+    public void testPostpone_CountsTheAttemptAndKeepsTheError() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        OutboxMessage message = write(SAW, now + Duration.ofHours(1).toMillis());
+        Date nextAttemptAt = new Date(now + Duration.ofHours(3).toMillis());
+
+        // Act
+        int updated = new TransactionTemplate(transactionManager).execute(status ->
+                outboxMessageRepository.postpone(List.of(message.getId()), nextAttemptAt, "broker down"));
+
+        // Assert
+        assertEquals(1, updated);
+        OutboxMessage postponed = outboxMessageRepository.findById(message.getId()).orElseThrow();
+        assertEquals(1, postponed.getAttempts());
+        assertEquals(nextAttemptAt.getTime(), postponed.getNextAttemptAt().getTime());
+        assertEquals("broker down", postponed.getLastError());
+    }
+
+    private OutboxMessage write(Long productId, long nextAttemptAt) {
+        // Commit the message with its attempt time, so the running publisher never sees it due
+        OutboxMessage message = new TransactionTemplate(transactionManager).execute(status -> {
+            OutboxMessage saved = outboxMessageRepository.save(new OutboxMessage(InventoryEventType.updated, productId, "{}"));
+            saved.setNextAttemptAt(new Date(nextAttemptAt));
+            return saved;
+        });
+        ids.add(message.getId());
+        return message;
+    }
+
+    private List<Long> dueIds(Date now) {
+        return outboxMessageRepository.findDue(now, Limit.of(10_000)).stream()
+                .map(OutboxMessage::getId)
+                .filter(ids::contains)
+                .toList();
+    }
+}
@@ -0,0 +1,138 @@
+package com.assignment.inventory.search;
+
+import com.assignment.inventory.model.InventorySearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventorySearchIndexTest {
+
+    private InventorySearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new InventorySearchIndex();
+        index.put(10L, "Drill", "Bosch", "Power Tools");
+        index.put(11L, "Cordless Drill", "Makita", "Power Tools");
+        index.put(12L, "Saw", "Drill", "Hand Tools");
+        index.put(13L, "Drills", "Stanley", "Accessories");
+        index.put(14L, "Bit", "Stanley", "Drill");
+        index.put(20L, "Hammer", "Stanley", "Hand Tools");
+        index.put(21L, "Screwdriver", "Wera", "Hand Tools");
+    }
+
+    @Test
+    public void testSearch_MatchesPrefixesOfTerms() {
+        // Act & Assert
+        assertEquals(List.of(20L), productIds(index.search("ham", 0, 10)));
+        assertEquals(List.of(21L), productIds(index.search("screw", 0, 10)));
+        assertEquals(List.of(), productIds(index.search("hammock", 0, 10)));
+    }
+
+    @Test
+    public void testSearch_MatchesWithinOneEditForShortTokens() {
+        // Act & Assert, a deletion, a substitution and a swap of adjacent characters
+        assertEquals(List.of(20L), productIds(index.search("hamer", 0, 10)));
+        assertEquals(List.of(20L), productIds(index.search("hammar", 0, 10)));
+        assertEquals(List.of(20L), productIds(index.search("hammre", 0, 10)));
+        assertEquals(List.of(), productIds(index.search("hommar", 0, 10)));
+        // Shorter tokens are only matched exactly or as a prefix
+        assertEquals(List.of(), productIds(index.search("sav", 0, 10)));
+    }
+
+    @Test
+    public void testSearch_MatchesWithinTwoEditsForLongTokens() {
+        // Act & Assert
+        assertEquals(List.of(21L), productIds(index.search("skrewdriwer", 0, 10)));
+        assertEquals(List.of(), productIds(index.search("skrewdriwar", 0, 10)));
+        assertEquals(2, InventorySearchIndex.editDistance("skrewdriwer", "screwdriver", 2));
+        assertEquals(3, InventorySearchIndex.editDistance("skrewdriwar", "screwdriver", 2));
+    }
+
+    @Test
+    public void testSearch_RanksByFieldAndKindOfMatch() {
+        // Act
+        InventorySearchIndex.SearchResult result = index.search("drill", 0, 10);
+
+        // Assert, exact names first and the shorter name of two, then brands, name prefixes and categories
+        assertEquals(List.of(10L, 11L, 12L, 13L, 14L), productIds(result));
+        assertEquals(5, result.total());
+        List<Double> scores = result.hits().stream().map(InventorySearchHit::getScore).toList();
+        assertEquals(scores.get(0), scores.get(1));
+        for (int i = 2; i < scores.size(); i++) {
+            assertTrue(scores.get(i - 1) > scores.get(i), "hit " + i + " scored " + scores.get(i) + " after " + scores.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testSearch_RequiresEveryToken() {
+        // Act & Assert
+        assertEquals(List.of(11L), productIds(index.search("Cordless drill", 0, 10)));
+        assertEquals(List.of(20L), productIds(index.search("stanley ham", 0, 10)));
+        assertEquals(List.of(), productIds(index.search("cordless hammer", 0, 10)));
+        assertEquals(List.of(), productIds(index.search(" -- ", 0, 10)));
+    }
+
+    @Test
+    public void testSearch_PagesThroughTheRanking() {
+        // Act
+        InventorySearchIndex.SearchResult secondPage = index.search("drill", 3, 10);
+        InventorySearchIndex.SearchResult pastTheEnd = index.search("drill", 5, 10);
+        InventorySearchIndex.SearchResult farPastTheEnd = index.search("drill", Integer.MAX_VALUE, 10);
+
+        // Assert, the total still counts every match
+        assertEquals(List.of(13L, 14L), productIds(secondPage));
+        assertEquals(5, secondPage.total());
+        assertEquals(List.of(), productIds(pastTheEnd));
+        assertEquals(5, pastTheEnd.total());
+        assertEquals(List.of(), productIds(farPastTheEnd));
+        assertEquals(List.of(), productIds(index.search("drill", 0, 0)));
+    }
+
+    @Test
+    public void testPut_UpdateMovesTermsAndRemoveDropsThem() {
+        // Act
+        index.put(20L, "Rubber Mallet", "Stanley", "Hand Tools");
+
+        // Assert, the old name no longer matches exactly, as a prefix or fuzzily
+        assertEquals(List.of(), productIds(index.search("hammer", 0, 10)));
+        assertEquals(List.of(), productIds(index.search("ham", 0, 10)));
+        assertEquals(List.of(), productIds(index.search("hamer", 0, 10)));
+        assertEquals(List.of(20L), productIds(index.search("mallet", 0, 10)));
+        assertEquals(List.of(20L), productIds(index.search("malet", 0, 10)));
+        assertEquals(7, index.size());
+
+        // Act
+        index.remove(20L);
+
+        // Assert, the terms other products still contain stay
+        assertEquals(List.of(), productIds(index.search("mallet", 0, 10)));
+        assertEquals(List.of(14L, 13L), productIds(index.search("stanley", 0, 10)));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    public void testPutAll_LastDocumentOfAProductWins() {
+        // Act
+        index.putAll(List.of(new InventorySearchIndex.Document(30L, "Level", "Stabila", "Measuring"),
+                new InventorySearchIndex.Document(30L, "Spirit Level", "Stabila", "Measuring")));
+
+        // Assert
+        assertEquals(List.of(30L), productIds(index.search("spirit", 0, 10)));
+        assertEquals("Spirit Level", index.search("level", 0, 10).hits().get(0).getProductName());
+    }
+
+    @Test
+    public void testTokenize_LowercasesAndDropsDiacritics() {
+        // Act & Assert
+        assertEquals(List.of("creme", "brulee", "2"), InventorySearchIndex.tokenize("Crème-Brûlée #2"));
+        assertEquals(List.of(), InventorySearchIndex.tokenize(null));
+    }
+
+    private static List<Long> productIds(InventorySearchIndex.SearchResult result) {
+        return result.hits().stream().map(InventorySearchHit::getProductId).toList();
+    }
+}
@@ -0,0 +1,227 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.importer.ImportCheckpoint;
+import com.assignment.inventory.model.BulkItemResult;
+import com.assignment.inventory.model.ImportFormat;
+import com.assignment.inventory.model.ImportSummary;
+import com.assignment.inventory.model.InventoryMaster;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CatalogImportServiceTest {
+
+    private static final String HEADER = "productName,supplierId,stockInHand,unitPrice\n";
+
+    @TempDir
+    private Path reportDirectory;
+
+    private InventoryService importTarget;
+
+    // Every upsert call as received, one list of product names per call
+    private final List<List<String>> upserts = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean rejectBroken = new AtomicBoolean(true);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() {
+        importTarget = mock(InventoryService.class);
+        // Creates every product, except that a call containing a product named "Broken" fails as a whole
+        when(importTarget.upsertInventoriesBySupplierAndName(anyList())).thenAnswer(invocation -> {
+            List<InventoryMaster> inventories = invocation.getArgument(0);
+            upserts.add(inventories.stream().map(InventoryMaster::getProductName).toList());
+            if (rejectBroken.get() && inventories.stream().anyMatch(inventory -> "Broken".equals(inventory.getProductName()))) {
+                throw new IllegalStateException("Broken is not saved");
+            }
+            List<BulkItemResult> results = new ArrayList<>();
+            for (int i = 0; i < inventories.size(); i++) {
+                results.add(BulkItemResult.created(i, null));
+            }
+            return results;
+        });
+    }
+
+    @Test
+    public void testImportCatalog_WritesRecordsOfAProductInFileOrder() throws Exception {
+        // Arrange: one record per batch, so the validators finish the batches of a product out of order
+        List<Integer> hammerStock = Collections.synchronizedList(new ArrayList<>());
+        when(importTarget.upsertInventoriesBySupplierAndName(anyList())).thenAnswer(invocation -> {
+            List<InventoryMaster> inventories = invocation.getArgument(0);
+            List<BulkItemResult> results = new ArrayList<>();
+            for (InventoryMaster inventory : inventories) {
+                if ("Hammer".equals(inventory.getProductName())) {
+                    hammerStock.add(inventory.getStockInHand());
+                }
+                results.add(BulkItemResult.created(results.size(), null));
+            }
+            return results;
+        });
+        CatalogImportService importService = importService(1, 4, 2, 100);
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 2000; i++) {
+            csv.append(i % 2 == 0 ? "Hammer" : "Saw " + i).append(",1,").append(i).append(",1.5\n");
+        }
+
+        // Act
+        ImportSummary summary = importService.importCatalog(csvOf(csv.toString()), ImportFormat.csv, 0, null, reportDirectory.resolve("errors.ndjson"));
+
+        // Assert
+        assertEquals(2000, summary.getRecords());
+        assertEquals(0, summary.getFailed());
+        assertEquals(1000, hammerStock.size());
+        for (int i = 1; i < hammerStock.size(); i++) {
+            assertTrue(hammerStock.get(i - 1) < hammerStock.get(i), "record with stock " + hammerStock.get(i) + " written after " + hammerStock.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testImportCatalog_ReportsInvalidRecordsAndGoesOn() throws Exception {
+        // Arrange
+        CatalogImportService importService = importService(10, 2, 1, 100);
+        Path errorReport = reportDirectory.resolve("errors.ndjson");
+        String csv = HEADER
+                + "Hammer,1,5,1.5\n"
+                + ",1,5,1.5\n"
+                + "Saw,1,-1,2.0\n"
+                + "Drill,,3,2.0\n"
+                + "Wrench,1,4,2.5\n";
+
+        // Act
+        ImportSummary summary = importService.importCatalog(csvOf(csv), ImportFormat.csv, 0, null, errorReport);
+
+        // Assert
+        assertEquals(5, summary.getRecords());
+        assertEquals(2, summary.getCreated());
+        assertEquals(3, summary.getFailed());
+        assertFalse(summary.isAborted());
+        assertEquals(errorReport.toString(), summary.getErrorReport());
+        List<JsonNode> lines = reportLines(errorReport);
+        assertEquals(3, lines.size());
+        assertEquals(2, lines.get(0).get("record").asLong());
+        assertEquals("productName is required", lines.get(0).get("error").asText());
+        assertEquals(3, lines.get(1).get("record").asLong());
+        assertEquals("stockInHand must not be negative", lines.get(1).get("error").asText());
+        assertEquals("Saw", lines.get(1).get("source").get("productName").asText());
+        assertEquals(4, lines.get(2).get("record").asLong());
+        assertEquals("supplierId is required", lines.get(2).get("error").asText());
+        assertEquals(List.of(List.of("Hammer", "Wrench")), upserts);
+    }
+
+    @Test
+    public void testImportCatalog_AbortsAfterMaxErrors() throws Exception {
+        // Arrange
+        CatalogImportService importService = importService(1, 1, 1, 2);
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 100; i++) {
+            csv.append(",1,").append(i).append(",1.5\n");
+        }
+
+        // Act
+        ImportSummary summary = importService.importCatalog(csvOf(csv.toString()), ImportFormat.csv, 0, null, reportDirectory.resolve("errors.ndjson"));
+
+        // Assert
+        assertTrue(summary.isAborted());
+        assertEquals("more than 2 records failed", summary.getAbortReason());
+        assertTrue(summary.getFailed() > 2);
+        assertTrue(summary.getRecords() < 100, "the import read " + summary.getRecords() + " records after it was aborted");
+        assertEquals(0, summary.getCreated());
+        verify(importTarget, never()).upsertInventoriesBySupplierAndName(anyList());
+    }
+
+    @Test
+    public void testImportCatalog_ResumesAfterTheCheckpointOfAnAbortedRun() throws Exception {
+        // Arrange: the sixth record cannot be saved and any failed record aborts the first run
+        CatalogImportService importService = importService(1, 1, 1, 0);
+        Path checkpointFile = reportDirectory.resolve("catalog.checkpoint");
+        Path errorReport = reportDirectory.resolve("errors.ndjson");
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 10; i++) {
+            csv.append(i == 6 ? "Broken" : "Product " + i).append(",1,").append(i).append(",1.5\n");
+        }
+
+        // Act
+        ImportSummary aborted = importService.importCatalog(csvOf(csv.toString()), ImportFormat.csv, 0, checkpointFile, errorReport);
+        long resumeFrom = ImportCheckpoint.load(checkpointFile);
+        rejectBroken.set(false);
+        upserts.clear();
+        ImportSummary resumed = importService.importCatalog(csvOf(csv.toString()), ImportFormat.csv, resumeFrom, checkpointFile, errorReport);
+
+        // Assert
+        assertTrue(aborted.isAborted());
+        assertEquals(6, aborted.getCommittedRecords());
+        assertEquals(6, resumeFrom);
+        assertEquals(5, aborted.getCreated());
+        assertEquals(1, aborted.getFailed());
+
+        assertFalse(resumed.isAborted());
+        assertEquals(10, resumed.getRecords());
+        assertEquals(6, resumed.getSkipped());
+        assertEquals(4, resumed.getCreated());
+        assertEquals(10, resumed.getCommittedRecords());
+        assertEquals(List.of(List.of("Product 7"), List.of("Product 8"), List.of("Product 9"), List.of("Product 10")), upserts);
+        assertFalse(Files.exists(checkpointFile));
+        // The error of the record the first run committed stays in the report
+        List<JsonNode> lines = reportLines(errorReport);
+        assertEquals(1, lines.size());
+        assertEquals(6, lines.get(0).get("record").asLong());
+    }
+
+    @Test
+    public void testImportCatalog_RetriesAFailedBatchRecordByRecord() throws Exception {
+        // Arrange
+        CatalogImportService importService = importService(3, 1, 1, 100);
+        Path errorReport = reportDirectory.resolve("errors.ndjson");
+        String csv = HEADER
+                + "Hammer,1,5,1.5\n"
+                + "Broken,1,5,1.5\n"
+                + "Saw,1,5,1.5\n";
+
+        // Act
+        ImportSummary summary = importService.importCatalog(csvOf(csv), ImportFormat.csv, 0, null, errorReport);
+
+        // Assert
+        assertEquals(2, summary.getCreated());
+        assertEquals(1, summary.getFailed());
+        assertFalse(summary.isAborted());
+        assertEquals(List.of(List.of("Hammer", "Broken", "Saw"), List.of("Hammer"), List.of("Broken"), List.of("Saw")), upserts);
+        List<JsonNode> lines = reportLines(errorReport);
+        assertEquals(1, lines.size());
+        assertEquals(2, lines.get(0).get("record").asLong());
+        assertEquals("Broken is not saved", lines.get(0).get("error").asText());
+    }
+
+    private CatalogImportService importService(int batchSize, int validatorThreads, int writerThreads, long maxErrors) {
+        return new CatalogImportService(importTarget, new SimpleMeterRegistry(), batchSize, validatorThreads, writerThreads, 8,
+                maxErrors, Duration.ofSeconds(1), reportDirectory);
+    }
+
+    private static InputStream csvOf(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> reportLines(Path errorReport) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(errorReport, StandardCharsets.UTF_8)) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
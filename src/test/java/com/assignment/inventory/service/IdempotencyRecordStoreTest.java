@@ -0,0 +1,140 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.model.IdempotencyRecordState;
+import com.assignment.inventory.model.IdempotentResponse;
+import com.assignment.inventory.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IdempotencyRecordStoreTest {
+
+    // Record ID, and scope of the keys, of the test data
+    private static final String ID = "idempotency-record-store-test";
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyRecordStore recordStore;
+
+    @BeforeEach
+    public void setUp() {
+        recordStore = store(Duration.ofMinutes(1));
+        cleanUp();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        recordStore.shutdown();
+        // No other test uses the database store
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    public void testClaim_SecondClaimSeesTheHolder() {
+        // Act
+        Optional<IdempotencyRecordState> first = recordStore.claim(ID, "fingerprint", "token-1");
+        Optional<IdempotencyRecordState> second = recordStore.claim(ID, "fingerprint", "token-2");
+
+        // Assert
+        assertTrue(first.isEmpty());
+        assertTrue(second.isPresent());
+        assertFalse(second.get().isCompleted());
+        assertEquals("fingerprint", second.get().getFingerprint());
+    }
+
+    @Test
+    public void testClaim_TakesOverAnExpiredClaim() throws InterruptedException {
+        // Arrange
+        IdempotencyRecordStore shortClaims = store(Duration.ofMillis(50));
+        assertTrue(shortClaims.claim(ID, "fingerprint", "token-1").isEmpty());
+        Thread.sleep(100);
+
+        // Act
+        Optional<IdempotencyRecordState> takeOver = shortClaims.claim(ID, "other", "token-2");
+
+        // Assert, the first execution can no longer complete the key
+        assertTrue(takeOver.isEmpty());
+        Boolean completed = new TransactionTemplate(transactionManager).execute(status ->
+                shortClaims.complete(ID, "token-1", new IdempotentResponse("fingerprint", 200, "{}", "{}")));
+        assertEquals(Boolean.FALSE, completed);
+        assertEquals("other", idempotencyRecordRepository.findStateById(ID).orElseThrow().getFingerprint());
+        shortClaims.shutdown();
+    }
+
+    @Test
+    public void testRelease_LetsTheKeyBeClaimedAgain() {
+        // Arrange
+        assertTrue(recordStore.claim(ID, "fingerprint", "token-1").isEmpty());
+
+        // Act
+        recordStore.release(ID, "token-2");
+        Optional<IdempotencyRecordState> stillHeld = recordStore.claim(ID, "fingerprint", "token-3");
+        recordStore.release(ID, "token-1");
+
+        // Assert, only the holder of the claim releases it
+        assertTrue(stillHeld.isPresent());
+        assertTrue(recordStore.claim(ID, "fingerprint", "token-4").isEmpty());
+    }
+
+    @Test
+    public void testExecute_ReplaysResponseRecordedByAnotherInstance() throws Exception {
+        // Arrange, two instances sharing the database
+        IdempotencyService first = service();
+        IdempotencyService second = service();
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        first.execute("key-1", ID, Map.of("name", "Hammer"), () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.created(URI.create("/inventory/7")).eTag("\"7-1\"").body(Map.of("productId", 7));
+        });
+        ResponseEntity<?> retry = second.execute("key-1", ID, Map.of("name", "Hammer"), () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatusCode().value());
+        assertEquals("{\"productId\":7}", retry.getBody());
+        assertEquals(URI.create("/inventory/7"), retry.getHeaders().getLocation());
+        assertEquals("\"7-1\"", retry.getHeaders().getETag());
+        assertEquals("true", retry.getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    private IdempotencyService service() {
+        ObjectProvider<IdempotencyRecordStore> provider = mock();
+        when(provider.getIfAvailable()).thenReturn(recordStore);
+        return new IdempotencyService(provider, transactionManager, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), 4,
+                Duration.ofSeconds(1), Duration.ofMillis(10));
+    }
+
+    private IdempotencyRecordStore store(Duration claimTimeout) {
+        return new IdempotencyRecordStore(idempotencyRecordRepository, transactionManager, claimTimeout, Duration.ofMinutes(1), Duration.ofHours(1));
+    }
+}
@@ -0,0 +1,179 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.common.Constants;
+import com.assignment.inventory.exceptions.ConflictException;
+import com.assignment.inventory.exceptions.UnprocessableEntityException;
+import com.assignment.inventory.model.InventoryMaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class IdempotencyServiceTest {
+
+    private static final String SCOPE = "admin POST /inventory";
+
+    private final ExecutorService requests = Executors.newCachedThreadPool();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        requests.shutdownNow();
+    }
+
+    @Test
+    public void testExecute_RetryReplaysStatusHeadersAndBody() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = service(Duration.ofSeconds(1));
+        InventoryMaster inventory = inventory("Hammer");
+
+        // Act
+        ResponseEntity<?> first = idempotencyService.execute("key-1", SCOPE, inventory, () -> created(inventory));
+        ResponseEntity<?> retry = idempotencyService.execute("key-1", SCOPE, inventory, () -> created(inventory));
+
+        // Assert, the request executed once and the retry gets the same response
+        assertEquals(1, executions.get());
+        assertSame(inventory, first.getBody());
+        assertNull(first.getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        assertTrue(((String) retry.getBody()).contains("\"productName\":\"Hammer\""));
+        for (ResponseEntity<?> response : new ResponseEntity<?>[]{first, retry}) {
+            assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+            assertEquals(URI.create("/inventory/7"), response.getHeaders().getLocation());
+            assertEquals("\"7-1\"", response.getHeaders().getETag());
+            assertEquals("no-cache", response.getHeaders().getCacheControl());
+        }
+    }
+
+    @Test
+    public void testExecute_KeysAreScoped() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = service(Duration.ofSeconds(1));
+        InventoryMaster inventory = inventory("Hammer");
+
+        // Act
+        idempotencyService.execute("key-1", SCOPE, inventory, () -> created(inventory));
+        ResponseEntity<?> otherUser = idempotencyService.execute("key-1", "user POST /inventory", inventory, () -> created(inventory));
+
+        // Assert
+        assertEquals(2, executions.get());
+        assertNull(otherUser.getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testExecute_DifferentBodyIsUnprocessable() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = service(Duration.ofSeconds(1));
+        idempotencyService.execute("key-1", SCOPE, inventory("Hammer"), () -> created(inventory("Hammer")));
+
+        // Act & Assert
+        assertThrows(UnprocessableEntityException.class,
+                () -> idempotencyService.execute("key-1", SCOPE, inventory("Saw"), () -> created(inventory("Saw"))));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_RetryWaitsForTheRunningExecution() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = service(Duration.ofSeconds(10));
+        InventoryMaster inventory = inventory("Hammer");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<?>> first = requests.submit(() -> idempotencyService.execute("key-1", SCOPE, inventory, () -> {
+            started.countDown();
+            release.await();
+            return created(inventory);
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // Act
+        Future<ResponseEntity<?>> retry = requests.submit(() -> idempotencyService.execute("key-1", SCOPE, inventory, () -> created(inventory)));
+        Thread.sleep(100);
+        assertFalse(retry.isDone());
+        release.countDown();
+
+        // Assert
+        assertNull(first.get(10, TimeUnit.SECONDS).getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals("true", retry.get(10, TimeUnit.SECONDS).getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_RetryConflictsOnceTheWaitTimesOut() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = service(Duration.ofMillis(100));
+        InventoryMaster inventory = inventory("Hammer");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<?>> first = requests.submit(() -> idempotencyService.execute("key-1", SCOPE, inventory, () -> {
+            started.countDown();
+            release.await();
+            return created(inventory);
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> idempotencyService.execute("key-1", SCOPE, inventory, () -> created(inventory)));
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testExecute_FailedExecutionReleasesTheKey() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = service(Duration.ofSeconds(1));
+        InventoryMaster inventory = inventory("Hammer");
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-1", SCOPE, inventory, () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("database down");
+        }));
+        ResponseEntity<?> rejected = idempotencyService.execute("key-1", SCOPE, inventory, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+        ResponseEntity<?> retry = idempotencyService.execute("key-1", SCOPE, inventory, () -> created(inventory));
+
+        // Assert, neither the exception nor the error response was recorded
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(3, executions.get());
+        assertNull(retry.getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        assertSame(inventory, retry.getBody());
+    }
+
+    private ResponseEntity<InventoryMaster> created(InventoryMaster inventory) {
+        executions.incrementAndGet();
+        return ResponseEntity.created(URI.create("/inventory/7")).eTag("\"7-1\"").cacheControl(CacheControl.noCache()).body(inventory);
+    }
+
+    private static InventoryMaster inventory(String productName) {
+        InventoryMaster inventory = new InventoryMaster();
+        inventory.setProductName(productName);
+        return inventory;
+    }
+
+    private static IdempotencyService service(Duration waitTimeout) {
+        ObjectProvider<IdempotencyRecordStore> recordStore = mock();
+        return new IdempotencyService(recordStore, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(1), 4, waitTimeout, Duration.ofMillis(10));
+    }
+}
@@ -0,0 +1,228 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.exceptions.ServiceUnavailableException;
+import com.assignment.inventory.model.EventOverflowPolicy;
+import com.assignment.inventory.model.InventoryEvent;
+import com.assignment.inventory.model.InventoryEventType;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class InventoryEventPublisherTest {
+
+    private static final String STALLED = "stalled";
+    private static final String OTHER = "other";
+
+    private TestPublisher publisher;
+
+    @AfterEach
+    public void tearDown() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    public void testDrop_StalledSubscriberGetsOverflowAndNewestEvents() throws Exception {
+        // Arrange
+        publisher = new TestPublisher(2, 10);
+        RecordingEmitter stalled = publisher.subscribeStalled(STALLED, EventOverflowPolicy.drop);
+        RecordingEmitter observer = publisher.subscribeRecording(null, EventOverflowPolicy.drop);
+
+        // Act
+        publisher.masterChanged(InventoryEventType.updated, master(1L, STALLED, 1));
+        stalled.awaitFirstSend();
+        for (int stock = 2; stock <= 10; stock++) {
+            publisher.masterChanged(InventoryEventType.updated, master(1L, STALLED, stock));
+        }
+        // Not matched by the stalled subscriber, once it arrives every earlier event has been offered to both buffers
+        publisher.masterChanged(InventoryEventType.updated, master(2L, OTHER, 1));
+        await(() -> observer.eventIds().contains(11L));
+        stalled.release();
+        await(() -> stalled.eventIds().contains(10L));
+
+        // Assert
+        // The other subscriber was sent the last event while the stalled one still held its first
+        assertEquals(11L, observer.eventIds().get(observer.eventIds().size() - 1));
+        assertEquals(List.of("updated", "overflow", "updated", "updated"), stalled.names());
+        assertEquals(List.of(1L, 9L, 10L), stalled.eventIds());
+        assertEquals(Map.of("dropped", 7L), stalled.sent.get(1).data);
+    }
+
+    @Test
+    public void testCoalesce_StalledSubscriberGetsLatestEventPerProduct() throws Exception {
+        // Arrange
+        publisher = new TestPublisher(2, 10);
+        RecordingEmitter stalled = publisher.subscribeStalled(STALLED, EventOverflowPolicy.coalesce);
+        RecordingEmitter observer = publisher.subscribeRecording(null, EventOverflowPolicy.drop);
+
+        // Act
+        publisher.masterChanged(InventoryEventType.updated, master(1L, STALLED, 1));
+        stalled.awaitFirstSend();
+        publisher.masterChanged(InventoryEventType.updated, master(1L, STALLED, 2));
+        publisher.masterChanged(InventoryEventType.updated, master(3L, STALLED, 30));
+        publisher.masterChanged(InventoryEventType.updated, master(1L, STALLED, 3));
+        publisher.masterChanged(InventoryEventType.updated, master(2L, OTHER, 1));
+        await(() -> observer.eventIds().contains(5L));
+        stalled.release();
+        await(() -> stalled.sent.size() == 3);
+
+        // Assert
+        assertEquals(List.of("updated", "updated", "updated"), stalled.names());
+        assertEquals(List.of(1L, 3L, 4L), stalled.eventIds());
+        assertEquals(3, ((InventoryEvent) stalled.sent.get(2).data).getStockInHand());
+    }
+
+    @Test
+    public void testSubscribe_RefusesSubscribersOverLimitUntilOneIsRemoved() throws Exception {
+        // Arrange
+        publisher = new TestPublisher(4, 1);
+        RecordingEmitter failing = publisher.subscribeRecording(null, EventOverflowPolicy.drop);
+        failing.fail = true;
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> publisher.subscribe(null, null, null, EventOverflowPolicy.drop));
+
+        // A failed send closes the subscription and frees its slot
+        publisher.masterChanged(InventoryEventType.updated, master(1L, OTHER, 1));
+        await(() -> publisher.getSubscriberCount() == 0);
+        assertNotNull(publisher.subscribe(null, null, null, EventOverflowPolicy.drop));
+        assertEquals(1, publisher.getSubscriberCount());
+    }
+
+    private static InventoryMaster master(Long productId, String category, int stockInHand) {
+        InventoryMaster master = new InventoryMaster();
+        master.setProductId(productId);
+        master.setCategory(category);
+        master.setSupplierId(1L);
+        master.setStockInHand(stockInHand);
+        return master;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the subscriber");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Publisher whose subscriptions record the events sent to them instead of writing a response.
+     */
+    private static final class TestPublisher extends InventoryEventPublisher {
+
+        private RecordingEmitter next;
+
+        private TestPublisher(int bufferSize, int maxSubscribers) {
+            super(mock(InventoryMasterRepository.class), new SimpleMeterRegistry(), bufferSize, maxSubscribers, false,
+                    Duration.ofHours(1), Duration.ofMinutes(1));
+        }
+
+        @Override
+        SseEmitter createEmitter(long timeoutMillis) {
+            return next != null ? next : super.createEmitter(timeoutMillis);
+        }
+
+        private RecordingEmitter subscribeRecording(String category, EventOverflowPolicy policy) throws ServiceUnavailableException {
+            next = new RecordingEmitter(false);
+            subscribe(null, category, null, policy);
+            return next;
+        }
+
+        private RecordingEmitter subscribeStalled(String category, EventOverflowPolicy policy) throws ServiceUnavailableException {
+            next = new RecordingEmitter(true);
+            subscribe(null, category, null, policy);
+            return next;
+        }
+    }
+
+    private record SentEvent(Long id, String name, Object data) {
+    }
+
+    /**
+     * Records the sent events; a stalled emitter blocks its first send until released, like a client that stopped reading.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<SentEvent> sent = new ArrayList<>();
+        private final CountDownLatch firstSend = new CountDownLatch(1);
+        private final CountDownLatch released;
+        private volatile boolean fail;
+
+        private RecordingEmitter(boolean stalled) {
+            released = new CountDownLatch(stalled ? 1 : 0);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) {
+                throw new IOException("closed");
+            }
+            firstSend.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            Long id = null;
+            String name = null;
+            Object data = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String text) {
+                    for (String line : text.split("\n")) {
+                        if (line.startsWith("id:")) {
+                            id = Long.valueOf(line.substring(3));
+                        } else if (line.startsWith("event:")) {
+                            name = line.substring(6);
+                        }
+                    }
+                } else {
+                    data = part.getData();
+                }
+            }
+            if (name != null) {
+                synchronized (sent) {
+                    sent.add(new SentEvent(id, name, data));
+                }
+            }
+        }
+
+        private void awaitFirstSend() throws InterruptedException {
+            assertTrue(firstSend.await(10, TimeUnit.SECONDS));
+        }
+
+        private void release() {
+            released.countDown();
+        }
+
+        private List<Long> eventIds() {
+            synchronized (sent) {
+                return sent.stream().map(SentEvent::id).filter(id -> id != null).toList();
+            }
+        }
+
+        private List<String> names() {
+            synchronized (sent) {
+                return sent.stream().map(SentEvent::name).toList();
+            }
+        }
+    }
+}
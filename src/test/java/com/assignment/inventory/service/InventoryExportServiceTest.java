@@ -0,0 +1,312 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.export.ColumnarWriter;
+import com.assignment.inventory.model.ExportFormat;
+import com.assignment.inventory.model.ExportSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class InventoryExportServiceTest {
+
+    // Product and transaction IDs of the test data, out of the way of the sequences
+    private static final long FIRST = 900_001L;
+    private static final long LAST = 900_099L;
+
+    private static final Instant JANUARY = Instant.parse("2025-01-15T10:00:00Z");
+    private static final Instant JUNE = Instant.parse("2025-06-15T10:00:00Z");
+
+    @Autowired
+    private InventoryExportService inventoryExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TempDir
+    private Path exportDirectory;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM inventory_details WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+        jdbcTemplate.update("DELETE FROM inventory_details_archive WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+        jdbcTemplate.update("DELETE FROM inventory_master WHERE product_id BETWEEN ? AND ?", FIRST, LAST);
+    }
+
+    @Test
+    public void testExport_MergesArchivedDetailsInProductOrder() throws IOException {
+        // Arrange
+        master(FIRST);
+        detail(1, FIRST, JUNE);
+        archived(2, FIRST, JANUARY);
+        // Every detail of this product is archived
+        master(FIRST + 1);
+        archived(3, FIRST + 1, JANUARY);
+        // No details at all
+        master(FIRST + 2);
+        master(FIRST + 3);
+        detail(4, FIRST + 3, JUNE);
+
+        // Act
+        List<String[]> rows = export(null, null, FIRST, LAST);
+
+        // Assert, the archived details of a product come before its live ones and products stay in order
+        assertEquals(List.of(
+                FIRST + "/2", FIRST + "/1",
+                (FIRST + 1) + "/3",
+                (FIRST + 2) + "/",
+                (FIRST + 3) + "/4"), keys(rows));
+    }
+
+    @Test
+    public void testExport_ReadsTheArchiveOnlyForDateRangesReachingIt() throws IOException {
+        // Arrange
+        master(FIRST);
+        detail(1, FIRST, JUNE);
+        archived(2, FIRST, JANUARY);
+        master(FIRST + 1);
+        archived(3, FIRST + 1, JANUARY);
+
+        // Act & Assert
+        assertEquals(List.of(FIRST + "/2", (FIRST + 1) + "/3"),
+                keys(export(Date.from(Instant.parse("2025-01-01T00:00:00Z")), Date.from(Instant.parse("2025-02-01T00:00:00Z")), FIRST, LAST)));
+        assertEquals(List.of(FIRST + "/1"),
+                keys(export(Date.from(Instant.parse("2025-06-01T00:00:00Z")), null, FIRST, LAST)));
+        assertEquals(List.of(FIRST + "/2", FIRST + "/1", (FIRST + 1) + "/3"),
+                keys(export(Date.from(Instant.parse("2025-01-01T00:00:00Z")), null, FIRST, LAST)));
+    }
+
+    @Test
+    public void testExport_ProductRangeLeavesOutOtherProducts() throws IOException {
+        // Arrange
+        master(FIRST);
+        master(FIRST + 1);
+        detail(1, FIRST + 1, JUNE);
+        master(FIRST + 2);
+
+        // Act & Assert
+        assertEquals(List.of((FIRST + 1) + "/1", (FIRST + 2) + "/"), keys(export(null, null, FIRST + 1, FIRST + 2)));
+        assertEquals(List.of(FIRST + "/"), keys(export(null, null, FIRST, FIRST)));
+    }
+
+    @Test
+    public void testExport_DateRangeLeavesOutDetailsAndMastersOutsideIt() throws IOException {
+        // Arrange
+        master(FIRST);
+        detail(1, FIRST, JANUARY);
+        detail(2, FIRST, JUNE);
+        master(FIRST + 1);
+        detail(3, FIRST + 1, JANUARY);
+        // No details at all
+        master(FIRST + 2);
+
+        // Act
+        List<String[]> rows = export(Date.from(Instant.parse("2025-06-01T00:00:00Z")), Date.from(Instant.parse("2025-07-01T00:00:00Z")), FIRST, LAST);
+
+        // Assert
+        assertEquals(List.of(FIRST + "/2"), keys(rows));
+        assertEquals(JUNE.toString(), rows.get(0)[13]);
+    }
+
+    @Test
+    public void testExport_ColumnarHoldsTheRowsOfTheCsvInRowGroups() throws IOException {
+        // Arrange
+        master(FIRST);
+        detail(1, FIRST, JANUARY);
+        detail(2, FIRST, JUNE);
+        master(FIRST + 1);
+        master(FIRST + 2);
+        detail(3, FIRST + 2, JUNE);
+        InventoryExportService service = service(2);
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = service.export(out, ExportFormat.columnar, null, null, FIRST, LAST);
+        List<String[]> csv = export(null, null, FIRST, LAST);
+        List<List<Object[]>> rowGroups = readColumnar(out.toByteArray());
+
+        // Assert, four rows in row groups of two
+        assertEquals(4, written);
+        assertEquals(List.of(2, 2), rowGroups.stream().map(List::size).toList());
+        List<Object[]> rows = rowGroups.stream().flatMap(List::stream).toList();
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            String[] expected = csv.get(i);
+            assertEquals(Long.parseLong(expected[0]), row[0]);
+            assertEquals(expected[1], row[1]);
+            assertEquals(Double.parseDouble(expected[5]), row[5]);
+            assertEquals(Instant.parse(expected[7]), ((Date) row[7]).toInstant());
+            assertEquals(expected[10].isEmpty() ? null : Long.parseLong(expected[10]), row[10]);
+            assertEquals(expected[13].isEmpty() ? null : Instant.parse(expected[13]), row[13] == null ? null : ((Date) row[13]).toInstant());
+            // Null strings stay null instead of becoming empty
+            assertNull(row[9]);
+        }
+    }
+
+    @Test
+    public void testRanges_SplitsIntoContiguousRangesOfEqualWidth() {
+        // Act & Assert
+        assertEquals(List.of("1-4", "5-8", "9-10"), ranges(1, 10, 3));
+        assertEquals(List.of("1-1", "2-2"), ranges(1, 2, 5));
+        assertEquals(List.of("7-7"), ranges(7, 7, 4));
+        assertEquals(List.of("1-10"), ranges(1, 10, 0));
+    }
+
+    @Test
+    public void testExportToFiles_WritesEveryRowToOneCompleteFile() throws Exception {
+        // Arrange
+        for (long productId = FIRST; productId < FIRST + 10; productId++) {
+            master(productId);
+            detail(productId - FIRST + 1, productId, JUNE);
+        }
+
+        // Act
+        ExportSummary summary = service(100).exportToFiles(ExportFormat.csv, null, null, 3);
+
+        // Assert, the files follow the product ID order and no partial file is left
+        assertEquals(3, summary.getPartitions());
+        assertEquals(3, summary.getFiles().size());
+        List<String> keys = new ArrayList<>();
+        long rows = 0;
+        for (String file : summary.getFiles()) {
+            assertTrue(file.endsWith(".csv"));
+            List<String[]> fileRows = parse(Files.readString(Path.of(file)));
+            rows += fileRows.size();
+            fileRows.stream().filter(row -> Long.parseLong(row[0]) >= FIRST && Long.parseLong(row[0]) <= LAST)
+                    .map(row -> keys(List.<String[]>of(row)).get(0)).forEach(keys::add);
+        }
+        assertEquals(summary.getRows(), rows);
+        assertEquals(10, keys.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals((FIRST + i) + "/" + (i + 1), keys.get(i));
+        }
+        try (Stream<Path> files = Files.list(Path.of(summary.getFiles().get(0)).getParent())) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    public void testExportToFile_FailedRenameLeavesNoPartialFile() throws IOException {
+        // Arrange, a non-empty directory in place of the file cannot be replaced
+        master(FIRST);
+        Path file = exportDirectory.resolve("part-0001.csv");
+        Files.createDirectories(file);
+        Files.writeString(file.resolve("occupied"), "");
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> service(100).exportToFile(file, ExportFormat.csv, null, null, FIRST, LAST));
+        assertFalse(Files.exists(exportDirectory.resolve("part-0001.csv.part")));
+        assertTrue(Files.isDirectory(file));
+    }
+
+    private InventoryExportService service(int rowGroupSize) {
+        return new InventoryExportService(dataSource, new SimpleMeterRegistry(), 100, 2, 64, rowGroupSize, exportDirectory);
+    }
+
+    private static List<String> ranges(long low, long high, int partitions) {
+        return InventoryExportService.ranges(low, high, partitions).stream().map(range -> range[0] + "-" + range[1]).toList();
+    }
+
+    // Reads the row groups of a columnar export as rows of typed values
+    private static List<List<Object[]>> readColumnar(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertArrayEquals(ColumnarWriter.MAGIC, in.readNBytes(4));
+        assertEquals(ColumnarWriter.VERSION, in.readUnsignedByte());
+        int columnCount = in.readInt();
+        ColumnarWriter.Type[] types = new ColumnarWriter.Type[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            in.readUTF();
+            types[i] = ColumnarWriter.Type.values()[in.readUnsignedByte()];
+        }
+        List<List<Object[]>> rowGroups = new ArrayList<>();
+        for (int rowCount = in.readInt(); rowCount > 0; rowCount = in.readInt()) {
+            Object[][] rows = new Object[rowCount][columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                DataInputStream block = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(in.readNBytes(in.readInt()))));
+                for (Object[] row : rows) {
+                    if (block.readUnsignedByte() == 1) {
+                        row[column] = switch (types[column]) {
+                            case LONG -> block.readLong();
+                            case DOUBLE -> block.readDouble();
+                            case TIMESTAMP -> new Date(block.readLong());
+                            case STRING -> new String(block.readNBytes(block.readInt()), StandardCharsets.UTF_8);
+                        };
+                    }
+                }
+            }
+            rowGroups.add(List.of(rows));
+        }
+        assertEquals(-1, in.read());
+        return rowGroups;
+    }
+
+    private List<String[]> export(Date from, Date until, Long fromProductId, Long toProductId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = inventoryExportService.export(out, ExportFormat.csv, from, until, fromProductId, toProductId);
+        List<String[]> rows = parse(out.toString(StandardCharsets.UTF_8));
+        assertEquals(written, rows.size());
+        return rows;
+    }
+
+    static List<String[]> parse(String csv) {
+        List<String> lines = csv.lines().toList();
+        assertTrue(lines.get(0).startsWith("productId,productName,"));
+        return lines.stream().skip(1).map(line -> line.split(",", -1)).toList();
+    }
+
+    // productId/transactionId of every row, with the transaction ID relative to FIRST
+    static List<String> keys(List<String[]> rows) {
+        return rows.stream().map(row -> row[0] + "/" + (row[10].isEmpty() ? "" : Long.parseLong(row[10]) - FIRST)).toList();
+    }
+
+    private void master(long productId) {
+        jdbcTemplate.update("INSERT INTO inventory_master (product_id, product_name, category, brand, stock_in_hand, unit_price, " +
+                        "supplier_id, date_added, last_updated, version) VALUES (?, ?, 'tools', 'acme', 1, 9.99, 1, ?, ?, 0)",
+                productId, "product-" + productId, Timestamp.from(JANUARY), Timestamp.from(JANUARY));
+    }
+
+    private void detail(long transactionId, long productId, Instant transactionDate) {
+        jdbcTemplate.update("INSERT INTO inventory_details (transaction_id, product_id, transaction_type, quantity, transaction_amount, " +
+                "transaction_status, transaction_date) VALUES (?, ?, 'SALE', -1, 9.99, 'completed', ?)",
+                FIRST + transactionId, productId, Timestamp.from(transactionDate));
+    }
+
+    private void archived(long transactionId, long productId, Instant transactionDate) {
+        jdbcTemplate.update("INSERT INTO inventory_details_archive (transaction_id, product_id, transaction_type, quantity, transaction_amount, " +
+                "transaction_status, transaction_date, archived_at) VALUES (?, ?, 'SALE', -1, 9.99, 'completed', ?, ?)",
+                FIRST + transactionId, productId, Timestamp.from(transactionDate), Timestamp.from(JUNE));
+    }
+}
@@ -0,0 +1,228 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.InventoryRollup;
+import com.assignment.inventory.model.InventoryRollupId;
+import com.assignment.inventory.model.InventoryRollupTotals;
+import com.assignment.inventory.model.RollupDimension;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import com.assignment.inventory.repository.InventoryRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class InventoryRollupServiceTest {
+
+    private InventoryRollupRepository inventoryRollupRepository;
+    private InventoryRollupService inventoryRollupService;
+
+    // The rollup rows as stored, and the transactions open on the test thread, innermost first
+    private final Map<InventoryRollupId, InventoryRollup> stored = new ConcurrentHashMap<>();
+    private final Deque<TransactionDefinition> transactions = new ArrayDeque<>();
+    private final List<TransactionDefinition> rolledBack = new ArrayList<>();
+    private final List<Integer> creations = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        inventoryRollupRepository = mock(InventoryRollupRepository.class);
+        when(inventoryRollupRepository.increment(any(RollupDimension.class), anyString(), anyLong(), anyLong(), anyDouble())).thenAnswer(invocation -> {
+            InventoryRollup rollup = stored.get(new InventoryRollupId(invocation.getArgument(0), invocation.getArgument(1)));
+            if (rollup == null) {
+                return 0;
+            }
+            rollup.setProductCount(rollup.getProductCount() + invocation.<Long>getArgument(2));
+            rollup.setTotalStock(rollup.getTotalStock() + invocation.<Long>getArgument(3));
+            rollup.setTotalValuation(rollup.getTotalValuation() + invocation.<Double>getArgument(4));
+            return 1;
+        });
+        when(inventoryRollupRepository.existsById(any(InventoryRollupId.class)))
+                .thenAnswer(invocation -> stored.containsKey(invocation.<InventoryRollupId>getArgument(0)));
+        when(inventoryRollupRepository.saveAndFlush(any(InventoryRollup.class))).thenAnswer(invocation -> {
+            creations.add(transactions.peek().getPropagationBehavior());
+            InventoryRollup rollup = invocation.getArgument(0);
+            stored.put(new InventoryRollupId(rollup.getDimension(), rollup.getGroupKey()), rollup);
+            return rollup;
+        });
+        when(inventoryRollupRepository.findByDimensionOrderByGroupKey(any(RollupDimension.class))).thenAnswer(invocation ->
+                stored.values().stream().filter(rollup -> rollup.getDimension() == invocation.getArgument(0)).toList());
+        when(inventoryRollupRepository.computeByCategory()).thenReturn(List.of());
+        when(inventoryRollupRepository.computeByBrand()).thenReturn(List.of());
+        when(inventoryRollupRepository.computeBySupplier()).thenReturn(List.of());
+
+        // Tracks which transaction definition every repository call runs in
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            transactions.push(invocation.getArgument(0));
+            return mock(TransactionStatus.class);
+        });
+        doAnswer(invocation -> transactions.pop()).when(transactionManager).commit(any());
+        doAnswer(invocation -> rolledBack.add(transactions.pop())).when(transactionManager).rollback(any());
+
+        // The scheduled reconciliation never runs during a test, the tests reconcile themselves
+        inventoryRollupService = new InventoryRollupService(inventoryRollupRepository, mock(InventoryMasterRepository.class),
+                transactionManager, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryRollupService.shutdown();
+    }
+
+    @Test
+    public void testReconcile_CorrectsDriftedRowsWithDeltas() {
+        // Arrange: one category is right, one drifted, one is missing and one lost its products
+        store(RollupDimension.category, "Hand Tools", 2, 10, 100.0);
+        store(RollupDimension.category, "Power Tools", 3, 7, 350.0);
+        store(RollupDimension.category, "Garden", 1, 4, 40.0);
+        store(RollupDimension.brand, "Stanley", 2, 10, 100.0);
+        List<InventoryRollupTotals> categories = List.of(
+                totals("Hand Tools", 2, 10, 100.0), totals("Power Tools", 2, 5, 250.0), totals("Fasteners", 1, 50, 5.0));
+        List<InventoryRollupTotals> brands = List.of(totals("Stanley", 2, 10, 100.0));
+        when(inventoryRollupRepository.computeByCategory()).thenReturn(categories);
+        when(inventoryRollupRepository.computeByBrand()).thenReturn(brands);
+
+        // Act
+        int corrected = inventoryRollupService.reconcile();
+
+        // Assert
+        assertEquals(3, corrected);
+        assertRollup(RollupDimension.category, "Hand Tools", 2, 10, 100.0);
+        assertRollup(RollupDimension.category, "Power Tools", 2, 5, 250.0);
+        assertRollup(RollupDimension.category, "Fasteners", 1, 50, 5.0);
+        assertRollup(RollupDimension.category, "Garden", 0, 0, 0.0);
+        assertEquals(List.of(TransactionDefinition.PROPAGATION_REQUIRES_NEW), creations);
+        assertRollup(RollupDimension.brand, "Stanley", 2, 10, 100.0);
+        verify(inventoryRollupRepository, times(1)).increment(RollupDimension.category, "Power Tools", -1, -2, -100.0);
+        verify(inventoryRollupRepository, times(1)).increment(RollupDimension.category, "Garden", -1, -4, -40.0);
+        verify(inventoryRollupRepository, never()).increment(eq(RollupDimension.category), eq("Hand Tools"), anyLong(), anyLong(), anyDouble());
+        verify(inventoryRollupRepository, never()).increment(eq(RollupDimension.brand), anyString(), anyLong(), anyLong(), anyDouble());
+    }
+
+    @Test
+    public void testReconcile_KeepsChangesCommittedWhileReconciling() {
+        // Arrange: another transaction adds stock after the snapshot was read
+        store(RollupDimension.category, "Hand Tools", 2, 8, 80.0);
+        List<InventoryRollupTotals> categories = List.of(totals("Hand Tools", 2, 10, 100.0));
+        when(inventoryRollupRepository.computeByCategory()).thenReturn(categories);
+        when(inventoryRollupRepository.saveAndFlush(any(InventoryRollup.class))).thenAnswer(invocation -> {
+            creations.add(transactions.peek().getPropagationBehavior());
+            InventoryRollup rollup = invocation.getArgument(0);
+            stored.put(new InventoryRollupId(rollup.getDimension(), rollup.getGroupKey()), rollup);
+            return rollup;
+        });
+        when(inventoryRollupRepository.findByDimensionOrderByGroupKey(RollupDimension.category)).thenAnswer(invocation -> {
+            List<InventoryRollup> snapshot = List.of(copy(stored.get(new InventoryRollupId(RollupDimension.category, "Hand Tools"))));
+            inventoryRollupRepository.increment(RollupDimension.category, "Hand Tools", 0, 5, 50.0);
+            return snapshot;
+        });
+
+        // Act
+        inventoryRollupService.reconcile();
+
+        // Assert, the drift of 2 is corrected on top of the concurrent 5
+        assertRollup(RollupDimension.category, "Hand Tools", 2, 15, 150.0);
+    }
+
+    @Test
+    public void testReconcile_ReadsInARepeatableReadSnapshot() {
+        // Arrange
+        List<InventoryRollupTotals> categories = List.of(totals("Hand Tools", 1, 1, 1.0));
+        when(inventoryRollupRepository.computeByCategory()).thenAnswer(invocation -> {
+            assertEquals(TransactionDefinition.ISOLATION_REPEATABLE_READ, transactions.peek().getIsolationLevel());
+            return categories;
+        });
+
+        // Act
+        inventoryRollupService.reconcile();
+
+        // Assert
+        verify(inventoryRollupRepository, times(1)).computeByCategory();
+        assertTrue(transactions.isEmpty());
+    }
+
+    @Test
+    public void testProductChanged_CreatesMissingRowsInANewTransaction() {
+        // Act
+        inventoryRollupService.productChanged(null, new InventoryRollupService.Contribution("Hand Tools", "Stanley", 7L, 4, 2.5));
+
+        // Assert, one new transaction per missing row, nested in the transaction applying the change
+        assertEquals(List.of(TransactionDefinition.PROPAGATION_REQUIRES_NEW, TransactionDefinition.PROPAGATION_REQUIRES_NEW,
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW), creations);
+        assertRollup(RollupDimension.category, "Hand Tools", 1, 4, 10.0);
+        assertRollup(RollupDimension.brand, "Stanley", 1, 4, 10.0);
+        assertRollup(RollupDimension.supplier, "7", 1, 4, 10.0);
+        assertTrue(transactions.isEmpty());
+        assertTrue(rolledBack.isEmpty());
+    }
+
+    @Test
+    public void testProductChanged_AppliesToARowCreatedConcurrently() {
+        // Arrange: another transaction creates the row between the failed update and the insert
+        store(RollupDimension.brand, "Stanley", 1, 1, 1.0);
+        store(RollupDimension.supplier, "7", 1, 1, 1.0);
+        when(inventoryRollupRepository.existsById(any(InventoryRollupId.class))).thenReturn(false);
+        when(inventoryRollupRepository.saveAndFlush(any(InventoryRollup.class))).thenAnswer(invocation -> {
+            InventoryRollup rollup = invocation.getArgument(0);
+            store(rollup.getDimension(), rollup.getGroupKey(), 3, 30, 300.0);
+            throw new DataIntegrityViolationException("duplicate key");
+        });
+
+        // Act
+        inventoryRollupService.productChanged(null, new InventoryRollupService.Contribution("Hand Tools", "Stanley", 7L, 4, 2.5));
+
+        // Assert, only the new transaction of the insert rolls back
+        assertEquals(1, rolledBack.size());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, rolledBack.get(0).getPropagationBehavior());
+        assertRollup(RollupDimension.category, "Hand Tools", 4, 34, 310.0);
+        assertRollup(RollupDimension.brand, "Stanley", 2, 5, 11.0);
+        assertTrue(transactions.isEmpty());
+    }
+
+    private void store(RollupDimension dimension, String groupKey, long products, long stock, double valuation) {
+        InventoryRollup rollup = new InventoryRollup(dimension, groupKey);
+        rollup.setProductCount(products);
+        rollup.setTotalStock(stock);
+        rollup.setTotalValuation(valuation);
+        stored.put(new InventoryRollupId(dimension, groupKey), rollup);
+    }
+
+    private void assertRollup(RollupDimension dimension, String groupKey, long products, long stock, double valuation) {
+        InventoryRollup rollup = stored.get(new InventoryRollupId(dimension, groupKey));
+        assertNotNull(rollup, dimension + " " + groupKey + " is missing");
+        assertEquals(products, rollup.getProductCount());
+        assertEquals(stock, rollup.getTotalStock());
+        assertEquals(valuation, rollup.getTotalValuation(), 0.001);
+    }
+
+    private static InventoryRollup copy(InventoryRollup rollup) {
+        InventoryRollup copy = new InventoryRollup(rollup.getDimension(), rollup.getGroupKey());
+        copy.setProductCount(rollup.getProductCount());
+        copy.setTotalStock(rollup.getTotalStock());
+        copy.setTotalValuation(rollup.getTotalValuation());
+        return copy;
+    }
+
+    private static InventoryRollupTotals totals(String groupKey, long products, long stock, double valuation) {
+        InventoryRollupTotals totals = mock(InventoryRollupTotals.class);
+        when(totals.getGroupKey()).thenReturn(groupKey);
+        when(totals.getProductCount()).thenReturn(products);
+        when(totals.getTotalStock()).thenReturn(stock);
+        when(totals.getTotalValuation()).thenReturn(valuation);
+        return totals;
+    }
+}
@@ -0,0 +1,82 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.InventoryMasterSummary;
+import com.assignment.inventory.model.InventorySearchHit;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class InventorySearchServiceTest {
+
+    @Test
+    public void testRebuild_ReplaysWritesCommittedWhileReadingTheCatalog() throws Exception {
+        // Arrange: while the rebuild reads the catalog, another thread renames a product it already read, adds one it will
+        // not read and deletes one it read
+        InventoryMasterRepository repository = mock(InventoryMasterRepository.class);
+        InventorySearchService searchService = new InventorySearchService(repository);
+        List<InventoryMasterSummary> catalog = List.of(summary(1L, "Hammer"), summary(2L, "Chisel"));
+        when(repository.findSummariesByProductIdGreaterThanOrderByProductIdAsc(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            Thread writer = new Thread(() -> {
+                searchService.indexed(master(1L, "Claw Hammer"));
+                searchService.indexed(master(3L, "Tape Measure"));
+                searchService.removed(2L);
+            });
+            writer.start();
+            writer.join();
+            return catalog;
+        });
+
+        // Act
+        int size = searchService.rebuild();
+
+        // Assert
+        assertEquals(2, size);
+        assertEquals(List.of(1L), productIds(searchService, "claw"));
+        assertEquals(List.of(3L), productIds(searchService, "tape"));
+        assertEquals(List.of(), productIds(searchService, "chisel"));
+    }
+
+    @Test
+    public void testRebuild_KeepsTheCurrentIndexWhenReadingFails() {
+        // Arrange
+        InventoryMasterRepository repository = mock(InventoryMasterRepository.class);
+        InventorySearchService searchService = new InventorySearchService(repository);
+        searchService.indexed(master(1L, "Hammer"));
+        when(repository.findSummariesByProductIdGreaterThanOrderByProductIdAsc(anyLong(), any(Limit.class)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        // Act
+        assertThrows(IllegalStateException.class, searchService::rebuild);
+        searchService.indexed(master(2L, "Saw"));
+
+        // Assert, writes after the failed rebuild still reach the index
+        assertEquals(List.of(1L), productIds(searchService, "hammer"));
+        assertEquals(List.of(2L), productIds(searchService, "saw"));
+    }
+
+    private static List<Long> productIds(InventorySearchService searchService, String query) {
+        return searchService.search(query, PageRequest.of(0, 10)).getContent().stream().map(InventorySearchHit::getProductId).toList();
+    }
+
+    private static InventoryMaster master(Long productId, String productName) {
+        InventoryMaster master = new InventoryMaster();
+        master.setProductId(productId);
+        master.setProductName(productName);
+        return master;
+    }
+
+    private static InventoryMasterSummary summary(Long productId, String productName) {
+        InventoryMasterSummary summary = mock(InventoryMasterSummary.class);
+        when(summary.getProductId()).thenReturn(productId);
+        when(summary.getProductName()).thenReturn(productName);
+        return summary;
+    }
+}
@@ -0,0 +1,191 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.InventoryEventType;
+import com.assignment.inventory.model.OutboxMessage;
+import com.assignment.inventory.outbox.InMemoryOutboxSink;
+import com.assignment.inventory.outbox.OutboxSink;
+import com.assignment.inventory.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OutboxPublisherTest {
+
+    private static final Long HAMMER = 1L;
+    private static final Long SAW = 2L;
+    private static final Long DRILL = 3L;
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private OutboxMessageRepository outboxMessageRepository;
+    private final InMemoryOutboxSink memorySink = new InMemoryOutboxSink(100);
+    private OutboxPublisher publisher;
+
+    // The outbox rows as stored, by ID, and the products the sink refuses
+    private final Map<Long, OutboxMessage> stored = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final Set<Long> unreachable = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void setUp() {
+        outboxMessageRepository = mock(OutboxMessageRepository.class);
+        // Same rule as the query: due, and no older message of the product waiting for a retry
+        when(outboxMessageRepository.findDue(any(Date.class), any(Limit.class))).thenAnswer(invocation -> {
+            Date now = invocation.getArgument(0);
+            Limit limit = invocation.getArgument(1);
+            return stored.values().stream()
+                    .filter(message -> !message.getNextAttemptAt().after(now))
+                    .filter(message -> stored.values().stream().noneMatch(older -> older.getProductId().equals(message.getProductId())
+                            && older.getId() < message.getId() && older.getNextAttemptAt().after(now)))
+                    .limit(limit.max())
+                    .toList();
+        });
+        when(outboxMessageRepository.deleteByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            ids.forEach(stored::remove);
+            return ids.size();
+        });
+        when(outboxMessageRepository.postpone(anyCollection(), any(Date.class), anyString())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            for (Long id : ids) {
+                OutboxMessage message = stored.get(id);
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(invocation.getArgument(1));
+                message.setLastError(invocation.getArgument(2));
+            }
+            return ids.size();
+        });
+        OutboxSink sink = messages -> {
+            if (messages.stream().anyMatch(message -> unreachable.contains(message.getProductId()))) {
+                throw new IllegalStateException("broker refused the batch");
+            }
+            memorySink.publish(messages);
+        };
+        // The scheduled drain never runs during a test, the tests drain themselves
+        publisher = new OutboxPublisher(outboxMessageRepository, sink, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                Duration.ofHours(1), 2, INITIAL_BACKOFF, MAX_BACKOFF);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    public void testDrain_DeliversTheMessagesOfAProductInOrder() {
+        // Arrange, more messages than one batch
+        OutboxMessage first = write(HAMMER);
+        OutboxMessage other = write(SAW);
+        OutboxMessage second = write(HAMMER);
+        OutboxMessage third = write(HAMMER);
+        OutboxMessage last = write(SAW);
+
+        // Act
+        int published = publisher.drain();
+
+        // Assert
+        assertEquals(5, published);
+        assertEquals(List.of(first.getId(), other.getId(), second.getId(), third.getId(), last.getId()), deliveredIds());
+        assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    public void testDrain_RetriesProductByProductAfterABatchFailure() {
+        // Arrange
+        unreachable.add(SAW);
+        OutboxMessage hammer = write(HAMMER);
+        OutboxMessage saw = write(SAW);
+        OutboxMessage drill = write(DRILL);
+
+        // Act
+        int published = publisher.drain();
+
+        // Assert, only the product the sink refuses is postponed
+        assertEquals(2, published);
+        assertEquals(List.of(hammer.getId(), drill.getId()), deliveredIds());
+        assertEquals(Set.of(saw.getId()), stored.keySet());
+        assertEquals(1, saw.getAttempts());
+        assertEquals("broker refused the batch", saw.getLastError());
+        assertBackoff(INITIAL_BACKOFF, saw);
+    }
+
+    @Test
+    public void testDrain_BackoffHoldsLaterMessagesOfTheProduct() {
+        // Arrange
+        unreachable.add(SAW);
+        OutboxMessage failed = write(SAW);
+        publisher.drain();
+        OutboxMessage later = write(SAW);
+        OutboxMessage hammer = write(HAMMER);
+
+        // Act, the later message waits behind the postponed one
+        int published = publisher.drain();
+
+        // Assert
+        assertEquals(1, published);
+        assertEquals(List.of(hammer.getId()), deliveredIds());
+        assertEquals(0, later.getAttempts());
+
+        // Act, every failed retry doubles the backoff up to the maximum
+        retryNow(failed);
+        assertBackoff(INITIAL_BACKOFF.multipliedBy(2), failed, later);
+        retryNow(failed);
+        assertBackoff(MAX_BACKOFF, failed);
+        assertEquals(3, failed.getAttempts());
+
+        // Act, once the sink accepts the product again both are delivered in order
+        unreachable.clear();
+        failed.setNextAttemptAt(new Date());
+        later.setNextAttemptAt(new Date());
+        publisher.drain();
+
+        // Assert
+        assertEquals(List.of(hammer.getId(), failed.getId(), later.getId()), deliveredIds());
+        assertTrue(stored.isEmpty());
+    }
+
+    private OutboxMessage write(Long productId) {
+        OutboxMessage message = new OutboxMessage(InventoryEventType.updated, productId, "{\"productId\":" + productId + "}");
+        message.setId(nextId.incrementAndGet());
+        message.setCreatedAt(new Date());
+        message.setNextAttemptAt(message.getCreatedAt());
+        stored.put(message.getId(), message);
+        return message;
+    }
+
+    private void retryNow(OutboxMessage postponed) {
+        // Stands in for the backoff elapsing; the held messages of the product are postponed with it
+        postponed.setNextAttemptAt(new Date());
+        assertEquals(0, publisher.drain());
+    }
+
+    private List<Long> deliveredIds() {
+        return memorySink.getMessages().stream().map(OutboxMessage::getId).toList();
+    }
+
+    private static void assertBackoff(Duration expected, OutboxMessage... messages) {
+        for (OutboxMessage message : messages) {
+            long backoff = message.getNextAttemptAt().getTime() - System.currentTimeMillis();
+            assertTrue(backoff > expected.toMillis() - 2000 && backoff <= expected.toMillis(),
+                    "message " + message.getId() + " is retried in " + backoff + " ms instead of " + expected.toMillis());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.cache.InventoryMasterCache;
+import com.assignment.inventory.model.InventoryMaster;
+import com.assignment.inventory.model.StockAdjustment;
+import com.assignment.inventory.repository.InventoryMasterRepository;
+import com.assignment.inventory.repository.StockAdjustmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class StockAdjustmentCoalescerTest {
+
+    private static final Long PRODUCT_ID = 1L;
+    private static final Long OTHER_PRODUCT_ID = 2L;
+
+    private StockAdjustmentRepository stockAdjustmentRepository;
+    private InventoryMasterRepository inventoryMasterRepository;
+    private InventoryMasterCache inventoryMasterCache;
+    private StockAdjustmentCoalescer coalescer;
+
+    // The stock adjustment rows as stored, by ID
+    private final Map<Long, StockAdjustment> stored = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    @BeforeEach
+    public void setUp() {
+        stockAdjustmentRepository = mock(StockAdjustmentRepository.class);
+        inventoryMasterRepository = mock(InventoryMasterRepository.class);
+        inventoryMasterCache = mock(InventoryMasterCache.class);
+        when(stockAdjustmentRepository.save(any(StockAdjustment.class))).thenAnswer(invocation -> {
+            StockAdjustment adjustment = invocation.getArgument(0);
+            adjustment.setId(nextId.incrementAndGet());
+            stored.put(adjustment.getId(), adjustment);
+            return adjustment;
+        });
+        when(stockAdjustmentRepository.findForUpdateByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(stored::get).filter(adjustment -> adjustment != null).toList();
+        });
+        doAnswer(invocation -> {
+            Iterable<StockAdjustment> adjustments = invocation.getArgument(0);
+            adjustments.forEach(adjustment -> stored.remove(adjustment.getId()));
+            return null;
+        }).when(stockAdjustmentRepository).deleteAllInBatch(any());
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        coalescer.shutdown();
+    }
+
+    @Test
+    public void testRecord_FlushesOnceThresholdIsReached() {
+        // Arrange
+        coalescer = coalescer(3, 100);
+
+        // Act
+        coalescer.record(PRODUCT_ID, 5);
+        coalescer.record(PRODUCT_ID, -2);
+        coalescer.record(PRODUCT_ID, 4);
+
+        // Assert
+        verify(inventoryMasterRepository, timeout(5000)).adjustStock(PRODUCT_ID, 7);
+        verify(inventoryMasterCache, timeout(5000)).invalidate(PRODUCT_ID);
+        assertEquals(0, coalescer.pendingVersion(PRODUCT_ID));
+        assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    public void testRecord_BelowThresholdStaysPendingAndIsReadWithTheStock() {
+        // Arrange
+        coalescer = coalescer(3, 100);
+
+        // Act
+        coalescer.record(PRODUCT_ID, 5);
+        coalescer.record(PRODUCT_ID, -2);
+
+        // Assert
+        verify(inventoryMasterRepository, never()).adjustStock(anyLong(), anyInt());
+        assertEquals(13, coalescer.withPendingStock(PRODUCT_ID, () -> Optional.of(master(10))).orElseThrow().getStockInHand());
+        assertEquals(2, coalescer.pendingVersion(PRODUCT_ID));
+    }
+
+    @Test
+    public void testFlushAll_FailedFlushKeepsMovementsPending() {
+        // Arrange
+        coalescer = coalescer(100, 100);
+        coalescer.record(PRODUCT_ID, 5);
+        when(inventoryMasterRepository.adjustStock(PRODUCT_ID, 5)).thenThrow(new QueryTimeoutException("timeout")).thenReturn(1);
+
+        // Act
+        coalescer.flushAll();
+
+        // Assert
+        assertEquals(15, coalescer.withPendingStock(PRODUCT_ID, () -> Optional.of(master(10))).orElseThrow().getStockInHand());
+        assertEquals(1, coalescer.pendingVersion(PRODUCT_ID));
+
+        // The next flush retries them
+        coalescer.flushAll();
+        verify(inventoryMasterRepository, times(2)).adjustStock(PRODUCT_ID, 5);
+        assertEquals(0, coalescer.pendingVersion(PRODUCT_ID));
+        assertEquals(10, coalescer.withPendingStock(PRODUCT_ID, () -> Optional.of(master(10))).orElseThrow().getStockInHand());
+    }
+
+    @Test
+    public void testRecover_SkipsAdjustmentsStillPendingOnThisInstance() {
+        // Arrange
+        coalescer = coalescer(100, 100);
+        coalescer.record(PRODUCT_ID, 5);
+        // Left behind by another instance
+        StockAdjustment orphan = new StockAdjustment(OTHER_PRODUCT_ID, 3);
+        orphan.setId(nextId.incrementAndGet());
+        stored.put(orphan.getId(), orphan);
+        when(stockAdjustmentRepository.findForUpdateByCreatedAtBefore(any(), any())).thenAnswer(invocation -> new ArrayList<>(stored.values()));
+
+        // Act
+        coalescer.recover();
+
+        // Assert
+        verify(inventoryMasterRepository).adjustStock(OTHER_PRODUCT_ID, 3);
+        verify(inventoryMasterRepository, never()).adjustStock(eq(PRODUCT_ID), anyInt());
+        assertEquals(15, coalescer.withPendingStock(PRODUCT_ID, () -> Optional.of(master(10))).orElseThrow().getStockInHand());
+        assertEquals(1, coalescer.pendingVersion(PRODUCT_ID));
+        assertEquals(List.of(1L), new ArrayList<>(stored.keySet()));
+    }
+
+    @Test
+    public void testRecord_AppliesDirectlyOnceMaxPendingIsReached() {
+        // Arrange
+        coalescer = coalescer(100, 2);
+        when(inventoryMasterRepository.adjustStock(anyLong(), anyInt())).thenThrow(new QueryTimeoutException("timeout"));
+        coalescer.record(PRODUCT_ID, 1);
+        coalescer.record(PRODUCT_ID, 2);
+        coalescer.flushAll();
+        reset(inventoryMasterRepository);
+
+        // Act
+        coalescer.record(PRODUCT_ID, 4);
+
+        // Assert
+        verify(inventoryMasterRepository).adjustStock(PRODUCT_ID, 4);
+        verify(stockAdjustmentRepository, times(2)).save(any(StockAdjustment.class));
+        assertEquals(13, coalescer.withPendingStock(PRODUCT_ID, () -> Optional.of(master(10))).orElseThrow().getStockInHand());
+
+        // Movements are coalesced again once the pending ones are applied
+        coalescer.flushAll();
+        coalescer.record(PRODUCT_ID, 8);
+        verify(stockAdjustmentRepository, times(3)).save(any(StockAdjustment.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private StockAdjustmentCoalescer coalescer(int flushThreshold, int maxPending) {
+        return new StockAdjustmentCoalescer(stockAdjustmentRepository, inventoryMasterRepository, inventoryMasterCache,
+                mock(ObjectProvider.class), mock(PlatformTransactionManager.class), Duration.ofHours(1), flushThreshold,
+                maxPending, Duration.ofHours(1));
+    }
+
+    private static InventoryMaster master(int stockInHand) {
+        InventoryMaster master = new InventoryMaster();
+        master.setProductId(PRODUCT_ID);
+        master.setStockInHand(stockInHand);
+        return master;
+    }
+}
@@ -0,0 +1,169 @@
+package com.assignment.inventory.service;
+
+import com.assignment.inventory.model.AccessToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenServiceTest {
+
+    private static final String SECRET = "test-secret";
+    private static final Duration TTL = Duration.ofMinutes(15);
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private InMemoryUserDetailsManager users;
+    private TokenService tokenService;
+
+    @BeforeEach
+    public void setUp() {
+        users = new InMemoryUserDetailsManager(user().build());
+        tokenService = serviceAt(NOW);
+    }
+
+    @Test
+    public void testVerify_AcceptsIssuedToken() {
+        // Act
+        AccessToken token = tokenService.issue("user");
+        Optional<UserDetails> result = tokenService.verify(token.getAccessToken());
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("user", result.get().getUsername());
+        assertEquals(TokenService.TOKEN_TYPE, token.getTokenType());
+        assertEquals(TTL.toSeconds(), token.getExpiresIn());
+    }
+
+    @Test
+    public void testVerify_AcceptsTokenOfAnotherInstanceWithTheSameSecret() {
+        // Act
+        String token = tokenService.issue("user").getAccessToken();
+
+        // Assert
+        assertTrue(serviceAt(NOW.plusSeconds(60)).verify(token).isPresent());
+    }
+
+    @Test
+    public void testVerify_RejectsTamperedSignature() {
+        // Arrange
+        String token = tokenService.issue("user").getAccessToken();
+        int signature = token.lastIndexOf('.') + 1;
+        String tampered = token.substring(0, signature) + (token.charAt(signature) == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+
+        // Act & Assert
+        assertTrue(tokenService.verify(tampered).isEmpty());
+    }
+
+    @Test
+    public void testVerify_RejectsTamperedPayload() {
+        // Arrange
+        users.createUser(User.withUsername("admin").password("{noop}admin").roles("ADMIN").build());
+        String[] parts = tokenService.issue("user").getAccessToken().split("\\.");
+        String admin = tokenService.issue("admin").getAccessToken().split("\\.")[0];
+
+        // Act & Assert
+        assertTrue(tokenService.verify(admin + "." + parts[1] + "." + parts[2]).isEmpty());
+        assertTrue(tokenService.verify(parts[0] + "." + (Long.parseLong(parts[1]) + 3600) + "." + parts[2]).isEmpty());
+    }
+
+    @Test
+    public void testVerify_RejectsMalformedToken() {
+        // Act & Assert
+        assertTrue(tokenService.verify("").isEmpty());
+        assertTrue(tokenService.verify("a.b").isEmpty());
+        assertTrue(tokenService.verify("dXNlcg.notanumber.c2ln").isEmpty());
+        assertTrue(tokenService.verify("!!!.1.c2ln").isEmpty());
+    }
+
+    @Test
+    public void testVerify_RejectsTokenOfAnotherSecret() {
+        // Arrange
+        String token = new TokenService(users, "other-secret", TTL, Clock.fixed(NOW, ZoneOffset.UTC)).issue("user").getAccessToken();
+
+        // Act & Assert
+        assertTrue(tokenService.verify(token).isEmpty());
+    }
+
+    @Test
+    public void testVerify_RejectsExpiredToken() {
+        // Arrange
+        String token = tokenService.issue("user").getAccessToken();
+
+        // Act & Assert
+        assertTrue(serviceAt(NOW.plus(TTL).minusSeconds(1)).verify(token).isPresent());
+        assertTrue(serviceAt(NOW.plus(TTL)).verify(token).isEmpty());
+    }
+
+    @Test
+    public void testVerify_RejectsTokenAfterPasswordChange() {
+        // Arrange
+        String token = tokenService.issue("user").getAccessToken();
+
+        // Act
+        users.updateUser(user().password("{noop}changed").build());
+
+        // Assert
+        assertTrue(tokenService.verify(token).isEmpty());
+        assertTrue(tokenService.verify(tokenService.issue("user").getAccessToken()).isPresent());
+    }
+
+    @Test
+    public void testVerify_RejectsTokenOfDeletedUser() {
+        // Arrange
+        String token = tokenService.issue("user").getAccessToken();
+
+        // Act
+        users.deleteUser("user");
+
+        // Assert
+        assertTrue(tokenService.verify(token).isEmpty());
+    }
+
+    @Test
+    public void testVerify_RejectsTokenOfDisabledUser() {
+        assertRejectedAfter(user().disabled(true));
+    }
+
+    @Test
+    public void testVerify_RejectsTokenOfLockedUser() {
+        assertRejectedAfter(user().accountLocked(true));
+    }
+
+    @Test
+    public void testVerify_RejectsTokenOfExpiredAccount() {
+        assertRejectedAfter(user().accountExpired(true));
+    }
+
+    @Test
+    public void testVerify_RejectsTokenOfExpiredCredentials() {
+        assertRejectedAfter(user().credentialsExpired(true));
+    }
+
+    private void assertRejectedAfter(User.UserBuilder change) {
+        // Arrange
+        String token = tokenService.issue("user").getAccessToken();
+
+        // Act, the password stays the same so only the account status can reject the token
+        users.updateUser(change.build());
+
+        // Assert
+        assertTrue(tokenService.verify(token).isEmpty());
+    }
+
+    private TokenService serviceAt(Instant now) {
+        return new TokenService(users, SECRET, TTL, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static User.UserBuilder user() {
+        return User.withUsername("user").password("{noop}user").roles("USER");
+    }
+}